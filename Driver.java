@@ -1,8 +1,7 @@
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
-import gnu.io.NoSuchPortException;
-import gnu.io.PortInUseException;
-import gnu.io.UnsupportedCommOperationException;
+import log.EventLog;
 import main.CoreController;
 
 /**
@@ -12,18 +11,22 @@ import main.CoreController;
  */
 public class Driver {
 
+	/** イベントログの発生元 */
+	private static final String LOG_SOURCE = "Driver";
+
+	/** 終了前にイベントログの出力を待つ最大の時間(秒) */
+	private static final long LOG_FLUSH_TIMEOUT = 5;
+
 	public static void main(String[] args) {
 		CoreController controller;
 		try {
-			controller = CoreController.getInstance();
+			controller = new CoreController(CoreController.CONFIG_FILE_NAME);
 			controller.start();
-		} catch (PortInUseException | NoSuchPortException | UnsupportedCommOperationException
-				| InterruptedException e) {
-			// TODO 自動生成された catch ブロック
-			e.printStackTrace();
 		} catch (IOException e) {
-			// TODO 自動生成された catch ブロック
-			e.printStackTrace();
+			//設定ファイルを読み込めない場合は起動できないため、ログを出力し切ってから異常終了する
+			EventLog.error(LOG_SOURCE, "could not start the controller", e);
+			EventLog.flush(TimeUnit.SECONDS.toMillis(LOG_FLUSH_TIMEOUT));
+			System.exit(1);
 		}
 	}
 
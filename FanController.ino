@@ -1,20 +1,11 @@
-/* シリアル通信ポーリングレート */
-const int POLLING_RATE = 9600;
+/* シリアル通信ポーリングレート(起動時,v1) */
+const long POLLING_RATE = 9600;
 
 /* 通信バイト数 */
 const int INPUT_BYTES = 4;
 
-/* ファン番号該当バイト配列インデックス */
-const int FAN1_SPEED = 0;
-const int FAN2_SPEED = 1;
-const int FAN3_SPEED = 2;
-const int FAN4_SPEED = 3;
-
-/* ファン接続ピン番号 */
-const int FAN1 = 3;
-const int FAN2 = 9;
-const int FAN3 = 10;
-const int FAN4 = 11;
+/* ファン接続ピン番号(FAN1,FAN2,FAN3,FAN4の順) */
+const int FAN_PINS[INPUT_BYTES] = { 3, 9, 10, 11 };
 
 //送信データブロック開始文字
 const int WRITE_BLOCK_START = 2;
@@ -22,6 +13,47 @@ const int WRITE_BLOCK_START = 2;
 //受信データブロック開始文字
 const int READ_BLOCK_START = 1;
 
+/* 状態送信間隔(ms) */
+const unsigned long REPORT_INTERVAL = 1000;
+
+/* PCからの通信が途切れたとみなす時間(ms) */
+const unsigned long CONNECTION_TIMEOUT = 5UL * 60 * 1000;
+
+/* 通信途絶時のファン速度 */
+const int FAILSAFE_SPEED = 60;
+
+/*
+ * プロトコルv2
+ * フレーム: SYNC,種別,シーケンス番号,ペイロード長,ペイロード,CRC-8(多項式0x07,種別からペイロードまで)
+ * ファン速度はv1と同じく0-127(PWMは2倍の値)で、1-9も受け付ける
+ */
+const byte V2_SYNC = 0xA5;
+const byte V2_VERSION = 2;
+const byte V2_HELLO = 0x10;
+const byte V2_HELLO_ACK = 0x11;
+const byte V2_SET_ALL = 0x20;
+const byte V2_SET_DELTA = 0x21;
+const byte V2_PING = 0x30;
+const byte V2_ACK = 0x40;
+const byte V2_STATUS = 0x41;
+/* 受信できるペイロードの最大長(PC側のProtocolV2.BOARD_MAX_PAYLOADと一致させること) */
+const int V2_MAX_PAYLOAD = 16;
+
+/* 通信レートの単位と最大値 */
+const long V2_RATE_UNIT = 2400;
+const long V2_MAX_RATE = 115200;
+
+/* 通信レート切り替え後、PCからの受信がなければ元に戻すまでの時間(ms) */
+const unsigned long V2_RATE_CONFIRM_TIME = 3000;
+
+/* v2受信状態 */
+const int V2_WAIT_SYNC = 0;
+const int V2_TYPE = 1;
+const int V2_SEQ = 2;
+const int V2_LENGTH = 3;
+const int V2_PAYLOAD = 4;
+const int V2_CRC = 5;
+
 //データブロックを示すフラグ
 boolean blockFlag = false;
 
@@ -31,16 +63,50 @@ int inputCount = 0;
 //ファン速度
 int fanSpeed[INPUT_BYTES] = { 80, 80, 80, 80 } ;
 
-//通信間隔計測値
-int connectionInterval = 0;
+//v1受信中のファン速度
+int inputSpeed[INPUT_BYTES];
+
+//最後にPCから受信した時刻
+unsigned long lastReceiveTime = 0;
+
+//最後に状態を送信した時刻
+unsigned long lastReportTime = 0;
+
+//通信途絶によりファン速度を戻したか
+boolean failsafe = false;
+
+//v2で通信中か
+boolean v2Mode = false;
+
+//v2受信中のフレーム
+int v2State = V2_WAIT_SYNC;
+byte v2Type = 0;
+byte v2Seq = 0;
+byte v2Length = 0;
+byte v2Count = 0;
+byte v2Crc = 0;
+byte v2Payload[V2_MAX_PAYLOAD];
+
+//v2送信シーケンス番号
+byte v2TxSeq = 0;
+
+//現在の通信レート
+long currentRate = POLLING_RATE;
+
+//切り替えた通信レートでの受信を確認したか
+boolean rateConfirmed = true;
+
+//通信レートを切り替えた時刻
+unsigned long rateChangedAt = 0;
 
 /*
- * FAN制御用通信はFAN1,FAN2,FAN3,FAN4の順に0,30-255数値合計4Byteの固定長通信
+ * v1:FAN制御用通信はFAN1,FAN2,FAN3,FAN4の順に0,10-127数値合計4Byteの固定長通信
+ * v2:PCからの接続開始(HELLO)を受信した以降はv2のフレームで通信する
  */
 void setup() {
   //シリアル初期化
   Serial.begin( POLLING_RATE );
-  
+
   //タイマ1(9,10番ピン)分周比1(31.4KHz)
   TCCR1B=(TCCR1B & 0b11111000)| 0x01;
 
@@ -48,71 +114,233 @@ void setup() {
   TCCR2B=(TCCR2B & 0b11111000)| 0x01;
 
   //ファン初期速度
-  analogWrite( FAN1, fanSpeed[FAN1_SPEED] );
-  analogWrite( FAN2, fanSpeed[FAN2_SPEED] );
-  analogWrite( FAN3, fanSpeed[FAN3_SPEED] );
-  analogWrite( FAN4, fanSpeed[FAN4_SPEED] );
+  applyFanSpeed();
 }
 
 void loop() {
-  int inputData; 
-  
-  if(Serial.available() > 0){
+  unsigned long now;
+
+  while( Serial.available() > 0 ){
     //PCからファンスピード受信
-    inputData = Serial.read();
-
-    if(inputData > -1){
-
-      connectionInterval = 0;
-      
-      if( blockFlag && inputCount < INPUT_BYTES && (inputData == 0 || inputData >= 10) ){
-        fanSpeed[inputCount] = inputData * 2;
-        inputCount++;
-        
-        if( inputCount == INPUT_BYTES ){
-          blockFlag = false;
-        }
-      }else if( !blockFlag && inputData == READ_BLOCK_START ){
-        blockFlag = true;
-        inputCount = 0;
-      }else{
-        blockFlag = false;
+    int inputData = Serial.read();
+
+    if( inputData > -1 ){
+      lastReceiveTime = millis();
+      failsafe = false;
+
+      if( v2State != V2_WAIT_SYNC || inputData == V2_SYNC ){
+        receiveV2( inputData );
+      }else if( !v2Mode ){
+        receiveV1( inputData );
       }
     }
   }
 
-  if( inputCount == INPUT_BYTES ){
-    //4バイト正常に受信した場合ファンスピード変更
-    analogWrite( FAN1, fanSpeed[FAN1_SPEED] );
-    analogWrite( FAN2, fanSpeed[FAN2_SPEED] );
-    analogWrite( FAN3, fanSpeed[FAN3_SPEED] );
-    analogWrite( FAN4, fanSpeed[FAN4_SPEED] );
-  }
+  now = millis();
 
-  if( connectionInterval > 5 * 60){
+  if( !failsafe && now - lastReceiveTime > CONNECTION_TIMEOUT ){
     //5分PCからの通信が途切れた場合ファンを緩く回す
-    fanSpeed[FAN1_SPEED] = 60;
-    fanSpeed[FAN2_SPEED] = 60;
-    fanSpeed[FAN3_SPEED] = 60;
-    fanSpeed[FAN4_SPEED] = 60;
-    
-    analogWrite( FAN1, fanSpeed[FAN1_SPEED] );
-    analogWrite( FAN2, fanSpeed[FAN2_SPEED] );
-    analogWrite( FAN3, fanSpeed[FAN3_SPEED] );
-    analogWrite( FAN4, fanSpeed[FAN4_SPEED] );
+    for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+      fanSpeed[i] = FAILSAFE_SPEED;
+    }
+    applyFanSpeed();
+    failsafe = true;
+  }
+
+  if( !rateConfirmed && now - rateChangedAt > V2_RATE_CONFIRM_TIME ){
+    //切り替えた通信レートでPCから受信できなければ元に戻す
+    changeRate( POLLING_RATE );
+    rateConfirmed = true;
   }
-  
-  if( blockFlag ){
-    delay(100);
+
+  if( now - lastReportTime >= REPORT_INTERVAL && !blockFlag && v2State == V2_WAIT_SYNC ){
+    lastReportTime = now;
+    if( v2Mode ){
+      sendStatus();
+    }else{
+      Serial.write(WRITE_BLOCK_START);
+      for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+        Serial.write( fanSpeed[i] / 2 );
+      }
+    }
+  }
+}
+
+/* ファン速度をPWM出力に反映する */
+void applyFanSpeed() {
+  for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+    analogWrite( FAN_PINS[i], fanSpeed[i] );
+  }
+}
+
+/* v1の1バイトを受信する(0,10-127以外の値を受信した場合はブロックを破棄) */
+void receiveV1( int inputData ) {
+  if( blockFlag && inputCount < INPUT_BYTES && (inputData == 0 || inputData >= 10) ){
+    inputSpeed[inputCount] = inputData * 2;
+    inputCount++;
+
+    if( inputCount == INPUT_BYTES ){
+      //4バイト正常に受信した場合ファンスピード変更
+      blockFlag = false;
+      for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+        fanSpeed[i] = inputSpeed[i];
+      }
+      applyFanSpeed();
+    }
+  }else if( !blockFlag && inputData == READ_BLOCK_START ){
+    blockFlag = true;
+    inputCount = 0;
   }else{
-    Serial.write(WRITE_BLOCK_START);
-    Serial.write( fanSpeed[FAN1_SPEED] / 2 );
-    Serial.write( fanSpeed[FAN2_SPEED] / 2);
-    Serial.write( fanSpeed[FAN3_SPEED] / 2);
-    Serial.write( fanSpeed[FAN4_SPEED] / 2);
-    delay(1000);
-    if( connectionInterval < 30000 ){
-      connectionInterval += 1;
+    blockFlag = false;
+  }
+}
+
+/* CRC-8(多項式0x07)を1バイト分更新する */
+byte crc8( byte crc, byte data ) {
+  crc ^= data;
+  for( int i = 0 ; i < 8 ; i++ ){
+    if( crc & 0x80 ){
+      crc = (crc << 1) ^ 0x07;
+    }else{
+      crc = crc << 1;
+    }
+  }
+  return crc;
+}
+
+/* v2の1バイトを受信する */
+void receiveV2( int inputData ) {
+  byte data = (byte) inputData;
+
+  switch( v2State ){
+  case V2_WAIT_SYNC:
+    v2Crc = 0;
+    v2State = V2_TYPE;
+    break;
+  case V2_TYPE:
+    v2Type = data;
+    v2Crc = crc8( v2Crc, data );
+    v2State = V2_SEQ;
+    break;
+  case V2_SEQ:
+    v2Seq = data;
+    v2Crc = crc8( v2Crc, data );
+    v2State = V2_LENGTH;
+    break;
+  case V2_LENGTH:
+    v2Length = data;
+    v2Count = 0;
+    v2Crc = crc8( v2Crc, data );
+    if( v2Length > V2_MAX_PAYLOAD ){
+      v2State = V2_WAIT_SYNC;
+    }else if( v2Length == 0 ){
+      v2State = V2_CRC;
+    }else{
+      v2State = V2_PAYLOAD;
+    }
+    break;
+  case V2_PAYLOAD:
+    v2Payload[v2Count++] = data;
+    v2Crc = crc8( v2Crc, data );
+    if( v2Count == v2Length ){
+      v2State = V2_CRC;
+    }
+    break;
+  default:
+    v2State = V2_WAIT_SYNC;
+    if( data == v2Crc ){
+      receiveFrameV2();
+    }
+    break;
+  }
+}
+
+/* 受信したv2のフレームを処理する */
+void receiveFrameV2() {
+  v2Mode = true;
+  rateConfirmed = true;
+  blockFlag = false;
+
+  if( v2Type == V2_HELLO ){
+    long rate = POLLING_RATE;
+    if( v2Length >= 2 ){
+      rate = min( (long) v2Payload[1] * V2_RATE_UNIT, V2_MAX_RATE );
+    }
+    if( rate != 115200 && rate != 57600 && rate != 38400 && rate != 19200 ){
+      rate = POLLING_RATE;
+    }
+
+    byte payload[3] = { V2_VERSION, (byte) (rate / V2_RATE_UNIT), INPUT_BYTES };
+    sendV2( V2_HELLO_ACK, payload, 3 );
+
+    if( rate != currentRate ){
+      changeRate( rate );
+      rateConfirmed = false;
+      rateChangedAt = millis();
+    }
+    return;
+  }
+
+  if( v2Type == V2_SET_ALL ){
+    for( int i = 0 ; i < INPUT_BYTES && i < v2Length ; i++ ){
+      fanSpeed[i] = v2Payload[i] * 2;
+    }
+    applyFanSpeed();
+  }else if( v2Type == V2_SET_DELTA && v2Length >= 1 ){
+    int maskBytes = v2Payload[0];
+    int position = 1 + maskBytes;
+    for( int i = 0 ; i < INPUT_BYTES && i / 8 < maskBytes && position < v2Length ; i++ ){
+      if( v2Payload[1 + i / 8] & (1 << (i % 8)) ){
+        fanSpeed[i] = v2Payload[position++] * 2;
+      }
     }
+    applyFanSpeed();
+  }else if( v2Type != V2_PING ){
+    return;
+  }
+
+  //反映後のファン速度を応答する
+  byte payload[1 + INPUT_BYTES];
+  payload[0] = v2Seq;
+  for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+    payload[1 + i] = fanSpeed[i] / 2;
   }
-}
+  sendV2( V2_ACK, payload, 1 + INPUT_BYTES );
+}
+
+/* v2の定期状態通知を送信する */
+void sendStatus() {
+  byte payload[INPUT_BYTES];
+  for( int i = 0 ; i < INPUT_BYTES ; i++ ){
+    payload[i] = fanSpeed[i] / 2;
+  }
+  sendV2( V2_STATUS, payload, INPUT_BYTES );
+}
+
+/* v2のフレームを送信する */
+void sendV2( byte type, byte *payload, int length ) {
+  byte crc = 0;
+
+  Serial.write( V2_SYNC );
+  Serial.write( type );
+  crc = crc8( crc, type );
+  Serial.write( v2TxSeq );
+  crc = crc8( crc, v2TxSeq );
+  Serial.write( (byte) length );
+  crc = crc8( crc, (byte) length );
+  for( int i = 0 ; i < length ; i++ ){
+    Serial.write( payload[i] );
+    crc = crc8( crc, payload[i] );
+  }
+  Serial.write( crc );
+
+  v2TxSeq++;
+}
+
+/* 送信済みのデータを送り切ってから通信レートを切り替える */
+void changeRate( long rate ) {
+  Serial.flush();
+  Serial.end();
+  Serial.begin( rate );
+  currentRate = rate;
+}
@@ -0,0 +1,83 @@
+package benchmark;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ベンチマーク用の記録済みデータ(src/main/resources/fixtures)を読み込みます。
+ * <ul>
+ * <li>data-small.json … CPU,GPUのみの木(約1.5KB)</li>
+ * <li>data-medium.json … ドライブなど24台を加えた木(約9KB)</li>
+ * <li>data-large.json … ドライブなど600台を加えた木(約200KB)</li>
+ * <li>setting.xml … Arduino2台,ファン4個ずつの設定ファイル</li>
+ * </ul>
+ * data.jsonはSimulatedOhmServer(CPU "Intel Core i7-3770K" 4コア, GPU "NVIDIA GeForce GTX 1080")の応答を記録したものです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class Fixtures {
+
+	/** data.jsonの大きさ */
+	public static final String[] SIZES = {"small", "medium", "large"};
+
+	/** data.jsonを記録したCPU名(部分一致) */
+	public static final String CPU_NAME = "3770K";
+
+	/** data.jsonを記録したGPU名(部分一致) */
+	public static final String GPU_NAME = "GTX 1080";
+
+	/** data.jsonを記録したCPUコア数 */
+	public static final int CPU_CORE = 4;
+
+	private Fixtures(){
+	}
+
+	/**
+	 * 記録済みデータを読み込みます。
+	 * @param name ファイル名(ex. data-small.json)
+	 * @return 内容
+	 * @throws IOException 存在しない場合や読み込み失敗時
+	 */
+	public static byte[] read(String name) throws IOException{
+		try( InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name) ){
+			if( in == null ){
+				throw new IOException("No fixture: " + name);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while( ( read = in.read(buffer) ) != -1 ){
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * 記録済みデータを一時ファイルに書き出します。ファイル名を指定して読み込む処理(ex. SettingReader)に使用します。
+	 * 一時ファイルは終了時に削除します。
+	 * @param name ファイル名(ex. setting.xml)
+	 * @return 一時ファイルのパス
+	 * @throws IOException 存在しない場合や書き出し失敗時
+	 */
+	public static String path(String name) throws IOException{
+		Path file = Files.createTempFile("fixture-", "-" + name);
+		file.toFile().deleteOnExit();
+		Files.write(file, read(name));
+		return file.toString();
+	}
+
+	/**
+	 * 記録済みのdata.jsonを文字列で読み込みます。
+	 * @param size 大きさ(small, medium, large)
+	 * @return 内容
+	 * @throws IOException 存在しない場合や読み込み失敗時
+	 */
+	public static String readOhm(String size) throws IOException{
+		return new String(read("data-" + size + ".json"), StandardCharsets.UTF_8);
+	}
+}
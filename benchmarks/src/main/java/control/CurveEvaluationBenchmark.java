@@ -0,0 +1,98 @@
+package control;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmark.Fixtures;
+import xml.ControlConfig;
+import xml.DeviceConfig;
+import xml.FanCurve;
+import xml.SettingReader;
+
+/**
+ * 温度からファン速度を決定する処理を計測します。
+ * <ul>
+ * <li>speedAt … 変換表の参照のみ(FanCurve.speedAt)</li>
+ * <li>controlTick … 1周期分の全ファンの制御(ControlEngine.update。PID制御のファンを含む)</li>
+ * </ul>
+ * 温度は0-99℃をTEMPERATURES個並べた列を順に使用し、1温度(1周期)あたりの時間を出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurveEvaluationBenchmark {
+
+	/** 1回に評価する温度の数 */
+	private static final int TEMPERATURES = 1024;
+
+	/** 制御周期(ns) */
+	private static final long INTERVAL = 500_000_000L;
+
+	/** 温度の列 */
+	private final int[] temperatures = new int[TEMPERATURES];
+
+	/** 制御用設定(setting.xmlの1台目) */
+	private DeviceConfig config;
+
+	/** 1台目の1番目のファンの変換表 */
+	private FanCurve curve;
+
+	private final ControlEngine engine = new ControlEngine();
+
+	/** ファンごとの現在の速度 */
+	private int[] speeds;
+
+	/** 温度の取得時刻 */
+	private long sampledAt = 0;
+
+	@Setup
+	public void setup() throws IOException{
+		SettingReader reader = new SettingReader(Fixtures.path("setting.xml"));
+		config = ControlConfig.compile(reader.getSetting(false)).getDevice(0);
+		curve = config.getFanCurve(0);
+		speeds = new int[config.getFanCount()];
+		for(int i = 0 ; i < TEMPERATURES ; i++){
+			//上昇と下降を繰り返す
+			temperatures[i] = ( i / 100 ) % 2 == 0 ? i % 100 : 99 - i % 100;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEMPERATURES)
+	public int speedAt(){
+		int sum = 0;
+		for(int temperature : temperatures){
+			sum += curve.speedAt(temperature);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEMPERATURES)
+	public int controlTick(){
+		for(int temperature : temperatures){
+			sampledAt += INTERVAL;
+			for(int fan = 0 ; fan < speeds.length ; fan++){
+				speeds[fan] = engine.update(config, fan, temperature, sampledAt, speeds[fan]);
+			}
+		}
+		return speeds[0];
+	}
+}
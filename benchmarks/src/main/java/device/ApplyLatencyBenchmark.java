@@ -0,0 +1,148 @@
+package device;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import metrics.LatencyHistogram;
+
+/**
+ * ファン速度の指示からArduinoで反映されるまでの時間をSimulatedBoardで計測します。
+ *
+ * 次の組み合わせで一定間隔ごとにファン速度を指示し、反映を待ちます。
+ * <ul>
+ * <li>v1 … 従来のスケッチ(v1のみ)。接続時にv2を試し、v1に切り替わる</li>
+ * <li>v2-all … 現在のスケッチ(v2)。毎回全ファンを変更する(SET_ALL)</li>
+ * <li>v2-one … 現在のスケッチ(v2)。毎回1つのファンだけを変更する(SET_DELTA)</li>
+ * </ul>
+ * 組み合わせごとに、接続したプロトコルと通信レート、SimulatedBoardが計測したPCの書き込みから反映までの時間(p50/p99/最大)、
+ * setFanSpeed()の呼び出しから反映済みのファン速度が一致するまでの時間(p50/p99/最大)、反映を待ちきれなかった回数を出力します。
+ * 板側の時間のp50/p99はLatencyHistogramの区間の上限(2のべき乗)です。
+ *
+ * 引数: [指示回数 指示間隔(ms) ファン数](省略時は200 50 4)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class ApplyLatencyBenchmark {
+
+	/** 通信レート */
+	private static final int RATE = 9600;
+
+	/** v2で使用する最大通信レート */
+	private static final int MAX_RATE = 115200;
+
+	/** 反映を待つ最大の時間(ns) */
+	private static final long APPLY_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+	/** 反映を確認する間隔(ns) */
+	private static final long POLL_INTERVAL = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/** 組み合わせ */
+	private enum Mode{
+		V1("v1", false, false), V2_ALL("v2-all", true, false), V2_ONE("v2-one", true, true);
+
+		final String label;
+		final boolean supportsV2;
+		final boolean single;
+
+		Mode(String label, boolean supportsV2, boolean single){
+			this.label = label;
+			this.supportsV2 = supportsV2;
+			this.single = single;
+		}
+	}
+
+	private ApplyLatencyBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 指示回数, 指示間隔(ms), ファン数
+	 * @throws Exception 接続に失敗した場合
+	 */
+	public static void main(String[] args) throws Exception{
+		int commands = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		long interval = TimeUnit.MILLISECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 50);
+		int fans = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+		System.out.println("ApplyLatencyBenchmark: " + commands + " command(s) every " + TimeUnit.NANOSECONDS.toMillis(interval)
+				+ "ms, " + fans + " fan(s)");
+
+		for(Mode mode : Mode.values()){
+			//準備運転
+			run(mode, Math.max(1, commands / 10), interval, fans);
+		}
+		for(Mode mode : Mode.values()){
+			System.out.println(run(mode, commands, interval, fans));
+		}
+	}
+
+	/**
+	 * 1つの組み合わせ分を実行します。
+	 * @return 結果
+	 */
+	private static String run(Mode mode, int commands, long interval, int fans) throws IOException, InterruptedException{
+		SimulatedBoard board = new SimulatedBoard(mode.label, fans, mode.supportsV2);
+		ArduinoClient client = ArduinoClient.open(board, RATE, fans, MAX_RATE);
+		Random random = new Random(1);
+		long[] times = new long[commands];
+		int count = 0;
+		int timeouts = 0;
+		try{
+			int[] speeds = board.getAppliedSpeeds();
+			for(int command = 0 ; command < commands ; command++){
+				if( mode.single ){
+					int fan = command % fans;
+					speeds[fan] = next(random, speeds[fan]);
+				} else {
+					for(int i = 0 ; i < fans ; i++){
+						speeds[i] = next(random, speeds[i]);
+					}
+				}
+
+				long start = System.nanoTime();
+				client.setFanSpeed(speeds);
+				while( !Arrays.equals(board.getAppliedSpeeds(), speeds) && System.nanoTime() - start < APPLY_TIMEOUT ){
+					LockSupport.parkNanos(POLL_INTERVAL);
+				}
+				long elapsed = System.nanoTime() - start;
+				if( elapsed < APPLY_TIMEOUT ){
+					times[count++] = elapsed;
+				} else {
+					timeouts++;
+				}
+
+				long wait = interval - ( System.nanoTime() - start );
+				if( wait > 0 ){
+					LockSupport.parkNanos(wait);
+				}
+			}
+			return report(mode, client.getProtocol(), client.getRate(), board.getApplyLatency(),
+					Arrays.copyOf(times, count), timeouts);
+		}finally{
+			client.close();
+		}
+	}
+
+	/** 前回と異なるファン速度(10-127)を選びます。1-9はv1で10として送信されるため使用しない */
+	private static int next(Random random, int previous){
+		int speed;
+		do{
+			speed = 10 + random.nextInt(118);
+		}while( speed == previous );
+		return speed;
+	}
+
+	/** 結果を1行にまとめます */
+	private static String report(Mode mode, int protocol, int rate, LatencyHistogram board, long[] times, int timeouts){
+		Arrays.sort(times);
+		int n = times.length;
+		return String.format("%-7s: v%d %6dbps, board write-to-apply p50<=%6.0fus p99<=%6.0fus max %6.0fus, "
+				+ "call-to-apply p50 %7.1fus p99 %7.1fus max %7.1fus, %d timeout(s)",
+				mode.label, protocol, rate, board.getP50Micros(), board.getP99Micros(), board.getMaxMicros(),
+				n > 0 ? times[n / 2] / 1e3 : 0, n > 0 ? times[(int) ( n * 0.99 )] / 1e3 : 0, n > 0 ? times[n - 1] / 1e3 : 0,
+				timeouts);
+	}
+}
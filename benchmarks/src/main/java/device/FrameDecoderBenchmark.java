@@ -0,0 +1,99 @@
+package device;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Arduinoからの受信データの解析(ArduinoClientのFrameDecoder,FrameDecoderV2)を計測します。
+ * 状態通知のフレームをFRAMES個連続させた受信データを1バイトずつ解析し、1フレームあたりの時間を出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameDecoderBenchmark {
+
+	/** 1回に解析するフレーム数 */
+	private static final int FRAMES = 1024;
+
+	/** v1:受信データブロック開始文字(ArduinoClient.READ_BLOCK_START) */
+	private static final int READ_BLOCK_START = 2;
+
+	/** ファン数 */
+	@Param({"4", "16"})
+	public int fans;
+
+	/** v1の受信データ */
+	private byte[] v1;
+
+	/** v2の受信データ */
+	private byte[] v2;
+
+	private FrameDecoder decoder;
+	private FrameDecoderV2 decoderV2;
+
+	@Setup
+	public void setup(){
+		v1 = new byte[FRAMES * ( fans + 1 )];
+		for(int f = 0 ; f < FRAMES ; f++){
+			v1[f * ( fans + 1 )] = READ_BLOCK_START;
+			for(int i = 0 ; i < fans ; i++){
+				v1[f * ( fans + 1 ) + 1 + i] = (byte) ( 10 + ( f + i ) % 100 );
+			}
+		}
+
+		byte[] payload = new byte[fans];
+		byte[] frame = new byte[fans + ProtocolV2.OVERHEAD];
+		v2 = new byte[FRAMES * frame.length];
+		for(int f = 0 ; f < FRAMES ; f++){
+			for(int i = 0 ; i < fans ; i++){
+				payload[i] = (byte) ( ( f + i ) % 128 );
+			}
+			int length = ProtocolV2.encode(frame, ProtocolV2.STATUS, f, payload, fans);
+			System.arraycopy(frame, 0, v2, f * length, length);
+		}
+
+		decoder = new FrameDecoder(READ_BLOCK_START, fans);
+		decoderV2 = new FrameDecoderV2();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public int decodeV1(){
+		int frames = 0;
+		for(byte data : v1){
+			if( decoder.update(data) ){
+				frames++;
+			}
+		}
+		return frames;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public int decodeV2(){
+		int frames = 0;
+		for(byte data : v2){
+			if( decoderV2.update(data) ){
+				frames++;
+			}
+		}
+		return frames;
+	}
+}
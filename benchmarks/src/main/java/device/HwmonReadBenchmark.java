@@ -0,0 +1,173 @@
+package device;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * 温度の取得1回あたりの時間を、hwmonの直接読み込みとOpenHardwareMonitorのHTTP+JSONで比較します。
+ *
+ * 次の取得元からCPU(パッケージとコアごと)とGPUの温度の取得を繰り返し、
+ * 1回あたりの時間(p50/p99/最大/平均)と取得の失敗数を出力します。
+ * <ul>
+ * <li>hwmon … HwmonTemperatureSource。一時ディレクトリに作成した模擬の/sys/class/hwmonのtemp*_inputを開いたまま読み直す</li>
+ * <li>http-json … OpenHardwareMonitorClient(Keep-Alive, ストリーム解析)。SimulatedOhmServerから取得する</li>
+ * </ul>
+ * 模擬の/sys/class/hwmonは一時ディレクトリ上の通常のファイルのため、実際のsysfs(読み込みごとにドライバがセンサーを読む)より速くなります。
+ * 差はHTTPの往復とJSONの解析を省いた分の目安です。
+ * SimulatedOhmServer(JDKのHttpServer)はNagleアルゴリズムで応答が遅れるため、TCP_NODELAYを有効にして計測します。
+ *
+ * 引数: [取得回数 追加のハードウェア数](省略時は20000 8)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class HwmonReadBenchmark {
+
+	/** CPU名 */
+	private static final String CPU_NAME = "Intel Core i7-3770K";
+
+	/** GPU名 */
+	private static final String GPU_NAME = "NVIDIA GeForce GTX 1080";
+
+	/** CPUコア数 */
+	private static final int CPU_CORE = 4;
+
+	/** 取得元 */
+	private enum Mode{
+		HWMON("hwmon"), HTTP_JSON("http-json");
+
+		final String label;
+
+		Mode(String label){
+			this.label = label;
+		}
+	}
+
+	private HwmonReadBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 取得回数, 追加のハードウェア数
+	 * @throws Exception 模擬の取得元を用意できなかった場合
+	 */
+	public static void main(String[] args) throws Exception{
+		int polls = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int extraHardware = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+		//応答の分割送信が遅延ACKを待たないようにする
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+
+		System.out.println("HwmonReadBenchmark: " + polls + " poll(s), " + CPU_CORE + " core(s), "
+				+ extraHardware + " extra hardware for http-json");
+
+		for(Mode mode : Mode.values()){
+			//準備運転
+			run(mode, Math.max(1, polls / 10), extraHardware);
+		}
+		for(Mode mode : Mode.values()){
+			System.out.println(run(mode, polls, extraHardware));
+		}
+	}
+
+	/**
+	 * 1つの取得元分を実行します。
+	 * @return 結果
+	 */
+	private static String run(Mode mode, int polls, int extraHardware) throws IOException{
+		Path hwmon = null;
+		SimulatedOhmServer server = null;
+		TemperatureSource source;
+		if( mode == Mode.HWMON ){
+			hwmon = createHwmon();
+			source = new HwmonTemperatureSource(hwmon, "coretemp", "amdgpu", CPU_CORE);
+		} else {
+			server = new SimulatedOhmServer(0, CPU_NAME, GPU_NAME, CPU_CORE, extraHardware, 1);
+			server.start();
+			source = new OpenHardwareMonitorClient(String.valueOf(server.getPort()), "3770K", "GTX 1080", CPU_CORE, true);
+		}
+
+		long[] times = new long[polls];
+		int failures = 0;
+		try{
+			for(int poll = 0 ; poll < polls ; poll++){
+				long start = System.nanoTime();
+				TemperatureSnapshot result = source.getTemperature();
+				times[poll] = System.nanoTime() - start;
+				if( result == null || !result.isCpuValid() || !result.isGpuValid() ){
+					failures++;
+				}
+			}
+		}finally{
+			source.shutdown();
+			if( server != null ){
+				server.stop();
+			}
+			if( hwmon != null ){
+				delete(hwmon);
+			}
+		}
+		return report(mode, times, failures);
+	}
+
+	/**
+	 * 一時ディレクトリにcoretemp(hwmon0)とamdgpu(hwmon1)の模擬の/sys/class/hwmonを作成します。
+	 * @return hwmonディレクトリ
+	 */
+	private static Path createHwmon() throws IOException{
+		Path root = Files.createTempDirectory("hwmon");
+		Path cpu = Files.createDirectory(root.resolve("hwmon0"));
+		write(cpu.resolve("name"), "coretemp");
+		write(cpu.resolve("temp1_label"), "Package id 0");
+		write(cpu.resolve("temp1_input"), "50000");
+		for(int i = 0 ; i < CPU_CORE ; i++){
+			write(cpu.resolve("temp" + ( i + 2 ) + "_label"), "Core " + i);
+			write(cpu.resolve("temp" + ( i + 2 ) + "_input"), String.valueOf(( 40 + i ) * 1000));
+		}
+		Path gpu = Files.createDirectory(root.resolve("hwmon1"));
+		write(gpu.resolve("name"), "amdgpu");
+		write(gpu.resolve("temp1_label"), "edge");
+		write(gpu.resolve("temp1_input"), "60000");
+		return root;
+	}
+
+	/** sysfsと同じく改行付きで書き込みます */
+	private static void write(Path path, String text) throws IOException{
+		Files.write(path, ( text + "\n" ).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static void delete(Path directory) throws IOException{
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>(){
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException{
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException{
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/** 結果を1行にまとめます */
+	private static String report(Mode mode, long[] times, int failures){
+		int polls = times.length;
+		long[] sorted = Arrays.copyOf(times, polls);
+		Arrays.sort(sorted);
+		long sum = 0;
+		for(long time : sorted){
+			sum += time;
+		}
+		return String.format("%-9s: p50 %8dns p99 %8dns max %9dns mean %8.0fns, %d failure(s) in %d poll(s)",
+				mode.label, sorted[polls / 2], sorted[(int) ( polls * 0.99 )], sorted[polls - 1], (double) sum / polls,
+				failures, polls);
+	}
+}
@@ -0,0 +1,65 @@
+package device;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmark.Fixtures;
+import net.arnx.jsonic.JSON;
+
+/**
+ * デコード済みのdata.jsonからCPU,GPU温度を取り出す処理(OpenHardwareMonitorClient.extractData)を計測します。
+ * センサー一覧の作成は準備で済ませ、ポーリングごとの取り出しのみを計測します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OhmExtractionBenchmark {
+
+	/** data.jsonの大きさ */
+	@Param({"small", "medium", "large"})
+	public String size;
+
+	/** デコード済みのdata.json */
+	private HashMap<String, Object> tree;
+
+	/** 取り出しを行うクライアント(通信はしない) */
+	private OpenHardwareMonitorClient client;
+
+	@Setup
+	public void setup() throws IOException{
+		tree = JSON.decode(Fixtures.readOhm(size));
+		client = new OpenHardwareMonitorClient(null, Fixtures.CPU_NAME, Fixtures.GPU_NAME, Fixtures.CPU_CORE, false);
+		if( client.extractData(tree) == null ){
+			throw new IllegalStateException("No temperature in data-" + size + ".json");
+		}
+	}
+
+	@TearDown
+	public void tearDown(){
+		client.shutdown();
+	}
+
+	@Benchmark
+	public TemperatureSnapshot extractData(){
+		return client.extractData(tree);
+	}
+}
@@ -0,0 +1,98 @@
+package device;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmark.Fixtures;
+import net.arnx.jsonic.JSON;
+
+/**
+ * OpenHardwareMonitorのレスポンスボディ(data.json)の解析モードを比較します。
+ * <ul>
+ * <li>stream … OhmJsonReaderで先頭から読み進め、必要な温度を読んだ時点で打ち切る(残りは読み捨て)</li>
+ * <li>tree … 1行読み込んでJSONICで全体をデコードし、extractDataで取り出す</li>
+ * </ul>
+ * どちらもセンサー一覧の作成は準備で済ませ、バイト列からの1回分のポーリングの処理を計測します。
+ * 記録済みのdata.jsonはCPU,GPUがドライブより前にあるため、大きいほどstreamの打ち切りが効きます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OhmParseBenchmark {
+
+	/** data.jsonの大きさ */
+	@Param({"small", "medium", "large"})
+	public String size;
+
+	/** レスポンスボディ */
+	private byte[] body;
+
+	/** ストリーム解析のクライアント(通信はしない) */
+	private OpenHardwareMonitorClient streamClient;
+
+	/** JSONICで解析するクライアント(通信はしない) */
+	private OpenHardwareMonitorClient treeClient;
+
+	@Setup
+	public void setup() throws IOException{
+		body = Fixtures.read("data-" + size + ".json");
+		streamClient = new OpenHardwareMonitorClient(null, Fixtures.CPU_NAME, Fixtures.GPU_NAME, Fixtures.CPU_CORE, true);
+		treeClient = new OpenHardwareMonitorClient(null, Fixtures.CPU_NAME, Fixtures.GPU_NAME, Fixtures.CPU_CORE, false);
+
+		TemperatureSnapshot stream = stream();
+		TemperatureSnapshot tree = tree();
+		if( stream == null || tree == null || stream.getCpuPackage() != tree.getCpuPackage() || stream.getGpu() != tree.getGpu() ){
+			throw new IllegalStateException("Parse modes disagree on data-" + size + ".json");
+		}
+	}
+
+	@TearDown
+	public void tearDown(){
+		streamClient.shutdown();
+		treeClient.shutdown();
+	}
+
+	@Benchmark
+	public TemperatureSnapshot stream() throws IOException{
+		try( InputStream in = new ByteArrayInputStream(body) ){
+			TemperatureSnapshot result = streamClient.extractStream(new InputStreamReader(in, StandardCharsets.UTF_8));
+			byte[] buffer = new byte[8192];
+			while( in.read(buffer) != -1 ){}
+			return result;
+		}
+	}
+
+	@Benchmark
+	public TemperatureSnapshot tree() throws IOException{
+		try( BufferedReader br = new BufferedReader(
+				new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) ){
+			HashMap<String, Object> json = JSON.decode(br.readLine());
+			while( br.readLine() != null ){}
+			return treeClient.extractData(json);
+		}
+	}
+}
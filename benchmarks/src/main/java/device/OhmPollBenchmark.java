@@ -0,0 +1,281 @@
+package device;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OpenHardwareMonitorの取得1回あたりの時間と接続数を計測します。
+ *
+ * 接続数を数える模擬のHTTPサーバ(HTTP/1.1, Keep-Alive対応)に対して次の方式で取得を繰り返し、
+ * 1回あたりの時間(p50/p99/最大/平均)と、サーバが受け付けた接続数(ソケットの生成と破棄の回数)を出力します。
+ * <ul>
+ * <li>disconnect … 従来の方式。取得ごとにURLとHttpURLConnectionを作り、disconnect()で接続を閉じる</li>
+ * <li>keep-alive … OpenHardwareMonitorClient.getTemperature()。応答を読み切って接続を再利用する</li>
+ * </ul>
+ * どちらもストリーム解析で温度を取り出すため、差は接続の扱いと、keep-aliveの取得が期限付きで取得用スレッドに渡される分です。
+ * 応答の本文はSimulatedOhmServerの応答を1回取得したものを毎回返します。
+ * 従来の方式も本文を読み切ってから閉じるため、disconnect()の時点で接続はJDKのKeep-Aliveキャッシュに戻っており、
+ * 接続数は増えません。差は主に接続の準備と、本文を1行の文字列にしてから解析する分です。
+ *
+ * 最後に、要求を受け付けたまま応答しないサーバに対してgetTemperature(期限)を呼び、
+ * 期限で前回値に切り替わるまでの時間を出力します(従来の方式はタイムアウトがなく戻りません)。
+ *
+ * 引数: [取得回数 追加のハードウェア数 期限(ms)](省略時は2000 24 100)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class OhmPollBenchmark {
+
+	/** CPU名 */
+	private static final String CPU_NAME = "Intel Core i7-3770K";
+
+	/** GPU名 */
+	private static final String GPU_NAME = "NVIDIA GeForce GTX 1080";
+
+	/** CPUコア数 */
+	private static final int CPU_CORE = 4;
+
+	/** 方式 */
+	private enum Mode{
+		DISCONNECT("disconnect"), KEEP_ALIVE("keep-alive");
+
+		final String label;
+
+		Mode(String label){
+			this.label = label;
+		}
+	}
+
+	/** 接続数を数える模擬のHTTPサーバ */
+	private static final class StubServer implements Runnable {
+		final ServerSocket socket;
+		final byte[] body;
+		volatile boolean hang;
+		final AtomicLong accepted = new AtomicLong();
+
+		StubServer(byte[] body) throws IOException{
+			this.socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			this.body = body;
+			Thread thread = new Thread(this, "StubServer");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		@Override
+		public void run(){
+			while( !socket.isClosed() ){
+				try{
+					final Socket client = socket.accept();
+					accepted.incrementAndGet();
+					Thread thread = new Thread(new Runnable(){
+						@Override
+						public void run(){
+							serve(client);
+						}
+					}, "StubServer-connection");
+					thread.setDaemon(true);
+					thread.start();
+				} catch (IOException e) {
+					return;
+				}
+			}
+		}
+
+		/** 接続が閉じられるまで要求に応答します */
+		private void serve(Socket client){
+			try( Socket s = client ){
+				s.setTcpNoDelay(true);
+				InputStream in = s.getInputStream();
+				OutputStream out = s.getOutputStream();
+				byte[] header = ( "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + body.length
+						+ "\r\n\r\n" ).getBytes(StandardCharsets.US_ASCII);
+				while( readRequest(in) ){
+					if( hang ){
+						Thread.sleep(Long.MAX_VALUE);
+					}
+					out.write(header);
+					out.write(body);
+					out.flush();
+				}
+			} catch (IOException e) {
+				//接続の切断
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * 要求ヘッダを空行まで読み捨てます。
+		 * @return 要求を読んだ場合true, 接続が閉じられた場合false
+		 */
+		private static boolean readRequest(InputStream in) throws IOException{
+			int matched = 0;
+			int data;
+			while( ( data = in.read() ) != -1 ){
+				matched = data == ( matched % 2 == 0 ? '\r' : '\n' ) ? matched + 1 : ( data == '\r' ? 1 : 0 );
+				if( matched == 4 ){
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void close() throws IOException{
+			socket.close();
+		}
+	}
+
+	private OhmPollBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 取得回数, 追加のハードウェア数, 期限(ms)
+	 * @throws Exception 模擬サーバを開けなかった場合
+	 */
+	public static void main(String[] args) throws Exception{
+		int polls = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int extraHardware = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+		long deadline = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+		byte[] body = record(extraHardware);
+		System.out.println("OhmPollBenchmark: " + polls + " poll(s), " + body.length + " byte(s) per response, deadline "
+				+ deadline + "ms");
+
+		for(Mode mode : Mode.values()){
+			//準備運転
+			run(mode, body, Math.max(1, polls / 10));
+		}
+		for(Mode mode : Mode.values()){
+			System.out.println(run(mode, body, polls));
+		}
+
+		System.out.println(deadline(body, deadline));
+	}
+
+	/** SimulatedOhmServerの応答を1回取得します */
+	private static byte[] record(int extraHardware) throws IOException{
+		SimulatedOhmServer server = new SimulatedOhmServer(0, CPU_NAME, GPU_NAME, CPU_CORE, extraHardware, 1);
+		server.start();
+		try{
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/data.json").openConnection();
+			try( InputStream in = connection.getInputStream() ){
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int read;
+				while( ( read = in.read(buffer) ) != -1 ){
+					out.write(buffer, 0, read);
+				}
+				return out.toByteArray();
+			}finally{
+				connection.disconnect();
+			}
+		}finally{
+			server.stop();
+		}
+	}
+
+	/**
+	 * 1方式分を実行します。
+	 * @return 結果
+	 */
+	private static String run(Mode mode, byte[] body, int polls) throws IOException{
+		StubServer server = new StubServer(body);
+		String port = String.valueOf(server.socket.getLocalPort());
+		OpenHardwareMonitorClient client = new OpenHardwareMonitorClient(port, "3770K", "GTX 1080", CPU_CORE, true);
+		long[] times = new long[polls];
+		int failures = 0;
+		try{
+			for(int poll = 0 ; poll < polls ; poll++){
+				long start = System.nanoTime();
+				TemperatureSnapshot result = mode == Mode.DISCONNECT ? disconnect(client, port) : client.getTemperature();
+				times[poll] = System.nanoTime() - start;
+				if( result == null ){
+					failures++;
+				}
+			}
+		}finally{
+			client.shutdown();
+			server.close();
+		}
+		return report(mode, times, server.accepted.get(), failures);
+	}
+
+	/**
+	 * 従来の方式で1回取得します。
+	 * @param parser 解析に使用するクライアント(通信には使用しない)
+	 */
+	private static TemperatureSnapshot disconnect(OpenHardwareMonitorClient parser, String port) throws IOException{
+		URL url = new URL("http://localhost:" + port + "/data.json");
+		HttpURLConnection connection = null;
+		try{
+			connection = (HttpURLConnection) url.openConnection();
+			connection.setRequestMethod("GET");
+			if( connection.getResponseCode() != HttpURLConnection.HTTP_OK ){
+				return null;
+			}
+			//従来と同じく1行読んで閉じてから解析する
+			String line;
+			try( BufferedReader br = new BufferedReader(
+					new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) ){
+				line = br.readLine();
+			}
+			return line != null ? parser.extractStream(new StringReader(line)) : null;
+		}finally{
+			if( connection != null ){
+				connection.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * 応答しないサーバに対して期限付きで取得し、前回値に切り替わるまでの時間を計測します。
+	 * @return 結果
+	 */
+	private static String deadline(byte[] body, long deadline) throws IOException{
+		StubServer server = new StubServer(body);
+		OpenHardwareMonitorClient client = new OpenHardwareMonitorClient(String.valueOf(server.socket.getLocalPort()),
+				"3770K", "GTX 1080", CPU_CORE, true);
+		try{
+			//応答する間に1回取得して前回値を持たせてから、応答を止める
+			TemperatureSnapshot last = client.getTemperature();
+			server.hang = true;
+			long start = System.nanoTime();
+			TemperatureSnapshot result = client.getTemperature(deadline, TimeUnit.MILLISECONDS);
+			long elapsed = System.nanoTime() - start;
+			return String.format("%-15s: returned in %6.1fms, %s", "hung-server", elapsed / 1e6,
+					result == null ? "no value" : result == last ? "last known good" : "fresh value");
+		}finally{
+			client.shutdown();
+			server.close();
+		}
+	}
+
+	/** 結果を1行にまとめます */
+	private static String report(Mode mode, long[] times, long accepted, int failures){
+		int polls = times.length;
+		long[] sorted = Arrays.copyOf(times, polls);
+		Arrays.sort(sorted);
+		long sum = 0;
+		for(long time : sorted){
+			sum += time;
+		}
+		return String.format("%-15s: p50 %7dns p99 %8dns max %9dns mean %8.0fns, %5d connection(s) for %d poll(s), %d failure(s)",
+				mode.label, sorted[polls / 2], sorted[(int) ( polls * 0.99 )], sorted[polls - 1], (double) sum / polls,
+				accepted, polls, failures);
+	}
+}
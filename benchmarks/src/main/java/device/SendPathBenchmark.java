@@ -0,0 +1,240 @@
+package device;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Arduinoへの送信経路のスループットと遅延を模擬のシリアルポートで計測します。
+ *
+ * 一定間隔でファン速度の送信を指示し、次の方式で送信します。
+ * <ul>
+ * <li>reopen … 従来の方式。指示した呼び出し元で出力ストリームを取得し、1バイトずつ書き込んで閉じる</li>
+ * <li>writer … FrameWriter。呼び出し元は送信待ちに置くだけで、送信スレッドが最新の指示を1回のwriteで送信する</li>
+ * </ul>
+ * 模擬のシリアルポートは書き込み1回ごとの呼び出しの時間と、通信レートから求めた1バイトあたりの時間だけ待ち、
+ * 届いたフレームを解析します。フレームには指示の番号を埋め込んであり、指示から送信完了までの時間を求めます。
+ * 方式ごとに、呼び出し元の時間と指示から送信完了までの時間(p50/p99/最大)、
+ * 送信したフレーム数(まとめて破棄した指示は送信しない), 書き込み回数, 送信フレームの毎秒の数を出力します。
+ *
+ * 引数: [指示回数 指示間隔(us) 通信レート 書き込み1回の時間(us) ファン数](省略時は2000 2000 9600 50 4)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class SendPathBenchmark {
+
+	/** v1:送信ブロック開始文字(ArduinoClient.WRITE_BLOCK_START) */
+	private static final int WRITE_BLOCK_START = 1;
+
+	/** v1:接続チェック文字(ArduinoClient.CONNECTION_CHECK) */
+	private static final int CONNECTION_CHECK = 3;
+
+	/** 指示の番号を埋め込むファン速度の最小値(1-9は10として送信されるため使用しない) */
+	private static final int DIGIT_BASE = 10;
+
+	/** 指示の番号の1桁あたりの値の数 */
+	private static final int DIGITS = 128 - DIGIT_BASE;
+
+	/** 方式 */
+	private enum Mode{
+		REOPEN("reopen"), WRITER("writer");
+
+		final String label;
+
+		Mode(String label){
+			this.label = label;
+		}
+	}
+
+	/** 書き込みごとに待ち、届いたフレームの遅延を記録する模擬のシリアルポート */
+	private static final class FakePort extends OutputStream {
+		final long perCall;
+		final long perByte;
+		final FrameDecoder decoder;
+		final long[] submitted;
+		final long[] delivered;
+		int frames = 0;
+		int calls = 0;
+		long bytes = 0;
+
+		FakePort(long perCall, long perByte, int fans, int submissions){
+			this.perCall = perCall;
+			this.perByte = perByte;
+			this.decoder = new FrameDecoder(WRITE_BLOCK_START, fans);
+			this.submitted = new long[submissions];
+			this.delivered = new long[submissions];
+		}
+
+		@Override
+		public void write(int b){
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len){
+			calls++;
+			bytes += len;
+			LockSupport.parkNanos(perCall + perByte * len);
+			long now = System.nanoTime();
+			for(int i = off ; i < off + len ; i++){
+				if( decoder.update(b[i] & 0xFF) ){
+					int sequence = decode(decoder.getFrame());
+					if( sequence >= 0 && sequence < delivered.length ){
+						delivered[sequence] = now;
+						frames++;
+					}
+				}
+			}
+		}
+	}
+
+	/** 取得ごとに作られ、閉じても模擬のシリアルポートは閉じない出力ストリーム */
+	private static final class UnclosedStream extends OutputStream {
+		final OutputStream port;
+
+		UnclosedStream(OutputStream port){
+			this.port = port;
+		}
+
+		@Override
+		public void write(int b) throws IOException{
+			port.write(b);
+		}
+
+		@Override
+		public void close() throws IOException{
+			port.flush();
+		}
+	}
+
+	private SendPathBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 指示回数, 指示間隔(us), 通信レート, 書き込み1回の時間(us), ファン数
+	 * @throws Exception 送信に失敗した場合
+	 */
+	public static void main(String[] args) throws Exception{
+		int submissions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long interval = TimeUnit.MICROSECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 2000);
+		int rate = args.length > 2 ? Integer.parseInt(args[2]) : 9600;
+		long perCall = TimeUnit.MICROSECONDS.toNanos(args.length > 3 ? Long.parseLong(args[3]) : 50);
+		int fans = Math.max(3, args.length > 4 ? Integer.parseInt(args[4]) : 4);
+
+		//1バイト10ビット(開始,データ8,停止)
+		long perByte = TimeUnit.SECONDS.toNanos(10) / rate;
+
+		System.out.println("SendPathBenchmark: " + submissions + " submission(s) every " + TimeUnit.NANOSECONDS.toMicros(interval)
+				+ "us, " + rate + "bps, " + TimeUnit.NANOSECONDS.toMicros(perCall) + "us per write call, " + fans + " fan(s)");
+
+		for(Mode mode : Mode.values()){
+			//準備運転
+			run(mode, Math.max(1, submissions / 10), interval, perCall, perByte, fans);
+		}
+		for(Mode mode : Mode.values()){
+			System.out.println(run(mode, submissions, interval, perCall, perByte, fans));
+		}
+	}
+
+	/**
+	 * 1方式分を実行します。
+	 * @return 結果
+	 */
+	private static String run(Mode mode, int submissions, long interval, long perCall, long perByte, int fans)
+			throws IOException, InterruptedException{
+		FakePort port = new FakePort(perCall, perByte, fans, submissions);
+		FrameWriter writer = null;
+		if( mode == Mode.WRITER ){
+			writer = new FrameWriter(mode.label, port, WRITE_BLOCK_START, CONNECTION_CHECK, fans);
+			writer.start();
+		}
+
+		long[] caller = new long[submissions];
+		int[] speeds = new int[fans];
+		long begin = System.nanoTime();
+		long next = begin;
+		for(int sequence = 0 ; sequence < submissions ; sequence++){
+			long wait = next - System.nanoTime();
+			if( wait > 0 ){
+				LockSupport.parkNanos(wait);
+			}
+			next += interval;
+
+			encode(sequence, speeds);
+			//送信スレッドはsubmitSpeedの同期を経てから読むため、ここでは同期しない
+			long start = System.nanoTime();
+			port.submitted[sequence] = start;
+			if( writer != null ){
+				writer.submitSpeed(speeds);
+			} else {
+				reopen(port, speeds);
+			}
+			caller[sequence] = System.nanoTime() - start;
+		}
+
+		if( writer != null ){
+			//最後の指示の送信を待つ
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while( System.nanoTime() < deadline ){
+				synchronized( port ){
+					if( port.delivered[submissions - 1] != 0 ){
+						break;
+					}
+				}
+				Thread.sleep(1);
+			}
+			writer.shutdown();
+			writer.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+
+		synchronized( port ){
+			long[] latency = new long[port.frames];
+			int count = 0;
+			for(int i = 0 ; i < submissions ; i++){
+				if( port.delivered[i] != 0 ){
+					latency[count++] = port.delivered[i] - port.submitted[i];
+				}
+			}
+			return report(mode, caller, Arrays.copyOf(latency, count), submissions, port.frames, port.calls, port.bytes, elapsed);
+		}
+	}
+
+	/** 従来の方式で1フレーム送信します */
+	private static void reopen(FakePort port, int[] speeds) throws IOException{
+		try( OutputStream out = new UnclosedStream(port) ){
+			out.write(WRITE_BLOCK_START);
+			for(int speed : speeds){
+				out.write(speed);
+			}
+		}
+	}
+
+	/** 指示の番号をファン速度(先頭3つ)に埋め込みます */
+	private static void encode(int sequence, int[] speeds){
+		speeds[0] = DIGIT_BASE + sequence % DIGITS;
+		speeds[1] = DIGIT_BASE + sequence / DIGITS % DIGITS;
+		speeds[2] = DIGIT_BASE + sequence / DIGITS / DIGITS % DIGITS;
+	}
+
+	/** ファン速度から指示の番号を取り出します */
+	private static int decode(int[] speeds){
+		return ( speeds[0] - DIGIT_BASE ) + ( speeds[1] - DIGIT_BASE ) * DIGITS + ( speeds[2] - DIGIT_BASE ) * DIGITS * DIGITS;
+	}
+
+	/** 結果を1行にまとめます */
+	private static String report(Mode mode, long[] caller, long[] latency, int submissions, int frames, int calls, long bytes,
+			long elapsed){
+		Arrays.sort(caller);
+		Arrays.sort(latency);
+		int n = latency.length;
+		return String.format("%-7s: caller p50 %7.1fus p99 %8.1fus max %8.1fus, to wire p50 %7.1fus p99 %8.1fus max %8.1fus, "
+				+ "%5d/%d frame(s) sent, %6d write call(s), %7d byte(s), %6.1f frame(s)/s",
+				mode.label, caller[submissions / 2] / 1e3, caller[(int) ( submissions * 0.99 )] / 1e3, caller[submissions - 1] / 1e3,
+				n > 0 ? latency[n / 2] / 1e3 : 0, n > 0 ? latency[(int) ( n * 0.99 )] / 1e3 : 0, n > 0 ? latency[n - 1] / 1e3 : 0,
+				frames, submissions, calls, bytes, frames / ( elapsed / 1e9 ));
+	}
+}
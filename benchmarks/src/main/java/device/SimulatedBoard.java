@@ -0,0 +1,534 @@
+package device;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import metrics.LatencyHistogram;
+
+/**
+ * Arduinoを模擬する通信路です。実機なしで通信と制御を確認するために使用します。
+ * FanController.inoと同じ手順でフレームを解析・応答し、
+ * 従来のスケッチ(v1のみ)と現在のスケッチ(v1,v2)のどちらかとして動作します。
+ *
+ * 送受信には通信レートに応じた伝送時間(1バイト10ビット)がかかり、
+ * PCとArduinoの通信レートが異なる間のデータは失われます。
+ * 送信されたファン速度設定が反映されるまでの時間(PCが書き込んでから反映まで)を計測します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class SimulatedBoard implements SerialConnection {
+
+	/** 起動時の通信レート */
+	private static final int POLLING_RATE = 9600;
+
+	/** 状態送信間隔(ns) */
+	private static final long REPORT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1000);
+
+	/** 通信レート切り替え後、受信がなければ元に戻すまでの時間(ns) */
+	private static final long RATE_CONFIRM_TIME = TimeUnit.MILLISECONDS.toNanos(3000);
+
+	/** v1:送信データブロック開始文字 */
+	private static final int WRITE_BLOCK_START = 2;
+
+	/** v1:受信データブロック開始文字 */
+	private static final int READ_BLOCK_START = 1;
+
+	/** v2:ペイロードの最大長(スケッチと同じ) */
+	private static final int MAX_PAYLOAD = ProtocolV2.BOARD_MAX_PAYLOAD;
+
+	/** PCからArduinoへの送信データ */
+	private static final class Chunk {
+		final byte[] data;
+		final long writtenAt;
+		final long arrivesAt;
+		final int rate;
+
+		Chunk(byte[] data, long writtenAt, long arrivesAt, int rate){
+			this.data = data;
+			this.writtenAt = writtenAt;
+			this.arrivesAt = arrivesAt;
+			this.rate = rate;
+		}
+	}
+
+	/** 名前 */
+	private final String name;
+
+	/** ファン数 */
+	private final int fanCount;
+
+	/** v2に対応するか */
+	private final boolean supportsV2;
+
+	/** PCからArduinoへの送信データ */
+	private final LinkedBlockingQueue<Chunk> downlink = new LinkedBlockingQueue<Chunk>();
+
+	/** ArduinoからPCへの送信データ(PCの受信バッファ) */
+	private byte[] uplink = new byte[256];
+
+	/** PCの受信バッファの先頭 */
+	private int uplinkHead = 0;
+
+	/** PCの受信バッファのデータ数 */
+	private int uplinkSize = 0;
+
+	/** PC側の通信レート */
+	private volatile int hostRate = POLLING_RATE;
+
+	/** PC→Arduinoの回線が空く時刻(System.nanoTime) */
+	private long downlinkFreeAt = System.nanoTime();
+
+	/** データ到着時に呼び出す処理 */
+	private volatile Runnable listener = null;
+
+	/** 反映までの時間 */
+	private final LatencyHistogram applyLatency =
+			new LatencyHistogram("simulated_apply", "Time from host write to fan speed applied on the simulated board.");
+
+	/** 受信データを壊す確率 */
+	private volatile double corruption = 0;
+
+	/** 乱数(受信データを壊す場合) */
+	private final Random random = new Random();
+
+	/** Arduinoのスレッド */
+	private final Thread board;
+
+	/** 閉じたか */
+	private volatile boolean closed = false;
+
+	//以下はArduinoのスレッドのみが使用する状態
+
+	/** ファン速度(PWM値) */
+	private final int[] fanSpeed;
+
+	/** 反映したファン速度(0-127) */
+	private volatile int[] applied;
+
+	/** Arduino側の通信レート */
+	private int boardRate = POLLING_RATE;
+
+	/** 切り替えた通信レートでの受信を確認したか */
+	private boolean rateConfirmed = true;
+
+	/** 通信レートを切り替えた時刻 */
+	private long rateChangedAt = 0;
+
+	/** 最後に状態を送信した時刻 */
+	private long lastReportTime = 0;
+
+	/** v1:データブロックを示すフラグ */
+	private boolean blockFlag = false;
+
+	/** v1:入力データ数 */
+	private int inputCount = 0;
+
+	/** v1:受信中のファン速度 */
+	private final int[] inputSpeed;
+
+	/** 受信中のフレームをPCが書き込んだ時刻 */
+	private long frameWrittenAt = 0;
+
+	/** v2で通信中か */
+	private boolean v2Mode = false;
+
+	/** v2受信状態(0:開始文字待ち,1:種別,2:シーケンス番号,3:長さ,4:ペイロード,5:CRC) */
+	private int v2State = 0;
+
+	private int v2Type;
+	private int v2Seq;
+	private int v2Length;
+	private int v2Count;
+	private int v2Crc;
+	private final int[] v2Payload = new int[MAX_PAYLOAD];
+
+	/** v2送信シーケンス番号 */
+	private int v2TxSeq = 0;
+
+	/** 送信フレーム作成用 */
+	private final byte[] txPayload = new byte[MAX_PAYLOAD];
+	private final byte[] txFrame = new byte[MAX_PAYLOAD + ProtocolV2.OVERHEAD];
+
+	/**
+	 * 模擬Arduinoを起動します。
+	 * @param name 名前
+	 * @param fanCount ファン数
+	 * @param supportsV2 v2に対応する場合true、従来のスケッチとして動作する場合false
+	 * @throws IllegalArgumentException v2に対応し、ファン数がACKのペイロードに収まらない場合
+	 */
+	public SimulatedBoard(String name, int fanCount, boolean supportsV2){
+		if( supportsV2 && fanCount + 1 > MAX_PAYLOAD ){
+			throw new IllegalArgumentException("v2 board supports up to " + ( MAX_PAYLOAD - 1 ) + " fans: " + fanCount);
+		}
+		this.name = name;
+		this.fanCount = fanCount;
+		this.supportsV2 = supportsV2;
+		this.fanSpeed = new int[fanCount];
+		this.inputSpeed = new int[fanCount];
+		Arrays.fill(fanSpeed, 80);
+		this.applied = speeds();
+
+		board = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				loop();
+			}
+		}, "SimulatedBoard-" + name);
+		board.setDaemon(true);
+		board.start();
+	}
+
+	@Override
+	public String getName(){
+		return name;
+	}
+
+	@Override
+	public InputStream getInputStream(){
+		return new InputStream(){
+			@Override
+			public int read() throws IOException{
+				byte[] one = new byte[1];
+				return read(one, 0, 1) > 0 ? one[0] & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len){
+				synchronized( SimulatedBoard.this ){
+					int count = Math.min(len, uplinkSize);
+					for(int i = 0 ; i < count ; i++){
+						b[off + i] = uplink[( uplinkHead + i ) % uplink.length];
+					}
+					uplinkHead = ( uplinkHead + count ) % uplink.length;
+					uplinkSize -= count;
+					return count;
+				}
+			}
+
+			@Override
+			public int available(){
+				synchronized( SimulatedBoard.this ){
+					return uplinkSize;
+				}
+			}
+		};
+	}
+
+	@Override
+	public OutputStream getOutputStream(){
+		return new OutputStream(){
+			@Override
+			public void write(int b) throws IOException{
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException{
+				if( closed ){
+					throw new IOException("Port closed.");
+				}
+				long now = System.nanoTime();
+				int rate = hostRate;
+				long arrivesAt;
+				synchronized( downlink ){
+					downlinkFreeAt = Math.max(now, downlinkFreeAt) + len * transmitTime(rate);
+					arrivesAt = downlinkFreeAt;
+				}
+				downlink.add(new Chunk(Arrays.copyOfRange(b, off, off + len), now, arrivesAt, rate));
+			}
+		};
+	}
+
+	@Override
+	public void setBaudRate(int rate){
+		hostRate = rate;
+	}
+
+	@Override
+	public void setDataListener(Runnable listener){
+		this.listener = listener;
+	}
+
+	@Override
+	public void close(){
+		closed = true;
+		board.interrupt();
+	}
+
+	/**
+	 * PCからの受信データを壊す確率を設定します。CRCと再送の確認に使用します。
+	 * @param probability 1回の書き込みのうち1バイトを壊す確率(0-1)
+	 */
+	public void setCorruption(double probability){
+		this.corruption = probability;
+	}
+
+	/**
+	 * 反映済みのファン速度を取得します。
+	 * @return ファン速度(0-127)
+	 */
+	public int[] getAppliedSpeeds(){
+		return applied.clone();
+	}
+
+	/**
+	 * Arduino側の通信レートを取得します。
+	 * @return 通信レート
+	 */
+	public int getBoardRate(){
+		return boardRate;
+	}
+
+	/**
+	 * ファン速度設定が反映されるまでの時間を取得します。
+	 * @return PCが書き込んでから反映されるまでの時間の分布
+	 */
+	public LatencyHistogram getApplyLatency(){
+		return applyLatency;
+	}
+
+	/** Arduinoのメインループです */
+	private void loop(){
+		lastReportTime = System.nanoTime();
+
+		while( !closed ){
+			long now = System.nanoTime();
+			long wait = lastReportTime + REPORT_INTERVAL - now;
+
+			Chunk chunk = null;
+			try{
+				chunk = wait > 0 ? downlink.poll(wait, TimeUnit.NANOSECONDS) : downlink.poll();
+			}catch(InterruptedException e){
+				return;
+			}
+
+			if( chunk != null ){
+				//伝送時間が経過するまで到着しない
+				long remaining;
+				while( ( remaining = chunk.arrivesAt - System.nanoTime() ) > 0 ){
+					LockSupport.parkNanos(remaining);
+				}
+				//通信レートが異なるデータは読めない
+				if( chunk.rate == boardRate ){
+					corrupt(chunk.data);
+					for(byte data : chunk.data){
+						receive(data & 0xFF, chunk.writtenAt);
+					}
+				}
+			}
+
+			now = System.nanoTime();
+			if( !rateConfirmed && now - rateChangedAt > RATE_CONFIRM_TIME ){
+				boardRate = POLLING_RATE;
+				rateConfirmed = true;
+			}
+
+			if( now - lastReportTime >= REPORT_INTERVAL && !blockFlag && v2State == 0 ){
+				lastReportTime = now;
+				if( v2Mode ){
+					for(int i = 0 ; i < fanCount ; i++){
+						txPayload[i] = (byte) ( fanSpeed[i] / 2 );
+					}
+					sendV2(ProtocolV2.STATUS, fanCount);
+				} else {
+					byte[] frame = new byte[fanCount + 1];
+					frame[0] = WRITE_BLOCK_START;
+					for(int i = 0 ; i < fanCount ; i++){
+						frame[i + 1] = (byte) ( fanSpeed[i] / 2 );
+					}
+					send(frame, frame.length);
+				}
+			}
+		}
+	}
+
+	/** 1バイト受信します */
+	private void receive(int data, long writtenAt){
+		if( supportsV2 && ( v2State != 0 || data == ProtocolV2.SYNC ) ){
+			receiveV2(data, writtenAt);
+		} else if( !v2Mode ){
+			receiveV1(data, writtenAt);
+		}
+	}
+
+	/** v1の1バイトを受信します(0,10-127以外の値を受信した場合はブロックを破棄) */
+	private void receiveV1(int data, long writtenAt){
+		if( blockFlag && inputCount < fanCount && ( data == 0 || data >= 10 ) ){
+			inputSpeed[inputCount++] = data * 2;
+			if( inputCount == fanCount ){
+				blockFlag = false;
+				System.arraycopy(inputSpeed, 0, fanSpeed, 0, fanCount);
+				apply();
+			}
+		} else if( !blockFlag && data == READ_BLOCK_START ){
+			blockFlag = true;
+			inputCount = 0;
+			frameWrittenAt = writtenAt;
+		} else {
+			blockFlag = false;
+		}
+	}
+
+	/** v2の1バイトを受信します */
+	private void receiveV2(int data, long writtenAt){
+		switch( v2State ){
+		case 0:
+			v2Crc = 0;
+			v2State = 1;
+			frameWrittenAt = writtenAt;
+			break;
+		case 1:
+			v2Type = data;
+			v2Crc = ProtocolV2.crc8(v2Crc, data);
+			v2State = 2;
+			break;
+		case 2:
+			v2Seq = data;
+			v2Crc = ProtocolV2.crc8(v2Crc, data);
+			v2State = 3;
+			break;
+		case 3:
+			v2Length = data;
+			v2Count = 0;
+			v2Crc = ProtocolV2.crc8(v2Crc, data);
+			v2State = v2Length > MAX_PAYLOAD ? 0 : v2Length == 0 ? 5 : 4;
+			break;
+		case 4:
+			v2Payload[v2Count++] = data;
+			v2Crc = ProtocolV2.crc8(v2Crc, data);
+			if( v2Count == v2Length ){
+				v2State = 5;
+			}
+			break;
+		default:
+			v2State = 0;
+			if( data == v2Crc ){
+				receiveFrameV2();
+			}
+			break;
+		}
+	}
+
+	/** 受信したv2のフレームを処理します */
+	private void receiveFrameV2(){
+		v2Mode = true;
+		rateConfirmed = true;
+		blockFlag = false;
+
+		if( v2Type == ProtocolV2.HELLO ){
+			int rate = POLLING_RATE;
+			if( v2Length >= 2 ){
+				rate = ProtocolV2.selectRate(v2Payload[1] * ProtocolV2.RATE_UNIT, POLLING_RATE);
+			}
+			txPayload[0] = (byte) ProtocolV2.VERSION;
+			txPayload[1] = (byte) ( rate / ProtocolV2.RATE_UNIT );
+			txPayload[2] = (byte) fanCount;
+			sendV2(ProtocolV2.HELLO_ACK, 3);
+
+			if( rate != boardRate ){
+				boardRate = rate;
+				rateConfirmed = false;
+				rateChangedAt = System.nanoTime();
+			}
+			return;
+		}
+
+		if( v2Type == ProtocolV2.SET_ALL ){
+			for(int i = 0 ; i < fanCount && i < v2Length ; i++){
+				fanSpeed[i] = v2Payload[i] * 2;
+			}
+			apply();
+		} else if( v2Type == ProtocolV2.SET_DELTA && v2Length >= 1 ){
+			int maskBytes = v2Payload[0];
+			int position = 1 + maskBytes;
+			for(int i = 0 ; i < fanCount && i / 8 < maskBytes && position < v2Length ; i++){
+				if( ( v2Payload[1 + i / 8] & ( 1 << ( i % 8 ) ) ) != 0 ){
+					fanSpeed[i] = v2Payload[position++] * 2;
+				}
+			}
+			apply();
+		} else if( v2Type != ProtocolV2.PING ){
+			return;
+		}
+
+		//反映後のファン速度を応答する
+		txPayload[0] = (byte) v2Seq;
+		for(int i = 0 ; i < fanCount ; i++){
+			txPayload[1 + i] = (byte) ( fanSpeed[i] / 2 );
+		}
+		sendV2(ProtocolV2.ACK, 1 + fanCount);
+	}
+
+	/** ファン速度を反映し、反映までの時間を記録します */
+	private void apply(){
+		applied = speeds();
+		applyLatency.recordSince(frameWrittenAt);
+	}
+
+	private int[] speeds(){
+		int[] speeds = new int[fanCount];
+		for(int i = 0 ; i < fanCount ; i++){
+			speeds[i] = fanSpeed[i] / 2;
+		}
+		return speeds;
+	}
+
+	/** v2のフレームを送信します */
+	private void sendV2(int type, int length){
+		int frameLength = ProtocolV2.encode(txFrame, type, v2TxSeq, txPayload, length);
+		v2TxSeq = ( v2TxSeq + 1 ) & 0xFF;
+		send(txFrame, frameLength);
+	}
+
+	/** PCへ送信します。送信し終えるまで待ち、PCの通信レートが異なる場合は失われます */
+	private void send(byte[] data, int length){
+		LockSupport.parkNanos(length * transmitTime(boardRate));
+		if( hostRate != boardRate || closed ){
+			return;
+		}
+
+		synchronized( this ){
+			if( uplinkSize + length > uplink.length ){
+				uplink = Arrays.copyOf(reorder(), Math.max(uplink.length * 2, uplinkSize + length));
+				uplinkHead = 0;
+			}
+			for(int i = 0 ; i < length ; i++){
+				uplink[( uplinkHead + uplinkSize + i ) % uplink.length] = data[i];
+			}
+			uplinkSize += length;
+		}
+
+		Runnable target = listener;
+		if( target != null ){
+			target.run();
+		}
+	}
+
+	/** 受信バッファを先頭から並べ直します */
+	private byte[] reorder(){
+		byte[] ordered = new byte[uplink.length];
+		for(int i = 0 ; i < uplinkSize ; i++){
+			ordered[i] = uplink[( uplinkHead + i ) % uplink.length];
+		}
+		return ordered;
+	}
+
+	/** 受信データを一定の確率で壊します */
+	private void corrupt(byte[] data){
+		double probability = corruption;
+		if( probability > 0 && data.length > 0 && random.nextDouble() < probability ){
+			data[random.nextInt(data.length)] ^= (byte) ( 1 << random.nextInt(8) );
+		}
+	}
+
+	/** 1バイトの伝送時間(ns) */
+	private static long transmitTime(int rate){
+		return 10L * 1000000000L / rate;
+	}
+}
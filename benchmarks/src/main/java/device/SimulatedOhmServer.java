@@ -0,0 +1,280 @@
+package device;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * OpenHardwareMonitorのHTTPサーバを模擬するクラスです。実機なしで取得と負荷を確認するために使用します。
+ * ループバックアドレスで待ち受け、"/data.json"へのGETにOpenHardwareMonitorと同じ形の木を返します。
+ *
+ * 木にはCPU(コア温度,パッケージ温度)とGPU(コア温度)のほか、
+ * 文書の大きさを調整するための追加のハードウェア(ディスク)を含めます。
+ * 温度は一定間隔で選び直す負荷に向かって時定数で変化し、応答ごとに雑音を加えます。
+ * 乱数の種を固定しているため、同じ種では同じ負荷の変化になります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class SimulatedOhmServer {
+
+	/** 負荷を選び直す間隔(ns) */
+	private static final long LOAD_CHANGE_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+	/** 温度変化の時定数(秒) */
+	private static final double TIME_CONSTANT = 10;
+
+	/** 無負荷時の温度(℃) */
+	private static final double IDLE_TEMPERATURE = 35;
+
+	/** 全負荷時の温度上昇(℃) */
+	private static final double LOAD_RISE = 45;
+
+	/** 測定値の雑音(±℃) */
+	private static final double NOISE = 0.5;
+
+	/** HTTPサーバ */
+	private final HttpServer server;
+
+	/** 応答用スレッド */
+	private final ExecutorService executor;
+
+	/** CPU名 */
+	private final String cpuName;
+
+	/** GPU名 */
+	private final String gpuName;
+
+	/** CPUコア数 */
+	private final int cpuCore;
+
+	/** 追加のハードウェア数 */
+	private final int extraHardware;
+
+	/** 応答回数 */
+	private final AtomicLong requests = new AtomicLong();
+
+	//以下は応答用スレッドのみが使用する状態
+
+	/** 乱数 */
+	private final Random random;
+
+	/** 目標の負荷(0-1) */
+	private double targetLoad = 0;
+
+	/** CPU温度(雑音なし) */
+	private double cpuTemperature = IDLE_TEMPERATURE;
+
+	/** GPU温度(雑音なし) */
+	private double gpuTemperature = IDLE_TEMPERATURE;
+
+	/** 最後に温度を更新した時刻(System.nanoTime) */
+	private long lastUpdate = System.nanoTime();
+
+	/** 最後に負荷を選び直した時刻(System.nanoTime) */
+	private long lastLoadChange = 0;
+
+	/** ノード番号 */
+	private int nodeId;
+
+	/** 応答作成用 */
+	private final StringBuilder body = new StringBuilder(4096);
+
+	/**
+	 * @param port 待ち受けポート(0:空いているポート)
+	 * @param cpuName CPU名
+	 * @param gpuName GPU名
+	 * @param cpuCore CPUコア数
+	 * @param extraHardware 追加のハードウェア数(文書の大きさの調整用)
+	 * @param seed 乱数の種
+	 * @throws IOException ポートを開けなかった場合
+	 */
+	public SimulatedOhmServer(int port, String cpuName, String gpuName, int cpuCore, int extraHardware, long seed) throws IOException{
+		this.cpuName = cpuName;
+		this.gpuName = gpuName;
+		this.cpuCore = cpuCore;
+		this.extraHardware = extraHardware;
+		this.random = new Random(seed);
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/data.json", new HttpHandler(){
+			@Override
+			public void handle(HttpExchange exchange) throws IOException{
+				respond(exchange);
+			}
+		});
+
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "SimulatedOhmServer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * 待ち受けを開始します。
+	 */
+	public void start(){
+		server.start();
+	}
+
+	/**
+	 * 待ち受けを停止します。
+	 */
+	public void stop(){
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 待ち受けているポートを取得します。
+	 * @return ポート
+	 */
+	public int getPort(){
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * 応答回数を取得します。
+	 * @return 応答回数
+	 */
+	public long getRequestCount(){
+		return requests.get();
+	}
+
+	/**
+	 * 温度を更新し、木を返します。
+	 * @param exchange リクエスト
+	 * @throws IOException 送信失敗時
+	 */
+	private void respond(HttpExchange exchange) throws IOException{
+		try{
+			if( !"GET".equals(exchange.getRequestMethod()) ){
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			update(System.nanoTime());
+			byte[] data = build().getBytes(StandardCharsets.UTF_8);
+			requests.incrementAndGet();
+
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, data.length);
+			try( OutputStream out = exchange.getResponseBody() ){
+				out.write(data);
+			}
+		}finally{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * 経過時間に応じて温度を目標の負荷に近づけます。
+	 * @param now 現在時刻(System.nanoTime)
+	 */
+	private void update(long now){
+		if( lastLoadChange == 0 || now - lastLoadChange >= LOAD_CHANGE_INTERVAL ){
+			lastLoadChange = now;
+			targetLoad = random.nextDouble();
+		}
+
+		double ratio = 1 - Math.exp(-( now - lastUpdate ) / 1e9 / TIME_CONSTANT);
+		cpuTemperature += ( IDLE_TEMPERATURE + LOAD_RISE * targetLoad - cpuTemperature ) * ratio;
+		gpuTemperature += ( IDLE_TEMPERATURE + LOAD_RISE * 0.8 * targetLoad - gpuTemperature ) * ratio;
+		lastUpdate = now;
+	}
+
+	/**
+	 * OpenHardwareMonitorと同じ形の木を作成します。
+	 * @return JSON
+	 */
+	private String build(){
+		body.setLength(0);
+		nodeId = 0;
+
+		body.append("{\"id\":").append(nodeId++).append(",\"Text\":\"Sensor\",\"Children\":[");
+		open("SIMULATED-HOST");
+		leaf("Simulated Mainboard", null);
+
+		body.append(',');
+		open(cpuName);
+		open("Temperatures");
+		for(int i = 1 ; i <= cpuCore ; i++){
+			if( i > 1 ){
+				body.append(',');
+			}
+			leaf("CPU Core #" + i, noisy(cpuTemperature + ( i % 3 ) - 1));
+		}
+		body.append(',');
+		leaf("CPU Package", noisy(cpuTemperature + 2));
+		close();
+		close();
+
+		body.append(',');
+		open(gpuName);
+		open("Temperatures");
+		leaf("GPU Core", noisy(gpuTemperature));
+		close();
+		close();
+
+		for(int i = 1 ; i <= extraHardware ; i++){
+			body.append(',');
+			open("Simulated Disk " + i);
+			open("Temperatures");
+			leaf("Temperature", noisy(IDLE_TEMPERATURE));
+			close();
+			close();
+		}
+
+		close();
+		body.append("],\"Min\":\"Min\",\"Value\":\"Value\",\"Max\":\"Max\",\"ImageURL\":\"\"}");
+		return body.toString();
+	}
+
+	/** 子を持つノードを開始します */
+	private void open(String text){
+		body.append("{\"id\":").append(nodeId++).append(",\"Text\":\"").append(text).append("\",\"Children\":[");
+	}
+
+	/** 子を持つノードを終了します */
+	private void close(){
+		body.append("],\"Min\":\"\",\"Value\":\"\",\"Max\":\"\",\"ImageURL\":\"images/x.png\"}");
+	}
+
+	/**
+	 * センサーのノードを追加します。
+	 * @param text 名前
+	 * @param value 温度(値なしの場合null)
+	 */
+	private void leaf(String text, String value){
+		String formatted = value != null ? value : "";
+		body.append("{\"id\":").append(nodeId++).append(",\"Text\":\"").append(text).append("\",\"Children\":[],\"Min\":\"")
+				.append(formatted).append("\",\"Value\":\"").append(formatted).append("\",\"Max\":\"").append(formatted)
+				.append("\",\"ImageURL\":\"images/x.png\"}");
+	}
+
+	/**
+	 * 雑音を加えた温度をOpenHardwareMonitorの表記(小数1桁)にします。
+	 * @param temperature 温度(℃)
+	 * @return 表記
+	 */
+	private String noisy(double temperature){
+		long tenths = Math.round(( temperature + ( random.nextDouble() * 2 - 1 ) * NOISE ) * 10);
+		return ( tenths / 10 ) + "." + Math.abs(tenths % 10) + " °C";
+	}
+}
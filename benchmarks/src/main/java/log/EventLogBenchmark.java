@@ -0,0 +1,171 @@
+package log;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import metrics.Metrics;
+
+/**
+ * 制御周期ごとのログ出力が制御スレッドに与える負荷を計測します。
+ *
+ * DeviceLinkの1周期分の出力(現在のファン速度を毎周期、送信内容を一定周期ごと)を次の方式で繰り返し、
+ * 制御スレッドでの1周期あたりの処理時間(p50/p99/最大/平均)と割り当て量を出力します。
+ * <ul>
+ * <li>none … 出力なし(基準)</li>
+ * <li>stdout … 従来の方式。文字列を組み立てて自動フラッシュのPrintStreamへ出力</li>
+ * <li>eventlog-info … EventLog(INFO)。現在のファン速度(DEBUG)は記録しない</li>
+ * <li>eventlog-debug … EventLog(DEBUG)。全て記録する</li>
+ * </ul>
+ * 出力先は書き込み1回ごとに指定の時間待つ模擬の出力先で、詰まったパイプやjournaldを模擬します。
+ * EventLogの方式では出力用スレッドが同じ出力先へ書き込みます。周期の間隔を空けずに実行するため、
+ * 出力用スレッドが追いつかない場合はリングバッファが満杯になり、破棄したイベント数も出力します。
+ *
+ * 引数: [周期数 ファン数 送信間隔(周期) 書き込み1回の待ち時間(us)](省略時は20000 4 10 50)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class EventLogBenchmark {
+
+	/** 発生元 */
+	private static final String SOURCE = "DeviceLink(COM3)";
+
+	/** 方式 */
+	private enum Mode{
+		NONE("none"), STDOUT("stdout"), EVENTLOG_INFO("eventlog-info"), EVENTLOG_DEBUG("eventlog-debug");
+
+		final String label;
+
+		Mode(String label){
+			this.label = label;
+		}
+	}
+
+	/** 書き込みごとに待つ出力先 */
+	private static final class SlowSink extends OutputStream {
+		final long delay;
+		final AtomicLong bytes = new AtomicLong();
+
+		SlowSink(long delay){
+			this.delay = delay;
+		}
+
+		@Override
+		public void write(int b){
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len){
+			bytes.addAndGet(len);
+			if( delay > 0 ){
+				LockSupport.parkNanos(delay);
+			}
+		}
+	}
+
+	private EventLogBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 周期数, ファン数, 送信間隔(周期), 書き込み1回の待ち時間(us)
+	 */
+	public static void main(String[] args){
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int fans = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int sendEvery = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		long delay = TimeUnit.MICROSECONDS.toNanos(args.length > 3 ? Long.parseLong(args[3]) : 50);
+
+		System.out.println("EventLogBenchmark: " + ticks + " tick(s), " + fans + " fan(s), send every " + sendEvery
+				+ " tick(s), " + TimeUnit.NANOSECONDS.toMicros(delay) + "us per write");
+
+		SlowSink sink = new SlowSink(delay);
+		PrintStream stream = new PrintStream(sink, true);
+		EventLog.setOutput(stream);
+
+		int[] speeds = new int[fans];
+		for(Mode mode : Mode.values()){
+			//準備運転
+			run(mode, Math.max(1, ticks / 10), sendEvery, speeds, stream);
+		}
+		for(Mode mode : Mode.values()){
+			long bytes = sink.bytes.get();
+			long dropped = Metrics.LOG_DROPPED.getCount();
+			long[] times = run(mode, ticks, sendEvery, speeds, stream);
+			System.out.println(report(mode, times, sink.bytes.get() - bytes, Metrics.LOG_DROPPED.getCount() - dropped));
+		}
+	}
+
+	/**
+	 * 1方式分を実行します。
+	 * @return [0..ticks-1]:周期ごとの処理時間(ns), [ticks]:制御スレッドの割り当て量(byte)
+	 */
+	private static long[] run(Mode mode, int ticks, int sendEvery, int[] speeds, PrintStream stream){
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long[] times = new long[ticks + 1];
+		EventLog.setLevel(mode == Mode.EVENTLOG_DEBUG ? Level.DEBUG : Level.INFO);
+		EventLog.flush(TimeUnit.SECONDS.toMillis(60));
+
+		long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		for(int tick = 0 ; tick < ticks ; tick++){
+			for(int i = 0 ; i < speeds.length ; i++){
+				speeds[i] = ( tick + i ) & 0x7F;
+			}
+			boolean send = tick % sendEvery == 0;
+
+			long start = System.nanoTime();
+			switch( mode ){
+			case STDOUT:
+				StringBuilder current = new StringBuilder("COM3").append(" CurrentSpeed:");
+				for(int val: speeds){
+					current.append(val).append(' ');
+				}
+				stream.println(current);
+				if( send ){
+					StringBuilder line = new StringBuilder("COM3").append(" send:");
+					for(int i = 0 ; i < speeds.length ; i++){
+						line.append(i == 0 ? "" : ",").append(speeds[i]);
+					}
+					stream.println(line);
+				}
+				break;
+
+			case EVENTLOG_INFO:
+			case EVENTLOG_DEBUG:
+				EventLog.debug(SOURCE, "CurrentSpeed:", speeds);
+				if( send ){
+					EventLog.info(SOURCE, "send:", speeds);
+				}
+				break;
+
+			default:
+				break;
+			}
+			times[tick] = System.nanoTime() - start;
+		}
+		times[ticks] = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+
+		EventLog.flush(TimeUnit.SECONDS.toMillis(60));
+		return times;
+	}
+
+	/** 結果を1行にまとめます */
+	private static String report(Mode mode, long[] times, long bytes, long dropped){
+		int ticks = times.length - 1;
+		long allocated = times[ticks];
+		long[] sorted = Arrays.copyOf(times, ticks);
+		Arrays.sort(sorted);
+		long sum = 0;
+		for(long time : sorted){
+			sum += time;
+		}
+		return String.format("%-15s: p50 %6dns p99 %8dns max %9dns mean %8.0fns, %5.0f B/tick, %8d byte(s) written, %d dropped",
+				mode.label, sorted[ticks / 2], sorted[(int) ( ticks * 0.99 )], sorted[ticks - 1], (double) sum / ticks,
+				(double) allocated / ticks, bytes, dropped);
+	}
+}
@@ -0,0 +1,234 @@
+package main;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import device.ArduinoClient;
+import device.OpenHardwareMonitorClient;
+import device.SimulatedBoard;
+import device.SimulatedOhmServer;
+import device.TemperatureSnapshot;
+import log.EventLog;
+import log.Level;
+import metrics.LatencyHistogram;
+import xml.ControlConfig;
+import xml.SettingReader;
+
+/**
+ * Arduinoの台数を増やしたときの制御周期の処理時間と開始遅れを計測します。
+ *
+ * CoreControllerと同じ構成(AcquisitionStage 1つ, LinkSupervisor, ArduinoごとのDeviceLink)で、
+ * 各DeviceLinkをSimulatedBoard(v2)に接続し、台数ごとに次を出力します。
+ * <ul>
+ * <li>制御周期数(毎秒)と予定に対する割合</li>
+ * <li>1周期の処理時間(DeviceLink.control)のp50/p99/最大</li>
+ * <li>予定時刻からの開始遅れ(TickSchedulerの遅れ)のp50/p99/最大</li>
+ * <li>スレッド数</li>
+ * </ul>
+ * 台数が増えても処理時間と開始遅れがほぼ変わらないことを確認するためのものです。
+ * p50/p99はLatencyHistogramの区間の上限(2のべき乗)です。
+ * 台数分の接続と切断のログで結果が埋もれないよう、イベントログはWARN以上のみ出力します。
+ *
+ * 引数: [台数(カンマ区切り) 計測時間(秒) 制御周期(ms) ファン数](省略時は1,10,100,300 10 1000 4)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class BoardScalingBenchmark {
+
+	/** 準備運転の時間(秒) */
+	private static final int WARMUP_TIME = 3;
+
+	/** 全台の接続を待つ最大の時間(秒) */
+	private static final int OPEN_TIMEOUT = 120;
+
+	/** CPUコア数 */
+	private static final int CPU_CORE = 4;
+
+	/** 模擬した温度取得元のCPU名 */
+	private static final String CPU_NAME = "Simulated CPU";
+
+	/** 模擬した温度取得元のGPU名 */
+	private static final String GPU_NAME = "Simulated GPU";
+
+	/** Arduino通信レート */
+	private static final int ARDUINO_RATE = 9600;
+
+	/** v2通信の最大通信レート */
+	private static final int ARDUINO_MAX_RATE = 115200;
+
+	/** 計測期間の集計 */
+	private static final class Measurement {
+		/** 1周期の処理時間 */
+		final LatencyHistogram tickTime = new LatencyHistogram("scaling_tick", "Control tick processing time.");
+		/** 予定時刻からの開始遅れ */
+		final LatencyHistogram startLag = new LatencyHistogram("scaling_start_lag", "Control tick start delay.");
+		/** 制御周期数 */
+		final LongAdder ticks = new LongAdder();
+	}
+
+	/** SimulatedBoardに接続し、制御周期ごとに計測するDeviceLink */
+	private static final class SimulatedLink extends DeviceLink {
+		final int fanCount;
+		final AtomicReference<Measurement> measurement;
+
+		SimulatedLink(AtomicReference<ControlConfig> config, int index, AcquisitionStage acquisition, long intervalMillis,
+				Readiness readiness, LinkSupervisor supervisor, AtomicReference<Measurement> measurement){
+			super(config, index, acquisition, intervalMillis, ARDUINO_RATE, ARDUINO_MAX_RATE, null, null, readiness, supervisor);
+			this.fanCount = config.get().getDevice(index).getFanCount();
+			this.measurement = measurement;
+		}
+
+		@Override
+		ArduinoClient openClient() throws InterruptedException, IOException{
+			return ArduinoClient.open(new SimulatedBoard(getComPort(), fanCount, true), ARDUINO_RATE, fanCount, ARDUINO_MAX_RATE);
+		}
+
+		@Override
+		void control(TemperatureSnapshot temperature, long now){
+			Measurement current = measurement.get();
+			TickStatistics statistics = getTickStatistics();
+			if( current != null && statistics != null ){
+				current.startLag.record(statistics.getLastJitter());
+			}
+			long start = System.nanoTime();
+			super.control(temperature, now);
+			if( current != null ){
+				current.tickTime.recordSince(start);
+				current.ticks.increment();
+			}
+		}
+	}
+
+	private BoardScalingBenchmark(){
+	}
+
+	/**
+	 * 計測します。
+	 * @param args 台数(カンマ区切り), 計測時間(秒), 制御周期(ms), ファン数
+	 * @throws Exception 模擬サーバを開けなかった場合
+	 */
+	public static void main(String[] args) throws Exception{
+		String[] counts = ( args.length > 0 ? args[0] : "1,10,100,300" ).split(",");
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		long intervalMillis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+		int fans = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+		System.out.println("BoardScalingBenchmark: " + String.join(",", counts) + " board(s), " + fans + " fan(s), "
+				+ intervalMillis + "ms interval, " + WARMUP_TIME + "s warmup + " + seconds + "s");
+
+		EventLog.setLevel(Level.WARN);
+
+		SimulatedOhmServer server = new SimulatedOhmServer(0, CPU_NAME, GPU_NAME, CPU_CORE, 8, 1);
+		server.start();
+		try{
+			for(String count : counts){
+				System.out.println(run(Integer.parseInt(count.trim()), seconds, intervalMillis, fans, server.getPort()));
+			}
+		}finally{
+			server.stop();
+		}
+	}
+
+	/**
+	 * 1つの台数分を実行します。
+	 * @return 結果
+	 */
+	private static String run(int boards, int seconds, long intervalMillis, int fans, int port) throws IOException, InterruptedException{
+		SettingReader reader = new SettingReader("BoardScalingBenchmark",
+				new ByteArrayInputStream(settings(boards, fans).getBytes(StandardCharsets.UTF_8)));
+		AtomicReference<ControlConfig> config = new AtomicReference<ControlConfig>(ControlConfig.compile(reader.getSetting(false)));
+
+		List<String> names = new ArrayList<String>();
+		for(int i = 0 ; i < boards ; i++){
+			names.add(config.get().getDevice(i).getComPort());
+		}
+		Readiness readiness = new Readiness(System.nanoTime(), names);
+		readiness.configLoaded();
+
+		OpenHardwareMonitorClient monitor = new OpenHardwareMonitorClient(String.valueOf(port), CPU_NAME, GPU_NAME, CPU_CORE, true,
+				OpenHardwareMonitorClient.DEFAULT_CONNECT_TIMEOUT, OpenHardwareMonitorClient.DEFAULT_READ_TIMEOUT,
+				config.get().getSensorPatterns());
+		AcquisitionStage acquisition = new AcquisitionStage(monitor, intervalMillis, config, null, readiness);
+		acquisition.start();
+
+		AtomicReference<Measurement> measurement = new AtomicReference<Measurement>(null);
+		LinkSupervisor supervisor = new LinkSupervisor(boards);
+		List<DeviceLink> links = new ArrayList<DeviceLink>();
+		for(int i = 0 ; i < boards ; i++){
+			DeviceLink link = new SimulatedLink(config, i, acquisition, intervalMillis, readiness, supervisor, measurement);
+			links.add(link);
+			link.start();
+		}
+
+		try{
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(OPEN_TIMEOUT);
+			while( readiness.getState() != Readiness.State.READY && System.nanoTime() < deadline ){
+				Thread.sleep(100);
+			}
+			if( readiness.getState() != Readiness.State.READY ){
+				return String.format("boards %4d: not ready in %ds (%s)", boards, OPEN_TIMEOUT, readiness.getState());
+			}
+
+			measurement.set(new Measurement());
+			Thread.sleep(TimeUnit.SECONDS.toMillis(WARMUP_TIME));
+
+			Measurement result = new Measurement();
+			long start = System.nanoTime();
+			measurement.set(result);
+			Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+			measurement.set(null);
+			double elapsed = ( System.nanoTime() - start ) / 1e9;
+
+			long ticks = result.ticks.sum();
+			double expected = boards * elapsed * 1000 / intervalMillis;
+			return String.format("boards %4d: ticks/s %7.1f (%5.1f%%), tick time p50<=%5.0fus p99<=%6.0fus max %7.0fus, "
+					+ "start lag p50<=%6.0fus p99<=%6.0fus max %7.0fus, %d thread(s)",
+					boards, ticks / elapsed, ticks * 100 / expected,
+					result.tickTime.getP50Micros(), result.tickTime.getP99Micros(), result.tickTime.getMaxMicros(),
+					result.startLag.getP50Micros(), result.startLag.getP99Micros(), result.startLag.getMaxMicros(),
+					ManagementFactory.getThreadMXBean().getThreadCount());
+		}finally{
+			for(DeviceLink link : links){
+				link.interrupt();
+			}
+			for(DeviceLink link : links){
+				link.join();
+			}
+			supervisor.shutdown();
+			acquisition.interrupt();
+			acquisition.join(OpenHardwareMonitorClient.DEFAULT_CONNECT_TIMEOUT + OpenHardwareMonitorClient.DEFAULT_READ_TIMEOUT);
+			monitor.shutdown();
+		}
+	}
+
+	/**
+	 * 台数分のArduinoの設定ファイルを作成します(ファンごとに異なる変換表)。
+	 * @return 設定ファイルの内容
+	 */
+	private static String settings(int boards, int fans){
+		StringBuilder xml = new StringBuilder(256 * boards * fans);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+				.append("<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\"><properties>")
+				.append("<entry key=\"CPUFilter\">median:3</entry>")
+				.append("<entry key=\"DeviceCount\">").append(boards).append("</entry>");
+		for(int i = 1 ; i <= boards ; i++){
+			String device = "Device" + i;
+			xml.append("<entry key=\"").append(device).append("ArduinoSerialPortName\">SIM").append(i).append("</entry>")
+					.append("<entry key=\"").append(device).append("FanCount\">").append(fans).append("</entry>");
+			for(int fan = 1 ; fan <= fans ; fan++){
+				int offset = ( i + fan ) % 10;
+				xml.append("<entry key=\"").append(device).append("Fan").append(fan).append("TargetTemperature\">")
+						.append(30 + offset).append(',').append(50 + offset).append(',').append(70 + offset).append("</entry>")
+						.append("<entry key=\"").append(device).append("Fan").append(fan).append("TargetSpeed\">40,80,127</entry>");
+			}
+		}
+		return xml.append("</properties>").toString();
+	}
+}
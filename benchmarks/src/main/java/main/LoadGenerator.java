@@ -0,0 +1,363 @@
+package main;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import device.ArduinoClient;
+import device.OpenHardwareMonitorClient;
+import device.SimulatedBoard;
+import device.SimulatedOhmServer;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import xml.ControlConfig;
+import xml.SettingReader;
+
+/**
+ * 模擬したOpenHardwareMonitorと模擬Arduinoで多数の制御ループを実行し、1つのJVMで処理できる規模を計測します。
+ *
+ * 温度取得元ごとにSimulatedOhmServerとAcquisitionStage(実際のHTTP取得と解析)を起動し、
+ * 制御ループごとにSimulatedBoardとArduinoClient(v2)を接続します。
+ * 制御ループは共有のスレッドプールで制御周期ごとに実行し、DeviceLinkと同じく
+ * 現在のファン速度の取得、DeviceControlでの決定、送信を行います(画面出力と履歴の記録は行いません)。
+ *
+ * 準備運転の後の計測期間について、制御周期数(毎秒)、1周期の処理時間と開始遅れのp50/p99/最大、
+ * 割り当て量(JVM全体と制御スレッド)、GCの停止回数と停止時間、CPU使用量を出力します。
+ * p50/p99はLatencyHistogramの区間の上限(2のべき乗)です。
+ * GCの停止時間は停止を伴うコレクタ(名前に"Cycles","Concurrent"を含まないもの)の通知から求めます。
+ *
+ * 引数: [制御ループ数 温度取得元数 計測時間(秒) 制御周期(ms) 制御スレッド数](省略時は1000 4 60 1000 CPU数)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class LoadGenerator {
+
+	/** 準備運転の時間(秒) */
+	private static final int WARMUP_TIME = 10;
+
+	/** 制御ループごとのファン数 */
+	private static final int FAN_COUNT = 2;
+
+	/** CPUコア数 */
+	private static final int CPU_CORE = 4;
+
+	/** 模擬の木に含める追加のハードウェア数 */
+	private static final int EXTRA_HARDWARE = 8;
+
+	/** 模擬した温度取得元のCPU名 */
+	private static final String CPU_NAME = "Simulated CPU";
+
+	/** 模擬した温度取得元のGPU名 */
+	private static final String GPU_NAME = "Simulated GPU";
+
+	/** Arduino通信レート */
+	private static final int ARDUINO_RATE = 9600;
+
+	/** v2通信の最大通信レート */
+	private static final int ARDUINO_MAX_RATE = 115200;
+
+	/** 接続を並行して行う数 */
+	private static final int OPEN_PARALLELISM = 64;
+
+	/** 制御用設定(ファン1:変換表, ファン2:PID制御, CPU温度にフィルタ) */
+	private static final String SETTINGS =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\"><properties>"
+			+ "<entry key=\"FanCount\">" + FAN_COUNT + "</entry>"
+			+ "<entry key=\"Fan1TargetTemperature\">0,40,60,80</entry>"
+			+ "<entry key=\"Fan1TargetSpeed\">30,40,80,127</entry>"
+			+ "<entry key=\"Fan2TargetTemperature\">0,50</entry>"
+			+ "<entry key=\"Fan2TargetSpeed\">40,100</entry>"
+			+ "<entry key=\"Fan2Control\">pid</entry>"
+			+ "<entry key=\"CPUFilter\">median:3</entry>"
+			+ "</properties>";
+
+	/** 計測期間の集計 */
+	private static final class Measurement {
+		/** 1周期の処理時間 */
+		final LatencyHistogram tickTime = new LatencyHistogram("load_tick", "Control tick processing time.");
+		/** 予定時刻からの開始遅れ */
+		final LatencyHistogram startLag = new LatencyHistogram("load_start_lag", "Control tick start delay.");
+		/** GCの停止時間 */
+		final LatencyHistogram gcPause = new LatencyHistogram("load_gc_pause", "Stop-the-world GC pause.");
+		/** 制御周期数 */
+		final LongAdder ticks = new LongAdder();
+		/** 送信回数 */
+		final LongAdder sends = new LongAdder();
+		/** 送信失敗回数 */
+		final LongAdder sendErrors = new LongAdder();
+	}
+
+	/** 制御ループ1つ分です */
+	private static final class Loop implements Runnable {
+		final ArduinoClient client;
+		final DeviceControl control;
+		final AcquisitionStage acquisition;
+		final AtomicReference<Measurement> measurement;
+		final long interval;
+		/** 現在のファン速度の読み出し先 */
+		final int[] currentSpeed;
+		long scheduled;
+
+		Loop(ArduinoClient client, DeviceControl control, AcquisitionStage acquisition,
+				AtomicReference<Measurement> measurement, long interval, long firstTick){
+			this.client = client;
+			this.control = control;
+			this.acquisition = acquisition;
+			this.measurement = measurement;
+			this.interval = interval;
+			this.scheduled = firstTick;
+			this.currentSpeed = new int[client.getFanCount()];
+		}
+
+		@Override
+		public void run(){
+			long start = System.nanoTime();
+			Measurement current = measurement.get();
+			current.startLag.record(start - scheduled);
+			scheduled += interval;
+
+			int[] sendData = control.decide(acquisition.getLatest(), client.getFanSettings(currentSpeed), start);
+			if( sendData != null ){
+				try{
+					client.setFanSpeed(sendData);
+					current.sends.increment();
+				}catch(IOException e){
+					current.sendErrors.increment();
+				}
+			}
+
+			current.ticks.increment();
+			current.tickTime.recordSince(start);
+		}
+	}
+
+	private LoadGenerator(){
+	}
+
+	public static void main(String[] args) throws Exception{
+		int loops = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int hosts = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+		long intervalMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+		int workers = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long interval = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+
+		System.out.println("LoadGenerator: " + loops + " loop(s), " + hosts + " host(s), " + intervalMillis + "ms interval, "
+				+ workers + " worker(s), " + WARMUP_TIME + "s warmup + " + seconds + "s");
+
+		SettingReader reader = new SettingReader("LoadGenerator", new ByteArrayInputStream(SETTINGS.getBytes(StandardCharsets.UTF_8)));
+		AtomicReference<ControlConfig> config = new AtomicReference<ControlConfig>(ControlConfig.compile(reader.getSetting(false)));
+
+		//温度取得元
+		List<SimulatedOhmServer> servers = new ArrayList<SimulatedOhmServer>();
+		List<OpenHardwareMonitorClient> monitors = new ArrayList<OpenHardwareMonitorClient>();
+		List<AcquisitionStage> acquisitions = new ArrayList<AcquisitionStage>();
+		for(int i = 0 ; i < hosts ; i++){
+			SimulatedOhmServer server = new SimulatedOhmServer(0, CPU_NAME, GPU_NAME, CPU_CORE, EXTRA_HARDWARE, i);
+			server.start();
+			OpenHardwareMonitorClient monitor = new OpenHardwareMonitorClient(
+					String.valueOf(server.getPort()), CPU_NAME, GPU_NAME, CPU_CORE, true,
+					OpenHardwareMonitorClient.DEFAULT_CONNECT_TIMEOUT, OpenHardwareMonitorClient.DEFAULT_READ_TIMEOUT,
+					config.get().getSensorPatterns());
+			AcquisitionStage acquisition = new AcquisitionStage(monitor, intervalMillis, config, null, null);
+			acquisition.start();
+			servers.add(server);
+			monitors.add(monitor);
+			acquisitions.add(acquisition);
+		}
+
+		//模擬Arduino
+		long openStart = System.nanoTime();
+		List<ArduinoClient> clients = open(loops);
+		System.out.println(String.format("Opened %d board(s) in %.1fs", clients.size(), ( System.nanoTime() - openStart ) / 1e9));
+
+		//制御ループ
+		AtomicReference<Measurement> measurement = new AtomicReference<Measurement>(new Measurement());
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(workers, new ThreadFactory(){
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "LoadGenerator-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long base = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+		for(int i = 0 ; i < clients.size() ; i++){
+			//開始時刻を制御周期内に均等にずらす
+			long offset = interval * i / clients.size();
+			Loop loop = new Loop(clients.get(i), new DeviceControl(config, 0), acquisitions.get(i % hosts), measurement, interval, base + offset);
+			scheduler.scheduleAtFixedRate(loop, base + offset - System.nanoTime(), interval, TimeUnit.NANOSECONDS);
+		}
+
+		Thread.sleep(TimeUnit.SECONDS.toMillis(WARMUP_TIME));
+
+		//計測
+		Measurement result = new Measurement();
+		NotificationListener gcListener = gcListener(result.gcPause);
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+			( (NotificationEmitter) gc ).addNotificationListener(gcListener, null, null);
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+		HashMap<Long, Long> allocatedBefore = allocated(threads);
+		long cpuBefore = os.getProcessCpuTime();
+		long ohmBefore = Metrics.OHM_FETCH.getCount();
+		long ohmTimeBefore = Metrics.OHM_FETCH.getSumNanos();
+		long start = System.nanoTime();
+		measurement.set(result);
+
+		Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+
+		measurement.set(new Measurement());
+		double elapsed = ( System.nanoTime() - start ) / 1e9;
+		double cpu = ( os.getProcessCpuTime() - cpuBefore ) / 1e9;
+		long ohmFetches = Metrics.OHM_FETCH.getCount() - ohmBefore;
+		long ohmTime = Metrics.OHM_FETCH.getSumNanos() - ohmTimeBefore;
+		HashMap<Long, Long> allocatedAfter = allocated(threads);
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+			( (NotificationEmitter) gc ).removeNotificationListener(gcListener);
+		}
+
+		long allocatedTotal = 0;
+		long allocatedWorkers = 0;
+		for(Thread thread : Thread.getAllStackTraces().keySet()){
+			Long after = allocatedAfter.get(thread.getId());
+			if( after == null ){
+				continue;
+			}
+			Long before = allocatedBefore.get(thread.getId());
+			long delta = after - ( before != null ? before : 0 );
+			allocatedTotal += delta;
+			if( thread.getName().startsWith("LoadGenerator-") ){
+				allocatedWorkers += delta;
+			}
+		}
+
+		long ticks = result.ticks.sum();
+		double expected = clients.size() * elapsed * 1e9 / interval;
+		System.out.println(String.format("ticks/s    : %.0f (%.1f%% of %.0f scheduled), sends %d, send errors %d",
+				ticks / elapsed, ticks * 100 / expected, expected / elapsed, result.sends.sum(), result.sendErrors.sum()));
+		System.out.println(String.format("tick time  : p50<=%.0fus p99<=%.0fus max %.0fus mean %.1fus",
+				result.tickTime.getP50Micros(), result.tickTime.getP99Micros(), result.tickTime.getMaxMicros(), result.tickTime.getMeanMicros()));
+		System.out.println(String.format("start lag  : p50<=%.0fus p99<=%.0fus max %.0fus",
+				result.startLag.getP50Micros(), result.startLag.getP99Micros(), result.startLag.getMaxMicros()));
+		System.out.println(String.format("allocation : %.1f MB/s total, %.0f B/tick on control threads",
+				allocatedTotal / elapsed / 1e6, ticks > 0 ? (double) allocatedWorkers / ticks : 0));
+		System.out.println(String.format("gc pauses  : %d, total %.0fms, max %.0fms",
+				result.gcPause.getCount(), result.gcPause.getSumNanos() / 1e6, result.gcPause.getMaxMicros() / 1000));
+		System.out.println(String.format("cpu        : %.2f core(s), OHM fetches %d (mean %.0fus), %d thread(s)",
+				cpu / elapsed, ohmFetches, ohmFetches > 0 ? ohmTime / 1e3 / ohmFetches : 0, threads.getThreadCount()));
+
+		scheduler.shutdownNow();
+		for(ArduinoClient client : clients){
+			client.close();
+		}
+		for(AcquisitionStage acquisition : acquisitions){
+			acquisition.interrupt();
+		}
+		//取得中の応答を待ってから停止する
+		for(AcquisitionStage acquisition : acquisitions){
+			acquisition.join(OpenHardwareMonitorClient.DEFAULT_CONNECT_TIMEOUT + OpenHardwareMonitorClient.DEFAULT_READ_TIMEOUT);
+		}
+		for(OpenHardwareMonitorClient monitor : monitors){
+			monitor.shutdown();
+		}
+		for(SimulatedOhmServer server : servers){
+			server.stop();
+		}
+	}
+
+	/**
+	 * 模擬Arduinoを並行して接続します。
+	 * @param count 接続数
+	 * @return 接続したArduino通信クラス
+	 * @throws InterruptedException
+	 * @throws ExecutionException 接続失敗時
+	 */
+	private static List<ArduinoClient> open(int count) throws InterruptedException, ExecutionException{
+		ExecutorService executor = Executors.newFixedThreadPool(OPEN_PARALLELISM);
+		try{
+			List<Future<ArduinoClient>> futures = new ArrayList<Future<ArduinoClient>>();
+			for(int i = 0 ; i < count ; i++){
+				final String name = "SIM" + i;
+				futures.add(executor.submit(new Callable<ArduinoClient>(){
+					@Override
+					public ArduinoClient call() throws IOException, InterruptedException{
+						return ArduinoClient.open(new SimulatedBoard(name, FAN_COUNT, true), ARDUINO_RATE, FAN_COUNT, ARDUINO_MAX_RATE);
+					}
+				}));
+			}
+
+			List<ArduinoClient> clients = new ArrayList<ArduinoClient>();
+			for(Future<ArduinoClient> future : futures){
+				clients.add(future.get());
+			}
+			return clients;
+		}finally{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * スレッドごとの割り当て量を取得します。
+	 * @param threads スレッドの管理Bean
+	 * @return スレッドIDごとの割り当て量(byte)
+	 */
+	private static HashMap<Long, Long> allocated(com.sun.management.ThreadMXBean threads){
+		long[] ids = threads.getAllThreadIds();
+		long[] bytes = threads.getThreadAllocatedBytes(ids);
+		HashMap<Long, Long> result = new HashMap<Long, Long>();
+		for(int i = 0 ; i < ids.length ; i++){
+			if( bytes[i] >= 0 ){
+				result.put(ids[i], bytes[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 停止を伴うGCの停止時間を記録するリスナーを作成します。
+	 * @param pauses 記録先
+	 * @return リスナー
+	 */
+	private static NotificationListener gcListener(final LatencyHistogram pauses){
+		return new NotificationListener(){
+			@Override
+			public void handleNotification(Notification notification, Object handback){
+				if( !GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()) ){
+					return;
+				}
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+				if( !info.getGcName().contains("Cycles") && !info.getGcName().contains("Concurrent") ){
+					pauses.record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,98 @@
+package xml;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 温度からファン速度を求める方法を比較します。
+ * <ul>
+ * <li>treeMap … 従来の方法。SortedMapのheadMap(温度).lastKey()で設定温度を求め、速度を取り出す</li>
+ * <li>table … FanCurve(段階モード)の変換表を1回参照する</li>
+ * </ul>
+ * 温度は-5-114℃をTEMPERATURES個並べた列を順に使用し、1温度あたりの時間を出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanCurveBenchmark {
+
+	/** 1回に評価する温度の数 */
+	private static final int TEMPERATURES = 1024;
+
+	/** 設定温度の数 */
+	@Param({"6", "24"})
+	public int points;
+
+	/** 温度の列 */
+	private final int[] temperatures = new int[TEMPERATURES];
+
+	/** <温度,速度>の設定値 */
+	private SortedMap<Integer, Integer> map;
+
+	/** 変換表 */
+	private FanCurve curve;
+
+	@Setup
+	public void setup(){
+		map = new TreeMap<Integer, Integer>();
+		for(int i = 0 ; i < points ; i++){
+			map.put(30 + i * 60 / points, 30 + i * 97 / points);
+		}
+		curve = FanCurve.compile(map, false);
+
+		for(int i = 0 ; i < TEMPERATURES ; i++){
+			temperatures[i] = -5 + ( i * 37 ) % 120;
+		}
+		for(int temperature : temperatures){
+			if( lookup(temperature) != curve.speedAt(temperature) ){
+				throw new IllegalStateException("FanCurve differs from TreeMap at " + temperature + "℃");
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEMPERATURES)
+	public int treeMap(){
+		int sum = 0;
+		for(int temperature : temperatures){
+			sum += lookup(temperature);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEMPERATURES)
+	public int table(){
+		int sum = 0;
+		for(int temperature : temperatures){
+			sum += curve.speedAt(temperature);
+		}
+		return sum;
+	}
+
+	/** 従来の方法(温度未満の最大の設定温度, 該当なしの場合は最小の設定温度)で速度を求めます */
+	private int lookup(int temperature){
+		SortedMap<Integer, Integer> head = map.headMap(temperature);
+		Integer key = head.size() > 0 ? head.lastKey() : map.firstKey();
+		return map.get(key);
+	}
+}
@@ -0,0 +1,60 @@
+package xml;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmark.Fixtures;
+
+/**
+ * 設定の読み込み(SettingReader.getSetting)と制御用設定の作成(ControlConfig.compile)を計測します。
+ * 設定ファイルはArduino2台,ファン4個ずつのsetting.xmlを一時ファイルに書き出したものです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingReaderBenchmark {
+
+	/** 設定ファイルのパス */
+	private String path;
+
+	/** 読み込み済みの設定ファイル */
+	private SettingReader reader;
+
+	@Setup
+	public void setup() throws IOException{
+		path = Fixtures.path("setting.xml");
+		reader = new SettingReader(path);
+		if( reader.getSetting(true).getDevices().isEmpty() || !reader.getErrors().isEmpty() ){
+			throw new IllegalStateException("Invalid fixture: " + reader.getErrors());
+		}
+	}
+
+	/** 読み込み済みの内容からの設定の作成(再読み込み時の処理) */
+	@Benchmark
+	public Settings getSetting(){
+		return reader.getSetting(true);
+	}
+
+	/** 設定ファイルの読み込みとXMLの解析から制御用設定の作成まで */
+	@Benchmark
+	public ControlConfig loadAndCompile() throws IOException{
+		SettingReader fresh = new SettingReader(path);
+		return ControlConfig.compile(fresh.getSetting(false));
+	}
+}
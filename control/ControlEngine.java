@@ -0,0 +1,57 @@
+package control;
+
+import xml.DeviceConfig;
+import xml.DeviceSettings;
+
+/**
+ * Arduino1台分の制御則をまとめて保持します。
+ * ファンごとに設定された制御方式の制御則を作成し、制御用設定が差し替えられた場合は作り直します。
+ * 作り直したPID制御はその時点のファン速度から制御を再開します。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class ControlEngine {
+
+	/** 制御則の作成元の設定 */
+	private DeviceConfig config = null;
+
+	/** ファンごとの制御則 */
+	private ControlLaw[] laws = new ControlLaw[0];
+
+	/**
+	 * 温度からファン速度を決定します。
+	 * @param config 最新の制御用設定
+	 * @param fan ファン番号(0から)
+	 * @param temperature 制御に使用する温度
+	 * @param sampledAt 温度の取得時刻(System.nanoTime)
+	 * @param current 現在のファン速度
+	 * @return ファン速度(0-127)
+	 */
+	public int update(DeviceConfig config, int fan, double temperature, long sampledAt, int current){
+		if( config != this.config ){
+			this.config = config;
+			laws = new ControlLaw[config.getFanCount()];
+			for(int i = 0 ; i < laws.length ; i++){
+				laws[i] = create(config, i);
+			}
+		}
+		return laws[fan].update(temperature, sampledAt, current);
+	}
+
+	/**
+	 * 設定からファン1つ分の制御則を作成します。
+	 * PID制御の最小速度はファン速度変換表の最低温度の速度です。
+	 * @param config 制御用設定
+	 * @param fan ファン番号(0から)
+	 * @return 制御則
+	 */
+	public static ControlLaw create(DeviceConfig config, int fan){
+		if( config.getControlMode(fan) == DeviceSettings.CONTROL_PID ){
+			return new PidControl(config.getPidTarget(fan), config.getPidGain(fan, 0), config.getPidGain(fan, 1),
+					config.getPidGain(fan, 2), config.getFanCurve(fan).speedAt(0));
+		}
+		return new CurveControl(config.getFanCurve(fan), config.getHysteresis(fan));
+	}
+}
@@ -0,0 +1,21 @@
+package control;
+
+/**
+ * ファン1つ分の制御則です。
+ * 制御周期ごとに温度を受け取り、次に設定するファン速度を返します。
+ * 状態を持つ実装があるため、インスタンスはファンごとに作成します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface ControlLaw {
+
+	/**
+	 * 温度からファン速度を決定します。
+	 * @param temperature 制御に使用する温度
+	 * @param sampledAt 温度の取得時刻(System.nanoTime)。同じ温度情報では同じ値を渡すこと
+	 * @param current 現在のファン速度
+	 * @return ファン速度(0-127)
+	 */
+	int update(double temperature, long sampledAt, int current);
+}
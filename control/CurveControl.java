@@ -0,0 +1,33 @@
+package control;
+
+import xml.FanCurve;
+
+/**
+ * ファン速度変換表による制御です。
+ * 温度を切り上げた整数で変換表を参照し、速度を下げる場合のみヒステリシス幅を適用します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class CurveControl implements ControlLaw {
+
+	/** ファン速度変換表 */
+	private final FanCurve curve;
+
+	/** ヒステリシス幅(℃) */
+	private final int hysteresis;
+
+	/**
+	 * @param curve ファン速度変換表
+	 * @param hysteresis ヒステリシス幅(℃)
+	 */
+	public CurveControl(FanCurve curve, int hysteresis){
+		this.curve = curve;
+		this.hysteresis = hysteresis;
+	}
+
+	@Override
+	public int update(double temperature, long sampledAt, int current){
+		return curve.speedAt((int) Math.ceil(temperature), current, hysteresis);
+	}
+}
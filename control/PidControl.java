@@ -0,0 +1,115 @@
+package control;
+
+/**
+ * 目標温度を保つPID制御です。
+ * 温度が目標を上回るほどファン速度を上げ、微分項は温度の上昇率に比例して先回りで速度を上げます。
+ * 微分項は目標との差ではなく温度そのものの変化から求め、変化率は平滑化して使用します。
+ * 出力が上下限に張り付いている間は、さらに張り付く方向へは積分しません。
+ * 初回は現在のファン速度から始まるよう積分項を初期化します。
+ * 出力の変化が不感帯未満の場合は前回の速度を維持し、細かな送信を減らします。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class PidControl implements ControlLaw {
+
+	/** ファン速度の最大値 */
+	private static final int MAX_SPEED = 127;
+
+	/** 出力を変更する最小の変化量 */
+	private static final int DEADBAND = 4;
+
+	/** 温度変化率の平滑化係数(0-1, 1で平滑化なし) */
+	private static final double DERIVATIVE_SMOOTHING = 0.2;
+
+	/** 目標温度(℃) */
+	private final double target;
+
+	/** 比例ゲイン(ファン速度/℃) */
+	private final double kp;
+
+	/** 積分ゲイン(ファン速度/℃秒) */
+	private final double ki;
+
+	/** 微分ゲイン(ファン速度/(℃/秒)) */
+	private final double kd;
+
+	/** ファン速度の最小値 */
+	private final int minSpeed;
+
+	/** 初期化済みか */
+	private boolean initialized = false;
+
+	/** 積分項(ファン速度) */
+	private double integral;
+
+	/** 平滑化した温度変化率(℃/秒) */
+	private double derivative = 0;
+
+	/** 前回の温度 */
+	private double lastTemperature;
+
+	/** 前回の温度の取得時刻(System.nanoTime) */
+	private long lastSampledAt;
+
+	/** 前回の出力 */
+	private int output;
+
+	/**
+	 * @param target 目標温度(℃)
+	 * @param kp 比例ゲイン(ファン速度/℃)
+	 * @param ki 積分ゲイン(ファン速度/℃秒)
+	 * @param kd 微分ゲイン(ファン速度/(℃/秒))
+	 * @param minSpeed ファン速度の最小値
+	 */
+	public PidControl(double target, double kp, double ki, double kd, int minSpeed){
+		this.target = target;
+		this.kp = kp;
+		this.ki = ki;
+		this.kd = kd;
+		this.minSpeed = Math.max(0, Math.min(MAX_SPEED, minSpeed));
+	}
+
+	@Override
+	public int update(double temperature, long sampledAt, int current){
+		double error = temperature - target;
+
+		if( !initialized ){
+			initialized = true;
+			output = clamp(current);
+			integral = Math.max(minSpeed, Math.min(MAX_SPEED, output - kp * error));
+			lastTemperature = temperature;
+			lastSampledAt = sampledAt;
+			return output;
+		}
+
+		//同じ温度情報では状態を進めない
+		if( sampledAt == lastSampledAt ){
+			return output;
+		}
+
+		double dt = ( sampledAt - lastSampledAt ) / 1e9;
+		derivative += ( ( temperature - lastTemperature ) / dt - derivative ) * DERIVATIVE_SMOOTHING;
+		lastTemperature = temperature;
+		lastSampledAt = sampledAt;
+
+		double candidate = integral + ki * error * dt;
+		double value = kp * error + candidate + kd * derivative;
+		if( !( value > MAX_SPEED && error > 0 ) && !( value < minSpeed && error < 0 ) ){
+			integral = candidate;
+		} else {
+			value = kp * error + integral + kd * derivative;
+		}
+
+		int speed = clamp((int) Math.round(value));
+		if( Math.abs(speed - output) >= DEADBAND || ( speed != output && ( speed == minSpeed || speed == MAX_SPEED ) ) ){
+			output = speed;
+		}
+		return output;
+	}
+
+	private int clamp(int speed){
+		return Math.max(minSpeed, Math.min(MAX_SPEED, speed));
+	}
+}
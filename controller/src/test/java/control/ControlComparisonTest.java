@@ -0,0 +1,182 @@
+package control;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TreeMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import xml.FanCurve;
+
+/**
+ * 模擬した発熱体(ThermalPlant)で制御則を比較します。
+ * 待機(30W)から高負荷(150W)へ切り替えて戻す同じ負荷変動に対し、
+ * PID制御の行き過ぎ量とファン速度の変更回数が温度カーブ(段階・線形)に対して上限内か確認します。
+ * 乱数の種を固定しているため、常に同じ結果になります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class ControlComparisonTest {
+
+	/** 模擬の刻み幅(秒) */
+	private static final double STEP = 0.01;
+
+	/** 制御周期(秒) */
+	private static final int CONTROL_INTERVAL = 1;
+
+	/** 待機時の発熱量(W) */
+	private static final double IDLE_POWER = 30;
+
+	/** 高負荷時の発熱量(W) */
+	private static final double LOAD_POWER = 150;
+
+	/** 高負荷の開始時刻(秒) */
+	private static final int LOAD_START = 60;
+
+	/** 高負荷の終了時刻(秒) */
+	private static final int LOAD_END = 420;
+
+	/** 模擬の終了時刻(秒) */
+	private static final int END = 600;
+
+	/** 定常値を求める期間(高負荷の最後,秒) */
+	private static final int STEADY_WINDOW = 60;
+
+	/** 整定とみなす定常値からの幅(℃) */
+	private static final double SETTLE_BAND = 2;
+
+	/** 乱数の種 */
+	private static final long SEED = 1;
+
+	/** PID制御の目標温度(℃) */
+	private static final double TARGET = 68;
+
+	/** PID制御で許容する行き過ぎ量(℃) */
+	private static final double MAX_OVERSHOOT = 0.5;
+
+	/** PID制御で許容する定常温度と目標温度の差(℃) */
+	private static final double MAX_STEADY_ERROR = 0.5;
+
+	/** PID制御で許容するファン速度の変更回数 */
+	private static final int MAX_CHANGES = 40;
+
+	/** 段階の温度カーブの結果 */
+	private static Result step;
+
+	/** 線形の温度カーブの結果 */
+	private static Result linear;
+
+	/** PID制御の結果 */
+	private static Result pid;
+
+	/** 1回の模擬の結果 */
+	static final class Result {
+		/** 定常温度(℃) */
+		double steady;
+		/** 最高温度(℃) */
+		double peak;
+		/** 負荷開始から整定までの時間(秒) */
+		double settlingTime;
+		/** 負荷開始からファン速度を上げるまでの時間(秒) */
+		double reactionTime = Double.NaN;
+		/** ファン速度の変更回数 */
+		int changes;
+
+		@Override
+		public String toString(){
+			return String.format("steady %.1fC, peak %.1fC, overshoot %.1fC, settling %.0fs, first spin-up %.0fs, duty changes %d",
+					steady, peak, peak - steady, settlingTime, reactionTime, changes);
+		}
+	}
+
+	@BeforeClass
+	public static void simulate(){
+		TreeMap<Integer, Integer> points = new TreeMap<Integer, Integer>();
+		points.put(0, 30);
+		points.put(50, 45);
+		points.put(60, 65);
+		points.put(70, 90);
+		points.put(80, 127);
+
+		step = run(new CurveControl(FanCurve.compile(points, false), 3));
+		linear = run(new CurveControl(FanCurve.compile(points, true), 3));
+		pid = run(new PidControl(TARGET, 4, 0.05, 10, 30));
+	}
+
+	/** 高負荷の定常温度が目標温度に収まる */
+	@Test
+	public void pidHoldsTarget(){
+		assertEquals(pid.toString(), TARGET, pid.steady, MAX_STEADY_ERROR);
+	}
+
+	/** 行き過ぎ量が上限内で、段階の温度カーブより小さい */
+	@Test
+	public void pidOvershootBelowCurve(){
+		assertTrue(pid + " / " + step, pid.peak - pid.steady <= MAX_OVERSHOOT);
+		assertTrue(pid + " / " + step, pid.peak - pid.steady < step.peak - step.steady);
+	}
+
+	/** ファン速度の変更回数が上限内で、線形の温度カーブ(同じく連続的に追従する)以下 */
+	@Test
+	public void pidDutyChangesBounded(){
+		assertTrue(pid + " / " + linear, pid.changes <= MAX_CHANGES);
+		assertTrue(pid + " / " + linear, pid.changes <= linear.changes);
+	}
+
+	/**
+	 * 負荷変動を模擬します。
+	 * @param law 制御則
+	 * @return 結果
+	 */
+	static Result run(ControlLaw law){
+		ThermalPlant plant = new ThermalPlant(SEED);
+		Result result = new Result();
+		int steps = (int) Math.round(END / STEP);
+		int stepsPerControl = (int) Math.round(CONTROL_INTERVAL / STEP);
+		double[] temperature = new double[steps];
+
+		int speed = 30;
+		plant.settle(IDLE_POWER, speed);
+		for(int step = 0 ; step < steps ; step++){
+			double time = step * STEP;
+
+			if( step % stepsPerControl == 0 ){
+				int next = law.update(plant.measure(), Math.round(time * 1e9), speed);
+				if( next != speed ){
+					result.changes++;
+					if( next > speed && time >= LOAD_START && Double.isNaN(result.reactionTime) ){
+						result.reactionTime = time - LOAD_START;
+					}
+					speed = next;
+				}
+			}
+
+			plant.step(time >= LOAD_START && time < LOAD_END ? LOAD_POWER : IDLE_POWER, speed, STEP);
+			temperature[step] = plant.getTemperature();
+		}
+
+		int loadStart = (int) Math.round(LOAD_START / STEP);
+		int loadEnd = (int) Math.round(LOAD_END / STEP);
+		int window = (int) Math.round(STEADY_WINDOW / STEP);
+
+		double sum = 0;
+		for(int step = loadEnd - window ; step < loadEnd ; step++){
+			sum += temperature[step];
+		}
+		result.steady = sum / window;
+
+		int settled = loadStart;
+		result.peak = Double.NEGATIVE_INFINITY;
+		for(int step = loadStart ; step < loadEnd ; step++){
+			result.peak = Math.max(result.peak, temperature[step]);
+			if( Math.abs(temperature[step] - result.steady) > SETTLE_BAND ){
+				settled = step + 1;
+			}
+		}
+		result.settlingTime = ( settled - loadStart ) * STEP;
+
+		return result;
+	}
+}
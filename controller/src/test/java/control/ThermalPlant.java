@@ -0,0 +1,101 @@
+package control;
+import java.util.Random;
+
+/**
+ * ファンで冷却される発熱体の模擬です。制御則の比較に使用します。
+ * チップとヒートシンクの2つの熱容量からなり、ヒートシンクから外気への熱伝達はファンの風量に比例して増えます。
+ * 風量はファン速度に一次遅れで追従します。
+ * 温度の測定値には固定の乱数系列による雑音を加えるため、同じ入力からは常に同じ結果になります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class ThermalPlant {
+
+	/** 外気温(℃) */
+	private static final double AMBIENT = 25;
+
+	/** チップの熱容量(J/K) */
+	private static final double DIE_CAPACITY = 40;
+
+	/** ヒートシンクの熱容量(J/K) */
+	private static final double SINK_CAPACITY = 400;
+
+	/** チップ-ヒートシンク間の熱抵抗(K/W) */
+	private static final double DIE_TO_SINK = 0.15;
+
+	/** ファン停止時のヒートシンク-外気間の熱伝達(W/K) */
+	private static final double SINK_TO_AIR_IDLE = 1;
+
+	/** ファン最大時に増える熱伝達(W/K) */
+	private static final double SINK_TO_AIR_FAN = 9;
+
+	/** 風量の時定数(秒) */
+	private static final double FAN_TIME_CONSTANT = 2;
+
+	/** ファン速度の最大値 */
+	private static final int MAX_SPEED = 127;
+
+	/** 測定値の雑音(℃,±) */
+	private static final double NOISE = 0.5;
+
+	/** チップ温度(℃) */
+	private double die = AMBIENT;
+
+	/** ヒートシンク温度(℃) */
+	private double sink = AMBIENT;
+
+	/** 風量(0-1) */
+	private double airflow = 0;
+
+	/** 測定値の雑音 */
+	private final Random noise;
+
+	/**
+	 * @param seed 測定値の雑音の乱数の種
+	 */
+	public ThermalPlant(long seed){
+		this.noise = new Random(seed);
+	}
+
+	/**
+	 * 指定した発熱量とファン速度で定常状態にします。
+	 * @param power 発熱量(W)
+	 * @param speed ファン速度(0-127)
+	 */
+	public void settle(double power, int speed){
+		airflow = (double) speed / MAX_SPEED;
+		sink = AMBIENT + power / ( SINK_TO_AIR_IDLE + SINK_TO_AIR_FAN * airflow );
+		die = sink + power * DIE_TO_SINK;
+	}
+
+	/**
+	 * 時間を進めます。
+	 * @param power 発熱量(W)
+	 * @param speed ファン速度(0-127)
+	 * @param dt 経過時間(秒)。0.05秒程度以下であること
+	 */
+	public void step(double power, int speed, double dt){
+		airflow += ( (double) speed / MAX_SPEED - airflow ) * dt / FAN_TIME_CONSTANT;
+		double toSink = ( die - sink ) / DIE_TO_SINK;
+		double toAir = ( SINK_TO_AIR_IDLE + SINK_TO_AIR_FAN * airflow ) * ( sink - AMBIENT );
+		die += ( power - toSink ) * dt / DIE_CAPACITY;
+		sink += ( toSink - toAir ) * dt / SINK_CAPACITY;
+	}
+
+	/**
+	 * チップ温度の真値を取得します。
+	 * @return チップ温度(℃)
+	 */
+	public double getTemperature(){
+		return die;
+	}
+
+	/**
+	 * チップ温度の測定値を取得します。
+	 * @return 雑音を加えたチップ温度(℃)
+	 */
+	public double measure(){
+		return die + ( noise.nextDouble() * 2 - 1 ) * NOISE;
+	}
+}
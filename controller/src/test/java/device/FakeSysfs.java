@@ -0,0 +1,131 @@
+package device;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * 一時ディレクトリに作成する模擬の/sys/class/hwmonです。HwmonTemperatureSourceTestで使用します。
+ *
+ * チップごとにhwmonNディレクトリを作り、name, temp*_input(ミリ度), temp*_labelを置きます。
+ * 温度の書き換えは同じファイルを上書きするため、開いたままのFileChannelから新しい値を読めます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class FakeSysfs {
+
+	/** hwmonディレクトリ */
+	private final Path root;
+
+	/** 次に作成するhwmonNの番号 */
+	private int next = 0;
+
+	/**
+	 * 一時ディレクトリを作成します。
+	 * @throws IOException 作成に失敗した場合
+	 */
+	FakeSysfs() throws IOException{
+		this.root = Files.createTempDirectory("hwmon");
+	}
+
+	/**
+	 * @return hwmonディレクトリ
+	 */
+	Path getRoot(){
+		return root;
+	}
+
+	/**
+	 * チップを作成します。
+	 * @param name チップ名
+	 * @return チップのディレクトリ
+	 * @throws IOException 作成に失敗した場合
+	 */
+	Path addChip(String name) throws IOException{
+		Path chip = Files.createDirectory(root.resolve("hwmon" + next++));
+		write(chip.resolve("name"), name);
+		return chip;
+	}
+
+	/**
+	 * 温度センサーを作成します。
+	 * @param chip チップのディレクトリ
+	 * @param index temp*_inputの番号
+	 * @param label ラベル, ない場合null
+	 * @param celsius 温度(℃)
+	 * @throws IOException 作成に失敗した場合
+	 */
+	void addInput(Path chip, int index, String label, double celsius) throws IOException{
+		if( label != null ){
+			write(chip.resolve("temp" + index + "_label"), label);
+		}
+		setTemperature(chip, index, celsius);
+	}
+
+	/**
+	 * 温度を書き換えます。
+	 * @param chip チップのディレクトリ
+	 * @param index temp*_inputの番号
+	 * @param celsius 温度(℃)
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	void setTemperature(Path chip, int index, double celsius) throws IOException{
+		write(input(chip, index), String.valueOf(Math.round(celsius * 1000)));
+	}
+
+	/**
+	 * 温度を空にして読み込みを失敗させます(チップが消えたときの読み込みエラーの代わり)。
+	 * @param chip チップのディレクトリ
+	 * @param index temp*_inputの番号
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	void clear(Path chip, int index) throws IOException{
+		Files.write(input(chip, index), new byte[0]);
+	}
+
+	/**
+	 * チップを削除します。
+	 * @param chip チップのディレクトリ
+	 * @throws IOException 削除に失敗した場合
+	 */
+	void removeChip(Path chip) throws IOException{
+		delete(chip);
+	}
+
+	/**
+	 * 一時ディレクトリを削除します。
+	 * @throws IOException 削除に失敗した場合
+	 */
+	void delete() throws IOException{
+		delete(root);
+	}
+
+	private static Path input(Path chip, int index){
+		return chip.resolve("temp" + index + "_input");
+	}
+
+	/** sysfsと同じく改行付きで書き込みます */
+	private static void write(Path path, String text) throws IOException{
+		Files.write(path, ( text + "\n" ).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static void delete(Path directory) throws IOException{
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>(){
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException{
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException{
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
@@ -0,0 +1,292 @@
+package device;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import metrics.Metrics;
+
+/**
+ * ArduinoClientの受信処理(データ到着通知からフレームの解析まで)を模擬のArduinoで確認します。
+ *
+ * 模擬のArduinoは指定した区切りで受信データを渡し、そのたびにデータ到着通知を呼び出します。
+ * v1(開始文字+ファン数分の速度)とv2(状態通知のフレーム)のそれぞれで、
+ * 受信フレーム数, フレームエラー数, 最後に受信したファン速度が期待どおりか確認します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+@RunWith(Parameterized.class)
+public class FrameReceiveTest {
+
+	/** 通信レート */
+	private static final int RATE = 9600;
+
+	/** v2で使用する最大通信レート(切り替えない) */
+	private static final int MAX_RATE = 115200;
+
+	/** ファン数 */
+	private static final int FANS = 4;
+
+	/** 連続させるフレーム数 */
+	private static final int BURST = 50;
+
+	/** 乱数の種 */
+	private static final long SEED = 1;
+
+	/** 受信データを指定した区切りで渡す模擬のArduino */
+	private static final class ScriptedBoard implements SerialConnection {
+		final int fanCount;
+		final byte[] buffer = new byte[4096];
+		int head = 0;
+		int tail = 0;
+		Runnable listener;
+		final FrameDecoderV2 decoder = new FrameDecoderV2();
+
+		ScriptedBoard(int fanCount){
+			this.fanCount = fanCount;
+		}
+
+		/** 受信データを渡し、データ到着通知を呼び出します */
+		void deliver(byte[] data, int off, int len){
+			synchronized( buffer ){
+				if( head == tail ){
+					head = 0;
+					tail = 0;
+				}
+				System.arraycopy(data, off, buffer, tail, len);
+				tail += len;
+			}
+			listener.run();
+		}
+
+		@Override
+		public String getName(){
+			return "TEST";
+		}
+
+		@Override
+		public InputStream getInputStream(){
+			return new InputStream(){
+				@Override
+				public int read(){
+					synchronized( buffer ){
+						return head < tail ? buffer[head++] & 0xFF : -1;
+					}
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len){
+					synchronized( buffer ){
+						int read = Math.min(len, tail - head);
+						System.arraycopy(buffer, head, b, off, read);
+						head += read;
+						return read;
+					}
+				}
+
+				@Override
+				public int available(){
+					synchronized( buffer ){
+						return tail - head;
+					}
+				}
+			};
+		}
+
+		/** 接続開始にのみ応答し、それ以外の送信は読み捨てます */
+		@Override
+		public OutputStream getOutputStream(){
+			return new OutputStream(){
+				@Override
+				public synchronized void write(int b){
+					if( decoder.update(b) && decoder.getType() == ProtocolV2.HELLO ){
+						byte[] reply = frame(ProtocolV2.HELLO_ACK, ProtocolV2.VERSION, RATE / ProtocolV2.RATE_UNIT, fanCount);
+						deliver(reply, 0, reply.length);
+					}
+				}
+			};
+		}
+
+		@Override
+		public void setBaudRate(int rate){
+		}
+
+		@Override
+		public void setDataListener(Runnable listener){
+			this.listener = listener;
+		}
+
+		@Override
+		public void close(){
+		}
+	}
+
+	@Parameters(name = "v{0}")
+	public static Collection<Object[]> protocols(){
+		return Arrays.asList(new Object[][]{{ArduinoClient.PROTOCOL_V1}, {ArduinoClient.PROTOCOL_V2}});
+	}
+
+	/** プロトコル */
+	private final int protocol;
+
+	private final Random random = new Random(SEED);
+
+	private ScriptedBoard board;
+
+	private ArduinoClient client;
+
+	/** 受信させるファン速度の列 */
+	private int[][] speeds;
+
+	public FrameReceiveTest(int protocol){
+		this.protocol = protocol;
+	}
+
+	@Before
+	public void open() throws IOException, InterruptedException{
+		board = new ScriptedBoard(FANS);
+		client = ArduinoClient.open(board, RATE, FANS, protocol == ArduinoClient.PROTOCOL_V2 ? MAX_RATE : 0);
+		assertEquals("protocol", protocol, client.getProtocol());
+		speeds = speeds(BURST, FANS, random);
+	}
+
+	@After
+	public void close(){
+		client.close();
+	}
+
+	@Test
+	public void byteByByte(){
+		byte[] one = encode(0, 1);
+		int[] chunks = new int[one.length];
+		Arrays.fill(chunks, 1);
+		expect(one, chunks, 1, 0, speeds[0]);
+	}
+
+	@Test
+	public void splitInTwo(){
+		byte[] two = encode(1, 1);
+		expect(two, new int[]{two.length / 2, two.length - two.length / 2}, 1, 0, speeds[1]);
+	}
+
+	/** 受信バッファより長い連続したフレームを1回で受信する */
+	@Test
+	public void backToBack(){
+		byte[] burst = encode(0, BURST);
+		expect(burst, new int[]{burst.length}, BURST, 0, speeds[BURST - 1]);
+	}
+
+	@Test
+	public void randomChunks(){
+		byte[] burst = encode(0, BURST);
+		expect(burst, split(burst.length, random), BURST, 0, speeds[BURST - 1]);
+	}
+
+	@Test
+	public void leadingNoise(){
+		byte[] frame = encode(2, 1);
+		byte[] noisy = new byte[frame.length + 3];
+		noisy[0] = 0x7F;
+		noisy[1] = 0x00;
+		noisy[2] = 0x55;
+		System.arraycopy(frame, 0, noisy, 3, frame.length);
+		expect(noisy, new int[]{2, noisy.length - 2}, 1, 0, speeds[2]);
+	}
+
+	/** CRCが一致しないフレームを捨て、続くフレームを受信する(v2のみ) */
+	@Test
+	public void badCrcThenGood(){
+		assumeTrue(protocol == ArduinoClient.PROTOCOL_V2);
+		byte[] pair = encode(3, 2);
+		pair[pair.length / 2 - 1] ^= 0x01;
+		expect(pair, split(pair.length, random), 1, 1, speeds[4]);
+	}
+
+	/**
+	 * 受信データを指定の区切りで渡し、結果を確認します。
+	 * @param chunks 区切りごとの長さ
+	 * @param frames 期待する受信フレーム数
+	 * @param errors 期待するフレームエラー数
+	 * @param last 期待する最後のファン速度
+	 */
+	private void expect(byte[] data, int[] chunks, int frames, int errors, int[] last){
+		long received = Metrics.FRAMES_RECEIVED.getCount();
+		long errored = Metrics.FRAME_ERRORS.getCount();
+		int offset = 0;
+		for(int chunk : chunks){
+			board.deliver(data, offset, chunk);
+			offset += chunk;
+		}
+		assertEquals("frames", frames, Metrics.FRAMES_RECEIVED.getCount() - received);
+		assertEquals("frame errors", errors, Metrics.FRAME_ERRORS.getCount() - errored);
+		assertArrayEquals("last speeds", last, client.getFanSettings());
+	}
+
+	/** 開始文字(v1の2)を含まないファン速度の列を作成します */
+	private static int[][] speeds(int count, int fans, Random random){
+		int[][] speeds = new int[count][fans];
+		for(int[] frame : speeds){
+			for(int i = 0 ; i < fans ; i++){
+				do{
+					frame[i] = random.nextInt(128);
+				}while( frame[i] == 2 );
+			}
+		}
+		return speeds;
+	}
+
+	/** from番目からcount個のファン速度を受信データ(v1のフレームまたはv2の状態通知)にします */
+	private byte[] encode(int from, int count){
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for(int f = from ; f < from + count ; f++){
+			if( protocol == ArduinoClient.PROTOCOL_V1 ){
+				out.write(2);
+				for(int speed : speeds[f]){
+					out.write(speed);
+				}
+			} else {
+				byte[] frame = frame(ProtocolV2.STATUS, speeds[f]);
+				out.write(frame, 0, frame.length);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/** v2のフレームを作成します */
+	private static byte[] frame(int type, int... values){
+		byte[] payload = new byte[values.length];
+		for(int i = 0 ; i < values.length ; i++){
+			payload[i] = (byte) values[i];
+		}
+		byte[] frame = new byte[payload.length + ProtocolV2.OVERHEAD];
+		ProtocolV2.encode(frame, type, 0, payload, payload.length);
+		return frame;
+	}
+
+	/** 長さをランダムな区切り(1-16バイト)に分割します */
+	private static int[] split(int length, Random random){
+		int[] chunks = new int[length];
+		int count = 0;
+		while( length > 0 ){
+			int chunk = Math.min(length, 1 + random.nextInt(16));
+			chunks[count++] = chunk;
+			length -= chunk;
+		}
+		return Arrays.copyOf(chunks, count);
+	}
+}
@@ -0,0 +1,192 @@
+package device;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import log.EventLog;
+import log.Level;
+
+/**
+ * HwmonTemperatureSourceの温度の選択と読み込みを模擬の/sys/class/hwmon(FakeSysfs)で確認します。
+ *
+ * 選択をやり直す時間は確認のため短くしています。取得の失敗は想定どおりのため、イベントログはERRORのみ出力します。
+ * 開いているファイル数は/proc/self/fdがある場合のみ確認します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class HwmonTemperatureSourceTest {
+
+	/** CPUコア数 */
+	private static final int CPU_CORE = 4;
+
+	/** 比較の許容誤差(℃) */
+	private static final double EPSILON = 1e-9;
+
+	/** 書き換えて読み直す回数 */
+	private static final int POLLS = 100;
+
+	/** 選択をやり直す時間(ms) */
+	private static final long REDISCOVER = 200;
+
+	/** CPUの選択順 */
+	private static final String CPU_CHIPS = "k10temp,coretemp";
+
+	private FakeSysfs sysfs;
+
+	private HwmonTemperatureSource source;
+
+	@BeforeClass
+	public static void quiet(){
+		EventLog.setLevel(Level.ERROR);
+	}
+
+	@Before
+	public void create() throws IOException{
+		sysfs = new FakeSysfs();
+	}
+
+	@After
+	public void delete() throws IOException{
+		if( source != null ){
+			source.shutdown();
+		}
+		sysfs.delete();
+	}
+
+	/** "Package id"とコアごとの"Core N"(temp*_inputの番号順ではなくコア番号順) */
+	@Test
+	public void coretempLabels() throws IOException{
+		intel();
+		expect(source.getTemperature(), new double[]{41, 42, 43, 44}, 50, 60);
+	}
+
+	/** 先頭ではなく"edge"のラベルをGPU温度とする */
+	@Test
+	public void amdgpuEdge() throws IOException{
+		intel();
+		assertEquals("GPU", 60, source.getTemperature().getGpu(), EPSILON);
+	}
+
+	/** "Tctl"より"Tdie"をCPU温度とし、GPUのチップ名が空の場合はGPU温度をCPU温度で代用する */
+	@Test
+	public void k10tempWithoutGpu() throws IOException{
+		Path cpu = sysfs.addChip("k10temp");
+		sysfs.addInput(cpu, 1, "Tctl", 60);
+		sysfs.addInput(cpu, 3, "Tdie", 55);
+
+		source = new HwmonTemperatureSource(sysfs.getRoot(), CPU_CHIPS, "", CPU_CORE);
+		double[] none = new double[CPU_CORE];
+		Arrays.fill(none, Double.NaN);
+		expect(source.getTemperature(), none, 55, 55);
+	}
+
+	/** センサー式のパターン("チップ名/ラベル")に一致するセンサー */
+	@Test
+	public void sensorPattern() throws IOException{
+		intel();
+		TemperatureSnapshot snapshot = source.getTemperature();
+		assertNotNull("no value", snapshot);
+		assertEquals("patterns", 1, snapshot.getSensorPatternCount());
+		assertEquals("sensors", 1, snapshot.getSensorCount(0));
+		assertEquals("nvme/Composite", 38, snapshot.getSensor(0, 0), EPSILON);
+	}
+
+	/** 同じファイルの書き換え(短い値への書き換えを含む)を開き直さずに読み込み、開いているファイル数が増えない */
+	@Test
+	public void inPlaceReread() throws IOException{
+		Path cpu = intel();
+		source.getTemperature();
+
+		long fds = openFiles();
+		for(int poll = 0 ; poll < POLLS ; poll++){
+			//値の長さが変わっても前の値が残らないよう、1桁と2桁を交互に書き込む
+			double celsius = poll % 2 == 0 ? 9.5 : 65 + poll % 10;
+			sysfs.setTemperature(cpu, 1, celsius);
+			TemperatureSnapshot snapshot = source.getTemperature();
+			assertNotNull("poll " + poll, snapshot);
+			assertEquals("poll " + poll, celsius, snapshot.getCpuPackage(), EPSILON);
+		}
+		if( fds >= 0 ){
+			assertEquals("opened files", fds, openFiles());
+		}
+	}
+
+	/** チップが消えた場合は取得に失敗し、選択をやり直す時間が経つまで取得しない。その後、別のhwmonNに現れたチップを選択し直す */
+	@Test
+	public void vanishedChipRediscovered() throws IOException, InterruptedException{
+		Path cpu = intel();
+		source.getTemperature();
+
+		sysfs.clear(cpu, 1);
+		assertNull("read after clear", source.getTemperature());
+		sysfs.removeChip(cpu);
+		coretemp(70);
+		assertNull("before the interval", source.getTemperature());
+
+		Thread.sleep(REDISCOVER + 50);
+		expect(source.getTemperature(), new double[]{41, 42, 43, 44}, 70, 60);
+	}
+
+	/** coretemp + amdgpu + nvmeの構成を作成し、取得元を作成します */
+	private Path intel() throws IOException{
+		Path nvme = sysfs.addChip("nvme");
+		sysfs.addInput(nvme, 1, "Composite", 38);
+		Path gpu = sysfs.addChip("amdgpu");
+		sysfs.addInput(gpu, 1, "junction", 70);
+		sysfs.addInput(gpu, 2, "edge", 60);
+		Path cpu = coretemp(50);
+
+		source = new HwmonTemperatureSource(sysfs.getRoot(), CPU_CHIPS, "amdgpu", CPU_CORE,
+				Collections.singletonList("nvme/Composite"));
+		source.setRediscoverInterval(TimeUnit.MILLISECONDS.toNanos(REDISCOVER));
+		return cpu;
+	}
+
+	/**
+	 * coretempのチップを作成します(コア0-3は41-44℃)。
+	 * temp*_inputの番号順(temp2,3,4,10)はコア1,0,2,3で、temp10は名前順ではtemp2より前になります。
+	 */
+	private Path coretemp(double cpuPackage) throws IOException{
+		Path chip = sysfs.addChip("coretemp");
+		sysfs.addInput(chip, 1, "Package id 0", cpuPackage);
+		sysfs.addInput(chip, 10, "Core 3", 44);
+		sysfs.addInput(chip, 2, "Core 1", 42);
+		sysfs.addInput(chip, 3, "Core 0", 41);
+		sysfs.addInput(chip, 4, "Core 2", 43);
+		return chip;
+	}
+
+	private static void expect(TemperatureSnapshot snapshot, double[] cores, double cpuPackage, double gpu){
+		assertNotNull("no value", snapshot);
+		double[] actual = new double[snapshot.getCpuCoreCount()];
+		for(int i = 0 ; i < actual.length ; i++){
+			actual[i] = snapshot.getCpuCore(i);
+		}
+		assertArrayEquals("cores", cores, actual, EPSILON);
+		assertEquals("package", cpuPackage, snapshot.getCpuPackage(), EPSILON);
+		assertEquals("GPU", gpu, snapshot.getGpu(), EPSILON);
+	}
+
+	/**
+	 * 開いているファイル数を取得します。
+	 * @return ファイル数, 取得できない場合-1
+	 */
+	private static long openFiles(){
+		String[] fds = new File("/proc/self/fd").list();
+		return fds != null ? fds.length : -1;
+	}
+}
@@ -1,28 +1,40 @@
 package device;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
-import gnu.io.CommPortIdentifier;
 import gnu.io.NoSuchPortException;
 import gnu.io.PortInUseException;
-import gnu.io.SerialPort;
 import gnu.io.UnsupportedCommOperationException;
+import log.EventLog;
+import metrics.Metrics;
+import recording.RecordingWriter;
 
 /**
  * Arduinoとの通信を制御するクラスです。
+ * 通信路1つにつき1インスタンスを生成します。
+ * 受信は通信路のデータ到着通知で行い、ポーリングはしません。
+ * 通信路はSerialConnectionで抽象化しており、RXTXのシリアルポート以外にも接続できます。
+ *
+ * 接続時にプロトコルv2(ProtocolV2)の接続開始を送信し、応答があればv2で、
+ * なければ従来のv1(開始文字+ファン数分の値)で通信します。
+ * v2では通信レートを最大通信レートまで引き上げます。
  * @author oilyoil
  * @since 2017/05/04
  * @version v0.1
  */
 
-public class ArduinoClient extends Thread{
+public class ArduinoClient{
 
-	/** ポートハンドラ名 */
-	private static final String APPLICATION_NAME = "ArduinoClient";
+	/** プロトコル:判定中 */
+	private static final int PROTOCOL_PROBE = 0;
 
-	/** ポートタイムアウト(ms) */
-	private static final int PORT_TIMEOUT = 10000;
+	/** プロトコル:v1 */
+	public static final int PROTOCOL_V1 = 1;
+
+	/** プロトコル:v2 */
+	public static final int PROTOCOL_V2 = 2;
 
 	/** 送信ブロック開始文字 */
 	private static final int WRITE_BLOCK_START = 1;
@@ -33,205 +45,459 @@ public class ArduinoClient extends Thread{
 	/** 接続チェック文字 */
 	private static final int CONNECTION_CHECK = 3;
 
-	/** インスタンス */
-	private static ArduinoClient instance = null;
+	/** ポートを開いてからArduinoの起動を待つ時間(ms) */
+	private static final int RESET_WAIT_TIME = 1000;
+
+	/** 接続開始応答の待ち時間(ms) */
+	private static final int HELLO_TIMEOUT = 750;
+
+	/** 接続開始の送信回数 */
+	private static final int HELLO_RETRIES = 2;
+
+	/** 通信レート切り替え後の確認応答の待ち時間(ms) */
+	private static final int RATE_CONFIRM_TIMEOUT = 500;
+
+	/** 通信レート切り替え後の確認の送信回数 */
+	private static final int RATE_CONFIRM_RETRIES = 3;
+
+	/** Arduinoが確認のない通信レート切り替えを取り消すまでの時間(ms) */
+	private static final int BOARD_RATE_REVERT_TIME = 3000;
+
+	/** シリアルポート名 */
+	private final String comPort;
+
+	/** イベントログの発生元 */
+	private final String logSource;
+
+	/** 通信レート(接続時) */
+	private final int pollingRate;
+
+	/** v2で使用する最大通信レート(0:v1のみ) */
+	private final int maxRate;
+
+	/** 通信レート(現在) */
+	private volatile int currentRate;
+
+	/** 通信路 */
+	private final SerialConnection connection;
+
+	/** データブロック長(ファン数) */
+	private final int blockLength;
+
+	/** 使用中のプロトコル */
+	private volatile int protocol = PROTOCOL_PROBE;
 
-	/** シリアルポート */
-	private SerialPort port = null;
+	/** Arduinoファン設定データ(フレーム受信毎に差し替え) */
+	private volatile int[] fanSettings;
 
-	/** Arduinoファン設定データ */
-	private int[] fanSettings = new int[4];
+	/** 最後にフレームを受信した時刻(System.nanoTime, 受信前は通信を確立した時刻) */
+	private volatile long lastReceiveTime;
 
-	/** スレッド制御フラグ */
-	private boolean alive = true;
+	/** 受信ストリーム */
+	private InputStream in = null;
 
+	/** 送信スレッド */
+	private FrameSender writer = null;
 
-	/** インスタンス生成時にArduinoとの通信を確立します。
+	/** v2送信スレッド(v1の場合null) */
+	private volatile FrameWriterV2 writerV2 = null;
+
+	/** 受信フレーム解析 */
+	private final FrameDecoder decoder;
+
+	/** v2受信フレーム解析 */
+	private final FrameDecoderV2 decoderV2 = new FrameDecoderV2();
+
+	/** 受信バッファ */
+	private final byte[] receiveBuffer = new byte[64];
+
+	/** 接続処理中に受信したv2フレームの種別(未受信の場合-1) */
+	private int handshakeType = -1;
+
+	/** 接続処理中に受信したv2フレームのペイロード */
+	private final int[] handshakePayload = new int[4];
+
+	/** 送受信データの記録先(記録しない場合null) */
+	private RecordingWriter recorder = null;
+
+	/** 記録時のArduinoの番号 */
+	private int device = 0;
+
+
+	/** インスタンスを生成します。通信は開始しません。
+	 * @Param connection 通信路
+	 * @Param pollingRate 通信レート
+	 * @Param fanCount ファンの数(Arduino側の1フレームのデータ数と一致させること)
+	 * @Param maxRate v2で使用する最大通信レート(0:v1のみ)
+	 * */
+	private ArduinoClient(SerialConnection connection, int pollingRate, int fanCount, int maxRate){
+		this.connection = connection;
+		this.comPort = connection.getName();
+		this.logSource = "ArduinoClient(" + comPort + ")";
+		this.pollingRate = pollingRate;
+		this.currentRate = pollingRate;
+		this.maxRate = maxRate;
+		this.blockLength = fanCount;
+		this.fanSettings = new int[fanCount];
+		this.decoder = new FrameDecoder(READ_BLOCK_START, fanCount);
+	}
+
+	/** シリアルポートを開き、Arduinoとの通信を確立します。
 	 * @Param comPort シリアルポート名(ex. COM3)
 	 * @Param pollingRate 通信レート(300, 1200, 2400, 4800, 9600, 14400, 19200, 28800, 38400, 57600, 115200のいずれか)
+	 * @Param fanCount ファンの数(Arduino側の1フレームのデータ数と一致させること)
+	 * @Param maxRate v2で使用する最大通信レート(0:v2を試さずv1で通信)
+	 * @throws PortInUseException　既にこのポートは使用中です
+	 * @throws NoSuchPortException 指定されたポート名は存在しません
+	 * @throws UnsupportedCommOperationException ポート設定エラーです
+	 * @throws InterruptedException
+	 * @throws IOException 受信開始エラーです
+	 * @return ArduinoClient - インスタンス。
 	 * */
-	private ArduinoClient(String comPort, int pollingRate)
-			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException{
-		//ポートのオープン
-		port = (SerialPort) CommPortIdentifier.getPortIdentifier(comPort)
-				.open(APPLICATION_NAME, PORT_TIMEOUT);
-
-		/** ポートの設定
-		 * Arduinoシリアル通信に準拠した以下の設定
-		 * 通信レート:300, 1200, 2400, 4800, 9600, 14400, 19200, 28800, 38400, 57600, 115200
-		 * データビット:8ビット
-		 * ストップビット:1
-		 * パリティチェック:なし
-		 * */
-		port.setSerialPortParams(pollingRate, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+	public static ArduinoClient open(String comPort, int pollingRate, int fanCount, int maxRate)
+			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, IOException{
+		return open(comPort, pollingRate, fanCount, maxRate, null, 0);
 	}
 
-	/** インスタンスを取得します。既に存在するならばそれを返します。
-	 * インスタンス生成時にArduinoとの通信を確立します
+	/** シリアルポートを開き、送受信データを記録しながらArduinoとの通信を確立します。
+	 * 記録はreOpen()後も継続します。
 	 * @Param comPort シリアルポート名(ex. COM3)
 	 * @Param pollingRate 通信レート(300, 1200, 2400, 4800, 9600, 14400, 19200, 28800, 38400, 57600, 115200のいずれか)
+	 * @Param fanCount ファンの数(Arduino側の1フレームのデータ数と一致させること)
+	 * @Param maxRate v2で使用する最大通信レート(0:v2を試さずv1で通信)
+	 * @Param recorder 送受信データの記録先(記録しない場合null)
+	 * @Param device 記録時のArduinoの番号
 	 * @throws PortInUseException　既にこのポートは使用中です
 	 * @throws NoSuchPortException 指定されたポート名は存在しません
 	 * @throws UnsupportedCommOperationException ポート設定エラーです
 	 * @throws InterruptedException
+	 * @throws IOException 受信開始エラーです
 	 * @return ArduinoClient - インスタンス。
 	 * */
-	public static ArduinoClient getInstance(String comPort, int pollingRate)
-			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException{
+	public static ArduinoClient open(String comPort, int pollingRate, int fanCount, int maxRate, RecordingWriter recorder, int device)
+			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, IOException{
 
-		System.out.println("ArduinoClient is setting up...");
+		EventLog.info("ArduinoClient(" + comPort + ")", "is setting up...");
 
-		if( instance == null ){
-			instance = new ArduinoClient( comPort, pollingRate );
+		SerialConnection connection = new RxtxSerialConnection( comPort, pollingRate );
+		if( recorder != null ){
+			connection = new TappedSerialConnection( connection, recorder, device );
 		}
 
-		Thread.sleep(1000);
+		//ポートを開くとArduinoがリセットされるため起動を待つ
+		try{
+			Thread.sleep(RESET_WAIT_TIME);
+		}catch(InterruptedException e){
+			connection.close();
+			throw e;
+		}
 
-		System.out.println("ArduinoClient ready.");
+		ArduinoClient client = open( connection, pollingRate, fanCount, maxRate );
+		client.recorder = recorder;
+		client.device = device;
 
-		instance.start();
+		EventLog.info("ArduinoClient(" + comPort + ")", "ready.");
 
-		return instance;
+		return client;
 	}
 
-	/** インスタンスを再取得します.
-	 * インスタンス生成時にArduinoとの通信を確立します
-	 * @Param comPort シリアルポート名(ex. COM3)
-	 * @Param pollingRate 通信レート(300, 1200, 2400, 4800, 9600, 14400, 19200, 28800, 38400, 57600, 115200のいずれか)
+	/** 開いている通信路でArduinoとの通信を確立します。
+	 * @Param connection 通信路
+	 * @Param pollingRate 通信レート(通信路の現在の設定)
+	 * @Param fanCount ファンの数(Arduino側の1フレームのデータ数と一致させること)
+	 * @Param maxRate v2で使用する最大通信レート(0:v2を試さずv1で通信)
+	 * @throws IOException 受信開始エラーです。通信路は閉じられます
+	 * @throws InterruptedException
+	 * @return ArduinoClient - インスタンス。
+	 * */
+	public static ArduinoClient open(SerialConnection connection, int pollingRate, int fanCount, int maxRate)
+			throws IOException, InterruptedException{
+		ArduinoClient client = new ArduinoClient( connection, pollingRate, fanCount, maxRate );
+		try{
+			client.startCommunication();
+		}catch(IOException | InterruptedException e){
+			client.close();
+			throw e;
+		}
+		return client;
+	}
+
+	/** 通信を確立し直します.
+	 * このインスタンスのポートを閉じてから同じ設定でArduinoとの通信を確立します
 	 * @throws PortInUseException　既にこのポートは使用中です
 	 * @throws NoSuchPortException 指定されたポート名は存在しません
 	 * @throws UnsupportedCommOperationException ポート設定エラーです
 	 * @throws InterruptedException
-	 * @return ArduinoClient - インスタンス。エラー時はnull
+	 * @throws IOException 受信開始エラーです
+	 * @return ArduinoClient - 新しいインスタンス。
 	 * */
-	public static ArduinoClient reOpen(String comPort, int pollingRate)
-			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException{
-		final int TIMEOUT = 100000;
-		if(instance != null){
+	public ArduinoClient reOpen()
+			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, IOException{
+		close();
 
-			instance.stopClient();
+		EventLog.info(logSource, "is reopen...");
 
-			System.out.println("Waiting for closing client...");
-			int waitTime = 0;
-			while( instance.getState() != Thread.State.TERMINATED ){
-				if( waitTime > TIMEOUT ){
-					return null;
-				}
-				Thread.sleep(100);
-				waitTime = waitTime + 100;
-			}
+		return open(comPort, pollingRate, blockLength, maxRate, recorder, device);
+	}
 
-			System.out.println("ArduinoClient is reopen...");
+	/** データ到着通知の受け取りを開始し、プロトコルを決定して送信スレッドを開始します。
+	 * @throws IOException ストリーム取得,リスナー登録エラー
+	 * @throws InterruptedException
+	 * */
+	private void startCommunication() throws IOException, InterruptedException{
+		in = connection.getInputStream();
 
-			instance = new ArduinoClient( comPort, pollingRate );
+		connection.setDataListener(new Runnable(){
+			@Override
+			public void run(){
+				receive();
+			}
+		});
+
+		OutputStream out = connection.getOutputStream();
+		if( maxRate > 0 && negotiate(out) ){
+			FrameWriterV2 sender = new FrameWriterV2(comPort, out, blockLength);
+			writerV2 = sender;
+			writer = sender;
+			protocol = PROTOCOL_V2;
+		} else {
+			writer = new FrameWriter(comPort, out, WRITE_BLOCK_START, CONNECTION_CHECK, blockLength);
+			protocol = PROTOCOL_V1;
+		}
+		writer.start();
+		lastReceiveTime = System.nanoTime();
 
-			Thread.sleep(1000);
+		EventLog.info(logSource, "is started. (v" + protocol + ", " + currentRate + "bps)");
+	}
 
-			System.out.println("ArduinoClient ready.");
+	/** プロトコルv2での接続を試み、通信レートを切り替えます。
+	 * 切り替え後の通信レートで応答がない場合は元の通信レートに戻して接続し直します。
+	 * @param out 出力ストリーム
+	 * @return v2で接続できた場合true
+	 * @throws IOException 送信エラー
+	 * @throws InterruptedException
+	 * */
+	private boolean negotiate(OutputStream out) throws IOException, InterruptedException{
+		int requested = ProtocolV2.selectRate(maxRate, pollingRate);
+		if( !hello(out, requested) ){
+			return false;
 		}
 
-		instance.start();
-
-		return instance;
-	}
+		int rate = handshakePayload[1] * ProtocolV2.RATE_UNIT;
+		if( handshakePayload[2] != blockLength ){
+			EventLog.warn(logSource, "board reports " + handshakePayload[2]
+					+ " fans, configured " + blockLength + ".");
+		}
+		if( rate == currentRate || rate <= 0 ){
+			return true;
+		}
 
-	/** Arduinoからの受信データをポーリングし格納します。*/
-	@Override
-	public void run(){
-		/** 受信データバッファ */
-		char[] data = new char[100];
+		connection.setBaudRate(rate);
+		currentRate = rate;
 
-		/** 受信サイズ */
-		int readStatus = 0;
+		for(int i = 0 ; i < RATE_CONFIRM_RETRIES ; i++){
+			if( exchange(out, ProtocolV2.PING, ProtocolV2.ACK, RATE_CONFIRM_TIMEOUT) ){
+				return true;
+			}
+		}
 
-		/** 受信済みデータブロックサイズ */
-		int dataCount = 0;
+		//Arduinoが切り替えを取り消すのを待って元の通信レートでやり直す
+		EventLog.warn(logSource, "could not switch to " + rate + "bps.");
+		connection.setBaudRate(pollingRate);
+		currentRate = pollingRate;
+		Thread.sleep(BOARD_RATE_REVERT_TIME);
 
-		/** データブロック開始フラグ */
-		boolean blockFlag = false;
+		return hello(out, pollingRate);
+	}
 
-		int i = 0;
+	/** 接続開始を送信し応答を待ちます。
+	 * @return 応答があった場合true
+	 * */
+	private boolean hello(OutputStream out, int rate) throws IOException, InterruptedException{
+		for(int i = 0 ; i < HELLO_RETRIES ; i++){
+			if( exchange(out, ProtocolV2.HELLO, ProtocolV2.HELLO_ACK, HELLO_TIMEOUT,
+					ProtocolV2.VERSION, rate / ProtocolV2.RATE_UNIT) ){
+				return true;
+			}
+		}
+		return false;
+	}
 
-		System.out.println("ArduinoClient is started.");
+	/** 送信スレッドを使わずに1フレーム送信し、指定種別のフレームを受信するまで待ちます。
+	 * @return 受信した場合true
+	 * */
+	private boolean exchange(OutputStream out, int type, int replyType, long timeout, int... values)
+			throws IOException, InterruptedException{
+		byte[] payload = new byte[values.length];
+		for(int i = 0 ; i < values.length ; i++){
+			payload[i] = (byte) values[i];
+		}
+		byte[] frame = new byte[payload.length + ProtocolV2.OVERHEAD];
 
-		try( InputStreamReader isr = new InputStreamReader( port.getInputStream() ) ){
-			while(alive){
-				if( isr.ready() ){
-					readStatus = isr.read(data);
-				}
+		synchronized( handshakePayload ){
+			handshakeType = -1;
+			out.write(frame, 0, ProtocolV2.encode(frame, type, 0, payload, payload.length));
+			out.flush();
 
-				if( readStatus > 0 ){
-					//データを受信した場合
-					if( data[0] == READ_BLOCK_START){
-						//データブロック開始文字
-						blockFlag = true;
-						dataCount = 0;
-
-						if( readStatus > 1 ){
-							//既にデータブロック中にデータが存在する
-							for(i = 0 ; i < readStatus - 1 && dataCount < 4; i++){
-								if( data[i + 1] != READ_BLOCK_START ){
-									fanSettings[dataCount] = data[i + 1];
-
-									dataCount++;
-								}
-							}
-						}
-					}else if( blockFlag ){
-						//データブロックのデータの場合
-						for(i = dataCount ; i < readStatus && dataCount < 4 ; i++){
-							fanSettings[i] = data[i];
-							dataCount++;
-						}
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+			long remaining;
+			while( handshakeType != replyType && ( remaining = deadline - System.nanoTime() ) > 0 ){
+				TimeUnit.NANOSECONDS.timedWait(handshakePayload, remaining);
+			}
+			return handshakeType == replyType;
+		}
+	}
 
-						if(dataCount >= 4){
-							blockFlag = false;
+	/** Arduinoからの受信データを解析し格納します。
+	 * v2のフレームは開始文字から、それ以外はv1のフレームとして解析します。
+	 * 通信路のデータ到着通知スレッドから呼び出されます。
+	 * */
+	private void receive(){
+		long start = System.nanoTime();
+		try{
+			int length;
+			while( in.available() > 0
+					&& ( length = in.read(receiveBuffer, 0, Math.min(in.available(), receiveBuffer.length)) ) > 0 ){
+				for(int i = 0 ; i < length ; i++){
+					int data = receiveBuffer[i] & 0xFF;
+					if( protocol != PROTOCOL_V1 && ( decoderV2.isReceiving() || data == ProtocolV2.SYNC ) ){
+						if( decoderV2.update(data) ){
+							receiveFrameV2();
 						}
+					} else if( protocol != PROTOCOL_V2 && decoder.update(data) ){
+						fanSettings = decoder.getFrame();
+						lastReceiveTime = System.nanoTime();
+						Metrics.FRAMES_RECEIVED.increment();
 					}
 				}
-				Thread.sleep(500);
 			}
-		} catch (IOException | InterruptedException e) {
-			// TODO 自動生成された catch ブロック
-			e.printStackTrace();
+		}catch(IOException e){
+			EventLog.warn(logSource, "receive failed", e);
+		}
+		Metrics.FRAME_DECODE.recordSince(start);
+	}
+
+	/** 受信したv2フレームを処理します。 */
+	private void receiveFrameV2(){
+		int type = decoderV2.getType();
+		FrameWriterV2 sender = writerV2;
+
+		if( sender == null ){
+			//接続処理中の応答
+			synchronized( handshakePayload ){
+				for(int i = 0 ; i < handshakePayload.length ; i++){
+					handshakePayload[i] = i < decoderV2.getLength() ? decoderV2.getPayload(i) : 0;
+				}
+				handshakeType = type;
+				handshakePayload.notifyAll();
+			}
+		}
+
+		if( type == ProtocolV2.ACK && decoderV2.getLength() >= 1 ){
+			int[] applied = readSpeeds(1);
+			fanSettings = applied;
+			lastReceiveTime = System.nanoTime();
+			Metrics.FRAMES_RECEIVED.increment();
+			if( sender != null ){
+				sender.acknowledge(decoderV2.getPayload(0), applied, System.nanoTime());
+			}
+		} else if( type == ProtocolV2.STATUS ){
+			int[] applied = readSpeeds(0);
+			fanSettings = applied;
+			lastReceiveTime = System.nanoTime();
+			Metrics.FRAMES_RECEIVED.increment();
+			if( sender != null ){
+				sender.status(applied);
+			}
 		}
 	}
 
+	/** v2フレームのペイロードからファン速度を読み出します。含まれないファンは前回値のままです。 */
+	private int[] readSpeeds(int offset){
+		int[] speeds = fanSettings.clone();
+		for(int i = 0 ; i < speeds.length && offset + i < decoderV2.getLength() ; i++){
+			speeds[i] = decoderV2.getPayload(offset + i);
+		}
+		return speeds;
+	}
+
 	/** 引数の数値をすべてArduinoへ送信します。その際にASCIIコードへは変換しません。
+	 * 送信は送信スレッドで行い、未送信の前回の値は破棄されます。
 	 * @param data 送信する数値配列(0-127)
-	 * @throws IOException 送信時例外
+	 * @throws IOException 前回までの送信で例外が発生していた場合
 	 * */
 	public void setFanSpeed(int[] data) throws IOException{
-		try ( OutputStream out = port.getOutputStream() ){
-			out.write( WRITE_BLOCK_START );
-			for(int var: data){
-				out.write( var );
-			}
-			out.flush();
-			out.close();
-		}
+		writer.submitSpeed(data);
+		Metrics.FRAMES_SENT.increment();
 	}
 
 	/**
 	 * Arduino接続維持用データ送信
-	 * @throws IOException
+	 * @throws IOException 前回までの送信で例外が発生していた場合
 	 */
 	public void sendConnection() throws IOException{
-		try ( OutputStream out = port.getOutputStream() ){
-			out.write( CONNECTION_CHECK );
-			out.flush();
-			out.close();
-		}
+		writer.submitConnectionCheck();
 	}
 
 	/** Arduinoからのファン設定データをint配列として読み出します。
-	 * @return 受信データ
+	 * @return 受信データ(複製)
 	 * */
 	public int[] getFanSettings(){
-		return this.fanSettings;
+		return this.fanSettings.clone();
+	}
+
+	/** Arduinoからのファン設定データを指定の配列に読み出します。
+	 * 制御周期ごとに配列を生成しないよう、呼び出し側の配列を使い回すために使用します。
+	 * @param into 読み出し先(長さはファンの数)
+	 * @return into
+	 * */
+	public int[] getFanSettings(int[] into){
+		int[] settings = this.fanSettings;
+		System.arraycopy(settings, 0, into, 0, settings.length);
+		return into;
+	}
+
+	/** Arduinoから最後にフレームを受信した時刻を取得します。
+	 * Arduinoは一定間隔で状態を送信するため、長く受信がない場合は通信路が切れています。
+	 * @return 受信時刻(System.nanoTime), 受信前は通信を確立した時刻
+	 * */
+	public long getLastReceiveTime(){
+		return lastReceiveTime;
 	}
 
-	private void stopClient(){
-		alive = false;
+	/** シリアルポート名を取得します。
+	 * @return シリアルポート名
+	 * */
+	public String getComPort(){
+		return comPort;
+	}
+
+	/** ファンの数を取得します。
+	 * @return ファンの数
+	 * */
+	public int getFanCount(){
+		return blockLength;
+	}
+
+	/** 使用中のプロトコルを取得します。
+	 * @return PROTOCOL_V1またはPROTOCOL_V2
+	 * */
+	public int getProtocol(){
+		return protocol;
+	}
+
+	/** 現在の通信レートを取得します。
+	 * @return 通信レート
+	 * */
+	public int getRate(){
+		return currentRate;
+	}
+
+	/** 受信を停止しポートを閉じます。 */
+	public void close(){
+		if( writer != null ){
+			writer.shutdown();
+		}
+		connection.close();
 	}
 }
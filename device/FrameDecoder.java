@@ -0,0 +1,69 @@
+package device;
+
+/**
+ * Arduinoからの受信データを1バイトずつ解析する状態機械です。
+ * 開始文字に続く固定長のデータを1フレームとして取り出します。
+ * フレームの途中で開始文字を受信した場合はそこから読み直します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class FrameDecoder {
+
+	/** 開始文字待ちの状態 */
+	private static final int WAIT_START = -1;
+
+	/** ブロック開始文字 */
+	private final int startByte;
+
+	/** 受信中のフレーム */
+	private final int[] frame;
+
+	/** 受信済みデータ数(開始文字待ちの場合WAIT_START) */
+	private int count = WAIT_START;
+
+	/**
+	 * @param startByte ブロック開始文字
+	 * @param length 開始文字を除いたフレームのデータ数
+	 */
+	FrameDecoder(int startByte, int length){
+		this.startByte = startByte;
+		this.frame = new int[length];
+	}
+
+	/**
+	 * 1バイトを解析します。
+	 * @param data 受信データ
+	 * @return フレームが揃った場合true
+	 */
+	boolean update(int data){
+		data = data & 0xFF;
+
+		if( data == startByte ){
+			count = 0;
+			return false;
+		}
+
+		if( count == WAIT_START ){
+			//開始文字より前のデータは読み捨てる
+			return false;
+		}
+
+		frame[count++] = data;
+
+		if( count == frame.length ){
+			count = WAIT_START;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * 最後に揃ったフレームの複製を取得します。
+	 * @return フレームのデータ
+	 */
+	int[] getFrame(){
+		return frame.clone();
+	}
+}
@@ -0,0 +1,146 @@
+package device;
+
+import metrics.Metrics;
+
+/**
+ * プロトコルv2の受信データを1バイトずつ解析する状態機械です。
+ * CRCが一致しないフレームは破棄し、次のフレーム開始文字から読み直します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class FrameDecoderV2 {
+
+	/** 状態:開始文字待ち */
+	private static final int WAIT_SYNC = 0;
+
+	/** 状態:種別待ち */
+	private static final int TYPE = 1;
+
+	/** 状態:シーケンス番号待ち */
+	private static final int SEQ = 2;
+
+	/** 状態:ペイロード長待ち */
+	private static final int LENGTH = 3;
+
+	/** 状態:ペイロード受信中 */
+	private static final int PAYLOAD = 4;
+
+	/** 状態:CRC待ち */
+	private static final int CRC = 5;
+
+	/** 現在の状態 */
+	private int state = WAIT_SYNC;
+
+	/** 受信中のCRC */
+	private int crc;
+
+	/** 種別 */
+	private int type;
+
+	/** シーケンス番号 */
+	private int seq;
+
+	/** ペイロード長 */
+	private int length;
+
+	/** 受信済みペイロード長 */
+	private int count;
+
+	/** ペイロード */
+	private final byte[] payload = new byte[ProtocolV2.MAX_PAYLOAD];
+
+	/**
+	 * 1バイトを解析します。
+	 * @param data 受信データ
+	 * @return CRCが一致するフレームが揃った場合true
+	 */
+	boolean update(int data){
+		data = data & 0xFF;
+
+		switch( state ){
+		case WAIT_SYNC:
+			if( data == ProtocolV2.SYNC ){
+				crc = 0;
+				state = TYPE;
+			}
+			return false;
+
+		case TYPE:
+			type = data;
+			crc = ProtocolV2.crc8(crc, data);
+			state = SEQ;
+			return false;
+
+		case SEQ:
+			seq = data;
+			crc = ProtocolV2.crc8(crc, data);
+			state = LENGTH;
+			return false;
+
+		case LENGTH:
+			length = data;
+			count = 0;
+			crc = ProtocolV2.crc8(crc, data);
+			state = length > 0 ? PAYLOAD : CRC;
+			return false;
+
+		case PAYLOAD:
+			payload[count++] = (byte) data;
+			crc = ProtocolV2.crc8(crc, data);
+			if( count == length ){
+				state = CRC;
+			}
+			return false;
+
+		default:
+			state = WAIT_SYNC;
+			if( data != crc ){
+				Metrics.FRAME_ERRORS.increment();
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * フレームの途中か判定します。
+	 * @return 開始文字以降を受信中の場合true
+	 */
+	boolean isReceiving(){
+		return state != WAIT_SYNC;
+	}
+
+	/**
+	 * 最後に揃ったフレームの種別を取得します。
+	 * @return 種別
+	 */
+	int getType(){
+		return type;
+	}
+
+	/**
+	 * 最後に揃ったフレームのシーケンス番号を取得します。
+	 * @return シーケンス番号
+	 */
+	int getSeq(){
+		return seq;
+	}
+
+	/**
+	 * 最後に揃ったフレームのペイロード長を取得します。
+	 * @return ペイロード長
+	 */
+	int getLength(){
+		return length;
+	}
+
+	/**
+	 * 最後に揃ったフレームのペイロードを取得します。
+	 * @param index 位置
+	 * @return 値(0-255)
+	 */
+	int getPayload(int index){
+		return payload[index] & 0xFF;
+	}
+}
@@ -0,0 +1,35 @@
+package device;
+import java.io.IOException;
+
+/**
+ * Arduinoへの送信スレッドの共通の操作です。
+ * プロトコルのバージョンごとに実装があります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+interface FrameSender {
+
+	/**
+	 * 送信を開始します。
+	 */
+	void start();
+
+	/**
+	 * ファン速度の送信を依頼します。未送信の前回の依頼は上書きされます。
+	 * @param data 送信する数値配列(0-127)
+	 * @throws IOException 前回までの送信で例外が発生していた場合
+	 */
+	void submitSpeed(int[] data) throws IOException;
+
+	/**
+	 * 接続確認の送信を依頼します。
+	 * @throws IOException 前回までの送信で例外が発生していた場合
+	 */
+	void submitConnectionCheck() throws IOException;
+
+	/**
+	 * 送信を停止し出力ストリームを閉じます。
+	 */
+	void shutdown();
+}
@@ -0,0 +1,140 @@
+package device;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import log.EventLog;
+import metrics.Metrics;
+
+/**
+ * Arduinoへの送信を一手に引き受けるスレッドです。
+ * 出力ストリームは開いたまま使い続け、フレームは1回のwriteで送信します。
+ * 送信待ちのファン速度は最新の1件だけを保持し、古い指示は送信せずに破棄します。
+ * v1のArduinoは1-9の値を受信するとフレームごと破棄するため、1-9は10として送信します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class FrameWriter extends Thread implements FrameSender{
+
+	/** 出力ストリーム */
+	private final OutputStream out;
+
+	/** 送信ブロック開始文字 */
+	private final int blockStart;
+
+	/** 接続チェック文字 */
+	private final int connectionCheck;
+
+	/** 送信バッファ(開始文字+データ+接続チェック文字) */
+	private final byte[] buffer;
+
+	/** v1のArduinoが受け付ける0以外の最小値 */
+	private static final int MIN_NONZERO_SPEED = 10;
+
+	/** 送信待ちのファン速度(なければnull) */
+	private int[] pendingSpeed = null;
+
+	/** 接続チェック文字の送信待ち */
+	private boolean pendingCheck = false;
+
+	/** 書き込み中に発生した例外 */
+	private IOException error = null;
+
+	/** スレッド制御フラグ */
+	private volatile boolean alive = true;
+
+	/**
+	 * @param comPort シリアルポート名(スレッド名に使用)
+	 * @param out 出力ストリーム
+	 * @param blockStart 送信ブロック開始文字
+	 * @param connectionCheck 接続チェック文字
+	 * @param length 1フレームのデータ数
+	 */
+	FrameWriter(String comPort, OutputStream out, int blockStart, int connectionCheck, int length){
+		super("ArduinoClient-Writer-" + comPort);
+		setDaemon(true);
+		this.out = out;
+		this.blockStart = blockStart;
+		this.connectionCheck = connectionCheck;
+		this.buffer = new byte[length + 2];
+	}
+
+	@Override
+	public synchronized void submitSpeed(int[] data) throws IOException{
+		throwError();
+		pendingSpeed = data.clone();
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void submitConnectionCheck() throws IOException{
+		throwError();
+		pendingCheck = true;
+		notifyAll();
+	}
+
+	@Override
+	public void shutdown(){
+		alive = false;
+		interrupt();
+	}
+
+	@Override
+	public void run(){
+		try{
+			while( alive ){
+				int length = 0;
+
+				synchronized( this ){
+					while( alive && pendingSpeed == null && !pendingCheck ){
+						wait();
+					}
+
+					if( pendingSpeed != null ){
+						buffer[length++] = (byte) blockStart;
+						for(int i = 0 ; i < pendingSpeed.length && length < buffer.length - 1 ; i++){
+							int speed = pendingSpeed[i];
+							buffer[length++] = (byte) ( speed > 0 && speed < MIN_NONZERO_SPEED ? MIN_NONZERO_SPEED : speed );
+						}
+						pendingSpeed = null;
+					}
+
+					if( pendingCheck ){
+						buffer[length++] = (byte) connectionCheck;
+						pendingCheck = false;
+					}
+				}
+
+				if( length > 0 ){
+					long start = System.nanoTime();
+					try{
+						out.write(buffer, 0, length);
+						out.flush();
+						Metrics.SERIAL_WRITE.recordSince(start);
+					}catch(IOException e){
+						synchronized( this ){
+							error = e;
+						}
+					}
+				}
+			}
+		}catch(InterruptedException e){
+			//停止要求
+		}finally{
+			try{
+				out.close();
+			}catch(IOException e){
+				EventLog.warn("FrameWriter", "could not close the output", e);
+			}
+		}
+	}
+
+	/** 書き込みスレッドで発生した例外を呼び出し元へ伝えます(1回のみ) */
+	private void throwError() throws IOException{
+		if( error != null ){
+			IOException e = error;
+			error = null;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package device;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import log.EventLog;
+import metrics.Metrics;
+
+/**
+ * プロトコルv2でArduinoへ送信するスレッドです。
+ * Arduinoが反映したファン速度(ACK,STATUSで受信)を保持し、目標値との差分だけを送信します。
+ * 送信したフレームのACKを受信するまで次のフレームは送信せず、
+ * 一定時間ACKがなければArduinoの状態を不明として全ファン分を送信し直します。
+ * 目標値は最新の1件だけを保持し、古い指示は送信せずに破棄します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class FrameWriterV2 extends Thread implements FrameSender{
+
+	/** ACK待ち時間(ns) */
+	private static final long ACK_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(500);
+
+	/** 連続してACKがない場合にエラーとする回数 */
+	private static final int MAX_MISSED_ACKS = 6;
+
+	/** 状態不明を表す値 */
+	private static final int UNKNOWN = -1;
+
+	/** 出力ストリーム */
+	private final OutputStream out;
+
+	/** ファン数 */
+	private final int fanCount;
+
+	/** ペイロード作成用 */
+	private final byte[] payload = new byte[ProtocolV2.MAX_PAYLOAD];
+
+	/** 送信バッファ */
+	private final byte[] buffer = new byte[ProtocolV2.MAX_PAYLOAD + ProtocolV2.OVERHEAD];
+
+	/** 目標のファン速度(未指定の場合null) */
+	private int[] target = null;
+
+	/** Arduinoが反映済みのファン速度(不明な場合UNKNOWN) */
+	private final int[] boardState;
+
+	/** 接続確認の送信待ち */
+	private boolean pendingCheck = false;
+
+	/** 次に使用するシーケンス番号 */
+	private int seq = 1;
+
+	/** ACK待ちのシーケンス番号(待っていない場合-1) */
+	private int awaitingSeq = -1;
+
+	/** ACK待ちのフレームを送信した時刻(System.nanoTime) */
+	private long sentAt;
+
+	/** 連続してACKがなかった回数 */
+	private int missedAcks = 0;
+
+	/** 書き込み中に発生した例外 */
+	private IOException error = null;
+
+	/** スレッド制御フラグ */
+	private volatile boolean alive = true;
+
+	/**
+	 * @param comPort シリアルポート名(スレッド名に使用)
+	 * @param out 出力ストリーム
+	 * @param fanCount ファン数
+	 */
+	FrameWriterV2(String comPort, OutputStream out, int fanCount){
+		super("ArduinoClient-Writer-" + comPort);
+		setDaemon(true);
+		this.out = out;
+		this.fanCount = fanCount;
+		this.boardState = new int[fanCount];
+		Arrays.fill(boardState, UNKNOWN);
+	}
+
+	@Override
+	public synchronized void submitSpeed(int[] data) throws IOException{
+		throwError();
+		target = data.clone();
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void submitConnectionCheck() throws IOException{
+		throwError();
+		pendingCheck = true;
+		notifyAll();
+	}
+
+	@Override
+	public void shutdown(){
+		alive = false;
+		interrupt();
+	}
+
+	/**
+	 * ACKを受け取ります。待っているシーケンス番号と一致する場合のみ反映します。
+	 * @param ackSeq ACKに含まれるシーケンス番号
+	 * @param applied Arduinoが反映済みのファン速度
+	 * @param now 受信時刻(System.nanoTime)
+	 */
+	synchronized void acknowledge(int ackSeq, int[] applied, long now){
+		if( ackSeq != awaitingSeq ){
+			return;
+		}
+
+		Metrics.COMMAND_ACK.record(now - sentAt);
+		awaitingSeq = -1;
+		missedAcks = 0;
+		copyState(applied);
+		notifyAll();
+	}
+
+	/**
+	 * 定期状態通知を受け取ります。
+	 * ACK待ちの間は送信前の状態の可能性があるため反映しません。
+	 * Arduino側で値が変わっていた場合は目標値を送信し直します。
+	 * @param applied Arduinoが反映済みのファン速度
+	 */
+	synchronized void status(int[] applied){
+		if( awaitingSeq < 0 ){
+			copyState(applied);
+			notifyAll();
+		}
+	}
+
+	@Override
+	public void run(){
+		try{
+			while( alive ){
+				int length;
+
+				synchronized( this ){
+					while( ( length = nextFrame() ) == 0 ){
+						if( awaitingSeq < 0 ){
+							wait();
+							continue;
+						}
+
+						long remaining = sentAt + ACK_TIMEOUT - System.nanoTime();
+						if( remaining > 0 ){
+							TimeUnit.NANOSECONDS.timedWait(this, remaining);
+						} else {
+							missAck();
+						}
+					}
+				}
+
+				long start = System.nanoTime();
+				try{
+					out.write(buffer, 0, length);
+					out.flush();
+					Metrics.SERIAL_WRITE.recordSince(start);
+				}catch(IOException e){
+					synchronized( this ){
+						error = e;
+					}
+				}
+			}
+		}catch(InterruptedException e){
+			//停止要求
+		}finally{
+			try{
+				out.close();
+			}catch(IOException e){
+				EventLog.warn("FrameWriterV2", "could not close the output", e);
+			}
+		}
+	}
+
+	/**
+	 * 次に送信するフレームを送信バッファに作成します。
+	 * @return フレーム長, 送信するものがない場合0
+	 */
+	private int nextFrame(){
+		if( awaitingSeq >= 0 ){
+			return 0;
+		}
+
+		int length = 0;
+		int type;
+
+		int changed = 0;
+		if( target != null ){
+			for(int i = 0 ; i < fanCount ; i++){
+				if( speedOf(i) != boardState[i] ){
+					changed++;
+				}
+			}
+		}
+
+		int maskBytes = ( fanCount + 7 ) / 8;
+		if( changed > 0 && 1 + maskBytes + changed < fanCount ){
+			//変更分のみ送信
+			type = ProtocolV2.SET_DELTA;
+			payload[length++] = (byte) maskBytes;
+			Arrays.fill(payload, length, length + maskBytes, (byte) 0);
+			int values = length + maskBytes;
+			for(int i = 0 ; i < fanCount ; i++){
+				if( speedOf(i) != boardState[i] ){
+					payload[length + i / 8] |= (byte) ( 1 << ( i % 8 ) );
+					payload[values++] = (byte) speedOf(i);
+				}
+			}
+			length = values;
+		} else if( changed > 0 ){
+			type = ProtocolV2.SET_ALL;
+			for(int i = 0 ; i < fanCount ; i++){
+				payload[length++] = (byte) speedOf(i);
+			}
+		} else if( pendingCheck ){
+			type = ProtocolV2.PING;
+		} else {
+			return 0;
+		}
+
+		//ファン速度設定のACKも接続確認を兼ねる
+		pendingCheck = false;
+		awaitingSeq = seq;
+		seq = ( seq + 1 ) & 0xFF;
+		sentAt = System.nanoTime();
+
+		return ProtocolV2.encode(buffer, type, awaitingSeq, payload, length);
+	}
+
+	/** 目標のファン速度(ファン数より短い指定の場合は現状維持) */
+	private int speedOf(int fan){
+		return fan < target.length ? target[fan] : Math.max(0, boardState[fan]);
+	}
+
+	/** ACKが来なかった場合の処理です */
+	private void missAck(){
+		Metrics.ACK_TIMEOUTS.increment();
+		awaitingSeq = -1;
+		Arrays.fill(boardState, UNKNOWN);
+
+		if( ++missedAcks >= MAX_MISSED_ACKS ){
+			missedAcks = 0;
+			if( error == null ){
+				error = new IOException("No acknowledgement from Arduino.");
+			}
+		}
+	}
+
+	private void copyState(int[] applied){
+		for(int i = 0 ; i < fanCount && i < applied.length ; i++){
+			boardState[i] = applied[i];
+		}
+	}
+
+	/** 書き込みスレッドで発生した例外を呼び出し元へ伝えます(1回のみ) */
+	private void throwError() throws IOException{
+		if( error != null ){
+			IOException e = error;
+			error = null;
+			throw e;
+		}
+	}
+}
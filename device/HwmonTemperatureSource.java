@@ -0,0 +1,461 @@
+package device;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import log.EventLog;
+import metrics.Metrics;
+
+/**
+ * Linuxのhwmon(/sys/class/hwmon)から温度を取得するクラスです。
+ * 初回取得時にチップ名(name)とラベル(temp*_label)から使用するtemp*_inputを選び、
+ * 以降はファイルを開いたまま先頭からの位置指定読み込みで最新の値を読みます。
+ *
+ * CPUはCPUチップ名の一覧のうち最初に見つかったチップを使用し、
+ * パッケージ温度は"Package id"、"Tdie"、"Tctl"の順にラベルが一致するもの(なければコア以外の最初の値)、
+ * コア温度はラベル"Core N"の値をラベルのコア番号Nの順に使用します(temp*_inputの番号順ではありません)。
+ * GPUはGPUチップ名の一覧のうち最初に見つかったチップの"edge"(なければ最初の値)を使用します。
+ * GPUチップ名が空の場合、GPU温度はCPUパッケージ温度で代用します。
+ * センサー式のパターンは"チップ名/Temperatures/ラベル"(ラベルがない場合"tempN")と比較し、
+ * 全チップのうち一致する全てのtemp*_inputを使用します。これらの読み込みに失敗した場合はNaNとし、選択はやり直しません。
+ *
+ * 読み込みに失敗した場合は開いているファイルを閉じ、一定時間後に選択からやり直します。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class HwmonTemperatureSource implements TemperatureSource{
+
+	/** イベントログの発生元 */
+	private static final String LOG_SOURCE = "HwmonTemperatureSource";
+
+	/** 選択をやり直すまでの時間(ns) */
+	private static final long REDISCOVER_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+	/** CPUパッケージ温度のラベル(優先順) */
+	private static final String[] PACKAGE_LABELS = {"Package id", "Tdie", "Tctl"};
+
+	/** CPUコア温度のラベルの接頭辞 */
+	private static final String CORE_LABEL = "Core ";
+
+	/** GPU温度のラベル */
+	private static final String GPU_LABEL = "edge";
+
+	/** hwmonのパス */
+	private final Path root;
+
+	/** CPUチップ名(優先順) */
+	private final List<String> cpuChips;
+
+	/** GPUチップ名(優先順, 空の場合CPUパッケージ温度で代用) */
+	private final List<String> gpuChips;
+
+	/** CPUコア数 */
+	private final int cpuCore;
+
+	/** 読み込み用バッファ */
+	private final ByteBuffer buffer = ByteBuffer.allocate(32);
+
+	/** CPUパッケージ温度(未選択の場合null) */
+	private FileChannel cpuPackage = null;
+
+	/** CPUコア温度(見つからないコアはnull) */
+	private FileChannel[] cpuCores = new FileChannel[0];
+
+	/** GPU温度(代用する場合null) */
+	private FileChannel gpu = null;
+
+	/** センサー式のパターン */
+	private final SensorPattern[] sensorPatterns;
+
+	/** パターンに一致したtemp*_input(パターン順) */
+	private FileChannel[] sensors = new FileChannel[0];
+
+	/** パターンごとのsensorsの開始位置(温度情報と共有するため、選択し直す場合は作り直す) */
+	private int[] sensorOffsets;
+
+	/** 選択済みか */
+	private boolean discovered = false;
+
+	/** 最後に選択を行った時刻(System.nanoTime) */
+	private long lastDiscovery = 0;
+
+	/** 選択をやり直すまでの時間(ns) */
+	private long rediscoverInterval = REDISCOVER_INTERVAL;
+
+	/**
+	 * @param root hwmonのパス
+	 * @param cpuChips CPUチップ名(カンマ区切り,優先順)
+	 * @param gpuChips GPUチップ名(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用)
+	 * @param cpuCore CPUコア数
+	 */
+	public HwmonTemperatureSource(Path root, String cpuChips, String gpuChips, int cpuCore){
+		this(root, cpuChips, gpuChips, cpuCore, Collections.<String>emptyList());
+	}
+
+	/**
+	 * @param root hwmonのパス
+	 * @param cpuChips CPUチップ名(カンマ区切り,優先順)
+	 * @param gpuChips GPUチップ名(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用)
+	 * @param cpuCore CPUコア数
+	 * @param sensorPatterns センサー式のパターン(番号順)
+	 */
+	public HwmonTemperatureSource(Path root, String cpuChips, String gpuChips, int cpuCore, List<String> sensorPatterns){
+		this.root = root;
+		this.cpuChips = split(cpuChips);
+		this.gpuChips = split(gpuChips);
+		this.cpuCore = cpuCore;
+		this.sensorPatterns = new SensorPattern[sensorPatterns.size()];
+		for(int i = 0 ; i < this.sensorPatterns.length ; i++){
+			this.sensorPatterns[i] = new SensorPattern(sensorPatterns.get(i));
+		}
+		this.sensorOffsets = new int[this.sensorPatterns.length + 1];
+	}
+
+	@Override
+	public TemperatureSnapshot getTemperature(){
+		long start = System.nanoTime();
+
+		if( !discovered ){
+			if( lastDiscovery != 0 && start - lastDiscovery < rediscoverInterval ){
+				return null;
+			}
+			lastDiscovery = start;
+			try{
+				discover();
+			}catch(IOException e){
+				EventLog.warn(LOG_SOURCE, "could not read " + root, e);
+				close();
+				return null;
+			}
+			if( !discovered ){
+				EventLog.warn(LOG_SOURCE, "found no sensor in " + root + " (CPU:" + cpuChips + ", GPU:" + gpuChips + ")");
+				return null;
+			}
+		}
+
+		try{
+			double[] cores = new double[cpuCore];
+			for(int i = 0 ; i < cores.length ; i++){
+				cores[i] = i < cpuCores.length && cpuCores[i] != null ? read(cpuCores[i]) : Double.NaN;
+			}
+			double cpu = read(cpuPackage);
+			double gpuTemperature = gpu != null ? read(gpu) : cpu;
+			double[] values = new double[sensors.length];
+			for(int i = 0 ; i < values.length ; i++){
+				values[i] = readOptional(sensors[i]);
+			}
+
+			TemperatureSnapshot snapshot = new TemperatureSnapshot(System.currentTimeMillis(), System.nanoTime(), cores, cpu, gpuTemperature,
+					values, sensorOffsets);
+			Metrics.HWMON_READ.recordSince(start);
+			return snapshot;
+		}catch(IOException e){
+			EventLog.warn(LOG_SOURCE, "read failed, rediscovering", e);
+			close();
+			return null;
+		}
+	}
+
+	@Override
+	public void shutdown(){
+		close();
+	}
+
+	/**
+	 * 選択をやり直すまでの時間を変更します。テスト(HwmonTemperatureSourceTest)で待ち時間を短くするために使用します。
+	 * @param nanos 選択をやり直すまでの時間(ns)
+	 */
+	void setRediscoverInterval(long nanos){
+		this.rediscoverInterval = nanos;
+	}
+
+	/**
+	 * 使用するtemp*_inputを選び、開きます。
+	 * @throws IOException 読み込み失敗時
+	 */
+	private void discover() throws IOException{
+		close();
+
+		List<Path> chips = list(root, "hwmon*");
+		Path cpuChip = findChip(chips, cpuChips);
+		if( cpuChip == null ){
+			return;
+		}
+
+		List<Path> inputs = inputs(cpuChip);
+		Path packageInput = null;
+		for(String prefix : PACKAGE_LABELS){
+			for(Path input : inputs){
+				if( packageInput == null && label(input).startsWith(prefix) ){
+					packageInput = input;
+				}
+			}
+		}
+
+		ArrayList<Path> coreInputs = new ArrayList<Path>();
+		final HashMap<Path, Integer> coreNumbers = new HashMap<Path, Integer>();
+		for(Path input : inputs){
+			String label = label(input);
+			if( label.startsWith(CORE_LABEL) ){
+				coreInputs.add(input);
+				coreNumbers.put(input, coreNumber(label));
+			} else if( packageInput == null ){
+				packageInput = input;
+			}
+		}
+		//コア番号が同じ場合(複数のパッケージなど)はtemp*_inputの番号順のまま
+		Collections.sort(coreInputs, new Comparator<Path>(){
+			@Override
+			public int compare(Path a, Path b){
+				return Integer.compare(coreNumbers.get(a), coreNumbers.get(b));
+			}
+		});
+		if( packageInput == null ){
+			return;
+		}
+
+		cpuPackage = open(packageInput);
+		cpuCores = new FileChannel[Math.min(cpuCore, coreInputs.size())];
+		for(int i = 0 ; i < cpuCores.length ; i++){
+			cpuCores[i] = open(coreInputs.get(i));
+		}
+
+		Path gpuInput = null;
+		if( !gpuChips.isEmpty() ){
+			Path gpuChip = findChip(chips, gpuChips);
+			if( gpuChip == null ){
+				close();
+				return;
+			}
+			List<Path> gpuInputs = inputs(gpuChip);
+			gpuInput = gpuInputs.isEmpty() ? null : gpuInputs.get(0);
+			for(Path input : gpuInputs){
+				if( label(input).equals(GPU_LABEL) ){
+					gpuInput = input;
+				}
+			}
+			if( gpuInput == null ){
+				close();
+				return;
+			}
+			gpu = open(gpuInput);
+		}
+
+		discoverSensors(chips);
+
+		discovered = true;
+		EventLog.info(LOG_SOURCE, "uses " + packageInput + ", " + cpuCores.length + " core(s)"
+				+ ( gpuInput != null ? ", " + gpuInput : ", GPU substituted by CPU package" )
+				+ ( sensorPatterns.length > 0 ? ", " + sensors.length + " sensor(s) for expressions" : "" ));
+	}
+
+	/**
+	 * センサー式のパターンに一致するtemp*_inputを選び、開きます。
+	 * @param chips 全チップのディレクトリ
+	 * @throws IOException 読み込み失敗時
+	 */
+	private void discoverSensors(List<Path> chips) throws IOException{
+		ArrayList<FileChannel> matched = new ArrayList<FileChannel>();
+		int[] offsets = new int[sensorPatterns.length + 1];
+		try{
+			for(int i = 0 ; i < sensorPatterns.length ; i++){
+				offsets[i] = matched.size();
+				for(Path chip : chips){
+					Path nameFile = chip.resolve("name");
+					String chipName = Files.isReadable(nameFile) ? readText(nameFile) : "";
+					for(Path input : inputs(chip)){
+						String label = label(input);
+						if( label.isEmpty() ){
+							String name = input.getFileName().toString();
+							label = name.substring(0, name.length() - "_input".length());
+						}
+						if( sensorPatterns[i].matches(chipName, SensorCatalog.TEMPERATURES, label) ){
+							matched.add(open(input));
+						}
+					}
+				}
+				if( offsets[i] == matched.size() ){
+					EventLog.warn(LOG_SOURCE, "no sensor matches \"" + sensorPatterns[i] + "\"");
+				}
+			}
+		}catch(IOException e){
+			for(FileChannel channel : matched){
+				closeQuietly(channel);
+			}
+			throw e;
+		}
+		offsets[sensorPatterns.length] = matched.size();
+		sensors = matched.toArray(new FileChannel[matched.size()]);
+		sensorOffsets = offsets;
+	}
+
+	/**
+	 * 先頭から読み直し、ミリ度単位の整数を℃に変換します。
+	 * @param channel temp*_input
+	 * @return 温度(℃)
+	 * @throws IOException 読み込み失敗時や数値でない場合
+	 */
+	private double read(FileChannel channel) throws IOException{
+		buffer.clear();
+		int length = channel.read(buffer, 0);
+
+		long value = 0;
+		boolean negative = false;
+		int digits = 0;
+		for(int i = 0 ; i < length ; i++){
+			byte c = buffer.get(i);
+			if( c == '-' && i == 0 ){
+				negative = true;
+			} else if( c >= '0' && c <= '9' ){
+				value = value * 10 + ( c - '0' );
+				digits++;
+			} else {
+				break;
+			}
+		}
+		if( digits == 0 ){
+			throw new IOException("Invalid temperature value.");
+		}
+
+		return ( negative ? -value : value ) / 1000.0;
+	}
+
+	/**
+	 * センサー式用の値を読みます。スリープ中のドライブなどは読み込みに失敗するため、失敗した場合はNaNとします。
+	 * @param channel temp*_input
+	 * @return 温度(℃), 読み込みに失敗した場合NaN
+	 */
+	private double readOptional(FileChannel channel){
+		try{
+			return read(channel);
+		}catch(IOException e){
+			return Double.NaN;
+		}
+	}
+
+	/** 開いているファイルを全て閉じ、未選択の状態に戻します */
+	private void close(){
+		discovered = false;
+		closeQuietly(cpuPackage);
+		for(FileChannel core : cpuCores){
+			closeQuietly(core);
+		}
+		closeQuietly(gpu);
+		for(FileChannel sensor : sensors){
+			closeQuietly(sensor);
+		}
+		cpuPackage = null;
+		cpuCores = new FileChannel[0];
+		gpu = null;
+		sensors = new FileChannel[0];
+		sensorOffsets = new int[sensorPatterns.length + 1];
+	}
+
+	private static void closeQuietly(FileChannel channel){
+		if( channel != null ){
+			try{
+				channel.close();
+			}catch(IOException e){
+				//閉じられなくても再選択には影響しない
+			}
+		}
+	}
+
+	private static FileChannel open(Path path) throws IOException{
+		return FileChannel.open(path, StandardOpenOption.READ);
+	}
+
+	/**
+	 * チップ名の一覧のうち最初に見つかったチップを探します。
+	 * @return チップのディレクトリ, 見つからない場合null
+	 */
+	private static Path findChip(List<Path> chips, List<String> names) throws IOException{
+		for(String name : names){
+			for(Path chip : chips){
+				Path nameFile = chip.resolve("name");
+				if( Files.isReadable(nameFile) && readText(nameFile).equals(name) ){
+					return chip;
+				}
+			}
+		}
+		return null;
+	}
+
+	/** temp*_inputを番号順に列挙します */
+	private static List<Path> inputs(Path chip) throws IOException{
+		List<Path> inputs = list(chip, "temp*_input");
+		Collections.sort(inputs, new Comparator<Path>(){
+			@Override
+			public int compare(Path a, Path b){
+				return Integer.compare(index(a), index(b));
+			}
+		});
+		return inputs;
+	}
+
+	/** temp*_inputの番号を取得します */
+	private static int index(Path input){
+		String name = input.getFileName().toString();
+		try{
+			return Integer.parseInt(name.substring("temp".length(), name.length() - "_input".length()));
+		}catch(NumberFormatException e){
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	/** ラベル"Core N"のコア番号を取得します */
+	private static int coreNumber(String label){
+		try{
+			return Integer.parseInt(label.substring(CORE_LABEL.length()).trim());
+		}catch(NumberFormatException e){
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	/** temp*_inputに対応するラベルを取得します(ない場合空文字) */
+	private static String label(Path input) throws IOException{
+		String name = input.getFileName().toString();
+		Path label = input.resolveSibling(name.substring(0, name.length() - "_input".length()) + "_label");
+		return Files.isReadable(label) ? readText(label) : "";
+	}
+
+	private static String readText(Path path) throws IOException{
+		return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII).trim();
+	}
+
+	/** ディレクトリ内の名前が一致するパスを名前順に列挙します */
+	private static List<Path> list(Path directory, String glob) throws IOException{
+		ArrayList<Path> paths = new ArrayList<Path>();
+		try( DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob) ){
+			for(Path path : stream){
+				paths.add(path);
+			}
+		}
+		Collections.sort(paths);
+		return paths;
+	}
+
+	private static List<String> split(String names){
+		ArrayList<String> list = new ArrayList<String>();
+		for(String name : Arrays.asList(names.split(","))){
+			if( !name.trim().isEmpty() ){
+				list.add(name.trim());
+			}
+		}
+		return list;
+	}
+}
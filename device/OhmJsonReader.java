@@ -0,0 +1,345 @@
+package device;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * OpenHardwareMonitorのdata.jsonを先頭から順に読み進めるプルパーサです。
+ * 木構造を生成せず、呼び出し側が必要な値だけを取り出し残りは読み飛ばします。
+ * 文字列トークンは内部バッファに保持し、必要な場合だけStringを生成します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class OhmJsonReader implements Closeable{
+
+	/** トークン種別 */
+	enum Token{
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, LITERAL, END_DOCUMENT
+	}
+
+	/** 読み込み元 */
+	private final Reader reader;
+
+	/** 読み込みバッファ */
+	private final char[] buffer = new char[8192];
+
+	/** バッファ読み込み位置 */
+	private int position = 0;
+
+	/** バッファ有効データ長 */
+	private int limit = 0;
+
+	/** 直前に読んだ文字列,数値トークン */
+	private char[] text = new char[64];
+
+	/** 直前に読んだトークンの文字数 */
+	private int textLength = 0;
+
+	/**
+	 * @param reader 読み込み元(UTF-8でデコード済みのもの)
+	 */
+	OhmJsonReader(Reader reader){
+		this.reader = reader;
+	}
+
+	/**
+	 * 次のトークンを読み込みます。
+	 * 文字列の直後に':'が続く場合はオブジェクトのキーとしてNAMEを返します。
+	 * @return 読み込んだトークン
+	 * @throws IOException 読み込み失敗,JSONとして不正な文字の場合
+	 */
+	Token next() throws IOException{
+		int c = skipSeparator();
+
+		switch( c ){
+		case -1:
+			return Token.END_DOCUMENT;
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '}':
+			return Token.END_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case ']':
+			return Token.END_ARRAY;
+		case '"':
+			readString();
+			if( skipWhitespace() == ':' ){
+				position++;
+				return Token.NAME;
+			}
+			return Token.STRING;
+		default:
+			if( c == '-' || ( c >= '0' && c <= '9' ) ){
+				readBare(c);
+				return Token.NUMBER;
+			}
+			if( c >= 'a' && c <= 'z' ){
+				readBare(c);
+				return Token.LITERAL;
+			}
+			throw new IOException("Unexpected character '" + (char) c + "' in JSON");
+		}
+	}
+
+	/**
+	 * NAMEトークンの直後に呼び出し、その値を丸ごと読み飛ばします。
+	 * @throws IOException 読み込み失敗時
+	 */
+	void skipValue() throws IOException{
+		int depth = 0;
+		do{
+			switch( next() ){
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+				depth++;
+				break;
+			case END_OBJECT:
+			case END_ARRAY:
+				depth--;
+				break;
+			case END_DOCUMENT:
+				return;
+			default:
+				break;
+			}
+		}while( depth > 0 );
+	}
+
+	/**
+	 * 直前のトークン文字列が指定文字列と一致するか判定します。
+	 * @param value 比較文字列
+	 * @return 一致する場合true
+	 */
+	boolean textEquals(String value){
+		if( value.length() != textLength ){
+			return false;
+		}
+		for(int i = 0 ; i < textLength ; i++){
+			if( text[i] != value.charAt(i) ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 直前のトークン文字列が指定文字列を含むか判定します。
+	 * @param value 検索文字列
+	 * @return 含む場合true
+	 */
+	boolean textContains(String value){
+		int length = value.length();
+		for(int i = 0 ; i + length <= textLength ; i++){
+			int j = 0;
+			while( j < length && text[i + j] == value.charAt(j) ){
+				j++;
+			}
+			if( j == length ){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 直前のトークン文字列を取得します。
+	 * @return トークン文字列
+	 */
+	String getText(){
+		return new String(text, 0, textLength);
+	}
+
+	/**
+	 * 直前のトークン文字列から最初の空白までを取得します。
+	 * OpenHardwareMonitorの"45.0 °C"形式の値から数値部分だけを取り出します。
+	 * @return 最初の空白までの文字列
+	 */
+	String getLeadingText(){
+		int length = 0;
+		while( length < textLength && text[length] != ' ' ){
+			length++;
+		}
+		return new String(text, 0, length);
+	}
+
+	/**
+	 * 直前のトークン文字列の先頭の数値を読み取ります。
+	 * OpenHardwareMonitorの"45.0 °C"形式の値をStringを生成せずに数値化します。
+	 * @return 数値, 数値で始まらない場合NaN
+	 */
+	double getLeadingDouble(){
+		return parseLeadingDouble(text, textLength);
+	}
+
+	/**
+	 * 直前のトークン文字列をハッシュ値に畳み込みます。
+	 * @param hash これまでのハッシュ値
+	 * @return 畳み込んだハッシュ値
+	 */
+	int hashText(int hash){
+		for(int i = 0 ; i < textLength ; i++){
+			hash = 31 * hash + text[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * 文字列の先頭の数値を読み取ります。小数点は'.'と','のどちらも受け付けます。
+	 * @param chars 文字列
+	 * @param length 文字数
+	 * @return 数値, 数値で始まらない場合NaN
+	 */
+	static double parseLeadingDouble(char[] chars, int length){
+		int i = 0;
+		boolean negative = false;
+		if( i < length && chars[i] == '-' ){
+			negative = true;
+			i++;
+		}
+
+		long integer = 0;
+		int digits = 0;
+		while( i < length && chars[i] >= '0' && chars[i] <= '9' ){
+			integer = integer * 10 + ( chars[i++] - '0' );
+			digits++;
+		}
+
+		long fraction = 0;
+		long scale = 1;
+		if( i < length && ( chars[i] == '.' || chars[i] == ',' ) ){
+			i++;
+			while( i < length && chars[i] >= '0' && chars[i] <= '9' && scale < 1000000000L ){
+				fraction = fraction * 10 + ( chars[i++] - '0' );
+				scale = scale * 10;
+				digits++;
+			}
+		}
+
+		if( digits == 0 ){
+			return Double.NaN;
+		}
+
+		double value = integer + (double) fraction / scale;
+		return negative ? -value : value;
+	}
+
+	@Override
+	public void close() throws IOException{
+		reader.close();
+	}
+
+	/** 文字列トークンを読み込みます。開始の'"'は読み込み済みであること */
+	private void readString() throws IOException{
+		textLength = 0;
+		while( true ){
+			int c = read();
+			if( c == -1 ){
+				throw new IOException("Unterminated string in JSON");
+			}
+			if( c == '"' ){
+				return;
+			}
+			if( c == '\\' ){
+				c = read();
+				switch( c ){
+				case 'b':
+					c = '\b';
+					break;
+				case 'f':
+					c = '\f';
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				case 't':
+					c = '\t';
+					break;
+				case 'u':
+					int code = 0;
+					for(int i = 0 ; i < 4 ; i++){
+						int digit = Character.digit(read(), 16);
+						if( digit < 0 ){
+							throw new IOException("Illegal unicode escape in JSON");
+						}
+						code = ( code << 4 ) | digit;
+					}
+					c = code;
+					break;
+				case -1:
+					throw new IOException("Unterminated string in JSON");
+				default:
+					//'"','\\','/'はそのまま
+					break;
+				}
+			}
+			append((char) c);
+		}
+	}
+
+	/** 数値,true,false,nullを読み込みます */
+	private void readBare(int first) throws IOException{
+		textLength = 0;
+		append((char) first);
+		while( true ){
+			int c = peek();
+			if( c == -1 || c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c) ){
+				return;
+			}
+			position++;
+			append((char) c);
+		}
+	}
+
+	private void append(char c){
+		if( textLength == text.length ){
+			char[] expanded = new char[text.length * 2];
+			System.arraycopy(text, 0, expanded, 0, textLength);
+			text = expanded;
+		}
+		text[textLength++] = c;
+	}
+
+	/** 空白と区切り文字を読み飛ばし、次の1文字を読み込みます */
+	private int skipSeparator() throws IOException{
+		int c;
+		do{
+			c = read();
+		}while( c == ',' || c == ':' || Character.isWhitespace(c) );
+		return c;
+	}
+
+	/** 空白を読み飛ばし、次の1文字を読まずに返します */
+	private int skipWhitespace() throws IOException{
+		int c = peek();
+		while( c != -1 && Character.isWhitespace(c) ){
+			position++;
+			c = peek();
+		}
+		return c;
+	}
+
+	private int read() throws IOException{
+		int c = peek();
+		if( c != -1 ){
+			position++;
+		}
+		return c;
+	}
+
+	private int peek() throws IOException{
+		if( position >= limit ){
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if( limit <= 0 ){
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position];
+	}
+}
@@ -1,16 +1,32 @@
 package device;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
-
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import log.EventLog;
+import metrics.Metrics;
 import net.arnx.jsonic.JSON;
+import recording.RecordingWriter;
 
 /**
  * OpenHardwareMonitorのHTTPサーバからJSONデータを取得
@@ -19,11 +35,47 @@ import net.arnx.jsonic.JSON;
  * @since 2017/04/29
  * @version v0.1
  */
-public class OpenHardwareMonitorClient{
+public class OpenHardwareMonitorClient implements TemperatureSource{
+
+	/** イベントログの発生元 */
+	private static final String LOG_SOURCE = "OpenHardwareMonitor";
 
 	/** OpenHardwareMonitorのサーバデータ取得URL */
 	private final String OHM_GET_DATA_URL;
 
+	/** 接続タイムアウトの既定値(ms) */
+	public static final int DEFAULT_CONNECT_TIMEOUT = 1000;
+
+	/** 読み込みタイムアウトの既定値(ms) */
+	public static final int DEFAULT_READ_TIMEOUT = 2000;
+
+	/** 取得失敗時に前回値で代替する最大経過時間(ms) */
+	private static final long LAST_GOOD_MAX_AGE = 30000;
+
+	/** アクセスURL(ポーリング毎に生成しない) */
+	private final URL url;
+
+	/** 接続タイムアウト(ms) */
+	private final int CONNECT_TIMEOUT;
+
+	/** 読み込みタイムアウト(ms) */
+	private final int READ_TIMEOUT;
+
+	/** 1回の取得を待つ期限(ms) */
+	private volatile long pollTimeout;
+
+	/** 読み捨て用のバッファ(取得はfetchで直列化されるため共有する) */
+	private final byte[] drainBuffer = new byte[8192];
+
+	/** 非同期取得用スレッド */
+	private final ExecutorService executor;
+
+	/** 実行中の非同期取得 */
+	private Future<TemperatureSnapshot> pending = null;
+
+	/** 最後に取得に成功した温度情報 */
+	private volatile TemperatureSnapshot lastGood = null;
+
 	/** CPU名 */
 	private final String CPU_NAME;
 
@@ -33,9 +85,32 @@ public class OpenHardwareMonitorClient{
 	/** CPU物理コア数 */
 	private final int CPU_CORE;
 
-	/** JSON探索用キュー */
-	private static LinkedList<ArrayList<HashMap<String, Object>>> queue =
-															new LinkedList<ArrayList<HashMap<String, Object>>>();
+	/** ストリーム解析を使用するか(false時はJSONICで全体をデコード) */
+	private final boolean STREAM_PARSE;
+
+	/** センサー一覧(未取得または木の形が変わった場合null) */
+	private SensorCatalog catalog = null;
+
+	/** CPUコア温度のスロット */
+	private final int[] cpuCoreSlots;
+
+	/** CPUパッケージ温度のスロット */
+	private int cpuPackageSlot = -1;
+
+	/** GPU温度のスロット */
+	private int gpuSlot = -1;
+
+	/** センサー式のパターン */
+	private final SensorPattern[] sensorPatterns;
+
+	/** パターンに一致したスロット(パターン順) */
+	private int[] sensorSlots = new int[0];
+
+	/** パターンごとのsensorSlotsの開始位置(温度情報と共有するため、決定し直す場合は作り直す) */
+	private int[] sensorOffsets;
+
+	/** 応答の記録先(記録しない場合null) */
+	private volatile RecordingWriter recorder = null;
 
 	/** OpenHardwareMonitorデータ取得用クラス
 	 * @param port OpenHardwareMonitorのHTTPサーバポート番号
@@ -44,6 +119,51 @@ public class OpenHardwareMonitorClient{
 	 * @param cpuCore CPU物理コア数
 	 * */
 	public OpenHardwareMonitorClient(String port, String cpuName, String gpuName ,int cpuCore){
+		this(port, cpuName, gpuName, cpuCore, true);
+	}
+
+	/** OpenHardwareMonitorデータ取得用クラス
+	 * @param port OpenHardwareMonitorのHTTPサーバポート番号
+	 * @param cpuName OpenHardwareMonitorに表示されているCPU名(部分一致可)
+	 * @param gpuName OpenHardwareMonitorに表示されているGPU名(部分一致可)
+	 * @param cpuCore CPU物理コア数
+	 * @param streamParse trueならストリーム解析、falseならJSONICで全体をデコードして解析
+	 * */
+	public OpenHardwareMonitorClient(String port, String cpuName, String gpuName ,int cpuCore, boolean streamParse){
+		this(port, cpuName, gpuName, cpuCore, streamParse, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+	}
+
+	/** OpenHardwareMonitorデータ取得用クラス
+	 * @param port OpenHardwareMonitorのHTTPサーバポート番号
+	 * @param cpuName OpenHardwareMonitorに表示されているCPU名(部分一致可)
+	 * @param gpuName OpenHardwareMonitorに表示されているGPU名(部分一致可)
+	 * @param cpuCore CPU物理コア数
+	 * @param streamParse trueならストリーム解析、falseならJSONICで全体をデコードして解析
+	 * @param connectTimeout 接続タイムアウト(ms)
+	 * @param readTimeout 読み込みタイムアウト(ms)
+	 * */
+	public OpenHardwareMonitorClient(String port, String cpuName, String gpuName ,int cpuCore, boolean streamParse,
+			int connectTimeout, int readTimeout){
+		this(port, cpuName, gpuName, cpuCore, streamParse, connectTimeout, readTimeout, Collections.<String>emptyList());
+	}
+
+	/** OpenHardwareMonitorデータ取得用クラス
+	 * @param port OpenHardwareMonitorのHTTPサーバポート番号
+	 * @param cpuName OpenHardwareMonitorに表示されているCPU名(部分一致可)
+	 * @param gpuName OpenHardwareMonitorに表示されているGPU名(部分一致可)
+	 * @param cpuCore CPU物理コア数
+	 * @param streamParse trueならストリーム解析、falseならJSONICで全体をデコードして解析
+	 * @param connectTimeout 接続タイムアウト(ms)
+	 * @param readTimeout 読み込みタイムアウト(ms)
+	 * @param sensorPatterns センサー式のパターン(番号順)
+	 * */
+	public OpenHardwareMonitorClient(String port, String cpuName, String gpuName ,int cpuCore, boolean streamParse,
+			int connectTimeout, int readTimeout, List<String> sensorPatterns){
+		STREAM_PARSE = streamParse;
+		CONNECT_TIMEOUT = connectTimeout > 0 ? connectTimeout : DEFAULT_CONNECT_TIMEOUT;
+		READ_TIMEOUT = readTimeout > 0 ? readTimeout : DEFAULT_READ_TIMEOUT;
+		pollTimeout = CONNECT_TIMEOUT + READ_TIMEOUT;
+
 		if( port != null ){
 			OHM_GET_DATA_URL = "http://localhost:" + port + "/data.json";
 		} else {
@@ -67,137 +187,436 @@ public class OpenHardwareMonitorClient{
 		} else {
 			CPU_CORE = 4;
 		}
+
+		cpuCoreSlots = new int[CPU_CORE];
+
+		this.sensorPatterns = new SensorPattern[sensorPatterns.size()];
+		for(int i = 0 ; i < this.sensorPatterns.length ; i++){
+			this.sensorPatterns[i] = new SensorPattern(sensorPatterns.get(i));
+		}
+		sensorOffsets = new int[this.sensorPatterns.length + 1];
+
+		try{
+			url = new URL(OHM_GET_DATA_URL);
+		}catch(MalformedURLException e){
+			throw new IllegalArgumentException(e);
+		}
+
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "OpenHardwareMonitorClient");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 	}
 
 	/**
 	 * CPU,GPU温度情報を取得します。
-	 * @return <デバイス名,<モジュール名,温度>>, エラー時:null
+	 * 接続と読み込みのタイムアウトは1回の読み込みごとのため、少しずつ届く応答では取得全体が長引きます。
+	 * 取得全体を1回の取得の期限(setPollTimeout)で打ち切り、期限を過ぎた取得はバックグラウンドで継続します。
+	 * 取得に失敗した場合やタイムアウトした場合は、前回取得に成功した値が
+	 * LAST_GOOD_MAX_AGE以内であればそれを返します。
+	 * @return 温度情報, エラー時:null
+	 */
+	@Override
+	public TemperatureSnapshot getTemperature(){
+		return getTemperature(pollTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * getTemperature()で1回の取得を待つ期限を設定します。
+	 * 既定値は接続タイムアウトと読み込みタイムアウトの合計です。
+	 * @param millis 期限(ms)
+	 */
+	public void setPollTimeout(long millis){
+		if( millis > 0 ){
+			pollTimeout = millis;
+		}
+	}
+
+	/**
+	 * CPU,GPU温度情報を期限付きで取得します。
+	 * 期限内に取得できなかった場合は前回値で代替し、取得自体はバックグラウンドで継続します。
+	 * @param timeout 待ち時間
+	 * @param unit 待ち時間の単位
+	 * @return 温度情報, エラー時:null
+	 */
+	public TemperatureSnapshot getTemperature(long timeout, TimeUnit unit){
+		try{
+			TemperatureSnapshot data = getTemperatureAsync().get(timeout, unit);
+			if( data != null ){
+				return data;
+			}
+		} catch (TimeoutException e) {
+			EventLog.warn(LOG_SOURCE, "did not respond in " + unit.toMillis(timeout) + "ms.");
+		} catch (ExecutionException e) {
+			EventLog.warn(LOG_SOURCE, "request failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return getLastGood();
+	}
+
+	/**
+	 * CPU,GPU温度情報を非同期に取得します。
+	 * 前回の取得が完了していない場合は新たに要求せず、実行中の取得を返します。
+	 * @return 取得結果(エラー時:null)
+	 */
+	public synchronized Future<TemperatureSnapshot> getTemperatureAsync(){
+		if( pending == null || pending.isDone() ){
+			pending = executor.submit(new Callable<TemperatureSnapshot>(){
+				@Override
+				public TemperatureSnapshot call() throws IOException{
+					return fetch();
+				}
+			});
+		}
+		return pending;
+	}
+
+	/**
+	 * 応答の本文を記録するように設定します。
+	 * 記録しない場合は応答を複製しません。
+	 * @param recorder 記録先(記録しない場合null)
+	 */
+	public void setRecorder(RecordingWriter recorder){
+		this.recorder = recorder;
+	}
+
+	/**
+	 * 非同期取得用スレッドを停止します。
 	 */
-	public HashMap<String, HashMap<String, String>> getTemperature(){
+	@Override
+	public void shutdown(){
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 前回取得に成功した温度情報を返します。
+	 * @return 前回値, 存在しないかLAST_GOOD_MAX_AGEを超えて古い場合はnull
+	 */
+	private TemperatureSnapshot getLastGood(){
+		TemperatureSnapshot last = lastGood;
+		if( last != null
+				&& TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - last.getNanoTime()) <= LAST_GOOD_MAX_AGE ){
+			return last;
+		}
+		return null;
+	}
+
+	/**
+	 * OpenHardwareMonitorから温度情報を取得します。
+	 * センサー一覧と木の形が一致しなかった場合は一覧を作り直して1回だけ再取得します。
+	 * @return 温度情報, 取得できなかった場合null
+	 * @throws IOException 通信失敗,タイムアウト時
+	 */
+	private synchronized TemperatureSnapshot fetch() throws IOException{
+		boolean hadCatalog = catalog != null;
+		long start = System.nanoTime();
+
+		TemperatureSnapshot result = null;
 		try{
-			/** アクセスURL */
-			URL url = new URL(OHM_GET_DATA_URL);
+			result = request();
+			if( result == null && hadCatalog && catalog == null ){
+				result = request();
+			}
+		}finally{
+			Metrics.OHM_FETCH.recordSince(start);
+			if( result == null ){
+				Metrics.OHM_FETCH_FAILURES.increment();
+			}
+		}
+
+		if( result != null ){
+			lastGood = result;
+		}
 
-			/** HTTPコネクション */
-			HttpURLConnection connection = null;
+		return result;
+	}
 
-			/** レスポンスデータ */
-			String responseData;
+	/**
+	 * OpenHardwareMonitorへ1回リクエストします。
+	 * コネクションは切断せずにレスポンスを読み切って閉じるため、
+	 * HttpURLConnectionのKeep-Aliveで次回のポーリングに再利用されます。
+	 * @return 温度情報, 取得できなかった場合null
+	 * @throws IOException 通信失敗,タイムアウト時
+	 */
+	private TemperatureSnapshot request() throws IOException{
+		/** HTTPコネクション */
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
 
-			/** レスポンスデータをJSONにパースしたもの */
-			HashMap<String, Object> responseJSON = null;
+		/** レスポンスデータ */
+		String responseData;
 
-				try{
-					connection = (HttpURLConnection) url.openConnection();
-					connection.setRequestMethod("GET");
+		/** レスポンスデータをJSONにパースしたもの */
+		HashMap<String, Object> responseJSON = null;
 
-					//正常のレスポンスコードならばJSONパース
-					if( connection.getResponseCode() == HttpURLConnection.HTTP_OK ){
-						try( BufferedReader br = new BufferedReader(
-								new InputStreamReader( connection.getInputStream(),
-										StandardCharsets.UTF_8 ) ) ){
+		/** 解析結果 */
+		TemperatureSnapshot result = null;
 
-							while( ( responseData = br.readLine() ) == null ){}
+		connection.setRequestMethod("GET");
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		connection.setUseCaches(false);
 
-							if( responseData != null ){
-								responseJSON = JSON.decode( responseData );
-							}
-						}
-					}
+		//正常のレスポンスコードならばJSONパース
+		if( connection.getResponseCode() == HttpURLConnection.HTTP_OK ){
+			RecordingWriter recording = recorder;
+			ByteArrayOutputStream capture = recording != null ? new ByteArrayOutputStream() : null;
 
-					if( responseJSON != null ){
-						return(extractData(responseJSON));
-					}
-				} catch (IOException e) {
-					e.printStackTrace();
-				}finally{
-					if( connection != null ){
-						connection.disconnect();
+			if( STREAM_PARSE ){
+				try( InputStream in = tee( connection.getInputStream(), capture ) ){
+					result = extractStream(new InputStreamReader( in, StandardCharsets.UTF_8 ));
+
+					//解析を打ち切った残りはデコードせずに読み捨てる
+					drain(in);
+				}
+			} else {
+				try( BufferedReader br = new BufferedReader(
+						new InputStreamReader( tee( connection.getInputStream(), capture ),
+								StandardCharsets.UTF_8 ) ) ){
+
+					responseData = br.readLine();
+
+					if( responseData != null ){
+						long start = System.nanoTime();
+						responseJSON = JSON.decode( responseData );
+						Metrics.JSON_PARSE.recordSince(start);
 					}
+
+					//残りを読み切りコネクションを再利用可能にする
+					while( br.readLine() != null ){}
 				}
-		}catch(MalformedURLException e){
-			e.printStackTrace();
+
+				if( responseJSON != null ){
+					result = extractData(responseJSON);
+				}
+			}
+
+			if( capture != null ){
+				recording.ohmResponse(capture.toByteArray());
+			}
+		} else {
+			//エラーレスポンスも読み切って閉じないとコネクションが再利用されない
+			try( InputStream error = connection.getErrorStream() ){
+				if( error != null ){
+					drain(error);
+				}
+			}
 		}
 
-		return null;
+		return result;
 	}
 
 	/**
-	 * CPU,GPU温度をJSONから解析し取得します
-	 * @param rowData 解析対象JSON
-	 * @return <デバイス名,<モジュール名,温度>>
+	 * 読み込んだデータを複製する入力ストリームを返します。
+	 * @param in 入力ストリーム
+	 * @param capture 複製先(複製しない場合null)
+	 * @return 入力ストリーム, 複製しない場合inそのもの
 	 */
-	@SuppressWarnings("unchecked")
-	private HashMap<String, HashMap<String, String>> extractData( HashMap<String, Object> rowData ){
-		queue.clear();
-		HashMap<String, HashMap<String, String>> extractData = new HashMap<String, HashMap<String, String>>();
-		HashMap<String ,String> detailData = new HashMap<String, String>();
-		ArrayList<HashMap<String, Object>> tmpHardwareData;
+	private static InputStream tee( InputStream in, final ByteArrayOutputStream capture ){
+		if( capture == null ){
+			return in;
+		}
+		return new FilterInputStream(in){
+			@Override
+			public int read() throws IOException{
+				int read = super.read();
+				if( read >= 0 ){
+					capture.write(read);
+				}
+				return read;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException{
+				int read = super.read(b, off, len);
+				if( read > 0 ){
+					capture.write(b, off, read);
+				}
+				return read;
+			}
+		};
+	}
 
+	/**
+	 * CPU,GPU温度をデコード済みのJSONから取得します
+	 * ベンチマーク(benchmarks)から呼び出すためパッケージ内に公開しています。
+	 * @param rowData 解析対象JSON
+	 * @return 温度情報, 木の形が変わった場合null
+	 */
+	TemperatureSnapshot extractData( HashMap<String, Object> rowData ){
+		long start = System.nanoTime();
+		try{
+			if( catalog == null ){
+				catalog = SensorCatalog.discover(rowData);
+				resolveSlots();
+			} else if( !catalog.fill(rowData) ){
+				catalog = null;
+				return null;
+			}
 
-		//CPU情報代入
-		tmpHardwareData = getJSONObject((ArrayList<HashMap<String, Object>>) rowData.get("Children"), CPU_NAME);
-		for( int i = 0 ; i < CPU_CORE ; i++ ){
-			detailData.put(String.valueOf(i), ((String) tmpHardwareData.get(i).get("Value")).split(" ")[0]);
+			return toSnapshot();
+		}finally{
+			Metrics.SENSOR_EXTRACTION.recordSince(start);
 		}
+	}
 
-		detailData.put("Package", ((String) tmpHardwareData.get(CPU_CORE).get("Value")).split(" ")[0]);
-		extractData.put("CPU_Temp", detailData);
-
+	/**
+	 * CPU,GPU温度をJSONを先頭から読み進めながら取得します。
+	 * 木構造は生成せず、必要な温度のスロットを読んだ時点で読み込みを打ち切ります。
+	 * 読み込みと解析は一体のためJSON解析時間として計測し、スロットからの取り出しのみを取り出し時間とします。
+	 * ベンチマーク(benchmarks)から呼び出すためパッケージ内に公開しています。
+	 * @param reader レスポンスボディ
+	 * @return 温度情報, 木の形が変わった場合null
+	 * @throws IOException 読み込み失敗時
+	 */
+	TemperatureSnapshot extractStream( Reader reader ) throws IOException{
+		OhmJsonReader json = new OhmJsonReader(reader);
+		long start = System.nanoTime();
+
+		if( catalog == null ){
+			catalog = SensorCatalog.discover(json);
+			if( catalog == null ){
+				return null;
+			}
+			resolveSlots();
+		} else if( !catalog.fill(json) ){
+			catalog = null;
+			return null;
+		}
 
-		detailData = new HashMap<String, String>();
+		Metrics.JSON_PARSE.recordSince(start);
 
-		//GPU情報代入
-		tmpHardwareData = getJSONObject((ArrayList<HashMap<String, Object>>) rowData.get("Children"), GPU_NAME);
-		detailData.put("0", ((String) tmpHardwareData.get(0).get("Value")).split(" ")[0]);
+		start = System.nanoTime();
+		TemperatureSnapshot result = toSnapshot();
+		Metrics.SENSOR_EXTRACTION.recordSince(start);
 
-		extractData.put("GPU_Temp", detailData);
+		return result;
+	}
 
-		return extractData;
+	/**
+	 * ストリームを終端まで読み捨てます。
+	 * 途中で閉じるとKeep-Aliveのコネクションが破棄されるため、閉じる前に呼び出します。
+	 */
+	private void drain( InputStream in ) throws IOException{
+		while( in.read(drainBuffer) != -1 ){}
 	}
 
 	/**
-	 * JSONから指定したデバイス名のモジュールの温度を取得します。
+	 * センサー一覧からCPU,GPU温度のスロットを決定します。
+	 * CPUコアは"CPU Core #n"の番号で割り当て、名前で判別できない場合は従来通り並び順で割り当てます。
+	 * センサー式のパターンには一致する全てのスロットを文書中の順に割り当てます。
 	 */
-	@SuppressWarnings("unchecked")
-	private ArrayList<HashMap<String, Object>> getJSONObject(
-							ArrayList<HashMap<String, Object>> targetData, String deviceName ){
-		//ひたすらに再帰でJSONのパース
+	private void resolveSlots(){
+		Arrays.fill(cpuCoreSlots, -1);
+		cpuPackageSlot = -1;
+
+		int cpuStart = catalog.findFirst(CPU_NAME, SensorCatalog.TEMPERATURES);
+		if( cpuStart >= 0 ){
+			int cpuEnd = catalog.groupEnd(cpuStart);
+			boolean named = false;
+
+			for(int slot = cpuStart ; slot < cpuEnd ; slot++){
+				String name = catalog.getName(slot);
+				int core = coreNumber(name);
+
+				if( name.contains("Package") ){
+					if( cpuPackageSlot < 0 ){
+						cpuPackageSlot = slot;
+					}
+				} else if( core >= 1 && core <= CPU_CORE && cpuCoreSlots[core - 1] < 0 ){
+					cpuCoreSlots[core - 1] = slot;
+					named = true;
+				}
+			}
 
-		if(targetData != null){
-			queue.add(targetData);
-		}
+			if( !named ){
+				for(int i = 0 ; i < CPU_CORE && cpuStart + i < cpuEnd ; i++){
+					cpuCoreSlots[i] = cpuStart + i;
+				}
+			}
 
-		for(int i = 0 ; i < queue.size(); i++){
-			for(HashMap<String, Object> node : queue.peek()){
-				if( ((String) node.get("Text")).contains(deviceName) ){
-					for(HashMap<String, Object> detailData : (ArrayList<HashMap<String, Object>>)node.get("Children")){
+			if( cpuPackageSlot < 0 && cpuStart + CPU_CORE < cpuEnd ){
+				cpuPackageSlot = cpuStart + CPU_CORE;
+			}
+		}
 
-						if( detailData.get("Text").equals("Temperatures") ){
-							return (ArrayList<HashMap<String, Object>>) detailData.get("Children");
-						}
+		gpuSlot = catalog.findFirst(GPU_NAME, SensorCatalog.TEMPERATURES);
 
+		for(int slot : cpuCoreSlots){
+			catalog.require(slot);
+		}
+		catalog.require(cpuPackageSlot);
+		catalog.require(gpuSlot);
+
+		int[] offsets = new int[sensorPatterns.length + 1];
+		int[] slots = new int[sensorPatterns.length];
+		int count = 0;
+		for(int i = 0 ; i < sensorPatterns.length ; i++){
+			offsets[i] = count;
+			for(int slot = 0 ; slot < catalog.size() ; slot++){
+				if( sensorPatterns[i].matches(catalog.getHardware(slot), catalog.getType(slot), catalog.getName(slot)) ){
+					if( count == slots.length ){
+						slots = Arrays.copyOf(slots, count * 2 + 1);
 					}
+					slots[count++] = slot;
+					catalog.require(slot);
 				}
 			}
+			if( offsets[i] == count ){
+				EventLog.warn(LOG_SOURCE, "no sensor matches \"" + sensorPatterns[i] + "\"");
+			}
 		}
+		offsets[sensorPatterns.length] = count;
+		sensorSlots = Arrays.copyOf(slots, count);
+		sensorOffsets = offsets;
+	}
 
-		int size = queue.size();
+	/**
+	 * "CPU Core #n"形式のセンサー名からコア番号を取得します。
+	 * @return コア番号, 該当しない場合-1
+	 */
+	private static int coreNumber(String name){
+		int index = name.lastIndexOf('#');
+		if( index < 0 || index + 1 >= name.length() ){
+			return -1;
+		}
 
-		for(int i = 0 ; i < size ; i++){
-			for(HashMap<String, Object> node : queue.poll()){
-				if( node.containsKey("Children") ){
-					queue.add((ArrayList<HashMap<String, Object>>) node.get("Children"));
-				}
+		int number = 0;
+		for(int i = index + 1 ; i < name.length() ; i++){
+			char c = name.charAt(i);
+			if( c < '0' || c > '9' ){
+				return -1;
 			}
+			number = number * 10 + ( c - '0' );
+		}
+		return number;
+	}
+
+	/**
+	 * スロットの値から温度情報を生成します。
+	 */
+	private TemperatureSnapshot toSnapshot(){
+		double[] cpuCores = new double[CPU_CORE];
+		for( int i = 0 ; i < CPU_CORE ; i++ ){
+			cpuCores[i] = getValue(cpuCoreSlots[i]);
 		}
 
-		if( queue.size() != 0 ){
-			return getJSONObject(null , deviceName);
+		double[] sensors = new double[sensorSlots.length];
+		for( int i = 0 ; i < sensors.length ; i++ ){
+			sensors[i] = catalog.getValue(sensorSlots[i]);
 		}
 
-		return null;
+		return new TemperatureSnapshot(System.currentTimeMillis(), System.nanoTime(),
+				cpuCores, getValue(cpuPackageSlot), getValue(gpuSlot), sensors, sensorOffsets);
+	}
 
+	private double getValue( int slot ){
+		return slot >= 0 ? catalog.getValue(slot) : Double.NaN;
 	}
 
 }
@@ -0,0 +1,131 @@
+package device;
+
+/**
+ * Arduinoとの通信プロトコルv2の定義です。
+ *
+ * フレーム形式: SYNC(0xA5),種別,シーケンス番号,ペイロード長,ペイロード,CRC
+ * CRCはCRC-8(多項式0x07,初期値0)で、種別からペイロードまでを対象とします。
+ * ファン速度はv1と同じく0-127で、1-9も送信できます。
+ *
+ * PC→Arduino
+ * HELLO: [バージョン, 希望する最大通信レート/2400]
+ * SET_ALL: [全ファンの速度]
+ * SET_DELTA: [マスクのバイト数, マスク(ファン番号のビット), 変更するファンの速度]
+ * PING: []
+ *
+ * Arduino→PC
+ * HELLO_ACK: [バージョン, 切り替え後の通信レート/2400, ファン数]
+ * ACK: [受信したシーケンス番号, 反映後の全ファンの速度]
+ * STATUS: [全ファンの速度](定期送信)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class ProtocolV2 {
+
+	/** フレーム開始文字(v1の通信には現れない値) */
+	static final int SYNC = 0xA5;
+
+	/** プロトコルバージョン */
+	static final int VERSION = 2;
+
+	/** 種別:接続開始 */
+	static final int HELLO = 0x10;
+
+	/** 種別:接続開始応答 */
+	static final int HELLO_ACK = 0x11;
+
+	/** 種別:全ファン速度設定 */
+	static final int SET_ALL = 0x20;
+
+	/** 種別:変更分のファン速度設定 */
+	static final int SET_DELTA = 0x21;
+
+	/** 種別:接続確認 */
+	static final int PING = 0x30;
+
+	/** 種別:受信応答 */
+	static final int ACK = 0x40;
+
+	/** 種別:定期状態通知 */
+	static final int STATUS = 0x41;
+
+	/** フレームのヘッダとCRCの長さ */
+	static final int OVERHEAD = 5;
+
+	/** ペイロードの最大長 */
+	static final int MAX_PAYLOAD = 255;
+
+	/**
+	 * Arduinoが受信できるペイロードの最大長です。FanController.inoのV2_MAX_PAYLOADと一致させること。
+	 * これより長いフレームはArduinoが破棄するため、v2で制御できるファン数はACKの1バイトを除いた15個までです。
+	 */
+	static final int BOARD_MAX_PAYLOAD = 16;
+
+	/** 通信レートの単位 */
+	static final int RATE_UNIT = 2400;
+
+	/** 対応する通信レート(降順) */
+	static final int[] SUPPORTED_RATES = {115200, 57600, 38400, 19200, 9600};
+
+	private ProtocolV2(){
+	}
+
+	/**
+	 * CRC-8を1バイト分更新します。
+	 * @param crc これまでのCRC
+	 * @param data データ
+	 * @return 更新後のCRC
+	 */
+	static int crc8(int crc, int data){
+		crc ^= data & 0xFF;
+		for(int i = 0 ; i < 8 ; i++){
+			crc = ( crc & 0x80 ) != 0 ? ( ( crc << 1 ) ^ 0x07 ) & 0xFF : ( crc << 1 ) & 0xFF;
+		}
+		return crc;
+	}
+
+	/**
+	 * フレームを作成します。
+	 * @param buffer 出力先(ペイロード長+OVERHEAD以上)
+	 * @param type 種別
+	 * @param seq シーケンス番号(下位8ビットを使用)
+	 * @param payload ペイロード
+	 * @param length ペイロード長
+	 * @return フレーム長
+	 */
+	static int encode(byte[] buffer, int type, int seq, byte[] payload, int length){
+		int crc = 0;
+		int position = 0;
+
+		buffer[position++] = (byte) SYNC;
+		buffer[position++] = (byte) type;
+		crc = crc8(crc, type);
+		buffer[position++] = (byte) seq;
+		crc = crc8(crc, seq);
+		buffer[position++] = (byte) length;
+		crc = crc8(crc, length);
+		for(int i = 0 ; i < length ; i++){
+			buffer[position++] = payload[i];
+			crc = crc8(crc, payload[i]);
+		}
+		buffer[position++] = (byte) crc;
+
+		return position;
+	}
+
+	/**
+	 * 希望する最大通信レート以下で対応している最大の通信レートを求めます。
+	 * @param maxRate 希望する最大通信レート
+	 * @param minRate 最小の通信レート(対応していなくてもこれを下回りません)
+	 * @return 通信レート
+	 */
+	static int selectRate(int maxRate, int minRate){
+		for(int rate : SUPPORTED_RATES){
+			if( rate <= maxRate && rate >= minRate ){
+				return rate;
+			}
+		}
+		return minRate;
+	}
+}
@@ -0,0 +1,119 @@
+package device;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.TooManyListenersException;
+
+import gnu.io.CommPortIdentifier;
+import gnu.io.NoSuchPortException;
+import gnu.io.PortInUseException;
+import gnu.io.SerialPort;
+import gnu.io.SerialPortEvent;
+import gnu.io.SerialPortEventListener;
+import gnu.io.UnsupportedCommOperationException;
+
+/**
+ * RXTXのシリアルポートによる通信路です。
+ * RXTXに依存するのはこのクラスのみです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class RxtxSerialConnection implements SerialConnection, SerialPortEventListener {
+
+	/** ポートハンドラ名 */
+	private static final String APPLICATION_NAME = "ArduinoClient";
+
+	/** ポートタイムアウト(ms) */
+	private static final int PORT_TIMEOUT = 10000;
+
+	/** シリアルポート名 */
+	private final String comPort;
+
+	/** シリアルポート */
+	private final SerialPort port;
+
+	/** データ到着時に呼び出す処理 */
+	private volatile Runnable listener = null;
+
+	/**
+	 * シリアルポートを開きます。
+	 * @param comPort シリアルポート名(ex. COM3)
+	 * @param rate 通信レート
+	 * @throws PortInUseException　既にこのポートは使用中です
+	 * @throws NoSuchPortException 指定されたポート名は存在しません
+	 * @throws UnsupportedCommOperationException ポート設定エラーです
+	 */
+	RxtxSerialConnection(String comPort, int rate)
+			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException{
+		this.comPort = comPort;
+
+		//ポートのオープン
+		port = (SerialPort) CommPortIdentifier.getPortIdentifier(comPort)
+				.open(APPLICATION_NAME, PORT_TIMEOUT);
+
+		/** ポートの設定
+		 * Arduinoシリアル通信に準拠した以下の設定
+		 * 通信レート:300, 1200, 2400, 4800, 9600, 14400, 19200, 28800, 38400, 57600, 115200
+		 * データビット:8ビット
+		 * ストップビット:1
+		 * パリティチェック:なし
+		 * */
+		try{
+			port.setSerialPortParams(rate, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+		}catch(UnsupportedCommOperationException e){
+			port.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public String getName(){
+		return comPort;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException{
+		return port.getInputStream();
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException{
+		return port.getOutputStream();
+	}
+
+	@Override
+	public void setBaudRate(int rate) throws IOException{
+		try{
+			port.setSerialPortParams(rate, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+		}catch(UnsupportedCommOperationException e){
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void setDataListener(Runnable listener) throws IOException{
+		this.listener = listener;
+		try{
+			port.addEventListener(this);
+		}catch(TooManyListenersException e){
+			throw new IOException(e);
+		}
+		port.notifyOnDataAvailable(true);
+	}
+
+	@Override
+	public void serialEvent(SerialPortEvent event){
+		Runnable target = listener;
+		if( event.getEventType() == SerialPortEvent.DATA_AVAILABLE && target != null ){
+			target.run();
+		}
+	}
+
+	@Override
+	public void close(){
+		port.notifyOnDataAvailable(false);
+		port.removeEventListener();
+		port.close();
+	}
+}
@@ -0,0 +1,385 @@
+package device;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpenHardwareMonitorのセンサー一覧です。
+ * 初回取得時に全センサーを(ハードウェア名,種別,センサー名)で登録し、
+ * 文書中の出現順に番号(スロット)を割り当てます。
+ * 以降の取得では木を探索せず、先頭から読みながらスロット順にdouble[]へ値を格納し、
+ * 必要なスロットを読み終えた時点で打ち切ります。
+ *
+ * 各スロットにはそこまでに現れた全ノード名と深さのハッシュ値を記録しておき、
+ * 値の格納時に一致しなければ木の形が変わったと判断します。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+class SensorCatalog{
+
+	/** 温度センサーの種別名 */
+	static final String TEMPERATURES = "Temperatures";
+
+	/** センサーとみなすノードの最小の深さ(ルート0,PC1,ハードウェア2,種別3,センサー4) */
+	private static final int SENSOR_MIN_DEPTH = 3;
+
+	/** 探索する最大の深さ */
+	private static final int MAX_DEPTH = 32;
+
+	/** ハードウェア名 */
+	private String[] hardware = new String[64];
+
+	/** センサー種別名 */
+	private String[] type = new String[64];
+
+	/** センサー名 */
+	private String[] name = new String[64];
+
+	/** 親ノードの番号(同名ハードウェアの区別用) */
+	private int[] group = new int[64];
+
+	/** スロットまでのノード名のハッシュ値 */
+	private int[] prefixHash = new int[64];
+
+	/** 登録センサー数 */
+	private int size = 0;
+
+	/** 最新の値 */
+	private double[] values = new double[64];
+
+	/** 読み込みが必要な最後のスロット */
+	private int lastRequiredSlot = -1;
+
+	/** 走査中:登録処理中か */
+	private boolean discovering = false;
+
+	/** 走査中:ノード名のハッシュ値 */
+	private int hash = 0;
+
+	/** 走査中:出現したセンサー数 */
+	private int count = 0;
+
+	/** 走査中:出現したノード数 */
+	private int nodeCount = 0;
+
+	/** 走査中:登録内容と一致しなかったか */
+	private boolean mismatch = false;
+
+	/** 走査中:祖先ノード名(登録処理時のみ) */
+	private final String[] path = new String[MAX_DEPTH];
+
+	/** 走査中:祖先ノード番号 */
+	private final int[] nodeIds = new int[MAX_DEPTH];
+
+	private SensorCatalog(){
+	}
+
+	/**
+	 * 文書を全て読み、センサーを登録します。値も同時に格納されます。
+	 * @param json ルートの'{'を読む前のパーサ
+	 * @return センサー一覧, 文書がオブジェクトでない場合null
+	 * @throws IOException 読み込み失敗時
+	 */
+	static SensorCatalog discover(OhmJsonReader json) throws IOException{
+		if( json.next() != OhmJsonReader.Token.BEGIN_OBJECT ){
+			return null;
+		}
+
+		SensorCatalog catalog = new SensorCatalog();
+		catalog.begin(true);
+		catalog.walk(json, 0);
+		catalog.discovering = false;
+		return catalog;
+	}
+
+	/**
+	 * デコード済みの木からセンサーを登録します。値も同時に格納されます。
+	 * @param root ルートノード
+	 * @return センサー一覧
+	 */
+	static SensorCatalog discover(Map<String, Object> root){
+		SensorCatalog catalog = new SensorCatalog();
+		catalog.begin(true);
+		catalog.walk(root, 0);
+		catalog.discovering = false;
+		return catalog;
+	}
+
+	/**
+	 * 文書を先頭から読み、登録済みスロットへ値を格納します。
+	 * 必要なスロットを全て読んだ時点で読み込みを打ち切ります。
+	 * @param json ルートの'{'を読む前のパーサ
+	 * @return 木の形が登録時と同じで必要な値が揃った場合true
+	 * @throws IOException 読み込み失敗時
+	 */
+	boolean fill(OhmJsonReader json) throws IOException{
+		if( json.next() != OhmJsonReader.Token.BEGIN_OBJECT ){
+			return false;
+		}
+
+		begin(false);
+		walk(json, 0);
+		return !mismatch && count > lastRequiredSlot;
+	}
+
+	/**
+	 * デコード済みの木から登録済みスロットへ値を格納します。
+	 * @param root ルートノード
+	 * @return 木の形が登録時と同じで必要な値が揃った場合true
+	 */
+	boolean fill(Map<String, Object> root){
+		begin(false);
+		walk(root, 0);
+		return !mismatch && count > lastRequiredSlot;
+	}
+
+	/**
+	 * 値の読み込みが必要なスロットとして登録します。
+	 * fill()はこれらのスロットを全て読んだ時点で打ち切ります。
+	 * @param slot スロット
+	 */
+	void require(int slot){
+		if( slot > lastRequiredSlot ){
+			lastRequiredSlot = slot;
+		}
+	}
+
+	/**
+	 * ハードウェア名に指定文字列を含み、指定種別に属する最初のスロットを探します。
+	 * @param hardwareName ハードウェア名(部分一致)
+	 * @param typeName センサー種別名
+	 * @return スロット, 存在しない場合-1
+	 */
+	int findFirst(String hardwareName, String typeName){
+		for(int slot = 0 ; slot < size ; slot++){
+			if( type[slot].equals(typeName) && hardware[slot].contains(hardwareName) ){
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 指定スロットと同じハードウェアの同じ種別に属するスロットの終端を返します。
+	 * @param slot 先頭スロット
+	 * @return 同じ種別に属さない最初のスロット
+	 */
+	int groupEnd(int slot){
+		int end = slot;
+		while( end < size && group[end] == group[slot] ){
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * 登録センサー数を取得します。
+	 * @return 登録センサー数
+	 */
+	int size(){
+		return size;
+	}
+
+	/**
+	 * スロットの最新の値を取得します。
+	 * @param slot スロット
+	 * @return 値, 今回読み込んでいない場合NaN
+	 */
+	double getValue(int slot){
+		return values[slot];
+	}
+
+	/**
+	 * スロットのハードウェア名を取得します。
+	 * @param slot スロット
+	 * @return ハードウェア名
+	 */
+	String getHardware(int slot){
+		return hardware[slot];
+	}
+
+	/**
+	 * スロットのセンサー種別名を取得します。
+	 * @param slot スロット
+	 * @return センサー種別名
+	 */
+	String getType(int slot){
+		return type[slot];
+	}
+
+	/**
+	 * スロットのセンサー名を取得します。
+	 * @param slot スロット
+	 * @return センサー名
+	 */
+	String getName(int slot){
+		return name[slot];
+	}
+
+	/**
+	 * スロットの識別子を取得します。
+	 * @param slot スロット
+	 * @return "ハードウェア名/種別名/センサー名"
+	 */
+	String getIdentifier(int slot){
+		return hardware[slot] + "/" + type[slot] + "/" + name[slot];
+	}
+
+	/** 走査状態を初期化します */
+	private void begin(boolean discover){
+		discovering = discover;
+		hash = 0;
+		count = 0;
+		nodeCount = 0;
+		mismatch = false;
+		Arrays.fill(values, 0, size, Double.NaN);
+	}
+
+	/**
+	 * ノード1つ分を読み込みます。開始の'{'は読み込み済みであること。
+	 * OpenHardwareMonitorは各ノードを"Text","Children","Value"の順に出力するため、
+	 * "Value"を読む時点で子ノードの有無が判明しています。
+	 * @return 走査を継続する場合true
+	 */
+	private boolean walk(OhmJsonReader json, int depth) throws IOException{
+		boolean hasChildren = false;
+		OhmJsonReader.Token token;
+
+		enter(depth);
+
+		while( ( token = json.next() ) != OhmJsonReader.Token.END_OBJECT ){
+			if( token == OhmJsonReader.Token.END_DOCUMENT ){
+				return false;
+			}
+
+			if( json.textEquals("Text") ){
+				json.next();
+				hash = json.hashText(31 * hash + depth);
+				if( discovering && depth < MAX_DEPTH ){
+					path[depth] = json.getText();
+				}
+
+			} else if( json.textEquals("Children") ){
+				if( json.next() != OhmJsonReader.Token.BEGIN_ARRAY ){
+					continue;
+				}
+				while( ( token = json.next() ) == OhmJsonReader.Token.BEGIN_OBJECT ){
+					hasChildren = true;
+					if( !walk(json, depth + 1) ){
+						return false;
+					}
+				}
+
+			} else if( json.textEquals("Value") ){
+				json.next();
+				if( !hasChildren && isSensorDepth(depth) && !sensor(json.getLeadingDouble(), depth) ){
+					return false;
+				}
+
+			} else {
+				json.skipValue();
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * デコード済みのノード1つ分を読み込みます。
+	 * @return 走査を継続する場合true
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean walk(Map<String, Object> node, int depth){
+		boolean hasChildren = false;
+
+		enter(depth);
+
+		Object text = node.get("Text");
+		if( text instanceof String ){
+			hash = 31 * hash + depth;
+			for(int i = 0 ; i < ((String) text).length() ; i++){
+				hash = 31 * hash + ((String) text).charAt(i);
+			}
+			if( discovering && depth < MAX_DEPTH ){
+				path[depth] = (String) text;
+			}
+		}
+
+		Object children = node.get("Children");
+		if( children instanceof List ){
+			for(Object child : (List<Object>) children){
+				if( child instanceof Map ){
+					hasChildren = true;
+					if( !walk((Map<String, Object>) child, depth + 1) ){
+						return false;
+					}
+				}
+			}
+		}
+
+		Object value = node.get("Value");
+		if( !hasChildren && isSensorDepth(depth) && value instanceof String ){
+			char[] chars = ((String) value).toCharArray();
+			if( !sensor(OhmJsonReader.parseLeadingDouble(chars, chars.length), depth) ){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void enter(int depth){
+		nodeCount++;
+		if( depth < MAX_DEPTH ){
+			nodeIds[depth] = nodeCount;
+			if( discovering ){
+				path[depth] = "";
+			}
+		}
+	}
+
+	private boolean isSensorDepth(int depth){
+		return depth >= SENSOR_MIN_DEPTH && depth < MAX_DEPTH;
+	}
+
+	/**
+	 * センサーノードの値を格納します。
+	 * @return 走査を継続する場合true
+	 */
+	private boolean sensor(double value, int depth){
+		int slot = count++;
+
+		if( discovering ){
+			add(path[depth - 2], path[depth - 1], path[depth], nodeIds[depth - 1], hash);
+		} else if( slot >= size || prefixHash[slot] != hash ){
+			mismatch = true;
+			return false;
+		}
+
+		values[slot] = value;
+
+		return discovering || slot < lastRequiredSlot;
+	}
+
+	private void add(String hardwareName, String typeName, String sensorName, int groupId, int slotHash){
+		if( size == hardware.length ){
+			int capacity = size * 2;
+			hardware = Arrays.copyOf(hardware, capacity);
+			type = Arrays.copyOf(type, capacity);
+			name = Arrays.copyOf(name, capacity);
+			group = Arrays.copyOf(group, capacity);
+			prefixHash = Arrays.copyOf(prefixHash, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		hardware[size] = hardwareName;
+		type[size] = typeName;
+		name[size] = sensorName;
+		group[size] = groupId;
+		prefixHash[size] = slotHash;
+		size++;
+	}
+}
@@ -0,0 +1,69 @@
+package device;
+
+/**
+ * センサー式のパターンです。
+ * パターンは"ハードウェア名/種別名/センサー名"の形式で、各部分は部分一致で比較し、空または"*"は全てに一致します。
+ * 省略した場合、"センサー名"は"* /Temperatures/センサー名"、"ハードウェア名/センサー名"は"ハードウェア名/Temperatures/センサー名"とみなします。
+ * ex. "GPU Core"(全GPUのコア温度), "Disk/Temperature", "/Temperatures/"(全温度センサー)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class SensorPattern {
+
+	/** パターン(表示用) */
+	private final String pattern;
+
+	/** ハードウェア名 */
+	private final String hardware;
+
+	/** 種別名 */
+	private final String type;
+
+	/** センサー名 */
+	private final String name;
+
+	/**
+	 * @param pattern パターン
+	 */
+	SensorPattern(String pattern){
+		this.pattern = pattern;
+		String[] parts = pattern.split("/", -1);
+		if( parts.length == 1 ){
+			this.hardware = "";
+			this.type = SensorCatalog.TEMPERATURES;
+			this.name = normalize(parts[0]);
+		} else if( parts.length == 2 ){
+			this.hardware = normalize(parts[0]);
+			this.type = SensorCatalog.TEMPERATURES;
+			this.name = normalize(parts[1]);
+		} else {
+			this.hardware = normalize(parts[0]);
+			this.type = normalize(parts[1]);
+			//センサー名に'/'を含む場合に備え、3つ目以降はまとめてセンサー名とする
+			this.name = normalize(pattern.substring(parts[0].length() + parts[1].length() + 2));
+		}
+	}
+
+	/**
+	 * センサーがパターンに一致するか判定します。
+	 * @param hardwareName ハードウェア名
+	 * @param typeName 種別名
+	 * @param sensorName センサー名
+	 * @return 一致する場合true
+	 */
+	boolean matches(String hardwareName, String typeName, String sensorName){
+		return hardwareName.contains(hardware) && typeName.contains(type) && sensorName.contains(name);
+	}
+
+	@Override
+	public String toString(){
+		return pattern;
+	}
+
+	/** 前後の空白を除き、"*"を空文字(全てに一致)に置き換えます */
+	private static String normalize(String part){
+		part = part.trim();
+		return part.equals("*") ? "" : part;
+	}
+}
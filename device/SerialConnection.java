@@ -0,0 +1,54 @@
+package device;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Arduinoとのシリアル通信路です。
+ * ArduinoClientはこのインターフェースを通してのみ通信するため、
+ * RXTXのシリアルポート以外(模擬デバイスなど)にも接続できます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface SerialConnection {
+
+	/**
+	 * 通信路の名前を取得します。
+	 * @return 名前(ex. COM3)
+	 */
+	String getName();
+
+	/**
+	 * 受信ストリームを取得します。
+	 * @return 受信ストリーム
+	 * @throws IOException 取得失敗時
+	 */
+	InputStream getInputStream() throws IOException;
+
+	/**
+	 * 送信ストリームを取得します。
+	 * @return 送信ストリーム
+	 * @throws IOException 取得失敗時
+	 */
+	OutputStream getOutputStream() throws IOException;
+
+	/**
+	 * 通信レートを変更します。
+	 * @param rate 通信レート
+	 * @throws IOException 変更できなかった場合
+	 */
+	void setBaudRate(int rate) throws IOException;
+
+	/**
+	 * データ到着時に呼び出す処理を登録します。登録できるのは1つだけです。
+	 * @param listener データ到着時に呼び出す処理
+	 * @throws IOException 登録失敗時
+	 */
+	void setDataListener(Runnable listener) throws IOException;
+
+	/**
+	 * 通信路を閉じます。
+	 */
+	void close();
+}
@@ -0,0 +1,99 @@
+package device;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import recording.RecordingWriter;
+
+/**
+ * 送受信データを記録する通信路です。
+ * 通信は元の通信路にそのまま委譲し、読み書きしたデータをRecordingWriterに記録します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class TappedSerialConnection implements SerialConnection {
+
+	/** 元の通信路 */
+	private final SerialConnection connection;
+
+	/** 記録先 */
+	private final RecordingWriter recorder;
+
+	/** Arduinoの番号 */
+	private final int device;
+
+	/**
+	 * @param connection 元の通信路
+	 * @param recorder 記録先
+	 * @param device Arduinoの番号
+	 */
+	TappedSerialConnection(SerialConnection connection, RecordingWriter recorder, int device){
+		this.connection = connection;
+		this.recorder = recorder;
+		this.device = device;
+	}
+
+	@Override
+	public String getName(){
+		return connection.getName();
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException{
+		return new FilterInputStream(connection.getInputStream()){
+			@Override
+			public int read() throws IOException{
+				int read = super.read();
+				if( read >= 0 ){
+					recorder.serial(device, false, new byte[]{ (byte) read }, 0, 1);
+				}
+				return read;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException{
+				int read = super.read(b, off, len);
+				if( read > 0 ){
+					recorder.serial(device, false, b, off, read);
+				}
+				return read;
+			}
+		};
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException{
+		return new FilterOutputStream(connection.getOutputStream()){
+			@Override
+			public void write(int b) throws IOException{
+				out.write(b);
+				recorder.serial(device, true, new byte[]{ (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException{
+				//FilterOutputStreamの既定の実装は1バイトずつ書き込むため委譲する
+				out.write(b, off, len);
+				recorder.serial(device, true, b, off, len);
+			}
+		};
+	}
+
+	@Override
+	public void setBaudRate(int rate) throws IOException{
+		connection.setBaudRate(rate);
+	}
+
+	@Override
+	public void setDataListener(Runnable listener) throws IOException{
+		connection.setDataListener(listener);
+	}
+
+	@Override
+	public void close(){
+		connection.close();
+	}
+}
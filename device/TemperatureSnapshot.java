@@ -0,0 +1,221 @@
+package device;
+
+/**
+ * 1回のポーリングで取得した温度情報です。
+ * 値は数値化済みで、取得できなかった値はNaNとして保持します。
+ * 生成後は変更されないため、スレッド間でそのまま受け渡しできます。
+ * フィルタを適用した温度情報は、適用前の温度情報を保持します。
+ * センサー式で使用するパターンごとのセンサーの値は、パターン順に1つの配列にまとめて保持します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class TemperatureSnapshot{
+
+	/** パターンごとのセンサーがない場合の値 */
+	private static final double[] NO_SENSORS = new double[0];
+
+	/** パターンごとのセンサーがない場合の開始位置 */
+	private static final int[] NO_SENSOR_OFFSETS = {0};
+
+	/** 取得時刻(System.currentTimeMillis) */
+	private final long timestamp;
+
+	/** 取得時刻(System.nanoTime) */
+	private final long nanoTime;
+
+	/** CPUコア温度 */
+	private final double[] cpuCores;
+
+	/** CPUパッケージ温度 */
+	private final double cpuPackage;
+
+	/** GPU温度 */
+	private final double gpu;
+
+	/** CPUパッケージ温度が有効か */
+	private final boolean cpuValid;
+
+	/** GPU温度が有効か */
+	private final boolean gpuValid;
+
+	/** パターンごとのセンサーの値(パターン順) */
+	private final double[] sensors;
+
+	/** パターンごとのセンサーの開始位置(パターン数+1個, 最後は終端) */
+	private final int[] sensorOffsets;
+
+	/** フィルタ適用前の温度情報(適用前の場合自身) */
+	private final TemperatureSnapshot raw;
+
+	/**
+	 * @param timestamp 取得時刻(System.currentTimeMillis)
+	 * @param nanoTime 取得時刻(System.nanoTime)
+	 * @param cpuCores CPUコア温度(取得できなかったコアはNaN)。配列は複製されません
+	 * @param cpuPackage CPUパッケージ温度(取得できなかった場合NaN)
+	 * @param gpu GPU温度(取得できなかった場合NaN)
+	 */
+	public TemperatureSnapshot(long timestamp, long nanoTime, double[] cpuCores, double cpuPackage, double gpu){
+		this(timestamp, nanoTime, cpuCores, cpuPackage, gpu, NO_SENSORS, NO_SENSOR_OFFSETS);
+	}
+
+	/**
+	 * @param timestamp 取得時刻(System.currentTimeMillis)
+	 * @param nanoTime 取得時刻(System.nanoTime)
+	 * @param cpuCores CPUコア温度(取得できなかったコアはNaN)。配列は複製されません
+	 * @param cpuPackage CPUパッケージ温度(取得できなかった場合NaN)
+	 * @param gpu GPU温度(取得できなかった場合NaN)
+	 * @param sensors パターンごとのセンサーの値(パターン順,取得できなかった値はNaN)。配列は複製されません
+	 * @param sensorOffsets パターンごとのセンサーの開始位置(パターン数+1個,最後はsensors.length)。配列は複製されません
+	 */
+	public TemperatureSnapshot(long timestamp, long nanoTime, double[] cpuCores, double cpuPackage, double gpu,
+			double[] sensors, int[] sensorOffsets){
+		this.timestamp = timestamp;
+		this.nanoTime = nanoTime;
+		this.cpuCores = cpuCores;
+		this.cpuPackage = cpuPackage;
+		this.gpu = gpu;
+		this.cpuValid = !Double.isNaN(cpuPackage);
+		this.gpuValid = !Double.isNaN(gpu);
+		this.sensors = sensors;
+		this.sensorOffsets = sensorOffsets;
+		this.raw = this;
+	}
+
+	/**
+	 * フィルタを適用した温度情報を作成します。取得時刻とパターンごとのセンサーの値は適用前の温度情報と同じです。
+	 * @param raw フィルタ適用前の温度情報
+	 * @param cpuCores CPUコア温度(取得できなかったコアはNaN)。配列は複製されません
+	 * @param cpuPackage CPUパッケージ温度(取得できなかった場合NaN)
+	 * @param gpu GPU温度(取得できなかった場合NaN)
+	 */
+	public TemperatureSnapshot(TemperatureSnapshot raw, double[] cpuCores, double cpuPackage, double gpu){
+		this(raw, cpuCores, cpuPackage, gpu, raw.sensors);
+	}
+
+	/**
+	 * フィルタを適用した温度情報を作成します。取得時刻とパターンごとのセンサーの開始位置は適用前の温度情報と同じです。
+	 * @param raw フィルタ適用前の温度情報
+	 * @param cpuCores CPUコア温度(取得できなかったコアはNaN)。配列は複製されません
+	 * @param cpuPackage CPUパッケージ温度(取得できなかった場合NaN)
+	 * @param gpu GPU温度(取得できなかった場合NaN)
+	 * @param sensors パターンごとのセンサーの値(適用前と同じ並び,取得できなかった値はNaN)。配列は複製されません
+	 */
+	public TemperatureSnapshot(TemperatureSnapshot raw, double[] cpuCores, double cpuPackage, double gpu, double[] sensors){
+		this.timestamp = raw.timestamp;
+		this.nanoTime = raw.nanoTime;
+		this.cpuCores = cpuCores;
+		this.cpuPackage = cpuPackage;
+		this.gpu = gpu;
+		this.cpuValid = !Double.isNaN(cpuPackage);
+		this.gpuValid = !Double.isNaN(gpu);
+		this.sensors = sensors;
+		this.sensorOffsets = raw.sensorOffsets;
+		this.raw = raw.raw;
+	}
+
+	/**
+	 * 取得時刻を取得します。
+	 * @return 取得時刻(System.currentTimeMillis)
+	 */
+	public long getTimestamp(){
+		return timestamp;
+	}
+
+	/**
+	 * 取得時刻を取得します。経過時間の計算に使用します。
+	 * @return 取得時刻(System.nanoTime)
+	 */
+	public long getNanoTime(){
+		return nanoTime;
+	}
+
+	/**
+	 * CPUコア数を取得します。
+	 * @return CPUコア数
+	 */
+	public int getCpuCoreCount(){
+		return cpuCores.length;
+	}
+
+	/**
+	 * CPUコア温度を取得します。
+	 * @param core コア番号(0から)
+	 * @return CPUコア温度, 取得できなかった場合NaN
+	 */
+	public double getCpuCore(int core){
+		return cpuCores[core];
+	}
+
+	/**
+	 * CPUパッケージ温度を取得します。
+	 * @return CPUパッケージ温度, 取得できなかった場合NaN
+	 */
+	public double getCpuPackage(){
+		return cpuPackage;
+	}
+
+	/**
+	 * GPU温度を取得します。
+	 * @return GPU温度, 取得できなかった場合NaN
+	 */
+	public double getGpu(){
+		return gpu;
+	}
+
+	/**
+	 * CPUパッケージ温度が有効か判定します。
+	 * @return 有効な場合true
+	 */
+	public boolean isCpuValid(){
+		return cpuValid;
+	}
+
+	/**
+	 * GPU温度が有効か判定します。
+	 * @return 有効な場合true
+	 */
+	public boolean isGpuValid(){
+		return gpuValid;
+	}
+
+	/**
+	 * センサー式のパターン数を取得します。
+	 * @return パターン数
+	 */
+	public int getSensorPatternCount(){
+		return sensorOffsets.length - 1;
+	}
+
+	/**
+	 * パターンに一致したセンサー数を取得します。
+	 * @param pattern パターンの番号(0から)
+	 * @return センサー数, パターンの値を取得していない場合0
+	 */
+	public int getSensorCount(int pattern){
+		return pattern + 1 < sensorOffsets.length ? sensorOffsets[pattern + 1] - sensorOffsets[pattern] : 0;
+	}
+
+	/**
+	 * パターンに一致したセンサーの値を取得します。
+	 * @param pattern パターンの番号(0から)
+	 * @param index パターン内の番号(0から)
+	 * @return 値, 取得できなかった場合NaN
+	 */
+	public double getSensor(int pattern, int index){
+		return sensors[sensorOffsets[pattern] + index];
+	}
+
+	/**
+	 * フィルタ適用前の温度情報を取得します。
+	 * @return フィルタ適用前の温度情報, フィルタを適用していない場合自身
+	 */
+	public TemperatureSnapshot getRaw(){
+		return raw;
+	}
+
+	@Override
+	public String toString(){
+		return "CPU:" + cpuPackage + ",GPU:" + gpu;
+	}
+}
@@ -0,0 +1,22 @@
+package device;
+
+/**
+ * CPU,GPU温度の取得元です。
+ * 取得スレッドから周期ごとに呼び出されます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface TemperatureSource {
+
+	/**
+	 * CPU,GPU温度情報を取得します。
+	 * @return 温度情報, エラー時:null
+	 */
+	TemperatureSnapshot getTemperature();
+
+	/**
+	 * 取得に使用している資源を解放します。
+	 */
+	void shutdown();
+}
@@ -0,0 +1,316 @@
+package expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ファンごとの制御に使用する温度の式をSensorProgramにコンパイルします。
+ * 設定の読み込み時に1回だけ使用し、制御周期では使用しません。
+ *
+ * 式の形式(名前は大文字小文字を区別しません)
+ * <pre>
+ * 式   : 項 (('+'|'-') 項)*
+ * 項   : 単項 (('*'|'/') 単項)*
+ * 単項 : '-' 単項 | 数値 | '(' 式 ')' | 値 | 関数
+ * 値   : cpu                 … CPUパッケージ温度
+ *        gpu                 … GPU温度
+ *        coreN               … N番目(1から)のCPUコア温度
+ *        sensor("パターン")  … パターンに一致した最初のセンサー
+ * 関数 : max(引数, ...) | min(引数, ...) | avg(引数, ...)
+ * 引数 : 式 | cores | sensors("パターン")
+ *        cores               … CPUコア温度全体
+ *        sensors("パターン") … パターンに一致したセンサー全体
+ * </pre>
+ * cores, sensors()は関数の引数にのみ使用でき、avg()では唯一の引数とする必要があります。
+ * パターンは"ハードウェア名/種別名/センサー名"の形式で、詳細は温度の取得元によります。
+ * パターンは登録順に番号を割り当て、同じパターンは同じ番号を共有します。
+ * ex. "max(cpu, gpu)", "max(sensors(\"GPU/GPU Core\"))", "(2 * core1 + core2) / 3", "avg(sensors(\"Disk\"))"
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class SensorExpression {
+
+	/** 既定の式(CPUとGPUの高い方) */
+	public static final String DEFAULT = "max(cpu, gpu)";
+
+	/** 式 */
+	private final String text;
+
+	/** センサーのパターン(登録順) */
+	private final List<String> patterns;
+
+	/** 読み込み位置 */
+	private int position = 0;
+
+	/** 命令列 */
+	private int[] code = new int[16];
+
+	/** 命令列の長さ */
+	private int length = 0;
+
+	/** 定数表 */
+	private final ArrayList<Double> constants = new ArrayList<Double>();
+
+	/** 現在のスタックの深さ */
+	private int depth = 0;
+
+	/** スタックの最大の深さ */
+	private int maxDepth = 0;
+
+	private SensorExpression(String text, List<String> patterns){
+		this.text = text;
+		this.patterns = patterns;
+	}
+
+	/**
+	 * 式をコンパイルします。
+	 * @param text 式
+	 * @param patterns センサーのパターン(登録順)。式で使用した未登録のパターンを追加します
+	 * @return コンパイル済みの式
+	 * @throws IllegalArgumentException 形式が不正な場合
+	 */
+	public static SensorProgram compile(String text, List<String> patterns){
+		//不正な場合にパターンを登録しないよう、複製に登録してから反映する
+		ArrayList<String> registered = new ArrayList<String>(patterns);
+		SensorExpression compiler = new SensorExpression(text, registered);
+		compiler.expression();
+		compiler.skipSpaces();
+		if( compiler.position < text.length() ){
+			throw compiler.error("unexpected '" + text.charAt(compiler.position) + "'");
+		}
+
+		double[] constants = new double[compiler.constants.size()];
+		for(int i = 0 ; i < constants.length ; i++){
+			constants[i] = compiler.constants.get(i);
+		}
+		patterns.addAll(registered.subList(patterns.size(), registered.size()));
+		return new SensorProgram(Arrays.copyOf(compiler.code, compiler.length), constants, compiler.maxDepth, text.trim());
+	}
+
+	/** 式 : 項 (('+'|'-') 項)* */
+	private void expression(){
+		term();
+		while( true ){
+			if( accept('+') ){
+				term();
+				emit(SensorProgram.ADD, -1);
+			} else if( accept('-') ){
+				term();
+				emit(SensorProgram.SUB, -1);
+			} else {
+				return;
+			}
+		}
+	}
+
+	/** 項 : 単項 (('*'|'/') 単項)* */
+	private void term(){
+		unary();
+		while( true ){
+			if( accept('*') ){
+				unary();
+				emit(SensorProgram.MUL, -1);
+			} else if( accept('/') ){
+				unary();
+				emit(SensorProgram.DIV, -1);
+			} else {
+				return;
+			}
+		}
+	}
+
+	/** 単項 : '-' 単項 | 数値 | '(' 式 ')' | 値 | 関数 */
+	private void unary(){
+		if( accept('-') ){
+			unary();
+			emit(SensorProgram.NEG, 0);
+			return;
+		}
+		if( accept('(') ){
+			expression();
+			expect(')');
+			return;
+		}
+
+		skipSpaces();
+		if( position < text.length() && ( Character.isDigit(text.charAt(position)) || text.charAt(position) == '.' ) ){
+			number();
+			return;
+		}
+
+		int start = position;
+		String name = name();
+		if( name.equals("cpu") ){
+			emit(SensorProgram.CPU, 1);
+		} else if( name.equals("gpu") ){
+			emit(SensorProgram.GPU, 1);
+		} else if( name.matches("core[1-9]\\d{0,2}") ){
+			emit(SensorProgram.CORE, 1, Integer.parseInt(name.substring("core".length())) - 1);
+		} else if( name.equals("sensor") ){
+			emit(SensorProgram.SENSOR, 1, pattern());
+		} else if( name.equals("max") ){
+			function(SensorProgram.MAX);
+		} else if( name.equals("min") ){
+			function(SensorProgram.MIN);
+		} else if( name.equals("avg") ){
+			function(SensorProgram.AVG);
+		} else if( name.equals("cores") || name.equals("sensors") ){
+			position = start;
+			throw error(name + " can only be an argument of max(), min() or avg()");
+		} else {
+			position = start;
+			throw error(name.isEmpty() ? "value expected" : "unknown name '" + name + "'");
+		}
+	}
+
+	/**
+	 * 関数 : max(引数, ...) | min(引数, ...) | avg(引数, ...)
+	 * 個別の引数はスタックに積んで最後にまとめて集計し、cores, sensors()はその場で同じ方法で集計します。
+	 * @param reduce 集計方法(MAX,MIN,AVG)
+	 */
+	private void function(int reduce){
+		int functionStart = position;
+		expect('(');
+		int count = 0;
+		boolean group = false;
+		do{
+			skipSpaces();
+			int start = position;
+			String name = name();
+			if( name.equals("cores") && !lookingAt('(') ){
+				emit(SensorProgram.CORES, 1, reduce);
+				group = true;
+			} else if( name.equals("sensors") ){
+				emit(SensorProgram.SENSORS, 1, pattern(), reduce);
+				group = true;
+			} else {
+				position = start;
+				expression();
+			}
+			count++;
+		}while( accept(',') );
+		expect(')');
+
+		if( reduce == SensorProgram.AVG && group && count > 1 ){
+			position = functionStart;
+			throw error("avg() of cores or sensors() must have no other argument");
+		}
+		if( count > 1 ){
+			emit(reduce, 1 - count, count);
+		}
+	}
+
+	/** 数値 */
+	private void number(){
+		int start = position;
+		while( position < text.length() && ( Character.isDigit(text.charAt(position)) || text.charAt(position) == '.' ) ){
+			position++;
+		}
+		double value;
+		try{
+			value = Double.parseDouble(text.substring(start, position));
+		}catch(NumberFormatException e){
+			position = start;
+			throw error("invalid number");
+		}
+
+		int index = constants.indexOf(value);
+		if( index < 0 ){
+			index = constants.size();
+			constants.add(value);
+		}
+		emit(SensorProgram.CONST, 1, index);
+	}
+
+	/**
+	 * ("パターン")を読み、パターンの番号を取得します。未登録の場合は登録します。
+	 * @return パターンの番号
+	 */
+	private int pattern(){
+		expect('(');
+		skipSpaces();
+		if( position >= text.length() || ( text.charAt(position) != '"' && text.charAt(position) != '\'' ) ){
+			throw error("quoted pattern expected");
+		}
+		char quote = text.charAt(position);
+		int end = text.indexOf(quote, position + 1);
+		if( end < 0 ){
+			throw error("unterminated pattern");
+		}
+		String pattern = text.substring(position + 1, end).trim();
+		if( pattern.isEmpty() ){
+			throw error("empty pattern");
+		}
+		position = end + 1;
+		expect(')');
+
+		int index = patterns.indexOf(pattern);
+		if( index < 0 ){
+			index = patterns.size();
+			patterns.add(pattern);
+		}
+		return index;
+	}
+
+	/** 名前を読みます(小文字に変換, 名前でない場合空文字) */
+	private String name(){
+		skipSpaces();
+		int start = position;
+		while( position < text.length() && Character.isLetterOrDigit(text.charAt(position)) ){
+			position++;
+		}
+		return text.substring(start, position).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 命令を追加します。
+	 * @param instruction 命令コード
+	 * @param stack 命令によるスタックの深さの増減
+	 * @param operands オペランド
+	 */
+	private void emit(int instruction, int stack, int... operands){
+		if( length + 1 + operands.length > code.length ){
+			code = Arrays.copyOf(code, code.length * 2 + operands.length);
+		}
+		code[length++] = instruction;
+		for(int operand : operands){
+			code[length++] = operand;
+		}
+		depth += stack;
+		maxDepth = Math.max(maxDepth, depth);
+	}
+
+	private void skipSpaces(){
+		while( position < text.length() && Character.isWhitespace(text.charAt(position)) ){
+			position++;
+		}
+	}
+
+	/** 空白の後が指定の文字か判定します(読み進めません) */
+	private boolean lookingAt(char c){
+		skipSpaces();
+		return position < text.length() && text.charAt(position) == c;
+	}
+
+	/** 空白の後が指定の文字の場合は読み進めます */
+	private boolean accept(char c){
+		if( lookingAt(c) ){
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(char c){
+		if( !accept(c) ){
+			throw error("'" + c + "' expected");
+		}
+	}
+
+	private IllegalArgumentException error(String message){
+		return new IllegalArgumentException("Invalid sensor expression: " + message + " at " + ( position + 1 ) + " in \"" + text + "\"");
+	}
+}
@@ -0,0 +1,237 @@
+package expression;
+
+import device.TemperatureSnapshot;
+
+/**
+ * コンパイル済みのセンサー式です。
+ * 命令列(int[])と定数表(double[])のみからなり、評価時はオブジェクトを生成しません。
+ * 生成後は変更されないため、複数のスレッドで共有できます。
+ * 評価用のスタックは呼び出し側で用意します(getStackDepth()以上の長さ)。
+ *
+ * 命令は命令コードとオペランド(命令により0-2個)を順に並べたものです。
+ * <ul>
+ * <li>CONST k … 定数表のk番目を積む</li>
+ * <li>CPU, GPU … CPUパッケージ温度,GPU温度を積む</li>
+ * <li>CORE c … c番目(0から)のCPUコア温度を積む</li>
+ * <li>SENSOR p … p番目のパターンに一致した最初のセンサーの値を積む</li>
+ * <li>CORES r, SENSORS p r … CPUコア全体,p番目のパターンに一致したセンサー全体をrで集計して積む</li>
+ * <li>ADD, SUB, MUL, DIV … 2つ取り出して演算結果を積む</li>
+ * <li>NEG … 符号を反転する</li>
+ * <li>MAX n, MIN n, AVG n … n個取り出して最大,最小,平均を積む</li>
+ * </ul>
+ * 個別に指定した値が取得できなかった(NaN)場合、結果もNaNになります。
+ * 集計(CORES,SENSORS)では取得できなかった値を除外し、1つも取得できなかった場合はNaNになります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class SensorProgram {
+
+	/** 命令:定数 */
+	static final int CONST = 0;
+
+	/** 命令:CPUパッケージ温度 */
+	static final int CPU = 1;
+
+	/** 命令:GPU温度 */
+	static final int GPU = 2;
+
+	/** 命令:CPUコア温度 */
+	static final int CORE = 3;
+
+	/** 命令:パターンに一致した最初のセンサー */
+	static final int SENSOR = 4;
+
+	/** 命令:CPUコア温度の集計 */
+	static final int CORES = 5;
+
+	/** 命令:パターンに一致したセンサーの集計 */
+	static final int SENSORS = 6;
+
+	/** 命令:加算 */
+	static final int ADD = 7;
+
+	/** 命令:減算 */
+	static final int SUB = 8;
+
+	/** 命令:乗算 */
+	static final int MUL = 9;
+
+	/** 命令:除算 */
+	static final int DIV = 10;
+
+	/** 命令:符号反転 */
+	static final int NEG = 11;
+
+	/** 命令:最大 */
+	static final int MAX = 12;
+
+	/** 命令:最小 */
+	static final int MIN = 13;
+
+	/** 命令:平均 */
+	static final int AVG = 14;
+
+	/** 命令列 */
+	private final int[] code;
+
+	/** 定数表 */
+	private final double[] constants;
+
+	/** 評価に必要なスタックの深さ */
+	private final int stackDepth;
+
+	/** 式(表示用) */
+	private final String source;
+
+	SensorProgram(int[] code, double[] constants, int stackDepth, String source){
+		this.code = code;
+		this.constants = constants;
+		this.stackDepth = stackDepth;
+		this.source = source;
+	}
+
+	/**
+	 * 温度情報に対して式を評価します。
+	 * @param temperature 温度情報
+	 * @param stack 評価用のスタック(getStackDepth()以上の長さ)
+	 * @return 温度(℃), 使用する値が取得できなかった場合NaN
+	 */
+	public double evaluate(TemperatureSnapshot temperature, double[] stack){
+		int sp = 0;
+		int pc = 0;
+		while( pc < code.length ){
+			switch( code[pc++] ){
+			case CONST:
+				stack[sp++] = constants[code[pc++]];
+				break;
+
+			case CPU:
+				stack[sp++] = temperature.getCpuPackage();
+				break;
+
+			case GPU:
+				stack[sp++] = temperature.getGpu();
+				break;
+
+			case CORE: {
+				int core = code[pc++];
+				stack[sp++] = core < temperature.getCpuCoreCount() ? temperature.getCpuCore(core) : Double.NaN;
+				break;
+			}
+
+			case SENSOR: {
+				int pattern = code[pc++];
+				stack[sp++] = temperature.getSensorCount(pattern) > 0 ? temperature.getSensor(pattern, 0) : Double.NaN;
+				break;
+			}
+
+			case CORES: {
+				int reduce = code[pc++];
+				double result = Double.NaN;
+				int count = 0;
+				for(int i = 0 ; i < temperature.getCpuCoreCount() ; i++){
+					double value = temperature.getCpuCore(i);
+					if( !Double.isNaN(value) ){
+						result = count == 0 ? value : reduce(reduce, result, value);
+						count++;
+					}
+				}
+				stack[sp++] = reduce == AVG && count > 0 ? result / count : result;
+				break;
+			}
+
+			case SENSORS: {
+				int pattern = code[pc++];
+				int reduce = code[pc++];
+				double result = Double.NaN;
+				int count = 0;
+				for(int i = 0 ; i < temperature.getSensorCount(pattern) ; i++){
+					double value = temperature.getSensor(pattern, i);
+					if( !Double.isNaN(value) ){
+						result = count == 0 ? value : reduce(reduce, result, value);
+						count++;
+					}
+				}
+				stack[sp++] = reduce == AVG && count > 0 ? result / count : result;
+				break;
+			}
+
+			case ADD:
+				sp--;
+				stack[sp - 1] += stack[sp];
+				break;
+
+			case SUB:
+				sp--;
+				stack[sp - 1] -= stack[sp];
+				break;
+
+			case MUL:
+				sp--;
+				stack[sp - 1] *= stack[sp];
+				break;
+
+			case DIV:
+				sp--;
+				stack[sp - 1] /= stack[sp];
+				break;
+
+			case NEG:
+				stack[sp - 1] = -stack[sp - 1];
+				break;
+
+			case MAX:
+			case MIN:
+			case AVG: {
+				int reduce = code[pc - 1];
+				int count = code[pc++];
+				sp -= count;
+				double result = stack[sp];
+				for(int i = 1 ; i < count ; i++){
+					result = reduce(reduce, result, stack[sp + i]);
+				}
+				stack[sp++] = reduce == AVG ? result / count : result;
+				break;
+			}
+
+			default:
+				throw new IllegalStateException("Invalid instruction at " + ( pc - 1 ));
+			}
+		}
+		return stack[0];
+	}
+
+	/** 集計の途中結果に値を1つ加えます(平均は合計を求め、呼び出し側で割ります) */
+	private static double reduce(int reduce, double result, double value){
+		switch( reduce ){
+		case MAX:
+			return Math.max(result, value);
+		case MIN:
+			return Math.min(result, value);
+		default:
+			return result + value;
+		}
+	}
+
+	/**
+	 * 評価に必要なスタックの深さを取得します。
+	 * @return スタックの深さ
+	 */
+	public int getStackDepth(){
+		return stackDepth;
+	}
+
+	/**
+	 * 命令列の長さを取得します。
+	 * @return 命令列の長さ(オペランドを含む)
+	 */
+	public int getCodeLength(){
+		return code.length;
+	}
+
+	@Override
+	public String toString(){
+		return source;
+	}
+}
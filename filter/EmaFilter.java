@@ -0,0 +1,36 @@
+package filter;
+
+/**
+ * 指数移動平均です。
+ * 出力 = 前回の出力 + 係数 × (入力 - 前回の出力)。最初の値はそのまま出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class EmaFilter implements SensorFilter {
+
+	/** 係数(0より大きく1以下, 1でフィルタなし) */
+	private final double alpha;
+
+	/** 前回の出力(未入力の場合NaN) */
+	private double value = Double.NaN;
+
+	/**
+	 * @param alpha 係数(0より大きく1以下)
+	 */
+	public EmaFilter(double alpha){
+		if( !( alpha > 0 && alpha <= 1 ) ){
+			throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+		}
+		this.alpha = alpha;
+	}
+
+	@Override
+	public double apply(double input, long nanoTime){
+		if( Double.isNaN(input) ){
+			return input;
+		}
+		value = Double.isNaN(value) ? input : value + alpha * ( input - value );
+		return value;
+	}
+}
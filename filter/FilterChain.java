@@ -0,0 +1,85 @@
+package filter;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * フィルタを順に適用します。
+ * 設定文字列は"種類:値"をカンマ区切りで並べたもので、記述順に適用します。
+ * <ul>
+ * <li>ema:係数 … 指数移動平均(0より大きく1以下)</li>
+ * <li>median:N … 直近N個の中央値</li>
+ * <li>slew:変化率 … 1秒あたりの最大変化量</li>
+ * </ul>
+ * ex. "median:5,ema:0.3"
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class FilterChain implements SensorFilter {
+
+	/** 設定文字列の形式(1件分) */
+	public static final String REGEX_ITEM =
+			"(?i)(ema:(0?\\.\\d*[1-9]\\d*|1(\\.0*)?)|median:[1-9]\\d?|slew:([1-9]\\d{0,2}(\\.\\d+)?|0?\\.\\d*[1-9]\\d*))";
+
+	/** 設定文字列の形式(空文字はフィルタなし) */
+	public static final String REGEX = "(" + REGEX_ITEM + "(," + REGEX_ITEM + ")*)?";
+
+	/** 適用するフィルタ */
+	private final SensorFilter[] filters;
+
+	private FilterChain(SensorFilter[] filters){
+		this.filters = filters;
+	}
+
+	/**
+	 * 設定文字列からフィルタを作成します。
+	 * @param spec 設定文字列(空文字の場合フィルタなし)
+	 * @return フィルタ
+	 * @throws IllegalArgumentException 形式が不正な場合
+	 */
+	public static FilterChain parse(String spec){
+		ArrayList<SensorFilter> filters = new ArrayList<SensorFilter>();
+
+		for(String item : spec.split(",")){
+			item = item.trim().toLowerCase(Locale.ROOT);
+			if( item.isEmpty() ){
+				continue;
+			}
+
+			int separator = item.indexOf(':');
+			if( separator < 0 ){
+				throw new IllegalArgumentException("Invalid filter: " + item);
+			}
+			String type = item.substring(0, separator);
+			String value = item.substring(separator + 1);
+
+			if( type.equals("ema") ){
+				filters.add(new EmaFilter(Double.parseDouble(value)));
+			} else if( type.equals("median") ){
+				filters.add(new MedianFilter(Integer.parseInt(value)));
+			} else if( type.equals("slew") ){
+				filters.add(new SlewRateFilter(Double.parseDouble(value)));
+			} else {
+				throw new IllegalArgumentException("Invalid filter: " + item);
+			}
+		}
+
+		return new FilterChain(filters.toArray(new SensorFilter[filters.size()]));
+	}
+
+	@Override
+	public double apply(double value, long nanoTime){
+		for(SensorFilter filter : filters){
+			value = filter.apply(value, nanoTime);
+		}
+		return value;
+	}
+
+	/**
+	 * フィルタがないか判定します。
+	 * @return フィルタがない場合true
+	 */
+	public boolean isEmpty(){
+		return filters.length == 0;
+	}
+}
@@ -0,0 +1,76 @@
+package filter;
+
+/**
+ * 直近N個の値の中央値です。単発の外れ値を取り除きます。
+ * 入力順のリングバッファと整列済みの配列を保持し、1回の入力で最古の値の削除と新しい値の挿入を行います。
+ * 値がN個に満たない間は入力済みの値の中央値、個数が偶数の場合は中央の2つの平均を出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class MedianFilter implements SensorFilter {
+
+	/** 最大の窓の大きさ */
+	public static final int MAX_WINDOW = 99;
+
+	/** 入力順の値 */
+	private final double[] ring;
+
+	/** 整列済みの値 */
+	private final double[] sorted;
+
+	/** 次に書き込む位置 */
+	private int head = 0;
+
+	/** 保持している値の数 */
+	private int count = 0;
+
+	/**
+	 * @param window 窓の大きさ(1-MAX_WINDOW)
+	 */
+	public MedianFilter(int window){
+		if( window < 1 || window > MAX_WINDOW ){
+			throw new IllegalArgumentException("window must be in [1, " + MAX_WINDOW + "]: " + window);
+		}
+		this.ring = new double[window];
+		this.sorted = new double[window];
+	}
+
+	@Override
+	public double apply(double input, long nanoTime){
+		if( Double.isNaN(input) ){
+			return input;
+		}
+
+		if( count == ring.length ){
+			remove(ring[head]);
+		}
+		ring[head] = input;
+		head = ( head + 1 ) % ring.length;
+		insert(input);
+
+		int middle = count / 2;
+		return count % 2 == 1 ? sorted[middle] : ( sorted[middle - 1] + sorted[middle] ) / 2;
+	}
+
+	/** 整列済みの配列から値を1つ削除します */
+	private void remove(double value){
+		int i = 0;
+		while( i < count - 1 && sorted[i] != value ){
+			i++;
+		}
+		System.arraycopy(sorted, i + 1, sorted, i, count - i - 1);
+		count--;
+	}
+
+	/** 整列済みの配列へ値を挿入します */
+	private void insert(double value){
+		int i = count;
+		while( i > 0 && sorted[i - 1] > value ){
+			sorted[i] = sorted[i - 1];
+			i--;
+		}
+		sorted[i] = value;
+		count++;
+	}
+}
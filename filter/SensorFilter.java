@@ -0,0 +1,22 @@
+package filter;
+
+/**
+ * センサー値1系列分のフィルタです。
+ * 取得周期ごとに1回呼び出し、状態は内部の固定長の配列やフィールドのみで保持するため、
+ * 呼び出しごとのオブジェクト生成はありません。
+ * NaN(取得できなかった値)はそのまま返し、状態を変更しません。
+ * 実装はスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface SensorFilter {
+
+	/**
+	 * 値を1つ入力し、フィルタ後の値を取得します。
+	 * @param value センサー値(取得できなかった場合NaN)
+	 * @param nanoTime 取得時刻(System.nanoTime)
+	 * @return フィルタ後の値
+	 */
+	double apply(double value, long nanoTime);
+}
@@ -0,0 +1,46 @@
+package filter;
+
+/**
+ * 1秒あたりの変化量を制限します。
+ * 前回の出力からの変化を、経過時間 × 最大変化率の範囲に収めます。最初の値はそのまま出力します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class SlewRateFilter implements SensorFilter {
+
+	/** 最大変化率(/ns) */
+	private final double maxRate;
+
+	/** 前回の出力(未入力の場合NaN) */
+	private double value = Double.NaN;
+
+	/** 前回の取得時刻(System.nanoTime) */
+	private long lastTime;
+
+	/**
+	 * @param ratePerSecond 最大変化率(1秒あたり, 0より大きいこと)
+	 */
+	public SlewRateFilter(double ratePerSecond){
+		if( !( ratePerSecond > 0 ) ){
+			throw new IllegalArgumentException("rate must be positive: " + ratePerSecond);
+		}
+		this.maxRate = ratePerSecond / 1e9;
+	}
+
+	@Override
+	public double apply(double input, long nanoTime){
+		if( Double.isNaN(input) ){
+			return input;
+		}
+
+		if( Double.isNaN(value) ){
+			value = input;
+		} else {
+			double limit = maxRate * Math.max(0, nanoTime - lastTime);
+			value += Math.max(-limit, Math.min(limit, input - value));
+		}
+		lastTime = nanoTime;
+		return value;
+	}
+}
@@ -0,0 +1,122 @@
+package history;
+import java.util.Arrays;
+
+/**
+ * 履歴を一定の区間ごとに集計した結果です。
+ * チャンネルはセンサー値、ファン速度の順に並びます。
+ * 値のない区間の最小・最大・平均はNaNです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class HistorySeries {
+
+	/** 開始時刻(ms) */
+	private final long start;
+
+	/** 区間の長さ(ms) */
+	private final double bucketLength;
+
+	/** 区間ごとのレコード数 */
+	private final int[] samples;
+
+	/** 最小値[区間][チャンネル] */
+	private final double[][] min;
+
+	/** 最大値[区間][チャンネル] */
+	private final double[][] max;
+
+	/** 合計[区間][チャンネル] */
+	private final double[][] sum;
+
+	/** 値の数[区間][チャンネル] */
+	private final int[][] valueCount;
+
+	HistorySeries(long start, long length, int buckets, int channels){
+		this.start = start;
+		this.bucketLength = (double) Math.max(1, length) / buckets;
+		this.samples = new int[buckets];
+		this.min = new double[buckets][channels];
+		this.max = new double[buckets][channels];
+		this.sum = new double[buckets][channels];
+		this.valueCount = new int[buckets][channels];
+		for(int i = 0 ; i < buckets ; i++){
+			Arrays.fill(min[i], Double.POSITIVE_INFINITY);
+			Arrays.fill(max[i], Double.NEGATIVE_INFINITY);
+		}
+	}
+
+	int bucketOf(long timestamp){
+		return (int) Math.min(samples.length - 1, Math.max(0, (long) ( ( timestamp - start ) / bucketLength )));
+	}
+
+	void count(int bucket){
+		samples[bucket]++;
+	}
+
+	void add(int bucket, int channel, double value){
+		if( Double.isNaN(value) ){
+			return;
+		}
+		min[bucket][channel] = Math.min(min[bucket][channel], value);
+		max[bucket][channel] = Math.max(max[bucket][channel], value);
+		sum[bucket][channel] += value;
+		valueCount[bucket][channel]++;
+	}
+
+	/**
+	 * 区間の数を取得します。
+	 * @return 区間の数
+	 */
+	public int getBucketCount(){
+		return samples.length;
+	}
+
+	/**
+	 * 区間の開始時刻を取得します。
+	 * @param bucket 区間
+	 * @return 開始時刻(ms)
+	 */
+	public long getBucketStart(int bucket){
+		return start + (long) ( bucket * bucketLength );
+	}
+
+	/**
+	 * 区間のレコード数を取得します。
+	 * @param bucket 区間
+	 * @return レコード数
+	 */
+	public int getSampleCount(int bucket){
+		return samples[bucket];
+	}
+
+	/**
+	 * 区間の最小値を取得します。
+	 * @param bucket 区間
+	 * @param channel チャンネル
+	 * @return 最小値, 値がない場合NaN
+	 */
+	public double getMin(int bucket, int channel){
+		return valueCount[bucket][channel] > 0 ? min[bucket][channel] : Double.NaN;
+	}
+
+	/**
+	 * 区間の最大値を取得します。
+	 * @param bucket 区間
+	 * @param channel チャンネル
+	 * @return 最大値, 値がない場合NaN
+	 */
+	public double getMax(int bucket, int channel){
+		return valueCount[bucket][channel] > 0 ? max[bucket][channel] : Double.NaN;
+	}
+
+	/**
+	 * 区間の平均値を取得します。
+	 * @param bucket 区間
+	 * @param channel チャンネル
+	 * @return 平均値, 値がない場合NaN
+	 */
+	public double getAverage(int bucket, int channel){
+		return valueCount[bucket][channel] > 0 ? sum[bucket][channel] / valueCount[bucket][channel] : Double.NaN;
+	}
+}
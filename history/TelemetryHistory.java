@@ -0,0 +1,236 @@
+package history;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 温度とファン速度の履歴を一定件数だけ保持するリングバッファです。
+ * バッファはメモリマップしたファイルそのもので、記録は固定位置への数値の書き込みのみのため
+ * 1件ごとのシリアライズやオブジェクトの生成はありません。
+ * ファイルはOSが書き戻すため、プロセスを再起動しても履歴が残ります。
+ *
+ * ファイル形式(リトルエンディアン)
+ * ヘッダ: MAGIC(int),VERSION(int),容量(int),センサー数(int),ファン数(int),予約(int),記録済み件数(long)
+ * レコード: 時刻(long,ms),センサー値(float×センサー数),ファン速度(byte×ファン数)
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class TelemetryHistory implements AutoCloseable {
+
+	/** ファイル識別子 */
+	private static final int MAGIC = 0x46434853;
+
+	/** ファイル形式のバージョン */
+	private static final int VERSION = 1;
+
+	/** ヘッダ長 */
+	private static final int HEADER_SIZE = 32;
+
+	/** 記録済み件数の位置 */
+	private static final int COUNT_OFFSET = 24;
+
+	/** 容量(件) */
+	private final int capacity;
+
+	/** センサー数 */
+	private final int sensorCount;
+
+	/** ファン数 */
+	private final int fanCount;
+
+	/** 1レコードの長さ */
+	private final int recordSize;
+
+	/** ファイル */
+	private final FileChannel channel;
+
+	/** マップしたファイル */
+	private final MappedByteBuffer buffer;
+
+	/** 記録済み件数(上書きされた分を含む) */
+	private long count;
+
+	/** これ以降のレコードは時刻順に並ぶ(時計が戻った後の最初の)レコードの番号 */
+	private long orderedFrom;
+
+	/**
+	 * 履歴ファイルを開きます。ファイルがない場合や形式が異なる場合は空の履歴として作り直します。
+	 * @param file 履歴ファイル
+	 * @param capacity 容量(件)
+	 * @param sensorCount センサー数
+	 * @param fanCount ファン数
+	 * @throws IOException ファイルを開けなかった場合, 容量が大きすぎる場合
+	 */
+	public TelemetryHistory(Path file, int capacity, int sensorCount, int fanCount) throws IOException{
+		this.capacity = capacity;
+		this.sensorCount = sensorCount;
+		this.fanCount = fanCount;
+		this.recordSize = 8 + 4 * sensorCount + fanCount;
+
+		if( file.getParent() != null ){
+			Files.createDirectories(file.getParent());
+		}
+
+		long size = HEADER_SIZE + (long) capacity * recordSize;
+		if( capacity <= 0 || size > Integer.MAX_VALUE ){
+			throw new IOException("Unsupported history capacity: " + capacity);
+		}
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try{
+			boolean reuse = channel.size() == size;
+			if( !reuse ){
+				//mapはファイルを拡張するのみのため、容量を減らした場合は切り詰める
+				channel.truncate(size);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if( reuse && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+					&& buffer.getInt(8) == capacity && buffer.getInt(12) == sensorCount && buffer.getInt(16) == fanCount ){
+				count = buffer.getLong(COUNT_OFFSET);
+			} else {
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(8, capacity);
+				buffer.putInt(12, sensorCount);
+				buffer.putInt(16, fanCount);
+				buffer.putInt(20, 0);
+				buffer.putLong(COUNT_OFFSET, 0);
+				count = 0;
+			}
+			orderedFrom = findOrderedFrom();
+		}catch(IOException | RuntimeException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 1件記録します。容量を超えた場合は最も古いレコードを上書きします。
+	 * @param timestamp 時刻(System.currentTimeMillis)
+	 * @param sensors センサー値(センサー数分, 取得できなかった値はNaN)
+	 * @param duties ファン速度(ファン数分)
+	 */
+	public synchronized void record(long timestamp, double[] sensors, int[] duties){
+		if( count > 0 && timestamp < buffer.getLong(position(count - 1)) ){
+			orderedFrom = count;
+		}
+		int position = position(count);
+
+		buffer.putLong(position, timestamp);
+		position += 8;
+		for(int i = 0 ; i < sensorCount ; i++){
+			buffer.putFloat(position, i < sensors.length ? (float) sensors[i] : Float.NaN);
+			position += 4;
+		}
+		for(int i = 0 ; i < fanCount ; i++){
+			buffer.put(position, (byte) ( i < duties.length ? duties[i] : 0 ));
+			position++;
+		}
+
+		count++;
+		buffer.putLong(COUNT_OFFSET, count);
+	}
+
+	/**
+	 * 直近の履歴を一定の区間に区切り、区間ごとの最小・最大・平均を求めます。
+	 * @param minutes 対象期間(分)
+	 * @param buckets 区間の数
+	 * @return 区間ごとの集計
+	 */
+	public HistorySeries query(int minutes, int buckets){
+		return query(System.currentTimeMillis(), minutes * 60000L, buckets);
+	}
+
+	/**
+	 * 指定時刻までの履歴を一定の区間に区切り、区間ごとの最小・最大・平均を求めます。
+	 * 値はセンサー値、ファン速度の順に並べたチャンネルとして集計し、NaNは除外します。
+	 * @param end 終了時刻(System.currentTimeMillis)
+	 * @param length 対象期間(ms)
+	 * @param buckets 区間の数
+	 * @return 区間ごとの集計
+	 */
+	public synchronized HistorySeries query(long end, long length, int buckets){
+		long start = end - length;
+		HistorySeries series = new HistorySeries(start, length, buckets, sensorCount + fanCount);
+		long oldest = Math.max(0, count - capacity);
+
+		//新しい順に読む。時計が戻った場合は古いレコードに新しい時刻が残るため、最も古いレコードまで読む
+		for(long index = count - 1 ; index >= oldest ; index--){
+			int position = position(index);
+			long timestamp = buffer.getLong(position);
+			if( timestamp < start ){
+				//時刻順に並ぶ範囲では、これより古いレコードも対象期間外のため時計が戻った位置まで読み飛ばす
+				if( index > orderedFrom ){
+					index = orderedFrom;
+				}
+				continue;
+			}
+			if( timestamp > end ){
+				continue;
+			}
+
+			int bucket = series.bucketOf(timestamp);
+			series.count(bucket);
+			position += 8;
+			for(int i = 0 ; i < sensorCount ; i++){
+				series.add(bucket, i, buffer.getFloat(position));
+				position += 4;
+			}
+			for(int i = 0 ; i < fanCount ; i++){
+				series.add(bucket, sensorCount + i, buffer.get(position) & 0xFF);
+				position++;
+			}
+		}
+
+		return series;
+	}
+
+	/**
+	 * 保持している件数を取得します。
+	 * @return 件数
+	 */
+	public synchronized int size(){
+		return (int) Math.min(count, capacity);
+	}
+
+	/**
+	 * 変更をファイルへ書き出します。
+	 */
+	public synchronized void flush(){
+		buffer.force();
+	}
+
+	/**
+	 * 変更をファイルへ書き出して閉じます。
+	 * @throws IOException 閉じられなかった場合
+	 */
+	@Override
+	public synchronized void close() throws IOException{
+		buffer.force();
+		channel.close();
+	}
+
+	/**
+	 * 最新のレコードから遡り、時刻順に並ぶ範囲の先頭を探します。
+	 * @return 時刻順に並ぶ範囲の最も古いレコードの番号
+	 */
+	private long findOrderedFrom(){
+		long oldest = Math.max(0, count - capacity);
+		long index = count - 1;
+		while( index > oldest && buffer.getLong(position(index - 1)) <= buffer.getLong(position(index)) ){
+			index--;
+		}
+		return Math.max(oldest, index);
+	}
+
+	private int position(long index){
+		return HEADER_SIZE + (int) ( index % capacity ) * recordSize;
+	}
+}
@@ -0,0 +1,510 @@
+package log;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import metrics.Metrics;
+
+/**
+ * 非同期のイベントログです。
+ * 呼び出し元はイベントを固定長のリングバッファの確保済みの枠へ書き込むだけで、
+ * 文字列の組み立てと出力は専用のスレッドで行います。そのため出力先(標準出力のパイプなど)が
+ * 詰まっても制御周期のスレッドは待たされません。
+ *
+ * リングバッファは複数の書き込み元と1つの読み出し元のロックフリーなキューで、
+ * 枠ごとの通番で書き込み完了を判定します。満杯の場合はイベントを破棄し、破棄した数を後で出力します。
+ * ファン速度などの配列は枠の配列へ複製するため、呼び出し側で文字列を作成する必要はありません。
+ * 設定した重要度より低いイベントは、volatile変数1つの読み込みのみで戻ります。
+ *
+ * INFO以上のイベントは発生元とメッセージが同じものをRATE_WINDOWあたりRATE_BURST件まで出力し、
+ * それを超えた分は件数のみを後でまとめて出力します。
+ * 書き込み元が出力用スレッドの待機中に書き込んだ場合のみ出力用スレッドを起こすため、
+ * 出力は最大IDLE_WAIT遅れることがあります。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class EventLog {
+
+	/** リングバッファの枠数(2のべき乗) */
+	private static final int CAPACITY = 4096;
+
+	/** 枠の位置の計算用 */
+	private static final int MASK = CAPACITY - 1;
+
+	/** 枠ごとに確保する配列の長さ */
+	private static final int VALUE_CAPACITY = 16;
+
+	/** 同じイベントを数える期間(ms) */
+	private static final long RATE_WINDOW = TimeUnit.SECONDS.toMillis(10);
+
+	/** 同じイベントを期間内に出力する件数 */
+	private static final int RATE_BURST = 10;
+
+	/** イベントがない場合の出力用スレッドの待機時間(ns) */
+	private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/** 終了時に出力を待つ時間(ms) */
+	private static final long SHUTDOWN_FLUSH_TIME = 1000;
+
+	/** イベント1件分の枠(書き込み元が埋め、出力用スレッドが読み出す) */
+	private static final class Slot {
+		Level level;
+		long time;
+		String source;
+		String message;
+		int[] values = new int[VALUE_CAPACITY];
+		int valueCount;
+		Throwable error;
+	}
+
+	/** 発生元とメッセージごとの出力数 */
+	private static final class Rate {
+		final Level level;
+		long windowStart;
+		int count;
+		int suppressed;
+
+		Rate(Level level, long windowStart){
+			this.level = level;
+			this.windowStart = windowStart;
+		}
+	}
+
+	/** 枠 */
+	private static final Slot[] slots = new Slot[CAPACITY];
+
+	/** 枠ごとの通番(位置+1:書き込み済み, 位置+CAPACITY:空き) */
+	private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+
+	/** 次に書き込む位置 */
+	private static final AtomicLong tail = new AtomicLong();
+
+	/** 次に読み出す位置(出力用スレッドのみが更新) */
+	private static volatile long head = 0;
+
+	/** 出力済みの位置 */
+	private static volatile long flushed = 0;
+
+	/** 記録する最低の重要度 */
+	private static volatile int threshold = Level.INFO.ordinal();
+
+	/** 出力先 */
+	private static volatile PrintStream out = System.out;
+
+	/** 出力用スレッドが待機中か */
+	private static volatile boolean waiting = false;
+
+	/** 破棄したイベント数 */
+	private static final AtomicLong dropped = new AtomicLong();
+
+	/** 出力用スレッド */
+	private static final Thread writer;
+
+	static{
+		for(int i = 0 ; i < CAPACITY ; i++){
+			slots[i] = new Slot();
+			sequences.set(i, i);
+		}
+
+		writer = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				new Writer().run();
+			}
+		}, "EventLog");
+		writer.setDaemon(true);
+		writer.start();
+
+		Runtime.getRuntime().addShutdownHook(new Thread("EventLog-shutdown"){
+			@Override
+			public void run(){
+				flush(SHUTDOWN_FLUSH_TIME);
+			}
+		});
+	}
+
+	private EventLog(){
+	}
+
+	/**
+	 * 記録する最低の重要度を設定します。
+	 * @param level 重要度
+	 */
+	public static void setLevel(Level level){
+		threshold = level.ordinal();
+	}
+
+	/**
+	 * 記録する最低の重要度を取得します。
+	 * @return 重要度
+	 */
+	public static Level getLevel(){
+		return Level.values()[threshold];
+	}
+
+	/**
+	 * 指定の重要度のイベントを記録するかを取得します。
+	 * 記録しない場合にメッセージの作成を省くために使用します。
+	 * @param level 重要度
+	 * @return 記録する場合true
+	 */
+	public static boolean isEnabled(Level level){
+		return level.ordinal() >= threshold;
+	}
+
+	/**
+	 * 出力先を設定します。既定は標準出力です。
+	 * @param stream 出力先
+	 */
+	public static void setOutput(PrintStream stream){
+		out = stream;
+	}
+
+	/**
+	 * DEBUGのイベントを記録します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 */
+	public static void debug(String source, String message){
+		publish(Level.DEBUG, source, message, null, null);
+	}
+
+	/**
+	 * DEBUGのイベントを配列の値付きで記録します。配列は複製します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 * @param values 値
+	 */
+	public static void debug(String source, String message, int[] values){
+		publish(Level.DEBUG, source, message, values, null);
+	}
+
+	/**
+	 * INFOのイベントを記録します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 */
+	public static void info(String source, String message){
+		publish(Level.INFO, source, message, null, null);
+	}
+
+	/**
+	 * INFOのイベントを配列の値付きで記録します。配列は複製します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 * @param values 値
+	 */
+	public static void info(String source, String message, int[] values){
+		publish(Level.INFO, source, message, values, null);
+	}
+
+	/**
+	 * WARNのイベントを記録します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 */
+	public static void warn(String source, String message){
+		publish(Level.WARN, source, message, null, null);
+	}
+
+	/**
+	 * WARNのイベントを例外付きで記録します。例外はメッセージのみを出力します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 * @param error 例外
+	 */
+	public static void warn(String source, String message, Throwable error){
+		publish(Level.WARN, source, message, null, error);
+	}
+
+	/**
+	 * ERRORのイベントを例外付きで記録します。例外はスタックトレースを出力します。
+	 * @param source 発生元
+	 * @param message メッセージ
+	 * @param error 例外(なしの場合null)
+	 */
+	public static void error(String source, String message, Throwable error){
+		publish(Level.ERROR, source, message, null, error);
+	}
+
+	/**
+	 * 記録済みのイベントが出力されるまで待ちます。
+	 * @param timeoutMillis 最大の待ち時間(ms)
+	 * @return 全て出力された場合true
+	 */
+	public static boolean flush(long timeoutMillis){
+		long target = tail.get();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		while( flushed < target ){
+			if( System.nanoTime() - deadline >= 0 ){
+				return false;
+			}
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		return true;
+	}
+
+	/**
+	 * イベントを空いている枠へ書き込みます。空きがない場合は破棄します。
+	 */
+	private static void publish(Level level, String source, String message, int[] values, Throwable error){
+		if( level.ordinal() < threshold ){
+			return;
+		}
+
+		long position = tail.get();
+		int index;
+		while( true ){
+			index = (int) position & MASK;
+			long difference = sequences.get(index) - position;
+			if( difference == 0 ){
+				if( tail.compareAndSet(position, position + 1) ){
+					break;
+				}
+				position = tail.get();
+			} else if( difference < 0 ){
+				//満杯
+				dropped.incrementAndGet();
+				Metrics.LOG_DROPPED.increment();
+				return;
+			} else {
+				//他の書き込み元が先に確保した
+				position = tail.get();
+			}
+		}
+
+		Slot slot = slots[index];
+		slot.level = level;
+		slot.time = System.currentTimeMillis();
+		slot.source = source;
+		slot.message = message;
+		slot.error = error;
+		if( values != null ){
+			if( slot.values.length < values.length ){
+				slot.values = new int[values.length];
+			}
+			System.arraycopy(values, 0, slot.values, 0, values.length);
+			slot.valueCount = values.length;
+		} else {
+			slot.valueCount = -1;
+		}
+		sequences.lazySet(index, position + 1);
+
+		if( waiting ){
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/** 出力用スレッドの処理(このクラスの状態は出力用スレッドのみが使用) */
+	private static final class Writer {
+
+		/** 日時の書式 */
+		private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+		/** 書式化済みの日時(秒まで) */
+		private String formattedSecond = "";
+
+		/** 書式化済みの日時の秒 */
+		private long cachedSecond = -1;
+
+		/** 行の作成用 */
+		private final StringBuilder line = new StringBuilder(256);
+
+		/** 発生元ごと,メッセージごとの出力数 */
+		private final HashMap<String, HashMap<String, Rate>> rates = new HashMap<String, HashMap<String, Rate>>();
+
+		/** 前回出力数を整理した時刻(ms) */
+		private long lastSweep = System.currentTimeMillis();
+
+		/** 出力済みの破棄数 */
+		private long reportedDropped = 0;
+
+		void run(){
+			while( true ){
+				PrintStream stream = out;
+				boolean written = false;
+				long position = head;
+
+				while( sequences.get((int) position & MASK) == position + 1 ){
+					int index = (int) position & MASK;
+					Slot slot = slots[index];
+					written |= write(stream, slot);
+
+					slot.source = null;
+					slot.message = null;
+					slot.error = null;
+					sequences.lazySet(index, position + CAPACITY);
+					position++;
+					head = position;
+				}
+
+				long now = System.currentTimeMillis();
+				written |= reportDropped(stream, now);
+				if( now - lastSweep >= RATE_WINDOW ){
+					written |= sweep(stream, now);
+					lastSweep = now;
+				}
+
+				if( written ){
+					stream.flush();
+				}
+				flushed = position;
+
+				waiting = true;
+				if( sequences.get((int) position & MASK) != position + 1 ){
+					LockSupport.parkNanos(IDLE_WAIT);
+				}
+				waiting = false;
+			}
+		}
+
+		/**
+		 * 1件出力します。出力数の上限を超えた場合は数えるのみです。
+		 * @return 出力した場合true
+		 */
+		private boolean write(PrintStream stream, Slot slot){
+			String source = slot.source != null ? slot.source : "";
+			String message = slot.message != null ? slot.message : "";
+
+			if( slot.level.ordinal() >= Level.INFO.ordinal() ){
+				HashMap<String, Rate> messages = rates.get(source);
+				if( messages == null ){
+					messages = new HashMap<String, Rate>();
+					rates.put(source, messages);
+				}
+				Rate rate = messages.get(message);
+				if( rate == null ){
+					rate = new Rate(slot.level, slot.time);
+					messages.put(message, rate);
+				}
+				if( slot.time - rate.windowStart >= RATE_WINDOW ){
+					reportSuppressed(stream, source, message, rate, slot.time);
+				}
+				if( ++rate.count > RATE_BURST ){
+					rate.suppressed++;
+					Metrics.LOG_SUPPRESSED.increment();
+					return false;
+				}
+			}
+
+			begin(slot.time, slot.level, source);
+			line.append(message);
+			if( slot.valueCount >= 0 ){
+				line.append(' ');
+				for(int i = 0 ; i < slot.valueCount ; i++){
+					if( i > 0 ){
+						line.append(',');
+					}
+					line.append(slot.values[i]);
+				}
+			}
+			if( slot.error != null ){
+				line.append(": ").append(slot.error);
+			}
+			stream.println(line);
+
+			if( slot.error != null && slot.level == Level.ERROR ){
+				slot.error.printStackTrace(stream);
+			}
+			return true;
+		}
+
+		/**
+		 * 期間内に出力しなかった件数を出力し、期間を始め直します。
+		 * @return 出力した場合true
+		 */
+		private boolean reportSuppressed(PrintStream stream, String source, String message, Rate rate, long now){
+			boolean written = false;
+			if( rate.suppressed > 0 ){
+				begin(now, rate.level, source);
+				line.append(message).append(" (").append(rate.suppressed).append(" similar event(s) suppressed in ")
+						.append(TimeUnit.MILLISECONDS.toSeconds(RATE_WINDOW)).append("s)");
+				stream.println(line);
+				written = true;
+			}
+			rate.windowStart = now;
+			rate.count = 0;
+			rate.suppressed = 0;
+			return written;
+		}
+
+		/**
+		 * 期間の終わった出力数を整理し、出力しなかった件数を出力します。
+		 * @return 出力した場合true
+		 */
+		private boolean sweep(PrintStream stream, long now){
+			boolean written = false;
+			Iterator<Map.Entry<String, HashMap<String, Rate>>> sources = rates.entrySet().iterator();
+			while( sources.hasNext() ){
+				Map.Entry<String, HashMap<String, Rate>> source = sources.next();
+				Iterator<Map.Entry<String, Rate>> messages = source.getValue().entrySet().iterator();
+				while( messages.hasNext() ){
+					Map.Entry<String, Rate> message = messages.next();
+					Rate rate = message.getValue();
+					if( now - rate.windowStart < RATE_WINDOW ){
+						continue;
+					}
+					if( rate.suppressed > 0 ){
+						written |= reportSuppressed(stream, source.getKey(), message.getKey(), rate, now);
+					} else {
+						messages.remove();
+					}
+				}
+				if( source.getValue().isEmpty() ){
+					sources.remove();
+				}
+			}
+			return written;
+		}
+
+		/**
+		 * 破棄したイベントがあれば件数を出力します。
+		 * @return 出力した場合true
+		 */
+		private boolean reportDropped(PrintStream stream, long now){
+			long count = dropped.get();
+			if( count == reportedDropped ){
+				return false;
+			}
+			begin(now, Level.WARN, "EventLog");
+			line.append(count - reportedDropped).append(" event(s) dropped, buffer full.");
+			stream.println(line);
+			reportedDropped = count;
+			return true;
+		}
+
+		/** 日時,重要度,発生元を行に書き込みます */
+		private void begin(long time, Level level, String source){
+			long second = time / 1000;
+			if( second != cachedSecond ){
+				formattedSecond = format.format(new Date(second * 1000));
+				cachedSecond = second;
+			}
+			line.setLength(0);
+			line.append(formattedSecond).append('.');
+			long millis = time % 1000;
+			if( millis < 100 ){
+				line.append('0');
+			}
+			if( millis < 10 ){
+				line.append('0');
+			}
+			line.append(millis).append(' ').append(level);
+			for(int i = level.name().length() ; i < 6 ; i++){
+				line.append(' ');
+			}
+			if( !source.isEmpty() ){
+				line.append(source).append(' ');
+			}
+		}
+	}
+}
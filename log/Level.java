@@ -0,0 +1,18 @@
+package log;
+
+/**
+ * イベントログの重要度です。設定した重要度より低いイベントは記録しません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public enum Level {
+	/** 制御周期ごとの詳細(現在のファン速度など) */
+	DEBUG,
+	/** 通常の動作(起動,接続,送信など) */
+	INFO,
+	/** 継続できる異常(通信エラー,再接続など) */
+	WARN,
+	/** 機能が停止する異常 */
+	ERROR
+}
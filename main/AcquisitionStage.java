@@ -0,0 +1,106 @@
+package main;
+import java.util.concurrent.atomic.AtomicReference;
+
+import device.TemperatureSource;
+import device.TemperatureSnapshot;
+import log.EventLog;
+import recording.RecordingWriter;
+import xml.ControlConfig;
+
+/**
+ * 温度情報の取得を制御から切り離して実行するスレッドです。
+ * 一定周期で温度を取得し、最新の取得結果を公開します。
+ * 取得に時間がかかっても制御側は待たされず、その時点で最新の値を使用します。
+ * 公開する値には設定されたセンサーごとのフィルタを適用済みです。
+ * 取得元が前回と同じ取得結果を返した場合(取得に失敗して前回の値を返した場合など)はフィルタを進めず、公開する値もそのままにします。
+ * 記録する場合はフィルタ適用前の取得結果を記録します。前回と同じ取得結果は記録しません。
+ * 取得ごとに、温度情報を使用できるかを稼働状態に通知します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class AcquisitionStage extends Thread{
+
+	/** 温度の取得元 */
+	private final TemperatureSource monitor;
+
+	/** 取得周期スケジューラ */
+	private final TickScheduler scheduler;
+
+	/** 制御用設定 */
+	private final AtomicReference<ControlConfig> config;
+
+	/** センサーごとのフィルタ */
+	private final SnapshotFilter filter = new SnapshotFilter();
+
+	/** 記録先(記録しない場合null) */
+	private final RecordingWriter recorder;
+
+	/** 稼働状態(通知しない場合null) */
+	private final Readiness readiness;
+
+	/** 最新の取得結果 */
+	private volatile TemperatureSnapshot latest = null;
+
+	/** 前回記録・フィルタを適用した取得結果(フィルタ適用前) */
+	private TemperatureSnapshot previous = null;
+
+	/**
+	 * @param monitor 温度の取得元
+	 * @param intervalMillis 取得周期(ms)
+	 * @param config 制御用設定(フィルタの設定を周期ごとに参照)
+	 * @param recorder 記録先(記録しない場合null)
+	 * @param readiness 稼働状態(通知しない場合null)
+	 */
+	public AcquisitionStage(TemperatureSource monitor, long intervalMillis, AtomicReference<ControlConfig> config,
+			RecordingWriter recorder, Readiness readiness){
+		super("AcquisitionStage");
+		setDaemon(true);
+		this.monitor = monitor;
+		this.scheduler = new TickScheduler(intervalMillis);
+		this.config = config;
+		this.recorder = recorder;
+		this.readiness = readiness;
+	}
+
+	@Override
+	public void run(){
+		EventLog.info("AcquisitionStage", "is started.");
+
+		while(true){
+			try{
+				scheduler.awaitNextTick();
+
+				TemperatureSnapshot snapshot = monitor.getTemperature();
+				if( snapshot != null && ( previous == null || snapshot.getNanoTime() != previous.getNanoTime() ) ){
+					previous = snapshot;
+					if( recorder != null ){
+						recorder.snapshot(snapshot);
+					}
+					latest = filter.apply(snapshot, config.get());
+				}
+				if( readiness != null ){
+					readiness.setSensor(snapshot != null && snapshot.isCpuValid() && snapshot.isGpuValid());
+				}
+			}catch(InterruptedException e){
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 最新の取得結果を取得します。
+	 * @return フィルタ適用後の温度情報, 一度も取得できていない場合null
+	 */
+	public TemperatureSnapshot getLatest(){
+		return latest;
+	}
+
+	/**
+	 * 取得周期の統計を取得します。
+	 * @return 統計
+	 */
+	public TickStatistics getTickStatistics(){
+		return scheduler.getStatistics();
+	}
+}
@@ -0,0 +1,195 @@
+package main;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import log.EventLog;
+import log.Level;
+import recording.RecordingWriter;
+import xml.ControlConfig;
+import xml.SettingReader;
+import xml.Settings;
+
+/**
+ * 設定ファイルの変更を監視し、制御用設定を差し替えるスレッドです。
+ * 読み込みと検証はこのスレッドで行い、制御スレッドは差し替え後の周期から新しい設定を使用します。
+ * 読み込めない・不正な値がある・Arduinoの構成が変わった設定ファイルは反映しません。
+ * イベントログの重要度は読み込み時に反映します。
+ * 起動時にのみ使用する設定(取得周期,温度の取得元,記録先など)は反映できないため、変わっていれば警告し、それ以外を反映します。
+ * 記録する場合は反映した設定ファイルの内容を記録します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class ConfigWatcher extends Thread{
+
+	/** イベントログの発生元 */
+	private static final String LOG_SOURCE = "ConfigWatcher";
+
+	/** 変更通知をまとめる待ち時間(ms)。保存時の連続した通知を1回の読み込みにします */
+	private static final long SETTLE_TIME = 200;
+
+	/** 設定ファイル */
+	private final Path file;
+
+	/** 公開先 */
+	private final AtomicReference<ControlConfig> config;
+
+	/** 記録先(記録しない場合null) */
+	private final RecordingWriter recorder;
+
+	/** 起動時の設定 */
+	private final Settings startup;
+
+	/**
+	 * @param filePath 設定ファイルのパス
+	 * @param config 制御用設定の公開先
+	 * @param recorder 記録先(記録しない場合null)
+	 * @param startup 起動時の設定(起動時にのみ使用する設定の変更を判定する)
+	 */
+	public ConfigWatcher(String filePath, AtomicReference<ControlConfig> config, RecordingWriter recorder, Settings startup){
+		super("ConfigWatcher");
+		setDaemon(true);
+		this.file = Paths.get(filePath).toAbsolutePath();
+		this.config = config;
+		this.recorder = recorder;
+		this.startup = startup;
+	}
+
+	@Override
+	public void run(){
+		try( WatchService watcher = FileSystems.getDefault().newWatchService() ){
+			file.getParent().register(watcher,
+					StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+			EventLog.info(LOG_SOURCE, "is started. (" + file + ")");
+
+			while(true){
+				WatchKey key = watcher.take();
+				boolean changed = isTargetChanged(key);
+
+				//保存が終わるまで続けて届く通知をまとめる
+				while( changed && ( key = watcher.poll(SETTLE_TIME, TimeUnit.MILLISECONDS) ) != null ){
+					isTargetChanged(key);
+				}
+
+				if( changed ){
+					reload();
+				}
+			}
+		}catch(InterruptedException | ClosedWatchServiceException e){
+			return;
+		}catch(IOException e){
+			EventLog.error(LOG_SOURCE, "could not watch " + file, e);
+		}
+	}
+
+	/**
+	 * 設定ファイルを読み込み、問題がなければ制御用設定を差し替えます。
+	 * @return 差し替えた場合true
+	 */
+	public boolean reload(){
+		Settings setting;
+		SettingReader reader;
+		byte[] content;
+		try{
+			//記録する内容と反映する内容を一致させるため、1回だけ読み込む
+			content = Files.readAllBytes(file);
+			reader = new SettingReader(file.toString(), new ByteArrayInputStream(content));
+			setting = reader.getSetting(false);
+		}catch(IOException e){
+			EventLog.warn(LOG_SOURCE, "reload failed, keeping current settings", e);
+			return false;
+		}
+
+		if( !reader.getErrors().isEmpty() ){
+			EventLog.warn(LOG_SOURCE, "reload rejected, invalid value(s): " + reader.getErrors());
+			return false;
+		}
+
+		ControlConfig next = ControlConfig.compile(setting);
+		ControlConfig current = config.get();
+		if( current != null && !current.isCompatible(next) ){
+			EventLog.warn(LOG_SOURCE, "reload rejected, device, fan count or sensor pattern changes require restart.");
+			return false;
+		}
+
+		Level level = Level.valueOf(setting.getLogLevel());
+		if( level != EventLog.getLevel() ){
+			EventLog.setLevel(level);
+		}
+
+		List<String> ignored = startupOnlyChanges(setting);
+		if( !ignored.isEmpty() ){
+			EventLog.warn(LOG_SOURCE, "restart to apply " + ignored + ", reloading the other settings.");
+		}
+
+		if( recorder != null ){
+			recorder.config(content);
+		}
+		config.set(next);
+		EventLog.info(LOG_SOURCE, "config reloaded.");
+		return true;
+	}
+
+	/**
+	 * 起動時にのみ使用する設定のうち、起動時から変わった設定の名前を取得します。
+	 * @param next 読み込んだ設定
+	 * @return 変わった設定の名前(設定ファイルのキー)
+	 */
+	private List<String> startupOnlyChanges(Settings next){
+		List<String> changed = new ArrayList<String>();
+		compare(changed, "MonitorInterval", startup.getMonitorInterval(), next.getMonitorInterval());
+		compare(changed, "SensorSource", startup.isHwmonSource(), next.isHwmonSource());
+		compare(changed, "CPUCore", startup.getCpuCore(), next.getCpuCore());
+		compare(changed, "CPUName", startup.getCpuName(), next.getCpuName());
+		compare(changed, "GPUName", startup.getGpuName(), next.getGpuName());
+		compare(changed, "OpenHardwareMonitorPort", startup.getPort(), next.getPort());
+		compare(changed, "OpenHardwareMonitorParseMode", startup.isOhmStreamParse(), next.isOhmStreamParse());
+		compare(changed, "OpenHardwareMonitorConnectTimeout", startup.getOhmConnectTimeout(), next.getOhmConnectTimeout());
+		compare(changed, "OpenHardwareMonitorReadTimeout", startup.getOhmReadTimeout(), next.getOhmReadTimeout());
+		compare(changed, "HwmonPath", startup.getHwmonPath(), next.getHwmonPath());
+		compare(changed, "HwmonCpuChips", startup.getHwmonCpuChips(), next.getHwmonCpuChips());
+		compare(changed, "HwmonGpuChips", startup.getHwmonGpuChips(), next.getHwmonGpuChips());
+		compare(changed, "ArduinoMaxRate", startup.getArduinoMaxRate(), next.getArduinoMaxRate());
+		compare(changed, "MetricsPort", startup.getMetricsPort(), next.getMetricsPort());
+		compare(changed, "HistoryDirectory", startup.getHistoryDirectory(), next.getHistoryDirectory());
+		compare(changed, "HistoryCapacity", startup.getHistoryCapacity(), next.getHistoryCapacity());
+		compare(changed, "RecordDirectory", startup.getRecordDirectory(), next.getRecordDirectory());
+		return changed;
+	}
+
+	private static void compare(List<String> changed, String name, Object before, Object after){
+		if( !Objects.equals(before, after) ){
+			changed.add(name);
+		}
+	}
+
+	/**
+	 * 通知の中に設定ファイルの変更があるか判定し、通知を受け取り直せる状態に戻します。
+	 */
+	private boolean isTargetChanged(WatchKey key){
+		boolean changed = false;
+		for(WatchEvent<?> event : key.pollEvents()){
+			if( event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| file.getFileName().equals(event.context()) ){
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+}
@@ -1,215 +1,291 @@
 package main;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map.Entry;
-import java.util.SortedMap;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
-import device.ArduinoClient;
+import javax.management.JMException;
+
+import device.HwmonTemperatureSource;
 import device.OpenHardwareMonitorClient;
-import gnu.io.NoSuchPortException;
-import gnu.io.PortInUseException;
-import gnu.io.UnsupportedCommOperationException;
+import device.TemperatureSource;
+import history.TelemetryHistory;
+import log.EventLog;
+import log.Level;
+import metrics.Metrics;
+import metrics.MetricsServer;
+import recording.RecordingWriter;
+import xml.ControlConfig;
 import xml.SettingReader;
 import xml.Settings;
 
 /**
  * ファンコントローラの中核となるクラスです。
- * PC情報取得とArduino制御を管理します
+ * PC情報取得と、設定された全てのArduinoの制御を管理します。
+ * 温度取得は全Arduinoで共有し、制御はArduinoごとのスレッドで独立して行います。
+ * 設定ファイルは監視しており、変更は再起動せずに次の制御周期から反映されます。
+ * 記録ファイルの出力先が設定されている場合は、制御の入出力を記録します(ReplayEngineで再生できます)。
+ * 温度取得と各Arduinoの接続は並行して開始し、温度情報と接続済みのArduinoが揃った時点から制御します。
+ * 起動の進み具合と各段階の所要時間はReadinessで管理します。
  * @author oilyoil
  * @since 2017/04/29
  * @version v0.1
  */
 public class CoreController extends Thread{
 
+	/** イベントログの発生元 */
+	private static final String LOG_SOURCE = "CoreController";
+
 	/** 設定ファイル */
-	private static final String CONFIG_FILE_NAME = "FanControllerSettings.xml";
+	public static final String CONFIG_FILE_NAME = "FanControllerSettings.xml";
 
 	/** Arduino通信レート */
 	private static final int ARDUINO_RATE = 9600;
 
-	/** ファンの数 */
-	private static final int FAN_NUM = 4;
-
-	/** データ送信間隔(秒) */
-	private static final int SEND_INTERVAL_TIME = 10;
-
 	/** 接続確認間隔(秒) */
 	private static final int CONNECTION_CHECK_INTERVAL = 15;
 
-	/** コントローラーインスタンス */
-	private static CoreController instance = null;
+	/** 最小の監視間隔(ms) */
+	private static final int MIN_MONITOR_INTERVAL = 10;
 
-	/** PCモニター情報取得クラス */
-	private OpenHardwareMonitorClient monitor;
+	/** 温度の取得元 */
+	private TemperatureSource monitor;
 
-	/** Arduino通信クラス */
-	private ArduinoClient arduino;
+	/** 設定ファイル */
+	private final String configFile;
 
-	/** 設定格納クラス */
+	/** 起動時の設定ファイルの内容 */
+	private final byte[] configContent;
+
+	/** 設定格納クラス(起動時の設定) */
 	private Settings setting = null;
 
-	/** 前データ送信からの時間 */
-	private int intervalTime = 0;
+	/** 制御用設定(再読み込みで差し替え) */
+	private final AtomicReference<ControlConfig> config = new AtomicReference<ControlConfig>();
 
-	/**
-	 * コンストラクタ.
-	 * シングルトンです
-	 * @throws InterruptedException
-	 * @throws UnsupportedCommOperationException
-	 * @throws NoSuchPortException
-	 * @throws PortInUseException
-	 * @throws IOException
-	 * @throws FileNotFoundException
-	 */
-	private CoreController()
-			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, FileNotFoundException, IOException{
-		SettingReader reader = new SettingReader(CONFIG_FILE_NAME);
-		this.setting = reader.getSetting(false);
+	/** 設定ファイル監視スレッド */
+	private ConfigWatcher watcher = null;
 
-		this.monitor = new OpenHardwareMonitorClient(
-				setting.getPort(), setting.getCpuName(), setting.getGpuName(), setting.getCpuCore() );
+	/** 温度取得スレッド */
+	private AcquisitionStage acquisition = null;
 
-		this.arduino = ArduinoClient.getInstance(setting.getComPort(), ARDUINO_RATE);
-	}
+	/** Arduinoごとの制御スレッド */
+	private final List<DeviceLink> links = new ArrayList<DeviceLink>();
+
+	/** Arduinoとの接続と再接続 */
+	private LinkSupervisor supervisor = null;
+
+	/** 接続維持スレッド */
+	private HeartbeatStage heartbeat = null;
+
+	/** 計測値公開用HTTPサーバ(公開しない場合null) */
+	private MetricsServer metricsServer = null;
+
+	/** 記録先(記録しない場合null) */
+	private RecordingWriter recorder = null;
+
+	/** 稼働状態 */
+	private final Readiness readiness;
 
 	/**
-	 * CoreControllerインスタンス取得メソッド
-	 * @return CoreControllerのインスタンス
-	 * @throws InterruptedException
-	 * @throws UnsupportedCommOperationException
-	 * @throws NoSuchPortException
-	 * @throws PortInUseException
+	 * コンストラクタ.
+	 * @param configFile 設定ファイル
 	 * @throws IOException
 	 * @throws FileNotFoundException
 	 */
-	public static CoreController getInstance()
-			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, FileNotFoundException, IOException{
+	public CoreController(String configFile) throws FileNotFoundException, IOException{
+		super("CoreController");
+		long start = System.nanoTime();
 
-		System.out.println("CoreController is setting up...");
+		EventLog.info(LOG_SOURCE, "is setting up...");
 
-		if( instance == null ){
-			instance = new CoreController();
-		}
+		this.configFile = configFile;
 
-		System.out.println("CoreController ready.");
+		this.configContent = Files.readAllBytes(Paths.get(configFile));
+		SettingReader reader = new SettingReader(configFile, new ByteArrayInputStream(configContent));
+		this.setting = reader.getSetting(false);
+		EventLog.setLevel(Level.valueOf(setting.getLogLevel()));
+		this.config.set( ControlConfig.compile(setting) );
 
-		return instance;
+		List<String> comPorts = new ArrayList<String>();
+		for(int i = 0 ; i < config.get().getDeviceCount() ; i++){
+			comPorts.add(config.get().getDevice(i).getComPort());
+		}
+		this.readiness = new Readiness(start, comPorts);
+		readiness.configLoaded();
+
+		if( setting.isHwmonSource() ){
+			this.monitor = new HwmonTemperatureSource(
+					Paths.get(setting.getHwmonPath()), setting.getHwmonCpuChips(), setting.getHwmonGpuChips(), setting.getCpuCore(),
+					config.get().getSensorPatterns() );
+		} else {
+			this.monitor = new OpenHardwareMonitorClient(
+					setting.getPort(), setting.getCpuName(), setting.getGpuName(), setting.getCpuCore(),
+					setting.isOhmStreamParse(), setting.getOhmConnectTimeout(), setting.getOhmReadTimeout(),
+					config.get().getSensorPatterns() );
+		}
+
+		EventLog.info(LOG_SOURCE, "ready.");
 	}
 
 	/**
 	 * コントローラ本体実行メソッド。
-	 * monitorIntervalに設定された間隔で
-	 * PCを監視しArduinoを制御します。
+	 * 温度取得スレッドとArduinoごとの制御スレッドを起動し、
+	 * 全ての制御スレッドが終了するまで待機します。
+	 * 各Arduinoは個別に接続するため、1台の接続失敗や遅延は他のArduinoに影響しません。
+	 * 温度取得と接続を先に開始し、計測値の公開はその後に開始します。
 	 * @see java.lang.Thread#run()
 	 */
 	@Override
 	public void run(){
-		HashMap<String,HashMap<String,String>> temperature;
-		int[] sendData;
-		boolean isChange = false;
-		int connectionCheckInterval = 0;
+		long interval = Math.max(MIN_MONITOR_INTERVAL, setting.getMonitorInterval());
 
-		System.out.println("CoreController is started.");
+		//取得が長引いても取得周期を超えて待たない
+		if( monitor instanceof OpenHardwareMonitorClient ){
+			( (OpenHardwareMonitorClient) monitor ).setPollTimeout(interval);
+		}
 
-		while(true){
-			try {
-				Thread.sleep( setting.getMonitorInterval() * 1000 );
+		startRecording();
 
-				connectionCheckInterval = connectionCheckInterval + 1;
+		acquisition = new AcquisitionStage(monitor, interval, config, recorder, readiness);
+		acquisition.start();
 
-				if( intervalTime < Integer.MAX_VALUE - 1 ){
-					intervalTime = intervalTime + 1;
-				} else {
-					intervalTime = SEND_INTERVAL_TIME;
-				}
+		supervisor = new LinkSupervisor(config.get().getDeviceCount());
+		for(int i = 0 ; i < config.get().getDeviceCount() ; i++){
+			DeviceLink link = new DeviceLink(config, i, acquisition, interval, ARDUINO_RATE, setting.getArduinoMaxRate(),
+					openHistory(config.get().getDevice(i).getComPort(), config.get().getDevice(i).getFanCount()), recorder, readiness, supervisor);
+			links.add(link);
+			link.start();
+		}
 
-				temperature = monitor.getTemperature();
+		heartbeat = new HeartbeatStage(links, TimeUnit.SECONDS.toMillis(CONNECTION_CHECK_INTERVAL));
+		heartbeat.start();
 
-				System.out.print("CurrentSpeed:");
-				for(int val: arduino.getFanSettings()){
-					System.out.print(val + " ");
-				}
-				System.out.println();
-
-				sendData = arduino.getFanSettings();
-
-				//ファン設定
-				if( temperature.containsKey("CPU_Temp")
-						&& temperature.get("CPU_Temp").containsKey("Package")
-						&& temperature.containsKey("GPU_Temp")
-						&& temperature.get("GPU_Temp").containsKey("0")){
-					try{
-					for(int i = 0 ; i < FAN_NUM ; i++){
-						SortedMap<Integer,Integer> fanSettingMap = setting.getFanSpeedSettings().get(i);
-						Integer targetSpeedCPUKey;
-						Integer targetSpeedGPUKey;
-
-						if( fanSettingMap
-							.headMap( (int) Math.ceil( Double.parseDouble(temperature.get("CPU_Temp").get("Package")) ) )
-							.size() > 0
-								&& fanSettingMap
-								.headMap( (int) Math.ceil( Double.parseDouble(temperature.get("GPU_Temp").get("0")) ) )
-								.size() > 0){
-
-						targetSpeedCPUKey = fanSettingMap
-								.headMap( (int) Math.ceil( Double.parseDouble(temperature.get("CPU_Temp").get("Package")) ) )
-								.lastKey();
-						targetSpeedGPUKey = fanSettingMap
-								.headMap( (int) Math.ceil( Double.parseDouble(temperature.get("GPU_Temp").get("0")) ) )
-								.lastKey();
-
-						}else{
-
-							targetSpeedCPUKey = fanSettingMap.firstKey();
-							targetSpeedGPUKey = fanSettingMap.firstKey();
-						}
-
-						Integer targetSpeedKey = Math.max(targetSpeedCPUKey.intValue(), targetSpeedGPUKey.intValue());
-
-						if(arduino.getFanSettings()[i] != fanSettingMap.get(targetSpeedKey)){
-							sendData[i] = fanSettingMap.get(targetSpeedKey);
-							isChange = true;
-						}
-					}
-					}catch(Exception e){
-						int i = 0;
-						for(SortedMap<Integer, Integer> map: setting.getFanSpeedSettings()){
-							for(Entry<Integer, Integer> entry: map.entrySet()){
-								System.out.println("fan" + i + "-setting-key:" + entry.getKey() + ",value:" + entry.getValue());
-							}
-							i++;
-						}
-						System.out.println("CPU:" + temperature.get("CPU_Temp").get("Package") + ",GPU:" + temperature.get("GPU_Temp").get("0"));
-					}
-				}
+		watcher = new ConfigWatcher(configFile, config, recorder, setting);
+		watcher.start();
 
-				if(isChange){
-					isChange = false;
-					setData(sendData);
-				}
+		startMetrics();
 
-				if( connectionCheckInterval > CONNECTION_CHECK_INTERVAL ){
-					arduino.sendConnection();
-					connectionCheckInterval = 0;
-				}
+		EventLog.info(LOG_SOURCE, "is started. (" + links.size() + " device(s))");
 
-			} catch (InterruptedException | IOException e) {
-				e.printStackTrace();
+		try {
+			for(DeviceLink link : links){
+				link.join();
+			}
+		} catch (InterruptedException e) {
+			for(DeviceLink link : links){
+				link.interrupt();
 			}
 		}
+
+		supervisor.shutdown();
+		watcher.interrupt();
+		heartbeat.interrupt();
+		acquisition.interrupt();
+		monitor.shutdown();
+		if( metricsServer != null ){
+			metricsServer.stop();
+		}
+		for(DeviceLink link : links){
+			if( link.getHistory() != null ){
+				try {
+					link.getHistory().close();
+				} catch (IOException e) {
+					EventLog.error(LOG_SOURCE, "could not close the history for " + link.getComPort(), e);
+				}
+			}
+		}
+		if( recorder != null ){
+			recorder.close();
+		}
+
+		EventLog.info(LOG_SOURCE, "is stopped.");
 	}
 
-	public void setData(int[] data){
-		if( intervalTime >= SEND_INTERVAL_TIME ){
-			intervalTime = 0;
+	/**
+	 * 計測値をJMXに登録し、設定されていればHTTPでも公開します。
+	 * 公開できなくても制御は継続します。
+	 */
+	private void startMetrics(){
+		try {
+			Metrics.registerMBeans();
+		} catch (JMException e) {
+			EventLog.error(LOG_SOURCE, "could not register the metrics MBeans.", e);
+		}
+
+		if( setting.getMetricsPort() > 0 ){
 			try {
-				System.out.println("send:" + data[0] + "," + data[1] + "," + data[2] + "," + data[3]);
-				arduino.setFanSpeed(data);
+				metricsServer = new MetricsServer(setting.getMetricsPort());
+				metricsServer.start();
 			} catch (IOException e) {
-				// TODO 自動生成された catch ブロック
-				e.printStackTrace();
+				EventLog.error("MetricsServer", "could not listen on port " + setting.getMetricsPort(), e);
 			}
 		}
 	}
+
+	/**
+	 * 設定されていれば記録ファイルを作成し、起動時の設定ファイルの内容を記録します。
+	 * 作成できなくても制御は継続します。
+	 */
+	private void startRecording(){
+		if( setting.getRecordDirectory().isEmpty() ){
+			return;
+		}
+
+		try {
+			recorder = RecordingWriter.create(Paths.get(setting.getRecordDirectory()));
+		} catch (IOException e) {
+			EventLog.error(LOG_SOURCE, "could not start recording, recording is disabled.", e);
+			return;
+		}
+		recorder.config(configContent);
+		if( monitor instanceof OpenHardwareMonitorClient ){
+			( (OpenHardwareMonitorClient) monitor ).setRecorder(recorder);
+		}
+		EventLog.info(LOG_SOURCE, "is recording to " + recorder.getFile());
+	}
+
+	/**
+	 * Arduino1台分の履歴ファイルを開きます。
+	 * 開けなくても制御は継続します。
+	 * @param comPort シリアルポート名
+	 * @param fanCount ファン数
+	 * @return 履歴, 記録しない場合や開けなかった場合null
+	 */
+	private TelemetryHistory openHistory(String comPort, int fanCount){
+		if( setting.getHistoryCapacity() <= 0 ){
+			return null;
+		}
+
+		String fileName = "history-" + comPort.replaceAll("[^A-Za-z0-9_.-]", "_") + ".dat";
+		try {
+			return new TelemetryHistory(Paths.get(setting.getHistoryDirectory(), fileName),
+					setting.getHistoryCapacity(), DeviceLink.HISTORY_SENSORS, fanCount);
+		} catch (IOException e) {
+			EventLog.error(LOG_SOURCE, "could not open the history for " + comPort + ", history is disabled.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * 稼働状態を取得します。
+	 * @return 稼働状態
+	 */
+	public Readiness getReadiness(){
+		return readiness;
+	}
+
+	/**
+	 * Arduinoごとの制御スレッドを取得します。
+	 * @return 制御スレッド
+	 */
+	public List<DeviceLink> getDeviceLinks(){
+		return Collections.unmodifiableList(links);
+	}
 }
@@ -0,0 +1,110 @@
+package main;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import control.ControlEngine;
+import device.TemperatureSnapshot;
+import metrics.Metrics;
+import xml.ControlConfig;
+import xml.DeviceConfig;
+
+/**
+ * Arduino1台分のファン速度の決定を行います。
+ * 温度情報と現在のファン速度、時刻のみから送信するファン速度を決定し、入出力は行いません。
+ * 同じ入力を同じ順に与えると同じ結果になるため、記録の再生にも使用します。
+ * 時刻は引数で与えたものだけを使用し、送信可否の判定の状態は最初の判定時刻から開始します。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class DeviceControl {
+
+	/** 制御に使用する温度情報の有効期間(秒) */
+	private static final int SNAPSHOT_EXPIRE_TIME = 30;
+
+	/** 制御用設定 */
+	private final AtomicReference<ControlConfig> config;
+
+	/** Arduinoの番号(制御用設定内の位置) */
+	private final int index;
+
+	/** ファンごとの制御則 */
+	private final ControlEngine engine = new ControlEngine();
+
+	/** 送信可否の判定(最初の判定まではnull) */
+	private SendPolicy sendPolicy = null;
+
+	/** センサー式の評価用スタック(設定が必要とする深さまで拡張する) */
+	private double[] stack = new double[8];
+
+	/** 送信するファン速度の作業領域(ファン数が変わった場合のみ作り直す) */
+	private int[] sendData = new int[0];
+
+	/**
+	 * @param config 制御用設定
+	 * @param index Arduinoの番号(制御用設定内の位置)
+	 */
+	DeviceControl(AtomicReference<ControlConfig> config, int index){
+		this.config = config;
+		this.index = index;
+	}
+
+	/**
+	 * 1周期分のファン速度を決定します。
+	 * 温度情報が古すぎる場合はファン設定を変更しません。
+	 * ファンごとにセンサー式で求めた温度で制御し、式の値が取得できなかったファンは変更しません。
+	 * @param temperature 最新の温度情報(未取得の場合null)
+	 * @param currentSpeed Arduinoから受信した現在のファン速度
+	 * @param now 現在時刻(System.nanoTime)
+	 * @return 送信するファン速度(作業領域のため次の呼び出しまで有効), 送信しない場合null
+	 */
+	int[] decide(TemperatureSnapshot temperature, int[] currentSpeed, long now){
+		ControlConfig controlConfig = config.get();
+		if( sendPolicy == null ){
+			sendPolicy = new SendPolicy(controlConfig.getSendBurst(), now);
+		}
+
+		if( sendData.length != currentSpeed.length ){
+			sendData = new int[currentSpeed.length];
+		}
+		System.arraycopy(currentSpeed, 0, sendData, 0, currentSpeed.length);
+		boolean isChange = false;
+		boolean emergency = false;
+
+		//ファン設定
+		//ファンごとのセンサー式の温度で制御する(既定はCPUとGPUの高い方)
+		if( temperature != null && now - temperature.getNanoTime() <= TimeUnit.SECONDS.toNanos(SNAPSHOT_EXPIRE_TIME) ){
+			long curveStart = System.nanoTime();
+			DeviceConfig deviceConfig = controlConfig.getDevice(index);
+			if( stack.length < deviceConfig.getStackDepth() ){
+				stack = new double[deviceConfig.getStackDepth()];
+			}
+
+			//緊急送信の判定はフィルタ適用前のCPUとGPUの温度で行い、フィルタによる遅れの影響を受けない
+			if( temperature.isCpuValid() && temperature.isGpuValid() ){
+				TemperatureSnapshot raw = temperature.getRaw();
+				emergency = sendPolicy.observe(Math.max(raw.getCpuPackage(), raw.getGpu()), raw.getNanoTime(), controlConfig);
+			}
+
+			for(int i = 0 ; i < deviceConfig.getFanCount() && i < currentSpeed.length ; i++){
+				double fanTemperature = deviceConfig.getSensorProgram(i).evaluate(temperature, stack);
+				if( Double.isNaN(fanTemperature) ){
+					continue;
+				}
+				int targetSpeed = engine.update(deviceConfig, i, fanTemperature, temperature.getNanoTime(), currentSpeed[i]);
+
+				if(currentSpeed[i] != targetSpeed){
+					sendData[i] = targetSpeed;
+					isChange = true;
+				}
+			}
+			Metrics.CURVE_EVALUATION.recordSince(curveStart);
+		}
+
+		if( isChange && sendPolicy.allow(sendData, emergency, now, controlConfig) ){
+			return sendData;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,347 @@
+package main;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import device.ArduinoClient;
+import device.TemperatureSnapshot;
+import gnu.io.NoSuchPortException;
+import gnu.io.PortInUseException;
+import gnu.io.UnsupportedCommOperationException;
+import history.TelemetryHistory;
+import log.EventLog;
+import metrics.Metrics;
+import recording.RecordingWriter;
+import xml.ControlConfig;
+
+/**
+ * Arduino1台分の制御を行うスレッドです。
+ * Arduinoごとに独立して接続し、独自の周期でファン速度を決定して送信します。
+ * 接続はLinkSupervisorが別のスレッドで行い、接続できた時点から制御を開始します。
+ * 送信エラーや一定時間(RECEIVE_TIMEOUT)受信がない場合は接続が切れたと判断し、
+ * LinkSupervisorへ再接続を依頼します。再接続までの周期は何もせず、再接続後は最後に指示したファン速度を送信し直します。
+ * 温度情報は全Arduinoで共有の取得スレッドから最新の値を参照します。
+ * 周期ごとの温度とArduinoから受信したファン速度は履歴に記録します。
+ * ファン速度はファンごとに設定された制御方式(変換表またはPID制御)で決定します。
+ * 制御方式は周期ごとに最新の制御用設定から参照するため、設定の再読み込みは次の周期から反映されます。
+ * 速度の上昇はすぐに、低下はヒステリシス幅を超えて温度が下がってから送信し、送信回数はSendPolicyで制限します。
+ * ファン速度の決定はDeviceControlで行い、このクラスは通信と記録のみを行います。
+ * 記録する場合は周期ごとの判定の入力と結果と、Arduinoとの送受信データを記録します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class DeviceLink extends Thread{
+
+	/** 接続が切れたと判断する受信のない時間(ns)。Arduinoは約1秒ごとに状態を送信する */
+	private static final long RECEIVE_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+	/** 履歴に記録するセンサー数 */
+	public static final int HISTORY_SENSORS = 2;
+
+	/** Arduinoの番号(制御用設定内の位置) */
+	private final int index;
+
+	/** COMポート名 */
+	private final String comPort;
+
+	/** イベントログの発生元 */
+	private final String logSource;
+
+	/** ファン数 */
+	private final int fanCount;
+
+	/** 温度取得スレッド */
+	private final AcquisitionStage acquisition;
+
+	/** 制御周期(ms) */
+	private final long interval;
+
+	/** Arduino通信レート */
+	private final int rate;
+
+	/** Arduinoとのv2通信の最大通信レート(0:v1で通信) */
+	private final int maxRate;
+
+	/** Arduino通信クラス(接続前と再接続中はnull) */
+	private volatile ArduinoClient arduino = null;
+
+	/** 接続状態の変更用ロック */
+	private final Object linkLock = new Object();
+
+	/** 停止したか */
+	private boolean stopped = false;
+
+	/** 最後に指示したファン速度(未指示の場合null) */
+	private volatile int[] lastCommanded = null;
+
+	/** 接続と再接続 */
+	private final LinkSupervisor supervisor;
+
+	/** ファン速度の決定 */
+	private final DeviceControl deviceControl;
+
+	/** 記録先(記録しない場合null) */
+	private final RecordingWriter recorder;
+
+	/** 稼働状態 */
+	private final Readiness readiness;
+
+	/** 制御周期スケジューラ */
+	private volatile TickScheduler scheduler = null;
+
+	/** 履歴(記録しない場合null) */
+	private final TelemetryHistory history;
+
+	/** 履歴に記録するセンサー値(CPUパッケージ温度,GPU温度) */
+	private final double[] sensorValues = new double[HISTORY_SENSORS];
+
+	/** 現在のファン速度の読み出し先(ファン数が変わった場合のみ作り直す) */
+	private int[] currentSpeed = new int[0];
+
+	/**
+	 * @param config 制御用設定
+	 * @param index Arduinoの番号(制御用設定内の位置)
+	 * @param acquisition 温度取得スレッド
+	 * @param intervalMillis 制御周期(ms)
+	 * @param rate Arduino通信レート
+	 * @param maxRate Arduinoとのv2通信の最大通信レート(0:v1で通信)
+	 * @param history 履歴(記録しない場合null)。センサー数はHISTORY_SENSORS
+	 * @param recorder 記録先(記録しない場合null)
+	 * @param readiness 稼働状態(接続状態を通知)
+	 * @param supervisor 接続と再接続を行うLinkSupervisor
+	 */
+	public DeviceLink(AtomicReference<ControlConfig> config, int index, AcquisitionStage acquisition, long intervalMillis, int rate,
+			int maxRate, TelemetryHistory history, RecordingWriter recorder, Readiness readiness, LinkSupervisor supervisor){
+		super("DeviceLink-" + config.get().getDevice(index).getComPort());
+		setDaemon(true);
+		this.index = index;
+		this.comPort = config.get().getDevice(index).getComPort();
+		this.logSource = "DeviceLink(" + comPort + ")";
+		this.fanCount = config.get().getDevice(index).getFanCount();
+		this.acquisition = acquisition;
+		this.interval = intervalMillis;
+		this.rate = rate;
+		this.maxRate = maxRate;
+		this.history = history;
+		this.recorder = recorder;
+		this.readiness = readiness;
+		this.supervisor = supervisor;
+		this.deviceControl = new DeviceControl(config, index);
+	}
+
+	/**
+	 * LinkSupervisorへ接続を依頼し、制御周期ごとにファン速度を制御します。
+	 * 接続していない周期は何もしません。割り込まれると接続を閉じて終了します。
+	 * @see java.lang.Thread#run()
+	 */
+	@Override
+	public void run(){
+		long skipped;
+
+		scheduler = new TickScheduler(interval);
+		supervisor.open(this);
+
+		while(true){
+			try {
+				skipped = scheduler.awaitNextTick();
+				if( skipped > 0 ){
+					EventLog.warn(logSource, "tick overrun, skipped " + skipped + " tick(s). " + scheduler.getStatistics());
+				}
+
+				control(acquisition.getLatest(), System.nanoTime());
+
+			} catch (InterruptedException e) {
+				ArduinoClient client;
+				synchronized( linkLock ){
+					stopped = true;
+					client = arduino;
+					arduino = null;
+				}
+				if( client != null ){
+					client.close();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 1周期分の制御を行います。
+	 * @param temperature 最新の温度情報(未取得の場合null)
+	 * @param now 現在時刻(System.nanoTime)
+	 */
+	void control(TemperatureSnapshot temperature, long now){
+		ArduinoClient client = arduino;
+		if( client == null ){
+			return;
+		}
+		if( now - client.getLastReceiveTime() > RECEIVE_TIMEOUT ){
+			linkDown(client, "no data received for " + TimeUnit.NANOSECONDS.toMillis(now - client.getLastReceiveTime()) + "ms");
+			return;
+		}
+
+		long start = System.nanoTime();
+		if( currentSpeed.length != client.getFanCount() ){
+			currentSpeed = new int[client.getFanCount()];
+		}
+		client.getFanSettings(currentSpeed);
+
+		EventLog.debug(logSource, "CurrentSpeed:", currentSpeed);
+
+		if( history != null ){
+			sensorValues[0] = temperature != null ? temperature.getCpuPackage() : Double.NaN;
+			sensorValues[1] = temperature != null ? temperature.getGpu() : Double.NaN;
+			history.record(System.currentTimeMillis(), sensorValues, currentSpeed);
+		}
+
+		int[] sendData = deviceControl.decide(temperature, currentSpeed, now);
+		if( recorder != null ){
+			recorder.tick(index, now, temperature, currentSpeed, sendData);
+		}
+
+		if( sendData != null ){
+			setData(client, sendData);
+		}
+
+		Metrics.CONTROL_TICK.recordSince(start);
+	}
+
+	/**
+	 * ファン速度を送信します。接続していない場合は再接続後に送信します。
+	 * @param data ファン速度
+	 */
+	public void setData(int[] data){
+		setData(arduino, data);
+	}
+
+	/**
+	 * ファン速度を送信します。送信エラーの場合は再接続を依頼します。
+	 * @param client 送信先(接続していない場合null)
+	 * @param data ファン速度
+	 */
+	private void setData(ArduinoClient client, int[] data){
+		lastCommanded = data.clone();
+
+		EventLog.info(logSource, "send:", data);
+
+		if( client != null ){
+			try {
+				client.setFanSpeed(data);
+			} catch (IOException e) {
+				linkDown(client, e.toString());
+			}
+		}
+	}
+
+	/**
+	 * 接続維持用データを送信します。接続していない場合は何もしません。
+	 * 送信エラーの場合は再接続を依頼します。
+	 * @throws IOException 送信エラーです
+	 */
+	public void sendConnection() throws IOException{
+		ArduinoClient client = arduino;
+		if( client != null ){
+			try {
+				client.sendConnection();
+			} catch (IOException e) {
+				linkDown(client, e.toString());
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * このArduinoのポートを開き、通信を確立します。LinkSupervisorのスレッドから呼び出されます。
+	 * @return Arduino通信クラス
+	 * @throws PortInUseException 既にこのポートは使用中です
+	 * @throws NoSuchPortException 指定されたポート名は存在しません
+	 * @throws UnsupportedCommOperationException ポート設定エラーです
+	 * @throws InterruptedException
+	 * @throws IOException 受信開始エラーです
+	 */
+	ArduinoClient openClient()
+			throws PortInUseException, NoSuchPortException, UnsupportedCommOperationException, InterruptedException, IOException{
+		return ArduinoClient.open(comPort, rate, fanCount, maxRate, recorder, index);
+	}
+
+	/**
+	 * 接続できたことを通知します。LinkSupervisorのスレッドから呼び出されます。
+	 * 再接続の場合は最後に指示したファン速度を送信し直します。停止後の場合は接続を閉じます。
+	 * @param client 接続したArduino通信クラス
+	 * @param reconnect 再接続の場合true
+	 * @param failedAt 接続が切れたことを検出した時刻(System.nanoTime, 再接続の場合)
+	 */
+	void linkUp(ArduinoClient client, boolean reconnect, long failedAt){
+		boolean closing;
+		synchronized( linkLock ){
+			closing = stopped;
+			if( !closing ){
+				arduino = client;
+			}
+		}
+		if( closing ){
+			client.close();
+			return;
+		}
+
+		readiness.setLink(index, true);
+		if( reconnect ){
+			Metrics.LINK_RECONNECT.recordSince(failedAt);
+			EventLog.info(logSource, "reconnected after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - failedAt) + "ms.");
+		}
+
+		int[] data = lastCommanded;
+		if( data != null ){
+			try {
+				client.setFanSpeed(data);
+			} catch (IOException e) {
+				linkDown(client, e.toString());
+			}
+		}
+	}
+
+	/**
+	 * 接続が切れたと判断し、LinkSupervisorへ再接続を依頼します。
+	 * 同じ接続について2回目以降の呼び出しと、停止後の呼び出しは何もしません。
+	 * @param failed 切れた接続
+	 * @param reason 理由
+	 */
+	private void linkDown(ArduinoClient failed, String reason){
+		synchronized( linkLock ){
+			if( stopped || arduino != failed ){
+				return;
+			}
+			arduino = null;
+		}
+
+		Metrics.LINK_FAILURES.increment();
+		EventLog.warn(logSource, "lost the connection, reconnecting: " + reason);
+		readiness.setLink(index, false);
+		supervisor.reconnect(this, failed, System.nanoTime());
+	}
+
+	/**
+	 * 履歴を取得します。
+	 * @return 履歴, 記録しない場合null
+	 */
+	public TelemetryHistory getHistory(){
+		return history;
+	}
+
+	/**
+	 * シリアルポート名を取得します。
+	 * @return シリアルポート名
+	 */
+	public String getComPort(){
+		return comPort;
+	}
+
+	/**
+	 * 制御周期の統計を取得します。
+	 * @return 統計, 開始前はnull
+	 */
+	public TickStatistics getTickStatistics(){
+		return scheduler != null ? scheduler.getStatistics() : null;
+	}
+}
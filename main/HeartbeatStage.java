@@ -0,0 +1,57 @@
+package main;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import log.EventLog;
+import metrics.Metrics;
+
+/**
+ * Arduinoへの接続維持用データを独立した周期で送信するスレッドです。
+ * 温度取得や制御の遅れに影響されずに、全てのArduinoへ送信します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class HeartbeatStage extends Thread{
+
+	/** 送信先のArduino */
+	private final List<DeviceLink> links;
+
+	/** 送信周期スケジューラ */
+	private final TickScheduler scheduler;
+
+	/**
+	 * @param links 送信先のArduino
+	 * @param intervalMillis 送信周期(ms)
+	 */
+	public HeartbeatStage(List<DeviceLink> links, long intervalMillis){
+		super("HeartbeatStage");
+		setDaemon(true);
+		this.links = new ArrayList<DeviceLink>(links);
+		this.scheduler = new TickScheduler(intervalMillis);
+	}
+
+	@Override
+	public void run(){
+		while(true){
+			try{
+				scheduler.awaitNextTick();
+			}catch(InterruptedException e){
+				return;
+			}
+
+			//1台の送信エラーで他のArduinoへの送信を止めない
+			for(DeviceLink link : links){
+				try{
+					link.sendConnection();
+					Metrics.HEARTBEATS.increment();
+				}catch(IOException e){
+					Metrics.HEARTBEAT_FAILURES.increment();
+					EventLog.warn("HeartbeatStage", "connection check failed on " + link.getComPort(), e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package main;
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import device.ArduinoClient;
+import gnu.io.NoSuchPortException;
+import gnu.io.PortInUseException;
+import gnu.io.UnsupportedCommOperationException;
+import log.EventLog;
+import metrics.Metrics;
+
+/**
+ * Arduinoとの接続と再接続を制御周期のスレッドとは別のスレッドで行うクラスです。
+ * 接続できない場合は待ち時間を倍にしながら(最大MAX_BACKOFF)接続し直します。
+ * ポートを開く処理はArduinoの起動待ちなどで数秒かかるため、制御周期や接続維持のスレッドからは
+ * 依頼のみを行い、完了を待ちません。
+ * 接続できた時点でDeviceLinkへ通知し、DeviceLinkが最後に指示したファン速度を送信し直します。
+ * 全てのArduinoで共有し、Arduinoごとに並行して接続します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class LinkSupervisor {
+
+	/** 最初の待ち時間(ms) */
+	private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(1);
+
+	/** 最大の待ち時間(ms) */
+	private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(60);
+
+	/** 接続用スレッド */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * @param linkCount Arduinoの数(並行して接続する数)
+	 */
+	public LinkSupervisor(int linkCount){
+		final AtomicInteger threads = new AtomicInteger();
+		executor = new ScheduledThreadPoolExecutor(Math.max(1, linkCount), new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "LinkSupervisor-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * 最初の接続を開始します。すぐに戻ります。
+	 * @param link 接続するArduino
+	 */
+	public void open(DeviceLink link){
+		submit(new Attempt(link, null, 0), 0);
+	}
+
+	/**
+	 * 切れた接続を閉じて、接続し直します。すぐに戻ります。
+	 * 閉じる処理も接続用スレッドで行います。
+	 * @param link 接続し直すArduino
+	 * @param failed 切れた接続
+	 * @param failedAt 切れたことを検出した時刻(System.nanoTime)
+	 */
+	public void reconnect(DeviceLink link, ArduinoClient failed, long failedAt){
+		submit(new Attempt(link, failed, failedAt), 0);
+	}
+
+	/**
+	 * 接続中と待機中の処理を中止します。
+	 */
+	public void shutdown(){
+		executor.shutdownNow();
+	}
+
+	/** 処理を予約します。停止後は何もしません */
+	private void submit(Attempt attempt, long delay){
+		try{
+			executor.schedule(attempt, delay, TimeUnit.MILLISECONDS);
+		}catch(RejectedExecutionException e){
+			//停止済み
+		}
+	}
+
+	/** Arduino1台分の接続処理(接続できるまで自身を予約し直す) */
+	private final class Attempt implements Runnable{
+
+		/** 接続するArduino */
+		private final DeviceLink link;
+
+		/** 再接続か */
+		private final boolean reconnect;
+
+		/** 切れたことを検出した時刻(System.nanoTime) */
+		private final long failedAt;
+
+		/** 閉じていない切れた接続(閉じた後はnull) */
+		private ArduinoClient failed;
+
+		/** 次の待ち時間(ms) */
+		private long backoff = INITIAL_BACKOFF;
+
+		Attempt(DeviceLink link, ArduinoClient failed, long failedAt){
+			this.link = link;
+			this.reconnect = failed != null;
+			this.failed = failed;
+			this.failedAt = failedAt;
+		}
+
+		@Override
+		public void run(){
+			//切れたポートを閉じるのは1回のみ(RXTXのポートは2回閉じられない)
+			if( failed != null ){
+				try{
+					failed.close();
+				}catch(RuntimeException e){
+					EventLog.warn("LinkSupervisor(" + link.getComPort() + ")", "could not close the port", e);
+				}
+				failed = null;
+			}
+
+			ArduinoClient client;
+			try{
+				client = link.openClient();
+			}catch(PortInUseException | NoSuchPortException | UnsupportedCommOperationException | IOException | RuntimeException e){
+				//RuntimeException(RXTXのネイティブ部分のエラーなど)も同じく接続し直す。ここで止めると二度と接続しないため
+				if( reconnect ){
+					Metrics.RECONNECT_FAILURES.increment();
+				}
+				EventLog.warn("LinkSupervisor(" + link.getComPort() + ")", "could not open the port, retrying in "
+						+ TimeUnit.MILLISECONDS.toSeconds(backoff) + "s", e);
+				long delay = backoff;
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+				submit(this, delay);
+				return;
+			}catch(InterruptedException e){
+				return;
+			}
+
+			link.linkUp(client, reconnect, failedAt);
+		}
+	}
+}
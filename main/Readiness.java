@@ -0,0 +1,172 @@
+package main;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import log.EventLog;
+
+/**
+ * コントローラの稼働状態です。
+ * 温度の取得元とArduinoごとの接続の状態から、次のいずれかの状態を求めます。
+ * <ul>
+ * <li>STARTING … 起動中。使用できる温度情報と接続済みのArduinoがまだ揃っていない</li>
+ * <li>DEGRADED … 制御中。ただし温度情報が使用できないか、接続できていないArduinoがある</li>
+ * <li>READY … 温度情報が使用でき、全てのArduinoと接続済み</li>
+ * </ul>
+ * 一度制御を開始した後はSTARTINGには戻りません。
+ * 状態が変わるたびに、起動開始からの各段階の所要時間とあわせて表示します。
+ * 複数のスレッドから呼び出せます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class Readiness {
+
+	/** 稼働状態 */
+	public enum State{
+		/** 起動中 */
+		STARTING,
+		/** 一部が使用できない状態で制御中 */
+		DEGRADED,
+		/** 全て使用できる状態で制御中 */
+		READY
+	}
+
+	/** 起動開始時刻(System.nanoTime) */
+	private final long startTime;
+
+	/** 起動開始時のJVMの稼働時間(ms) */
+	private final long jvmUptime;
+
+	/** Arduinoごとのシリアルポート名 */
+	private final String[] linkNames;
+
+	/** Arduinoごとの接続状態 */
+	private final boolean[] links;
+
+	/** Arduinoごとの最初に接続できるまでの時間(ns, 未接続の場合-1) */
+	private final long[] linkTimes;
+
+	/** 設定の読み込みにかかった時間(ns, 未完了の場合-1) */
+	private long configTime = -1;
+
+	/** 最初に温度情報を使用できるまでの時間(ns, 未取得の場合-1) */
+	private long sensorTime = -1;
+
+	/** 温度情報を使用できるか */
+	private volatile boolean sensor = false;
+
+	/** 稼働状態 */
+	private volatile State state = State.STARTING;
+
+	/**
+	 * @param startTime 起動開始時刻(System.nanoTime)
+	 * @param linkNames Arduinoごとのシリアルポート名(設定内の順)
+	 */
+	public Readiness(long startTime, List<String> linkNames){
+		this.startTime = startTime;
+		this.jvmUptime = ManagementFactory.getRuntimeMXBean().getUptime() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+		this.linkNames = linkNames.toArray(new String[linkNames.size()]);
+		this.links = new boolean[linkNames.size()];
+		this.linkTimes = new long[linkNames.size()];
+		Arrays.fill(linkTimes, -1);
+	}
+
+	/**
+	 * 設定の読み込みが完了したことを記録します。
+	 */
+	public synchronized void configLoaded(){
+		if( configTime < 0 ){
+			configTime = System.nanoTime() - startTime;
+		}
+	}
+
+	/**
+	 * 温度情報を使用できるかを記録します。取得周期ごとに呼び出せます。
+	 * @param usable 最新の取得で使用できる温度情報を得られた場合true
+	 */
+	public void setSensor(boolean usable){
+		//状態が変わらない場合はロックしない
+		if( sensor != usable ){
+			synchronized( this ){
+				if( usable && sensorTime < 0 ){
+					sensorTime = System.nanoTime() - startTime;
+				}
+				sensor = usable;
+				update();
+			}
+		}
+	}
+
+	/**
+	 * Arduinoとの接続状態を記録します。
+	 * @param index Arduinoの番号(設定内の位置)
+	 * @param open 接続済みの場合true
+	 */
+	public synchronized void setLink(int index, boolean open){
+		if( open && linkTimes[index] < 0 ){
+			linkTimes[index] = System.nanoTime() - startTime;
+		}
+		links[index] = open;
+		update();
+	}
+
+	/**
+	 * 稼働状態を取得します。
+	 * @return 稼働状態
+	 */
+	public State getState(){
+		return state;
+	}
+
+	/**
+	 * 起動開始からの各段階の所要時間を取得します。
+	 * @return 所要時間(ex. "jvm 410ms, config 35ms, sensor 380ms, COM3 1830ms, COM4 -")
+	 */
+	public synchronized String getTimings(){
+		StringBuilder timings = new StringBuilder();
+		timings.append("jvm ").append(jvmUptime).append("ms");
+		append(timings, "config", configTime);
+		append(timings, "sensor", sensorTime);
+		for(int i = 0 ; i < linkNames.length ; i++){
+			append(timings, linkNames[i], linkTimes[i]);
+		}
+		return timings.toString();
+	}
+
+	/** 所要時間を1件追加します */
+	private static void append(StringBuilder timings, String name, long time){
+		timings.append(", ").append(name).append(' ');
+		if( time < 0 ){
+			timings.append('-');
+		} else {
+			timings.append(TimeUnit.NANOSECONDS.toMillis(time)).append("ms");
+		}
+	}
+
+	/** 稼働状態を求め直し、変わった場合は表示します */
+	private void update(){
+		int open = 0;
+		for(boolean link : links){
+			if( link ){
+				open++;
+			}
+		}
+
+		State next;
+		if( sensor && open == links.length ){
+			next = State.READY;
+		} else if( state != State.STARTING || ( sensor && open > 0 ) ){
+			next = State.DEGRADED;
+		} else {
+			next = State.STARTING;
+		}
+
+		if( next != state ){
+			EventLog.info("CoreController", "is " + next + " at " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+					+ "ms (sensor " + ( sensor ? "up" : "down" ) + ", " + open + "/" + links.length + " device(s)). Startup: " + getTimings());
+			state = next;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package main;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import device.TemperatureSnapshot;
+import recording.RecordingReader;
+import recording.RecordingWriter;
+import xml.ControlConfig;
+import xml.SettingReader;
+
+/**
+ * 記録ファイルを仮想時計で再生し、ファン速度の決定を再現するクラスです。
+ * 記録した設定ファイルの内容と温度情報から、実行時と同じフィルタ(SnapshotFilter)と
+ * 判定(DeviceControl)を記録した時刻で実行し、記録した送信内容と一致するか確認します。
+ * 時刻は全て記録した値を使用するため、再生速度によらず結果は同じになります。
+ * OpenHardwareMonitorの応答とArduinoとの送受信データは解析用の記録で、再生には使用しません。
+ *
+ * 使用方法: ReplayEngine 記録ファイル [再生速度(倍, 0:待たずに再生, 省略時0)]
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class ReplayEngine {
+
+	/** 参照される可能性のある温度情報の保持数 */
+	private static final int SNAPSHOT_CAPACITY = 64;
+
+	/** 詳細を表示する不一致の数 */
+	private static final int MISMATCH_REPORT_LIMIT = 10;
+
+	/** 待機する最小の時間(ns) */
+	private static final long MIN_PARK_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/** 制御用設定 */
+	private final AtomicReference<ControlConfig> config = new AtomicReference<ControlConfig>();
+
+	/** センサーごとのフィルタ */
+	private final SnapshotFilter filter = new SnapshotFilter();
+
+	/** Arduinoごとのファン速度の決定 */
+	private final ArrayList<DeviceControl> controls = new ArrayList<DeviceControl>();
+
+	/** フィルタ適用後の温度情報(取得時刻順, 古いものから破棄) */
+	private final LinkedHashMap<Long, TemperatureSnapshot> snapshots = new LinkedHashMap<Long, TemperatureSnapshot>(){
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, TemperatureSnapshot> eldest){
+			return size() > SNAPSHOT_CAPACITY;
+		}
+	};
+
+	/** 再生した記録数 */
+	private long records = 0;
+
+	/** 再生した制御周期数 */
+	private long ticks = 0;
+
+	/** 送信した回数 */
+	private long sends = 0;
+
+	/** 記録と一致しなかった制御周期数 */
+	private long mismatches = 0;
+
+	/** 記録の最初の時刻(System.nanoTime) */
+	private long firstTime = 0;
+
+	/** 記録の最後の時刻(System.nanoTime) */
+	private long lastTime = 0;
+
+	/** 再生にかかった時間(ns) */
+	private long elapsed = 0;
+
+	/**
+	 * 記録ファイルを再生します。
+	 * @param args 記録ファイル, 再生速度(倍, 0:待たずに再生, 省略時0)
+	 * @throws IOException 読み込み失敗時
+	 */
+	public static void main(String[] args) throws IOException{
+		if( args.length < 1 ){
+			System.out.println("Usage: ReplayEngine <recording> [speed]");
+			return;
+		}
+
+		ReplayEngine engine = new ReplayEngine();
+		engine.replay(Paths.get(args[0]), args.length > 1 ? Double.parseDouble(args[1]) : 0);
+		System.out.println(engine.getSummary());
+
+		if( engine.getMismatches() > 0 ){
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * 記録ファイルを再生します。
+	 * @param file 記録ファイル
+	 * @param speed 再生速度(倍, 0:待たずに再生)
+	 * @throws IOException 読み込み失敗時や設定より前に制御周期が記録されている場合
+	 */
+	public void replay(Path file, double speed) throws IOException{
+		long start = System.nanoTime();
+
+		try( RecordingReader reader = new RecordingReader(file) ){
+			firstTime = reader.getStartNanoTime();
+
+			while( reader.next() ){
+				records++;
+				lastTime = Math.max(lastTime, reader.getNanoTime());
+				if( speed > 0 ){
+					pace(start, reader.getNanoTime() - firstTime, speed);
+				}
+
+				switch( reader.getType() ){
+				case RecordingWriter.CONFIG:
+					SettingReader settingReader = new SettingReader(file.toString(), new ByteArrayInputStream(reader.getData()));
+					config.set( ControlConfig.compile(settingReader.getSetting(false)) );
+					break;
+
+				case RecordingWriter.SNAPSHOT:
+					if( config.get() == null ){
+						throw new IOException("Snapshot recorded before configuration: " + file);
+					}
+					TemperatureSnapshot snapshot = filter.apply(reader.getSnapshot(), config.get());
+					snapshots.put(snapshot.getNanoTime(), snapshot);
+					break;
+
+				case RecordingWriter.TICK:
+					tick(reader);
+					break;
+
+				default:
+					//解析用の記録
+					break;
+				}
+			}
+		}
+
+		elapsed = System.nanoTime() - start;
+	}
+
+	/**
+	 * 記録した制御周期を再現し、記録と比較します。
+	 * @param reader TICKを読み込んだ記録
+	 * @throws IOException 設定より前に記録されている場合
+	 */
+	private void tick(RecordingReader reader) throws IOException{
+		if( config.get() == null ){
+			throw new IOException("Tick recorded before configuration.");
+		}
+
+		while( controls.size() <= reader.getDevice() ){
+			controls.add(new DeviceControl(config, controls.size()));
+		}
+
+		TemperatureSnapshot temperature = null;
+		if( reader.getSnapshotTime() != RecordingWriter.NO_SNAPSHOT ){
+			temperature = snapshots.get(reader.getSnapshotTime());
+		}
+
+		int[] sent = controls.get(reader.getDevice()).decide(temperature, reader.getCurrentSpeed(), reader.getNanoTime());
+
+		ticks++;
+		if( sent != null ){
+			sends++;
+		}
+		if( !Arrays.equals(sent, reader.getSent()) ){
+			mismatches++;
+			if( mismatches <= MISMATCH_REPORT_LIMIT ){
+				System.out.println(String.format("Mismatch at %.3fs device %d: recorded %s, replayed %s%s",
+						( reader.getNanoTime() - firstTime ) / 1e9, reader.getDevice(),
+						Arrays.toString(reader.getSent()), Arrays.toString(sent),
+						temperature == null && reader.getSnapshotTime() != RecordingWriter.NO_SNAPSHOT ? " (snapshot missing)" : ""));
+			}
+		}
+	}
+
+	/**
+	 * 再生速度に合わせて待機します。
+	 * @param start 再生開始時刻(System.nanoTime)
+	 * @param virtual 記録開始からの経過時間(ns)
+	 * @param speed 再生速度(倍)
+	 */
+	private static void pace(long start, long virtual, double speed){
+		long wait;
+		while( ( wait = start + (long) ( virtual / speed ) - System.nanoTime() ) >= MIN_PARK_TIME ){
+			LockSupport.parkNanos(wait);
+		}
+	}
+
+	/**
+	 * 再生した制御周期数を取得します。
+	 * @return 制御周期数
+	 */
+	public long getTicks(){
+		return ticks;
+	}
+
+	/**
+	 * 再生で送信した回数を取得します。
+	 * @return 送信した回数
+	 */
+	public long getSends(){
+		return sends;
+	}
+
+	/**
+	 * 記録と一致しなかった制御周期数を取得します。
+	 * @return 不一致の数
+	 */
+	public long getMismatches(){
+		return mismatches;
+	}
+
+	/**
+	 * 再生結果の概要を取得します。
+	 * @return 概要
+	 */
+	public String getSummary(){
+		double virtual = ( lastTime - firstTime ) / 1e9;
+		double wall = elapsed / 1e9;
+		return String.format("Replayed %d record(s), %d tick(s), %d send(s), %d mismatch(es). %.1fs of recording in %.3fs (%.0fx)",
+				records, ticks, sends, mismatches, virtual, wall, wall > 0 ? virtual / wall : 0);
+	}
+}
@@ -0,0 +1,115 @@
+package main;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import metrics.Metrics;
+import xml.ControlConfig;
+
+/**
+ * Arduino1台分のファン速度の送信可否を判定します。
+ * 送信回数はトークンバケットで制限し、一定間隔で回復する回数までは変化をすぐに送信します。
+ * 温度が緊急送信する温度以上の場合と、温度上昇率が設定値以上の場合は制限によらず送信します。
+ * Arduinoから反映後の速度が届くまでは、前回と同じ内容を再送しません。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class SendPolicy {
+
+	/** 同じ内容を再送しない期間(ns)。v1のArduinoは1秒ごとに状態を送信する */
+	private static final long RESEND_HOLD_TIME = TimeUnit.SECONDS.toNanos(3);
+
+	/** 送信できる回数 */
+	private double tokens;
+
+	/** 送信できる回数を最後に回復させた時刻(System.nanoTime) */
+	private long refillTime;
+
+	/** 前回の温度 */
+	private double lastTemperature = Double.NaN;
+
+	/** 前回の温度の取得時刻(System.nanoTime) */
+	private long lastTemperatureTime = 0;
+
+	/** 最新の温度上昇率(℃/秒) */
+	private double riseRate = 0;
+
+	/** 前回送信したファン速度(未送信の場合null) */
+	private int[] lastSent = null;
+
+	/** 前回送信した時刻(System.nanoTime) */
+	private long lastSentTime = 0;
+
+	/**
+	 * @param burst 連続して送信できる回数
+	 * @param now 現在時刻(System.nanoTime)
+	 */
+	SendPolicy(int burst, long now){
+		this.tokens = burst;
+		this.refillTime = now;
+	}
+
+	/**
+	 * 温度を記録し、緊急送信が必要か判定します。
+	 * 温度上昇率は取得時刻が異なる温度の間で求めるため、同じ温度情報を繰り返し渡しても変わりません。
+	 * @param temperature 制御に使用する温度
+	 * @param sampledAt 温度の取得時刻(System.nanoTime)
+	 * @param config 制御用設定
+	 * @return 緊急送信が必要な場合true
+	 */
+	boolean observe(double temperature, long sampledAt, ControlConfig config){
+		if( sampledAt != lastTemperatureTime ){
+			if( !Double.isNaN(lastTemperature) ){
+				riseRate = ( temperature - lastTemperature ) * TimeUnit.SECONDS.toNanos(1) / ( sampledAt - lastTemperatureTime );
+			}
+			lastTemperature = temperature;
+			lastTemperatureTime = sampledAt;
+		}
+
+		return temperature >= config.getCriticalTemperature()
+				|| ( config.getEmergencyRiseRate() > 0 && riseRate >= config.getEmergencyRiseRate() );
+	}
+
+	/**
+	 * ファン速度を送信してよいか判定します。送信する場合は送信したものとして記録します。
+	 * @param data 送信するファン速度
+	 * @param emergency 緊急送信の場合true
+	 * @param now 現在時刻(System.nanoTime)
+	 * @param config 制御用設定
+	 * @return 送信する場合true
+	 */
+	boolean allow(int[] data, boolean emergency, long now, ControlConfig config){
+		//Arduinoへ送信済みで反映待ち
+		if( lastSent != null && now - lastSentTime < RESEND_HOLD_TIME && Arrays.equals(lastSent, data) ){
+			return false;
+		}
+
+		refill(now, config);
+
+		if( emergency ){
+			Metrics.SEND_EMERGENCY.increment();
+			tokens = Math.max(0, tokens - 1);
+		} else if( tokens >= 1 ){
+			tokens -= 1;
+		} else {
+			Metrics.SEND_SUPPRESSED.increment();
+			return false;
+		}
+
+		lastSent = data.clone();
+		lastSentTime = now;
+		return true;
+	}
+
+	/** 経過時間に応じて送信できる回数を回復させます */
+	private void refill(long now, ControlConfig config){
+		long interval = config.getSendTokenInterval();
+		if( interval <= 0 ){
+			tokens = config.getSendBurst();
+		} else {
+			tokens = Math.min(config.getSendBurst(), tokens + (double) ( now - refillTime ) / interval);
+		}
+		refillTime = now;
+	}
+}
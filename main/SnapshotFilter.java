@@ -0,0 +1,100 @@
+package main;
+
+import device.TemperatureSnapshot;
+import filter.FilterChain;
+import xml.ControlConfig;
+
+/**
+ * 温度情報のセンサーごとにフィルタを適用します。
+ * CPUパッケージ温度と各コア温度にはCPU温度のフィルタを、GPU温度にはGPU温度のフィルタを、
+ * センサー式で使用するセンサーにはセンサーのフィルタを個別に適用します。
+ * フィルタの設定が変わった場合とコア数,センサー数が変わった場合はフィルタを作り直します。
+ * 取得スレッドのみが使用するため、スレッドセーフではありません。
+ *
+ * フィルタ適用後の温度情報は新しい取得結果ごとに作成します(温度の配列を含む)。
+ * 温度情報は配列を複製せずに保持し、公開後は他のスレッドが任意の時点まで参照するため、
+ * 作成済みの配列や温度情報を使い回すと参照中の値を書き換えてしまいます。
+ * 作成は取得周期(通常1秒)ごとに1回で、取得元が前回と同じ取得結果を返した周期には作成しません(AcquisitionStage)。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+final class SnapshotFilter {
+
+	/** 作成元のCPU温度のフィルタ設定 */
+	private String cpuSpec = "";
+
+	/** 作成元のGPU温度のフィルタ設定 */
+	private String gpuSpec = "";
+
+	/** 作成元のセンサーのフィルタ設定 */
+	private String sensorSpec = "";
+
+	/** CPUパッケージ温度のフィルタ */
+	private FilterChain cpuPackage = FilterChain.parse("");
+
+	/** CPUコア温度のフィルタ */
+	private FilterChain[] cpuCores = new FilterChain[0];
+
+	/** GPU温度のフィルタ */
+	private FilterChain gpu = FilterChain.parse("");
+
+	/** センサー式で使用するセンサーのフィルタ(温度情報のセンサーと同じ並び) */
+	private FilterChain[] sensors = new FilterChain[0];
+
+	/**
+	 * フィルタを適用します。
+	 * @param raw 取得した温度情報
+	 * @param config 最新の制御用設定
+	 * @return フィルタ適用後の温度情報, フィルタがない場合rawそのもの
+	 */
+	TemperatureSnapshot apply(TemperatureSnapshot raw, ControlConfig config){
+		if( !cpuSpec.equals(config.getCpuFilter()) || cpuCores.length != raw.getCpuCoreCount() ){
+			cpuSpec = config.getCpuFilter();
+			cpuPackage = FilterChain.parse(cpuSpec);
+			cpuCores = new FilterChain[raw.getCpuCoreCount()];
+			for(int i = 0 ; i < cpuCores.length ; i++){
+				cpuCores[i] = FilterChain.parse(cpuSpec);
+			}
+		}
+		if( !gpuSpec.equals(config.getGpuFilter()) ){
+			gpuSpec = config.getGpuFilter();
+			gpu = FilterChain.parse(gpuSpec);
+		}
+
+		int sensorCount = 0;
+		for(int p = 0 ; p < raw.getSensorPatternCount() ; p++){
+			sensorCount += raw.getSensorCount(p);
+		}
+		if( !sensorSpec.equals(config.getSensorFilter()) || sensors.length != sensorCount ){
+			sensorSpec = config.getSensorFilter();
+			sensors = new FilterChain[sensorCount];
+			for(int i = 0 ; i < sensors.length ; i++){
+				sensors[i] = FilterChain.parse(sensorSpec);
+			}
+		}
+
+		boolean sensorFiltered = sensors.length > 0 && !sensors[0].isEmpty();
+		if( cpuPackage.isEmpty() && gpu.isEmpty() && !sensorFiltered ){
+			return raw;
+		}
+
+		long time = raw.getNanoTime();
+		double[] cores = new double[cpuCores.length];
+		for(int i = 0 ; i < cores.length ; i++){
+			cores[i] = cpuCores[i].apply(raw.getCpuCore(i), time);
+		}
+
+		if( !sensorFiltered ){
+			return new TemperatureSnapshot(raw, cores, cpuPackage.apply(raw.getCpuPackage(), time), gpu.apply(raw.getGpu(), time));
+		}
+		double[] values = new double[sensors.length];
+		int slot = 0;
+		for(int p = 0 ; p < raw.getSensorPatternCount() ; p++){
+			for(int i = 0 ; i < raw.getSensorCount(p) ; i++, slot++){
+				values[slot] = sensors[slot].apply(raw.getSensor(p, i), time);
+			}
+		}
+		return new TemperatureSnapshot(raw, cores, cpuPackage.apply(raw.getCpuPackage(), time), gpu.apply(raw.getGpu(), time), values);
+	}
+}
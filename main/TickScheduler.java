@@ -0,0 +1,81 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 一定周期で処理を実行するためのスケジューラです。
+ * 予定時刻は開始時刻からの周期の倍数で決まるため、処理時間によって周期がずれません。
+ * 処理が周期を超えた場合は過ぎてしまった周期を読み飛ばし、遅れた分をまとめて実行しません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class TickScheduler {
+
+	/** 周期(ns) */
+	private final long period;
+
+	/** 次の予定時刻(System.nanoTime) */
+	private long nextTick;
+
+	/** 統計 */
+	private final TickStatistics statistics = new TickStatistics();
+
+	/**
+	 * @param periodMillis 周期(ms)
+	 */
+	public TickScheduler(long periodMillis){
+		this.period = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMillis));
+		this.nextTick = System.nanoTime() + period;
+	}
+
+	/**
+	 * 次の予定時刻まで待機します。
+	 * 既に1周期以上過ぎている場合は過ぎた周期を読み飛ばします。
+	 * @return 読み飛ばした周期の数
+	 * @throws InterruptedException 待機中に割り込まれた場合
+	 */
+	public long awaitNextTick() throws InterruptedException{
+		long now = System.nanoTime();
+		long skipped = 0;
+
+		if( now - nextTick > 0 ){
+			skipped = ( now - nextTick ) / period;
+			nextTick += skipped * period;
+			//1周期未満の遅れは読み飛ばさず、すぐに実行した遅れとして記録する
+			if( skipped > 0 ){
+				statistics.recordOverrun(skipped);
+			}
+		}
+
+		long remaining;
+		while( ( remaining = nextTick - System.nanoTime() ) > 0 ){
+			LockSupport.parkNanos(this, remaining);
+			if( Thread.interrupted() ){
+				throw new InterruptedException();
+			}
+		}
+
+		statistics.recordTick(System.nanoTime() - nextTick);
+		nextTick += period;
+
+		return skipped;
+	}
+
+	/**
+	 * 周期を取得します。
+	 * @return 周期(ns)
+	 */
+	public long getPeriod(){
+		return period;
+	}
+
+	/**
+	 * 統計を取得します。
+	 * @return 統計
+	 */
+	public TickStatistics getStatistics(){
+		return statistics;
+	}
+}
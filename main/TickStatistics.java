@@ -0,0 +1,107 @@
+package main;
+
+/**
+ * 周期実行の統計です。
+ * 予定時刻からの起床の遅れ(ジッタ)と、処理が周期を超えたことによる
+ * 周期超過・読み飛ばし回数を記録します。
+ * 記録は周期実行スレッドのみが行い、読み出しは任意のスレッドから行えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class TickStatistics {
+
+	/** 実行回数 */
+	private long ticks = 0;
+
+	/** 処理が周期を超えた回数 */
+	private long overruns = 0;
+
+	/** 読み飛ばした周期の数 */
+	private long skipped = 0;
+
+	/** ジッタの合計(ns) */
+	private long totalJitter = 0;
+
+	/** ジッタの最大値(ns) */
+	private long maxJitter = 0;
+
+	/** 直近のジッタ(ns) */
+	private long lastJitter = 0;
+
+	/**
+	 * 1回の起床を記録します。
+	 * @param jitter 予定時刻からの遅れ(ns)
+	 */
+	synchronized void recordTick(long jitter){
+		ticks++;
+		totalJitter += jitter;
+		lastJitter = jitter;
+		if( jitter > maxJitter ){
+			maxJitter = jitter;
+		}
+	}
+
+	/**
+	 * 周期超過を記録します。
+	 * @param skippedTicks 読み飛ばした周期の数
+	 */
+	synchronized void recordOverrun(long skippedTicks){
+		overruns++;
+		skipped += skippedTicks;
+	}
+
+	/**
+	 * 実行回数を取得します。
+	 * @return 実行回数
+	 */
+	public synchronized long getTicks(){
+		return ticks;
+	}
+
+	/**
+	 * 処理が周期を超えた回数を取得します。
+	 * @return 周期超過回数
+	 */
+	public synchronized long getOverruns(){
+		return overruns;
+	}
+
+	/**
+	 * 読み飛ばした周期の数を取得します。
+	 * @return 読み飛ばした周期の数
+	 */
+	public synchronized long getSkipped(){
+		return skipped;
+	}
+
+	/**
+	 * ジッタの平均値を取得します。
+	 * @return ジッタの平均値(ns)
+	 */
+	public synchronized long getMeanJitter(){
+		return ticks > 0 ? totalJitter / ticks : 0;
+	}
+
+	/**
+	 * ジッタの最大値を取得します。
+	 * @return ジッタの最大値(ns)
+	 */
+	public synchronized long getMaxJitter(){
+		return maxJitter;
+	}
+
+	/**
+	 * 直近のジッタを取得します。
+	 * @return 直近のジッタ(ns)
+	 */
+	public synchronized long getLastJitter(){
+		return lastJitter;
+	}
+
+	@Override
+	public synchronized String toString(){
+		return "ticks:" + ticks + ",overruns:" + overruns + ",skipped:" + skipped
+				+ ",jitter(us) mean:" + getMeanJitter() / 1000 + ",max:" + maxJitter / 1000;
+	}
+}
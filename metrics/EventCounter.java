@@ -0,0 +1,57 @@
+package metrics;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 発生回数を数えるカウンタです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class EventCounter implements EventCounterMBean {
+
+	/** 名前 */
+	private final String name;
+
+	/** 説明 */
+	private final String help;
+
+	/** 発生回数 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * @param name 名前(英小文字と_)
+	 * @param help 説明
+	 */
+	public EventCounter(String name, String help){
+		this.name = name;
+		this.help = help;
+	}
+
+	/**
+	 * 発生回数を1増やします。
+	 */
+	public void increment(){
+		count.incrementAndGet();
+	}
+
+	@Override
+	public long getCount(){
+		return count.get();
+	}
+
+	/**
+	 * 名前を取得します。
+	 * @return 名前
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * 説明を取得します。
+	 * @return 説明
+	 */
+	public String getHelp(){
+		return help;
+	}
+}
@@ -0,0 +1,16 @@
+package metrics;
+
+/**
+ * 発生回数をJMXで公開するためのインターフェースです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface EventCounterMBean {
+
+	/**
+	 * 発生回数を取得します。
+	 * @return 発生回数
+	 */
+	long getCount();
+}
@@ -0,0 +1,161 @@
+package metrics;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 処理時間の分布です。
+ * 区間はナノ秒の2のべき乗ごとに固定で、記録時はビット長から区間を求めてカウンタを増やすだけのため、
+ * 記録によるオブジェクトの生成はありません。複数スレッドから同時に記録できます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class LatencyHistogram implements LatencyHistogramMBean {
+
+	/** 区間の数。区間iは2^i ns未満の値を数え、最後の区間はそれ以上の全ての値を含みます */
+	static final int BUCKETS = 40;
+
+	/** 名前 */
+	private final String name;
+
+	/** 説明 */
+	private final String help;
+
+	/** 区間ごとの回数 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/** 計測回数 */
+	private final AtomicLong count = new AtomicLong();
+
+	/** 合計処理時間(ns) */
+	private final AtomicLong sum = new AtomicLong();
+
+	/** 最大処理時間(ns) */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param name 名前(英小文字と_)
+	 * @param help 説明
+	 */
+	public LatencyHistogram(String name, String help){
+		this.name = name;
+		this.help = help;
+	}
+
+	/**
+	 * 処理時間を記録します。
+	 * @param nanos 処理時間(ns)
+	 */
+	public void record(long nanos){
+		if( nanos < 0 ){
+			nanos = 0;
+		}
+
+		buckets.incrementAndGet( Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)) );
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+
+		long current;
+		while( nanos > ( current = max.get() ) && !max.compareAndSet(current, nanos) ){}
+	}
+
+	/**
+	 * 開始時刻からの経過時間を記録します。
+	 * @param start 開始時刻(System.nanoTime)
+	 */
+	public void recordSince(long start){
+		record(System.nanoTime() - start);
+	}
+
+	/**
+	 * 区間の回数を取得します。
+	 * @param bucket 区間
+	 * @return 回数
+	 */
+	long getBucket(int bucket){
+		return buckets.get(bucket);
+	}
+
+	/**
+	 * 区間の上限を取得します。
+	 * @param bucket 区間
+	 * @return 上限(ns), 最後の区間はLong.MAX_VALUE
+	 */
+	static long upperBound(int bucket){
+		return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+	}
+
+	/**
+	 * 合計処理時間を取得します。
+	 * @return 合計処理時間(ns)
+	 */
+	public long getSumNanos(){
+		return sum.get();
+	}
+
+	@Override
+	public long getCount(){
+		return count.get();
+	}
+
+	@Override
+	public double getMeanMicros(){
+		long n = count.get();
+		return n > 0 ? sum.get() / 1000.0 / n : 0;
+	}
+
+	@Override
+	public double getMaxMicros(){
+		return max.get() / 1000.0;
+	}
+
+	@Override
+	public double getP50Micros(){
+		return percentile(0.5);
+	}
+
+	@Override
+	public double getP99Micros(){
+		return percentile(0.99);
+	}
+
+	/**
+	 * 指定割合の値が含まれる区間の上限を求めます。
+	 * 最後の区間に含まれる場合は最大値を返します。
+	 */
+	private double percentile(double ratio){
+		long total = 0;
+		for(int i = 0 ; i < BUCKETS ; i++){
+			total += buckets.get(i);
+		}
+		if( total == 0 ){
+			return 0;
+		}
+
+		long target = (long) Math.ceil(total * ratio);
+		long cumulative = 0;
+		for(int i = 0 ; i < BUCKETS - 1 ; i++){
+			cumulative += buckets.get(i);
+			if( cumulative >= target ){
+				return upperBound(i) / 1000.0;
+			}
+		}
+		return getMaxMicros();
+	}
+
+	/**
+	 * 名前を取得します。
+	 * @return 名前
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * 説明を取得します。
+	 * @return 説明
+	 */
+	public String getHelp(){
+		return help;
+	}
+}
@@ -0,0 +1,40 @@
+package metrics;
+
+/**
+ * 処理時間の分布をJMXで公開するためのインターフェースです。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface LatencyHistogramMBean {
+
+	/**
+	 * 計測回数を取得します。
+	 * @return 計測回数
+	 */
+	long getCount();
+
+	/**
+	 * 平均処理時間を取得します。
+	 * @return 平均処理時間(μs)
+	 */
+	double getMeanMicros();
+
+	/**
+	 * 最大処理時間を取得します。
+	 * @return 最大処理時間(μs)
+	 */
+	double getMaxMicros();
+
+	/**
+	 * 処理時間の中央値(上限値)を取得します。
+	 * @return 中央値が含まれる区間の上限(μs)
+	 */
+	double getP50Micros();
+
+	/**
+	 * 処理時間の99パーセンタイル(上限値)を取得します。
+	 * @return 99パーセンタイルが含まれる区間の上限(μs)
+	 */
+	double getP99Micros();
+}
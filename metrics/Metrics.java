@@ -0,0 +1,188 @@
+package metrics;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * ファンコントローラの計測値の一覧です。
+ * 計測箇所からは定数を直接参照して記録します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class Metrics {
+
+	/** 名前の接頭辞 */
+	static final String PREFIX = "fancontroller_";
+
+	/** JMXのドメイン */
+	private static final String JMX_DOMAIN = "fancontroller";
+
+	/** OpenHardwareMonitorからの取得時間(通信,解析,再取得を含む) */
+	public static final LatencyHistogram OHM_FETCH =
+			new LatencyHistogram("ohm_fetch", "OpenHardwareMonitor request time including retry.");
+
+	/** JSONの解析時間 */
+	public static final LatencyHistogram JSON_PARSE =
+			new LatencyHistogram("json_parse", "JSON parse time (stream mode includes reading the body).");
+
+	/** センサー値の取り出し時間 */
+	public static final LatencyHistogram SENSOR_EXTRACTION =
+			new LatencyHistogram("sensor_extraction", "Sensor slot extraction time.");
+
+	/** hwmonからの温度取得時間 */
+	public static final LatencyHistogram HWMON_READ =
+			new LatencyHistogram("hwmon_read", "Linux hwmon read time per poll.");
+
+	/** 制御則の評価時間 */
+	public static final LatencyHistogram CURVE_EVALUATION =
+			new LatencyHistogram("curve_evaluation", "Control law evaluation time per control tick.");
+
+	/** 制御1周期分の処理時間 */
+	public static final LatencyHistogram CONTROL_TICK =
+			new LatencyHistogram("control_tick", "Control tick time per device.");
+
+	/** シリアルポートへの書き込み時間 */
+	public static final LatencyHistogram SERIAL_WRITE =
+			new LatencyHistogram("serial_write", "Serial write and flush time per frame.");
+
+	/** 受信データの解析時間 */
+	public static final LatencyHistogram FRAME_DECODE =
+			new LatencyHistogram("frame_decode", "Received data decode time per data-available event.");
+
+	/** ファン速度設定を送信してからArduinoの反映応答(ACK)を受信するまでの時間 */
+	public static final LatencyHistogram COMMAND_ACK =
+			new LatencyHistogram("command_ack", "Time from sending a protocol v2 command to receiving its acknowledgement.");
+
+	/** Arduinoとの接続が切れてから接続し直すまでの時間 */
+	public static final LatencyHistogram LINK_RECONNECT =
+			new LatencyHistogram("link_reconnect", "Time from detecting a lost Arduino link to reconnecting it.");
+
+	/** OpenHardwareMonitorからの取得失敗回数 */
+	public static final EventCounter OHM_FETCH_FAILURES =
+			new EventCounter("ohm_fetch_failures", "OpenHardwareMonitor requests that returned no data.");
+
+	/** 送信したファン速度の数 */
+	public static final EventCounter FRAMES_SENT =
+			new EventCounter("frames_sent", "Fan speed frames handed to the serial writer.");
+
+	/** 受信したフレームの数 */
+	public static final EventCounter FRAMES_RECEIVED =
+			new EventCounter("frames_received", "Fan setting frames received from the boards.");
+
+	/** ACKを受信できなかった回数 */
+	public static final EventCounter ACK_TIMEOUTS =
+			new EventCounter("ack_timeouts", "Protocol v2 commands that were not acknowledged in time.");
+
+	/** CRCが一致しなかった受信フレームの数 */
+	public static final EventCounter FRAME_ERRORS =
+			new EventCounter("frame_errors", "Received protocol v2 frames with a bad CRC.");
+
+	/** 送信回数の制限のため送信しなかった回数 */
+	public static final EventCounter SEND_SUPPRESSED =
+			new EventCounter("send_suppressed", "Fan speed changes not sent because of the send rate limit.");
+
+	/** 送信回数の制限によらず送信した回数 */
+	public static final EventCounter SEND_EMERGENCY =
+			new EventCounter("send_emergency", "Fan speed changes sent immediately because of a critical or rapidly rising temperature.");
+
+	/** 接続維持用データの送信回数 */
+	public static final EventCounter HEARTBEATS =
+			new EventCounter("heartbeats", "Connection checks sent.");
+
+	/** 接続維持用データの送信失敗回数 */
+	public static final EventCounter HEARTBEAT_FAILURES =
+			new EventCounter("heartbeat_failures", "Connection checks that failed to send.");
+
+	/** Arduinoとの接続が切れた回数 */
+	public static final EventCounter LINK_FAILURES =
+			new EventCounter("link_failures", "Arduino links detected as lost (send error or no data received).");
+
+	/** 接続し直せなかった回数 */
+	public static final EventCounter RECONNECT_FAILURES =
+			new EventCounter("reconnect_failures", "Attempts to reopen a lost Arduino link that failed.");
+
+	/** イベントログの満杯により破棄したイベントの数 */
+	public static final EventCounter LOG_DROPPED =
+			new EventCounter("log_dropped", "Log events dropped because the event log buffer was full.");
+
+	/** 出力数の制限のため出力しなかったイベントの数 */
+	public static final EventCounter LOG_SUPPRESSED =
+			new EventCounter("log_suppressed", "Repeated log events not written because of the rate limit.");
+
+	/** 全ての処理時間 */
+	private static final List<LatencyHistogram> HISTOGRAMS = Collections.unmodifiableList(Arrays.asList(
+			OHM_FETCH, JSON_PARSE, SENSOR_EXTRACTION, HWMON_READ, CURVE_EVALUATION, CONTROL_TICK, SERIAL_WRITE, FRAME_DECODE,
+			COMMAND_ACK, LINK_RECONNECT));
+
+	/** 全てのカウンタ */
+	private static final List<EventCounter> COUNTERS = Collections.unmodifiableList(Arrays.asList(
+			OHM_FETCH_FAILURES, FRAMES_SENT, FRAMES_RECEIVED, SEND_SUPPRESSED, SEND_EMERGENCY, HEARTBEATS,
+			HEARTBEAT_FAILURES, ACK_TIMEOUTS, FRAME_ERRORS, LINK_FAILURES, RECONNECT_FAILURES,
+			LOG_DROPPED, LOG_SUPPRESSED));
+
+	/** JMXへ登録済みか */
+	private static boolean registered = false;
+
+	private Metrics(){
+	}
+
+	/**
+	 * 全ての計測値をJMXのMBeanとして登録します。2回目以降は何もしません。
+	 * 名前は"fancontroller:type=Latency,name=..."および"fancontroller:type=Counter,name=..."です。
+	 * @throws JMException 登録失敗時
+	 */
+	public static synchronized void registerMBeans() throws JMException{
+		if( registered ){
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(LatencyHistogram histogram : HISTOGRAMS){
+			server.registerMBean(histogram, new ObjectName(JMX_DOMAIN + ":type=Latency,name=" + histogram.getName()));
+		}
+		for(EventCounter counter : COUNTERS){
+			server.registerMBean(counter, new ObjectName(JMX_DOMAIN + ":type=Counter,name=" + counter.getName()));
+		}
+
+		registered = true;
+	}
+
+	/**
+	 * 全ての計測値をPrometheusのテキスト形式で出力します。
+	 * 処理時間は秒単位のヒストグラム、回数はカウンタとして出力します。
+	 * @param out 出力先
+	 */
+	public static void writePrometheus(StringBuilder out){
+		for(LatencyHistogram histogram : HISTOGRAMS){
+			String name = PREFIX + histogram.getName() + "_seconds";
+			out.append("# HELP ").append(name).append(' ').append(histogram.getHelp()).append('\n');
+			out.append("# TYPE ").append(name).append(" histogram\n");
+
+			//記録は区間を数えてから計測回数を数えるため、計測回数を先に読めば+Infの回数は_countを下回らない
+			long count = histogram.getCount();
+			long cumulative = 0;
+			for(int i = 0 ; i < LatencyHistogram.BUCKETS - 1 ; i++){
+				cumulative += histogram.getBucket(i);
+				out.append(name).append("_bucket{le=\"")
+					.append(LatencyHistogram.upperBound(i) / 1e9).append("\"} ").append(cumulative).append('\n');
+			}
+			cumulative += histogram.getBucket(LatencyHistogram.BUCKETS - 1);
+			out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+			out.append(name).append("_sum ").append(histogram.getSumNanos() / 1e9).append('\n');
+			out.append(name).append("_count ").append(count).append('\n');
+		}
+
+		for(EventCounter counter : COUNTERS){
+			String name = PREFIX + counter.getName() + "_total";
+			out.append("# HELP ").append(name).append(' ').append(counter.getHelp()).append('\n');
+			out.append("# TYPE ").append(name).append(" counter\n");
+			out.append(name).append(' ').append(counter.getCount()).append('\n');
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package metrics;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import log.EventLog;
+
+/**
+ * 計測値をPrometheusのテキスト形式で返すHTTPサーバです。
+ * ループバックアドレスでのみ待ち受け、"/metrics"へのGETに応答します。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class MetricsServer {
+
+	/** 応答のContent-Type */
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	/** HTTPサーバ */
+	private final HttpServer server;
+
+	/** 応答用スレッド */
+	private final ExecutorService executor;
+
+	/**
+	 * @param port 待ち受けポート
+	 * @throws IOException ポートを開けなかった場合
+	 */
+	public MetricsServer(int port) throws IOException{
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/metrics", new HttpHandler(){
+			@Override
+			public void handle(HttpExchange exchange) throws IOException{
+				respond(exchange);
+			}
+		});
+
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "MetricsServer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * 待ち受けを開始します。
+	 */
+	public void start(){
+		server.start();
+		EventLog.info("MetricsServer", "is started. (http://" + server.getAddress().getHostString()
+				+ ":" + server.getAddress().getPort() + "/metrics)");
+	}
+
+	/**
+	 * 待ち受けを停止します。
+	 */
+	public void stop(){
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 待ち受けているポートを取得します。
+	 * @return ポート
+	 */
+	public int getPort(){
+		return server.getAddress().getPort();
+	}
+
+	private void respond(HttpExchange exchange) throws IOException{
+		try{
+			if( !"GET".equals(exchange.getRequestMethod()) ){
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			StringBuilder text = new StringBuilder(16384);
+			Metrics.writePrometheus(text);
+			byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, body.length);
+			try( OutputStream out = exchange.getResponseBody() ){
+				out.write(body);
+			}
+		}finally{
+			exchange.close();
+		}
+	}
+}
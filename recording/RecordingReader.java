@@ -0,0 +1,248 @@
+package recording;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import device.TemperatureSnapshot;
+
+/**
+ * RecordingWriterで作成した記録ファイルを先頭から順に読み込むクラスです。
+ * next()で1件ずつ読み進め、読み込んだ記録の内容は種類に応じたgetterで取得します。
+ * 記録中に終了したファイルの末尾にある途中までの記録は、ファイルの終わりとして扱います。
+ * このクラスはスレッドセーフではありません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class RecordingReader implements Closeable{
+
+	/** 入力元 */
+	private final DataInputStream in;
+
+	/** 記録開始時刻(System.currentTimeMillis) */
+	private final long startTimestamp;
+
+	/** 記録開始時刻(System.nanoTime) */
+	private final long startNanoTime;
+
+	/** 形式のバージョン */
+	private final short version;
+
+	/** 種類 */
+	private byte type;
+
+	/** 時刻(System.nanoTime) */
+	private long nanoTime;
+
+	/** Arduinoの番号(SERIAL_TX, SERIAL_RX, TICK) */
+	private int device;
+
+	/** データ(CONFIG, OHM_RESPONSE, SERIAL_TX, SERIAL_RX) */
+	private byte[] data;
+
+	/** 温度情報(SNAPSHOT) */
+	private TemperatureSnapshot snapshot;
+
+	/** 使用した温度情報の取得時刻(TICK) */
+	private long snapshotTime;
+
+	/** 現在のファン速度(TICK) */
+	private int[] currentSpeed;
+
+	/** 送信したファン速度(TICK, 送信しない場合null) */
+	private int[] sent;
+
+	/**
+	 * 記録ファイルを開き、ヘッダを確認します。
+	 * @param file 記録ファイル
+	 * @throws IOException 読み込み失敗時や記録ファイルでない場合
+	 */
+	public RecordingReader(Path file) throws IOException{
+		this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+		try{
+			if( in.readInt() != RecordingWriter.MAGIC ){
+				throw new IOException("Not a recording: " + file);
+			}
+			this.version = in.readShort();
+			if( version < 1 || version > RecordingWriter.VERSION ){
+				throw new IOException("Unsupported recording version " + version + ": " + file);
+			}
+			this.startTimestamp = in.readLong();
+			this.startNanoTime = in.readLong();
+		}catch(IOException e){
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 次の記録を読み込みます。
+	 * @return 読み込んだ場合true, ファイルの終わりの場合false
+	 * @throws IOException 読み込み失敗時や不明な種類の記録の場合
+	 */
+	public boolean next() throws IOException{
+		try{
+			int read = in.read();
+			if( read < 0 ){
+				return false;
+			}
+			type = (byte) read;
+			nanoTime = in.readLong();
+
+			switch( type ){
+			case RecordingWriter.CONFIG:
+			case RecordingWriter.OHM_RESPONSE:
+				data = new byte[in.readInt()];
+				in.readFully(data);
+				break;
+
+			case RecordingWriter.SNAPSHOT:
+				long timestamp = in.readLong();
+				double cpuPackage = in.readDouble();
+				double gpu = in.readDouble();
+				double[] cores = new double[in.readUnsignedByte()];
+				for(int i = 0 ; i < cores.length ; i++){
+					cores[i] = in.readDouble();
+				}
+				if( version >= 2 ){
+					int[] offsets = new int[in.readUnsignedByte() + 1];
+					double[] sensors = new double[0];
+					for(int p = 1 ; p < offsets.length ; p++){
+						int count = in.readUnsignedShort();
+						offsets[p] = offsets[p - 1] + count;
+						sensors = Arrays.copyOf(sensors, offsets[p]);
+						for(int i = offsets[p - 1] ; i < offsets[p] ; i++){
+							sensors[i] = in.readDouble();
+						}
+					}
+					snapshot = new TemperatureSnapshot(timestamp, nanoTime, cores, cpuPackage, gpu, sensors, offsets);
+				} else {
+					snapshot = new TemperatureSnapshot(timestamp, nanoTime, cores, cpuPackage, gpu);
+				}
+				break;
+
+			case RecordingWriter.SERIAL_TX:
+			case RecordingWriter.SERIAL_RX:
+				device = in.readUnsignedByte();
+				data = new byte[in.readUnsignedShort()];
+				in.readFully(data);
+				break;
+
+			case RecordingWriter.TICK:
+				device = in.readUnsignedByte();
+				snapshotTime = in.readLong();
+				currentSpeed = readSpeeds();
+				sent = readSpeeds();
+				if( sent.length == 0 ){
+					sent = null;
+				}
+				break;
+
+			default:
+				throw new IOException("Unknown record type " + type);
+			}
+			return true;
+		}catch(EOFException e){
+			//記録中に終了した場合の末尾
+			return false;
+		}
+	}
+
+	private int[] readSpeeds() throws IOException{
+		int[] speeds = new int[in.readUnsignedByte()];
+		for(int i = 0 ; i < speeds.length ; i++){
+			speeds[i] = in.readUnsignedByte();
+		}
+		return speeds;
+	}
+
+	/**
+	 * 記録開始時刻を取得します。
+	 * @return 記録開始時刻(System.currentTimeMillis)
+	 */
+	public long getStartTimestamp(){
+		return startTimestamp;
+	}
+
+	/**
+	 * 記録開始時刻を取得します。
+	 * @return 記録開始時刻(System.nanoTime)
+	 */
+	public long getStartNanoTime(){
+		return startNanoTime;
+	}
+
+	/**
+	 * 記録の種類を取得します。
+	 * @return RecordingWriterの種類の定数
+	 */
+	public byte getType(){
+		return type;
+	}
+
+	/**
+	 * 記録の時刻を取得します。
+	 * @return 時刻(System.nanoTime)
+	 */
+	public long getNanoTime(){
+		return nanoTime;
+	}
+
+	/**
+	 * Arduinoの番号を取得します(SERIAL_TX, SERIAL_RX, TICK)。
+	 * @return Arduinoの番号
+	 */
+	public int getDevice(){
+		return device;
+	}
+
+	/**
+	 * データを取得します(CONFIG, OHM_RESPONSE, SERIAL_TX, SERIAL_RX)。
+	 * @return データ
+	 */
+	public byte[] getData(){
+		return data;
+	}
+
+	/**
+	 * 温度情報を取得します(SNAPSHOT)。
+	 * @return フィルタ適用前の温度情報
+	 */
+	public TemperatureSnapshot getSnapshot(){
+		return snapshot;
+	}
+
+	/**
+	 * 判定に使用した温度情報の取得時刻を取得します(TICK)。
+	 * @return 取得時刻(System.nanoTime), 未取得の場合RecordingWriter.NO_SNAPSHOT
+	 */
+	public long getSnapshotTime(){
+		return snapshotTime;
+	}
+
+	/**
+	 * 現在のファン速度を取得します(TICK)。
+	 * @return 現在のファン速度
+	 */
+	public int[] getCurrentSpeed(){
+		return currentSpeed;
+	}
+
+	/**
+	 * 送信したファン速度を取得します(TICK)。
+	 * @return 送信したファン速度, 送信しなかった場合null
+	 */
+	public int[] getSent(){
+		return sent;
+	}
+
+	@Override
+	public void close() throws IOException{
+		in.close();
+	}
+}
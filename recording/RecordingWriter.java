@@ -0,0 +1,289 @@
+package recording;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import device.TemperatureSnapshot;
+import log.EventLog;
+
+/**
+ * 制御の入出力を記録ファイルに追記するクラスです。
+ * 設定ファイルの内容、OpenHardwareMonitorの応答、取得した温度情報、Arduinoとの送受信データ、
+ * 制御周期ごとの判定の入力と結果を、取得時刻(System.nanoTime)付きで記録します。
+ *
+ * 記録ファイルの形式(ビッグエンディアン)
+ * <pre>
+ * ヘッダ : int MAGIC, short VERSION, long 記録開始時刻(ms), long 記録開始時刻(System.nanoTime)
+ * 記録   : byte 種類, long 時刻(System.nanoTime), 種類ごとの内容
+ *   CONFIG       : int 長さ, 設定ファイルの内容
+ *   OHM_RESPONSE : int 長さ, 応答の本文
+ *   SNAPSHOT     : long 取得時刻(ms), double CPUパッケージ温度, double GPU温度, byte コア数, double コア温度 × コア数,
+ *                  unsigned byte パターン数, (unsigned short センサー数, double 値 × センサー数) × パターン数
+ *                  時刻は温度情報の取得時刻です。パターン以降はバージョン2以降のみです
+ *   SERIAL_TX/RX : byte Arduinoの番号, unsigned short 長さ, データ
+ *   TICK         : byte Arduinoの番号, long 使用した温度情報の取得時刻(未取得の場合Long.MIN_VALUE),
+ *                  unsigned byte ファン数, unsigned byte 現在のファン速度 × ファン数, unsigned byte 送信数(送信しない場合0), unsigned byte 送信したファン速度 × 送信数
+ * </pre>
+ * 書き込みはバッファリングし、一定間隔と終了時にのみフラッシュします。
+ * 書き込みに失敗した場合は記録を停止し、制御には影響させません。
+ * 複数のスレッドから呼び出せます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class RecordingWriter implements Closeable{
+
+	/** ファイル識別子("FCRL") */
+	public static final int MAGIC = 0x4643524C;
+
+	/** 形式のバージョン(1:センサー式のパターンの値なし, 2:あり) */
+	public static final short VERSION = 2;
+
+	/** 種類:設定ファイルの内容 */
+	public static final byte CONFIG = 1;
+
+	/** 種類:OpenHardwareMonitorの応答 */
+	public static final byte OHM_RESPONSE = 2;
+
+	/** 種類:取得した温度情報(フィルタ適用前) */
+	public static final byte SNAPSHOT = 3;
+
+	/** 種類:Arduinoへの送信データ */
+	public static final byte SERIAL_TX = 4;
+
+	/** 種類:Arduinoからの受信データ */
+	public static final byte SERIAL_RX = 5;
+
+	/** 種類:制御周期の判定 */
+	public static final byte TICK = 6;
+
+	/** 温度情報なしを表す時刻 */
+	public static final long NO_SNAPSHOT = Long.MIN_VALUE;
+
+	/** 記録ファイルの拡張子 */
+	public static final String EXTENSION = ".fcr";
+
+	/** 送受信データ1件の最大長 */
+	private static final int MAX_SERIAL_LENGTH = 0xFFFF;
+
+	/** フラッシュ間隔(ns) */
+	private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	/** 出力先 */
+	private final DataOutputStream out;
+
+	/** 記録ファイル */
+	private final Path file;
+
+	/** 最後にフラッシュした時刻(System.nanoTime) */
+	private long lastFlush;
+
+	/** 記録を停止したか */
+	private boolean closed = false;
+
+	/**
+	 * 記録ファイルを作成し、ヘッダを書き込みます。
+	 * @param file 記録ファイル(既存の場合は上書き)
+	 * @throws IOException 作成失敗時
+	 */
+	public RecordingWriter(Path file) throws IOException{
+		this.file = file;
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+		this.lastFlush = System.nanoTime();
+
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeLong(System.currentTimeMillis());
+		out.writeLong(lastFlush);
+		out.flush();
+	}
+
+	/**
+	 * ディレクトリに現在時刻の名前で記録ファイルを作成します。
+	 * @param directory 記録先ディレクトリ(存在しない場合は作成)
+	 * @return 記録
+	 * @throws IOException 作成失敗時
+	 */
+	public static RecordingWriter create(Path directory) throws IOException{
+		Files.createDirectories(directory);
+		String name = "recording-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + EXTENSION;
+		return new RecordingWriter(directory.resolve(name));
+	}
+
+	/**
+	 * 設定ファイルの内容を記録します。
+	 * @param content 設定ファイルの内容
+	 */
+	public synchronized void config(byte[] content){
+		if( begin(CONFIG, System.nanoTime()) ){
+			try{
+				out.writeInt(content.length);
+				out.write(content);
+			}catch(IOException e){
+				fail(e);
+			}
+		}
+	}
+
+	/**
+	 * OpenHardwareMonitorの応答を記録します。
+	 * @param body 応答の本文
+	 */
+	public synchronized void ohmResponse(byte[] body){
+		if( begin(OHM_RESPONSE, System.nanoTime()) ){
+			try{
+				out.writeInt(body.length);
+				out.write(body);
+			}catch(IOException e){
+				fail(e);
+			}
+		}
+	}
+
+	/**
+	 * 取得した温度情報を記録します。
+	 * @param snapshot フィルタ適用前の温度情報
+	 */
+	public synchronized void snapshot(TemperatureSnapshot snapshot){
+		if( begin(SNAPSHOT, snapshot.getNanoTime()) ){
+			try{
+				out.writeLong(snapshot.getTimestamp());
+				out.writeDouble(snapshot.getCpuPackage());
+				out.writeDouble(snapshot.getGpu());
+				out.writeByte(snapshot.getCpuCoreCount());
+				for(int i = 0 ; i < snapshot.getCpuCoreCount() ; i++){
+					out.writeDouble(snapshot.getCpuCore(i));
+				}
+				out.writeByte(snapshot.getSensorPatternCount());
+				for(int p = 0 ; p < snapshot.getSensorPatternCount() ; p++){
+					out.writeShort(snapshot.getSensorCount(p));
+					for(int i = 0 ; i < snapshot.getSensorCount(p) ; i++){
+						out.writeDouble(snapshot.getSensor(p, i));
+					}
+				}
+			}catch(IOException e){
+				fail(e);
+			}
+		}
+	}
+
+	/**
+	 * Arduinoとの送受信データを記録します。
+	 * @param device Arduinoの番号
+	 * @param transmit 送信の場合true, 受信の場合false
+	 * @param data データ
+	 * @param offset 開始位置
+	 * @param length 長さ
+	 */
+	public synchronized void serial(int device, boolean transmit, byte[] data, int offset, int length){
+		long now = System.nanoTime();
+		//長さの上限を超える場合は分けて記録する
+		for(int position = offset ; position < offset + length ; position += MAX_SERIAL_LENGTH){
+			int chunk = Math.min(MAX_SERIAL_LENGTH, offset + length - position);
+			if( !begin(transmit ? SERIAL_TX : SERIAL_RX, now) ){
+				return;
+			}
+			try{
+				out.writeByte(device);
+				out.writeShort(chunk);
+				out.write(data, position, chunk);
+			}catch(IOException e){
+				fail(e);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 制御周期の判定を記録します。
+	 * 記録の遅れを抑えるため、前回から一定時間経過していればフラッシュします。
+	 * @param device Arduinoの番号
+	 * @param now 判定時刻(System.nanoTime)
+	 * @param temperature 判定に使用した温度情報(未取得の場合null)
+	 * @param currentSpeed 現在のファン速度
+	 * @param sent 送信したファン速度(送信しない場合null)
+	 */
+	public synchronized void tick(int device, long now, TemperatureSnapshot temperature, int[] currentSpeed, int[] sent){
+		if( begin(TICK, now) ){
+			try{
+				out.writeByte(device);
+				out.writeLong(temperature != null ? temperature.getNanoTime() : NO_SNAPSHOT);
+				out.writeByte(currentSpeed.length);
+				for(int speed : currentSpeed){
+					out.writeByte(speed);
+				}
+				out.writeByte(sent != null ? sent.length : 0);
+				if( sent != null ){
+					for(int speed : sent){
+						out.writeByte(speed);
+					}
+				}
+
+				if( now - lastFlush >= FLUSH_INTERVAL ){
+					out.flush();
+					lastFlush = now;
+				}
+			}catch(IOException e){
+				fail(e);
+			}
+		}
+	}
+
+	/**
+	 * 記録ファイルを取得します。
+	 * @return 記録ファイル
+	 */
+	public Path getFile(){
+		return file;
+	}
+
+	/**
+	 * 記録を終了し、ファイルを閉じます。
+	 */
+	@Override
+	public synchronized void close(){
+		if( !closed ){
+			closed = true;
+			try{
+				out.close();
+			}catch(IOException e){
+				EventLog.warn("RecordingWriter", "could not close " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * 記録の共通部分を書き込みます。
+	 * @return 記録を続ける場合true
+	 */
+	private boolean begin(byte type, long nanoTime){
+		if( closed ){
+			return false;
+		}
+		try{
+			out.writeByte(type);
+			out.writeLong(nanoTime);
+			return true;
+		}catch(IOException e){
+			fail(e);
+			return false;
+		}
+	}
+
+	/** 書き込みに失敗した記録を停止します */
+	private void fail(IOException e){
+		EventLog.error("RecordingWriter", "recording to " + file + " is stopped", e);
+		closed = true;
+		try{
+			out.close();
+		}catch(IOException ignore){
+			//既に書き込めない
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package gnu.io;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 通信ポートです。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public abstract class CommPort {
+
+	/** ポート名 */
+	protected String name;
+
+	/**
+	 * ポート名を取得します。
+	 * @return ポート名
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * 受信ストリームを取得します。
+	 * @return 受信ストリーム
+	 * @throws IOException 取得失敗時
+	 */
+	public abstract InputStream getInputStream() throws IOException;
+
+	/**
+	 * 送信ストリームを取得します。
+	 * @return 送信ストリーム
+	 * @throws IOException 取得失敗時
+	 */
+	public abstract OutputStream getOutputStream() throws IOException;
+
+	/**
+	 * ポートを閉じます。
+	 */
+	public void close(){
+	}
+}
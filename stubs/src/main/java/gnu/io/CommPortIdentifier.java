@@ -0,0 +1,36 @@
+package gnu.io;
+
+/**
+ * 通信ポートの識別子です。スタブには通信ポートが存在しないため、常にNoSuchPortExceptionになります。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class CommPortIdentifier {
+
+	private CommPortIdentifier(){
+	}
+
+	/**
+	 * ポート名から識別子を取得します。
+	 * @param portName ポート名
+	 * @return 識別子
+	 * @throws NoSuchPortException 常に(スタブには通信ポートが存在しない)
+	 */
+	public static CommPortIdentifier getPortIdentifier(String portName) throws NoSuchPortException{
+		throw new NoSuchPortException("No serial port in the RXTX stub: " + portName);
+	}
+
+	/**
+	 * ポートを開きます。
+	 * @param appName アプリケーション名
+	 * @param timeout 待ち時間(ms)
+	 * @return ポート
+	 * @throws PortInUseException 使用中の場合
+	 */
+	public CommPort open(String appName, int timeout) throws PortInUseException{
+		throw new PortInUseException();
+	}
+}
@@ -0,0 +1,22 @@
+package gnu.io;
+
+/**
+ * ポートが存在しない場合の例外です。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class NoSuchPortException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public NoSuchPortException(){
+		super();
+	}
+
+	public NoSuchPortException(String message){
+		super(message);
+	}
+}
@@ -0,0 +1,21 @@
+package gnu.io;
+
+/**
+ * ポートが使用中の場合の例外です。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class PortInUseException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/** ポートを使用中のアプリケーション名 */
+	public String currentOwner;
+
+	public PortInUseException(){
+		super();
+	}
+}
@@ -0,0 +1,51 @@
+package gnu.io;
+import java.util.TooManyListenersException;
+
+/**
+ * シリアルポートです。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public abstract class SerialPort extends CommPort {
+
+	/** データビット:8 */
+	public static final int DATABITS_8 = 8;
+
+	/** ストップビット:1 */
+	public static final int STOPBITS_1 = 1;
+
+	/** パリティ:なし */
+	public static final int PARITY_NONE = 0;
+
+	/**
+	 * 通信パラメータを設定します。
+	 * @param baudrate 通信レート
+	 * @param dataBits データビット
+	 * @param stopBits ストップビット
+	 * @param parity パリティ
+	 * @throws UnsupportedCommOperationException 対応していない設定の場合
+	 */
+	public abstract void setSerialPortParams(int baudrate, int dataBits, int stopBits, int parity)
+			throws UnsupportedCommOperationException;
+
+	/**
+	 * イベントの通知先を登録します。
+	 * @param listener 通知先
+	 * @throws TooManyListenersException 登録済みの場合
+	 */
+	public abstract void addEventListener(SerialPortEventListener listener) throws TooManyListenersException;
+
+	/**
+	 * イベントの通知先の登録を解除します。
+	 */
+	public abstract void removeEventListener();
+
+	/**
+	 * データ到着を通知するか設定します。
+	 * @param enable 通知する場合true
+	 */
+	public abstract void notifyOnDataAvailable(boolean enable);
+}
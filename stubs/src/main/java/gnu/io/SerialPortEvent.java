@@ -0,0 +1,40 @@
+package gnu.io;
+import java.util.EventObject;
+
+/**
+ * シリアルポートのイベントです。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class SerialPortEvent extends EventObject {
+
+	private static final long serialVersionUID = 1L;
+
+	/** イベント種別:データ到着 */
+	public static final int DATA_AVAILABLE = 1;
+
+	/** イベント種別 */
+	private final int eventType;
+
+	/**
+	 * @param source 発生元のポート
+	 * @param eventType イベント種別
+	 * @param oldValue 変化前の値
+	 * @param newValue 変化後の値
+	 */
+	public SerialPortEvent(SerialPort source, int eventType, boolean oldValue, boolean newValue){
+		super(source);
+		this.eventType = eventType;
+	}
+
+	/**
+	 * イベント種別を取得します。
+	 * @return イベント種別
+	 */
+	public int getEventType(){
+		return eventType;
+	}
+}
@@ -0,0 +1,19 @@
+package gnu.io;
+import java.util.EventListener;
+
+/**
+ * シリアルポートのイベントの通知先です。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public interface SerialPortEventListener extends EventListener {
+
+	/**
+	 * イベントを通知します。
+	 * @param event イベント
+	 */
+	void serialEvent(SerialPortEvent event);
+}
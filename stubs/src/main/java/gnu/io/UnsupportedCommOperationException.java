@@ -0,0 +1,22 @@
+package gnu.io;
+
+/**
+ * ポートの設定に対応していない場合の例外です。
+ * RXTXのAPIのスタブです。ビルドとネイティブライブラリなしでの実行にのみ使用し、
+ * 実機で使用する場合はRXTXcomm.jarに置き換えます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class UnsupportedCommOperationException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public UnsupportedCommOperationException(){
+		super();
+	}
+
+	public UnsupportedCommOperationException(String message){
+		super(message);
+	}
+}
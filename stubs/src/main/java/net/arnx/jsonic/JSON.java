@@ -0,0 +1,35 @@
+package net.arnx.jsonic;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JSONICのAPIのスタブです。ビルドとテストにのみ使用し、
+ * JSONICで全体をデコードする解析モード(OpenHardwareMonitorParseMode=tree)で実行する場合はjsonic.jarに置き換えます。
+ * ストリーム解析(既定)はJSONICを使用しません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class JSON {
+
+	/**
+	 * JSON文字列をデコードします。
+	 * @param source JSON文字列
+	 * @return デコード結果
+	 * @throws UnsupportedOperationException 常に(スタブはデコードしない)
+	 */
+	public static <T> T decode(String source){
+		throw new UnsupportedOperationException("JSONIC stub: put jsonic.jar on the classpath to use the tree parse mode.");
+	}
+
+	/**
+	 * JSONをストリームから読み込んでデコードします。
+	 * @param source 入力元
+	 * @return デコード結果
+	 * @throws IOException 読み込み失敗時
+	 * @throws UnsupportedOperationException 常に(スタブはデコードしない)
+	 */
+	public static <T> T decode(InputStream source) throws IOException{
+		throw new UnsupportedOperationException("JSONIC stub: put jsonic.jar on the classpath to use the tree parse mode.");
+	}
+}
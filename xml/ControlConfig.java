@@ -0,0 +1,171 @@
+package xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 制御に使用する設定一式です。
+ * 設定ファイルの読み込み結果から作成し、生成後は変更されません。
+ * 制御スレッドは周期ごとに最新のインスタンスを参照するため、
+ * 設定の再読み込みは新しいインスタンスへの差し替えだけで反映されます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class ControlConfig {
+
+	/** Arduinoごとの設定 */
+	private final List<DeviceConfig> devices;
+
+	/** 緊急送信する温度(℃) */
+	private final int criticalTemperature;
+
+	/** 緊急送信する温度上昇率(℃/秒,0:判定しない) */
+	private final int emergencyRiseRate;
+
+	/** 連続して送信できる回数 */
+	private final int sendBurst;
+
+	/** 送信回数の回復間隔(ns,0:制限しない) */
+	private final long sendTokenInterval;
+
+	/** CPU温度のフィルタ */
+	private final String cpuFilter;
+
+	/** GPU温度のフィルタ */
+	private final String gpuFilter;
+
+	/** センサー式で使用するセンサーのフィルタ */
+	private final String sensorFilter;
+
+	/** センサー式のパターン(番号順) */
+	private final List<String> sensorPatterns;
+
+	private ControlConfig(List<DeviceConfig> devices, Settings setting){
+		this.devices = devices;
+		this.criticalTemperature = setting.getCriticalTemperature();
+		this.emergencyRiseRate = setting.getEmergencyRiseRate();
+		this.sendBurst = setting.getSendBurst();
+		this.sendTokenInterval = TimeUnit.SECONDS.toNanos(setting.getSendTokenInterval());
+		this.cpuFilter = setting.getCpuFilter();
+		this.gpuFilter = setting.getGpuFilter();
+		this.sensorFilter = setting.getSensorFilter();
+		this.sensorPatterns = Collections.unmodifiableList(new ArrayList<String>(setting.getSensorPatterns()));
+	}
+
+	/**
+	 * 設定から制御用設定を作成します。
+	 * @param setting 設定
+	 * @return 制御用設定
+	 */
+	public static ControlConfig compile(Settings setting){
+		ArrayList<DeviceConfig> devices = new ArrayList<DeviceConfig>();
+		for(DeviceSettings device : setting.getDevices()){
+			devices.add(new DeviceConfig(device));
+		}
+		return new ControlConfig(Collections.unmodifiableList(devices), setting);
+	}
+
+	/**
+	 * Arduinoの台数を取得します。
+	 * @return Arduinoの台数
+	 */
+	public int getDeviceCount(){
+		return devices.size();
+	}
+
+	/**
+	 * Arduino1台分の設定を取得します。
+	 * @param index Arduinoの番号(0から)
+	 * @return Arduino1台分の設定
+	 */
+	public DeviceConfig getDevice(int index){
+		return devices.get(index);
+	}
+
+	/**
+	 * 緊急送信する温度を取得します。
+	 * @return 緊急送信する温度(℃)
+	 */
+	public int getCriticalTemperature(){
+		return criticalTemperature;
+	}
+
+	/**
+	 * 緊急送信する温度上昇率を取得します。
+	 * @return 緊急送信する温度上昇率(℃/秒,0:判定しない)
+	 */
+	public int getEmergencyRiseRate(){
+		return emergencyRiseRate;
+	}
+
+	/**
+	 * 連続して送信できる回数を取得します。
+	 * @return 連続して送信できる回数
+	 */
+	public int getSendBurst(){
+		return sendBurst;
+	}
+
+	/**
+	 * 送信回数の回復間隔を取得します。
+	 * @return 送信回数の回復間隔(ns,0:制限しない)
+	 */
+	public long getSendTokenInterval(){
+		return sendTokenInterval;
+	}
+
+	/**
+	 * CPU温度(パッケージ,コア)のフィルタを取得します。
+	 * @return フィルタの設定文字列(空文字:フィルタなし)
+	 */
+	public String getCpuFilter(){
+		return cpuFilter;
+	}
+
+	/**
+	 * GPU温度のフィルタを取得します。
+	 * @return フィルタの設定文字列(空文字:フィルタなし)
+	 */
+	public String getGpuFilter(){
+		return gpuFilter;
+	}
+
+	/**
+	 * センサー式で使用するセンサー(sensor(), sensors())のフィルタを取得します。
+	 * cpu, gpuにはCPU温度,GPU温度のフィルタが適用されます。
+	 * @return フィルタの設定文字列(空文字:フィルタなし)
+	 */
+	public String getSensorFilter(){
+		return sensorFilter;
+	}
+
+	/**
+	 * センサー式のパターンを取得します。温度の取得元は起動時のパターンの値を取得します。
+	 * @return センサー式のパターン(番号順)
+	 */
+	public List<String> getSensorPatterns(){
+		return sensorPatterns;
+	}
+
+	/**
+	 * 接続を開き直さずに置き換えられるか判定します。
+	 * Arduinoの台数・順序・COMポート名・ファン数の変更は再起動が必要です。
+	 * 温度の取得元はパターンを起動時に決定するため、センサー式のパターンの変更も再起動が必要です。
+	 * @param other 置き換える設定
+	 * @return 置き換えられる場合true
+	 */
+	public boolean isCompatible(ControlConfig other){
+		if( devices.size() != other.devices.size() || !sensorPatterns.equals(other.sensorPatterns) ){
+			return false;
+		}
+		for(int i = 0 ; i < devices.size() ; i++){
+			if( !devices.get(i).isCompatible(other.devices.get(i)) ){
+				return false;
+			}
+		}
+		return true;
+	}
+}
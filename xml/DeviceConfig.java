@@ -0,0 +1,181 @@
+package xml;
+
+import expression.SensorProgram;
+
+/**
+ * Arduino1台分の制御用設定です。
+ * 設定値から作成した変換表を保持し、生成後は変更されません。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class DeviceConfig {
+
+	/** COMポート名 */
+	private final String comPort;
+
+	/** ファン速度変換表 */
+	private final FanCurve[] fanCurves;
+
+	/** デフォルトのファン速度 */
+	private final int[] defaultFanSpeed;
+
+	/** ファン速度を下げる際のヒステリシス幅(℃) */
+	private final int[] hysteresis;
+
+	/** 制御方式 */
+	private final int[] controlMode;
+
+	/** PID制御の目標温度(℃) */
+	private final int[] pidTarget;
+
+	/** PID制御のゲイン[ファン][比例,積分,微分] */
+	private final double[][] pidGains;
+
+	/** 制御に使用する温度の式 */
+	private final SensorProgram[] sensorPrograms;
+
+	/** 式の評価に必要なスタックの深さ(全ファンの最大) */
+	private final int stackDepth;
+
+	/**
+	 * @param device Arduino1台分の設定
+	 */
+	DeviceConfig(DeviceSettings device){
+		this.comPort = device.getComPort();
+		this.fanCurves = device.getFanCurves().clone();
+		this.defaultFanSpeed = device.getDefaultFanSpeed().clone();
+		this.hysteresis = device.getHysteresis().clone();
+		this.controlMode = device.getControlMode().clone();
+		this.pidTarget = device.getPidTarget().clone();
+		this.pidGains = new double[pidTarget.length][];
+		for(int i = 0 ; i < pidGains.length ; i++){
+			pidGains[i] = device.getPidGains()[i].clone();
+		}
+		this.sensorPrograms = device.getSensorPrograms().clone();
+		int depth = 0;
+		for(SensorProgram program : sensorPrograms){
+			depth = Math.max(depth, program.getStackDepth());
+		}
+		this.stackDepth = depth;
+	}
+
+	/**
+	 * COMポート名を取得します。
+	 * @return COMポート名
+	 */
+	public String getComPort(){
+		return comPort;
+	}
+
+	/**
+	 * ファン数を取得します。
+	 * @return ファン数
+	 */
+	public int getFanCount(){
+		return fanCurves.length;
+	}
+
+	/**
+	 * 温度に対応するファン速度を取得します。
+	 * @param fan ファン番号(0から)
+	 * @param temperature 温度(切り上げ済みの整数)
+	 * @return ファン速度(0-127)
+	 */
+	public int speedAt(int fan, int temperature){
+		return fanCurves[fan].speedAt(temperature);
+	}
+
+	/**
+	 * 現在のファン速度を考慮して目標のファン速度を取得します。
+	 * 速度を下げる場合はヒステリシス幅を超えて温度が下がるまで現在の速度を維持します。
+	 * @param fan ファン番号(0から)
+	 * @param temperature 温度(切り上げ済みの整数)
+	 * @param current 現在のファン速度
+	 * @return ファン速度(0-127)
+	 */
+	public int speedAt(int fan, int temperature, int current){
+		return fanCurves[fan].speedAt(temperature, current, hysteresis[fan]);
+	}
+
+	/**
+	 * ファン速度変換表を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return ファン速度変換表
+	 */
+	public FanCurve getFanCurve(int fan){
+		return fanCurves[fan];
+	}
+
+	/**
+	 * ファン速度を下げる際のヒステリシス幅を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return ヒステリシス幅(℃)
+	 */
+	public int getHysteresis(int fan){
+		return hysteresis[fan];
+	}
+
+	/**
+	 * デフォルトのファン速度を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return デフォルトのファン速度
+	 */
+	public int getDefaultFanSpeed(int fan){
+		return defaultFanSpeed[fan];
+	}
+
+	/**
+	 * 制御方式を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return 制御方式(DeviceSettings.CONTROL_CURVE,DeviceSettings.CONTROL_PID)
+	 */
+	public int getControlMode(int fan){
+		return controlMode[fan];
+	}
+
+	/**
+	 * PID制御の目標温度を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return 目標温度(℃)
+	 */
+	public int getPidTarget(int fan){
+		return pidTarget[fan];
+	}
+
+	/**
+	 * PID制御のゲインを取得します。
+	 * @param fan ファン番号(0から)
+	 * @param term 0:比例, 1:積分, 2:微分
+	 * @return ゲイン(ファン速度/℃, ファン速度/℃秒, ファン速度/(℃/秒))
+	 */
+	public double getPidGain(int fan, int term){
+		return pidGains[fan][term];
+	}
+
+	/**
+	 * 制御に使用する温度の式を取得します。
+	 * @param fan ファン番号(0から)
+	 * @return 制御に使用する温度の式
+	 */
+	public SensorProgram getSensorProgram(int fan){
+		return sensorPrograms[fan];
+	}
+
+	/**
+	 * 全ファンの式の評価に必要なスタックの深さを取得します。
+	 * @return スタックの深さ
+	 */
+	public int getStackDepth(){
+		return stackDepth;
+	}
+
+	/**
+	 * 接続を開き直さずに置き換えられるか判定します。
+	 * @param other 置き換える設定
+	 * @return COMポート名とファン数が同じ場合true
+	 */
+	public boolean isCompatible(DeviceConfig other){
+		return comPort.equals(other.comPort) && fanCurves.length == other.fanCurves.length;
+	}
+}
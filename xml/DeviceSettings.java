@@ -0,0 +1,246 @@
+package xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import expression.SensorExpression;
+import expression.SensorProgram;
+
+/**
+ * Arduino1台分の設定です。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public class DeviceSettings {
+
+	/** デフォルトのファン数 */
+	public static final int DEFAULT_FAN_COUNT = 4;
+
+	/** デフォルトのヒステリシス幅(℃) */
+	public static final int DEFAULT_HYSTERESIS = 3;
+
+	/** 制御方式:ファン速度変換表 */
+	public static final int CONTROL_CURVE = 0;
+
+	/** 制御方式:PID制御 */
+	public static final int CONTROL_PID = 1;
+
+	/** デフォルトのPID制御の目標温度(℃) */
+	public static final int DEFAULT_PID_TARGET = 65;
+
+	/** デフォルトのPID制御のゲイン(比例,積分,微分) */
+	private static final double[] DEFAULT_PID_GAINS = {4, 0.05, 10};
+
+	/** COMポート名 */
+	private String comPort = "COM3";
+
+	/** ファン数 */
+	private int fanCount;
+
+	/** デフォルトのファン速度 */
+	private int[] defaultFanSpeed;
+
+	/** ファン速度設定値 */
+	private ArrayList<SortedMap<Integer, Integer>> fanSpeedSettings = new ArrayList<SortedMap<Integer, Integer>>();
+
+	/** ファン速度変換表 */
+	private FanCurve[] fanCurves;
+
+	/** ファン速度を下げる際のヒステリシス幅(℃) */
+	private int[] hysteresis;
+
+	/** 制御方式 */
+	private int[] controlMode;
+
+	/** PID制御の目標温度(℃) */
+	private int[] pidTarget;
+
+	/** PID制御のゲイン[ファン][比例,積分,微分] */
+	private double[][] pidGains;
+
+	/** 制御に使用する温度の式 */
+	private SensorProgram[] sensorPrograms;
+
+	protected DeviceSettings(int fanCount){
+		this.fanCount = fanCount;
+		this.defaultFanSpeed = new int[fanCount];
+		this.fanCurves = new FanCurve[fanCount];
+		this.hysteresis = new int[fanCount];
+		Arrays.fill(defaultFanSpeed, 80);
+		Arrays.fill(hysteresis, DEFAULT_HYSTERESIS);
+		this.controlMode = new int[fanCount];
+		this.pidTarget = new int[fanCount];
+		this.pidGains = new double[fanCount][];
+		Arrays.fill(pidTarget, DEFAULT_PID_TARGET);
+		for(int i = 0 ; i < fanCount ; i++){
+			pidGains[i] = DEFAULT_PID_GAINS.clone();
+		}
+		this.sensorPrograms = new SensorProgram[fanCount];
+		Arrays.fill(sensorPrograms, SensorExpression.compile(SensorExpression.DEFAULT, Collections.<String>emptyList()));
+
+		//デフォルト設定
+		TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+		map.put(0, 60);
+
+		for(int i = 0 ; i < fanCount ; i++){
+			fanSpeedSettings.add(map);
+			fanCurves[i] = FanCurve.compile(map, false);
+		}
+	}
+
+	/**
+	 * COMポート名を取得します。
+	 * @return COMポート名
+	 */
+	public String getComPort() {
+	    return comPort;
+	}
+
+	/**
+	 * COMポート名を設定します。
+	 * @param comPort COMポート名
+	 */
+	public void setComPort(String comPort) {
+	    this.comPort = comPort;
+	}
+
+	/**
+	 * ファン数を取得します。
+	 * @return ファン数
+	 */
+	public int getFanCount() {
+	    return fanCount;
+	}
+
+	/**
+	 * デフォルトのファン速度を取得します。
+	 * @return デフォルトのファン速度
+	 */
+	public int[] getDefaultFanSpeed() {
+	    return defaultFanSpeed;
+	}
+
+	/**
+	 * デフォルトのファン速度を設定します。
+	 * @param defaultFanSpeed デフォルトのファン速度
+	 */
+	public void setDefaultFanSpeed(int[] defaultFanSpeed) {
+	    this.defaultFanSpeed = defaultFanSpeed;
+	}
+
+	/**
+	 * ファン速度設定値を取得します。
+	 * @return ファン速度設定値
+	 */
+	public ArrayList<SortedMap<Integer,Integer>> getFanSpeedSettings() {
+	    return fanSpeedSettings;
+	}
+
+	/**
+	 * ファン速度設定値を設定します。
+	 * @param fanSpeedSettings ファン速度設定値
+	 */
+	public void setFanSpeedSettings(ArrayList<SortedMap<Integer,Integer>> fanSpeedSettings) {
+	    this.fanSpeedSettings = fanSpeedSettings;
+	}
+
+	/**
+	 * ファン速度変換表を取得します。
+	 * @return ファン速度変換表
+	 */
+	public FanCurve[] getFanCurves() {
+	    return fanCurves;
+	}
+
+	/**
+	 * ファン速度変換表を設定します。
+	 * @param fanCurves ファン速度変換表
+	 */
+	public void setFanCurves(FanCurve[] fanCurves) {
+	    this.fanCurves = fanCurves;
+	}
+
+	/**
+	 * ファン速度を下げる際のヒステリシス幅を取得します。
+	 * @return ヒステリシス幅(℃)
+	 */
+	public int[] getHysteresis() {
+	    return hysteresis;
+	}
+
+	/**
+	 * ファン速度を下げる際のヒステリシス幅を設定します。
+	 * @param hysteresis ヒステリシス幅(℃)
+	 */
+	public void setHysteresis(int[] hysteresis) {
+	    this.hysteresis = hysteresis;
+	}
+
+	/**
+	 * 制御方式を取得します。
+	 * @return 制御方式(CONTROL_CURVE,CONTROL_PID)
+	 */
+	public int[] getControlMode() {
+	    return controlMode;
+	}
+
+	/**
+	 * 制御方式を設定します。
+	 * @param controlMode 制御方式(CONTROL_CURVE,CONTROL_PID)
+	 */
+	public void setControlMode(int[] controlMode) {
+	    this.controlMode = controlMode;
+	}
+
+	/**
+	 * PID制御の目標温度を取得します。
+	 * @return PID制御の目標温度(℃)
+	 */
+	public int[] getPidTarget() {
+	    return pidTarget;
+	}
+
+	/**
+	 * PID制御の目標温度を設定します。
+	 * @param pidTarget PID制御の目標温度(℃)
+	 */
+	public void setPidTarget(int[] pidTarget) {
+	    this.pidTarget = pidTarget;
+	}
+
+	/**
+	 * PID制御のゲインを取得します。
+	 * @return PID制御のゲイン[ファン][比例,積分,微分]
+	 */
+	public double[][] getPidGains() {
+	    return pidGains;
+	}
+
+	/**
+	 * PID制御のゲインを設定します。
+	 * @param pidGains PID制御のゲイン[ファン][比例,積分,微分]
+	 */
+	public void setPidGains(double[][] pidGains) {
+	    this.pidGains = pidGains;
+	}
+
+	/**
+	 * 制御に使用する温度の式を取得します。
+	 * @return 制御に使用する温度の式
+	 */
+	public SensorProgram[] getSensorPrograms() {
+	    return sensorPrograms;
+	}
+
+	/**
+	 * 制御に使用する温度の式を設定します。
+	 * @param sensorPrograms 制御に使用する温度の式
+	 */
+	public void setSensorPrograms(SensorProgram[] sensorPrograms) {
+	    this.sensorPrograms = sensorPrograms;
+	}
+}
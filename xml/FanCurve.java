@@ -0,0 +1,109 @@
+package xml;
+
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+/**
+ * 温度からファン速度を求める変換表です。
+ * 設定の(温度,速度)の組から温度をインデックスとする配列を事前に作成し、
+ * 評価時は配列を1回参照するだけで速度を求めます。
+ * @author oilyoil
+ * @since 2026/10/18
+ * @version v0.1
+ */
+public final class FanCurve {
+
+	/** 温度をインデックスとしたファン速度(0-127) */
+	private final byte[] table;
+
+	private FanCurve(byte[] table){
+		this.table = table;
+	}
+
+	/**
+	 * 設定値から変換表を作成します。
+	 * 段階モードでは温度未満の最大の設定温度の速度(該当なしの場合は最小の設定温度の速度)、
+	 * 補間モードでは前後の設定温度の速度を線形補間した値になります。
+	 * @param points <温度,速度>の設定値(1件以上)
+	 * @param interpolate 線形補間する場合true
+	 * @return 変換表
+	 */
+	public static FanCurve compile(SortedMap<Integer, Integer> points, boolean interpolate){
+		int size = points.size();
+		int[] keys = new int[size];
+		int[] speeds = new int[size];
+
+		int i = 0;
+		for(Entry<Integer, Integer> entry : points.entrySet()){
+			keys[i] = Math.max(0, entry.getKey());
+			speeds[i] = entry.getValue();
+			i++;
+		}
+
+		byte[] table;
+		if( interpolate ){
+			table = new byte[keys[size - 1] + 1];
+			int point = 0;
+			for(int temperature = 0 ; temperature < table.length ; temperature++){
+				while( point < size - 1 && keys[point + 1] <= temperature ){
+					point++;
+				}
+
+				if( temperature <= keys[0] ){
+					table[temperature] = (byte) speeds[0];
+				} else if( point == size - 1 ){
+					table[temperature] = (byte) speeds[point];
+				} else {
+					table[temperature] = (byte) Math.round( speeds[point]
+							+ (double) ( speeds[point + 1] - speeds[point] ) * ( temperature - keys[point] )
+								/ ( keys[point + 1] - keys[point] ) );
+				}
+			}
+		} else {
+			//最大の設定温度を超えた温度(+1)で最後の速度になる
+			table = new byte[keys[size - 1] + 2];
+			int point = -1;
+			for(int temperature = 0 ; temperature < table.length ; temperature++){
+				while( point < size - 1 && keys[point + 1] < temperature ){
+					point++;
+				}
+				table[temperature] = (byte) speeds[Math.max(point, 0)];
+			}
+		}
+
+		return new FanCurve(table);
+	}
+
+	/**
+	 * 温度に対応するファン速度を取得します。
+	 * @param temperature 温度(切り上げ済みの整数)
+	 * @return ファン速度(0-127)
+	 */
+	public int speedAt(int temperature){
+		if( temperature < 0 ){
+			return table[0];
+		}
+		if( temperature >= table.length ){
+			return table[table.length - 1];
+		}
+		return table[temperature];
+	}
+
+	/**
+	 * 現在のファン速度を考慮して温度に対応するファン速度を取得します。
+	 * 速度を上げる場合は変換表の値をそのまま返します。
+	 * 下げる場合はヒステリシス幅を超えて温度が下がるまで現在の速度を維持し、
+	 * 境界付近の温度の揺れで速度が上下し続けないようにします。
+	 * @param temperature 温度(切り上げ済みの整数)
+	 * @param current 現在のファン速度
+	 * @param hysteresis ヒステリシス幅(℃)
+	 * @return ファン速度(0-127)
+	 */
+	public int speedAt(int temperature, int current, int hysteresis){
+		int speed = speedAt(temperature);
+		if( speed >= current || speedAt(temperature + hysteresis) < current ){
+			return speed;
+		}
+		return current;
+	}
+}
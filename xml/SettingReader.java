@@ -4,36 +4,70 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import expression.SensorExpression;
+import expression.SensorProgram;
+import filter.FilterChain;
+
 public class SettingReader {
 	private static final String REGEX_FAN_SPEED = "^(0|12[0-7]|1[0-1][0-9]|[1-9][0-9])$";
-	private static final String DEFAULT_FAN1 = "DefaultSpeedFan1";
-	private static final String DEFAULT_FAN2 = "DefaultSpeedFan2";
-	private static final String DEFAULT_FAN3 = "DefaultSpeedFan3";
-	private static final String DEFAULT_FAN4 = "DefaultSpeedFan4";
+	private static final String DEFAULT_FAN = "DefaultSpeedFan";
 	private static final String MONITOR_INTERVAL = "MonitorInterval";
+	private static final String MONITOR_INTERVAL_MILLIS = "MonitorIntervalMillis";
 	private static final String COM_PORT = "ArduinoSerialPortName";
 	private static final String CPU_CORE = "CPUCore";
 	private static final String CPU_NAME = "CPUName";
 	private static final String GPU_NAME = "GPUName";
 	private static final String OHM_PORT = "OpenHardwareMonitorPort";
-	private static final String FAN1_TEMP = "Fan1TargetTemperature";
-	private static final String FAN1_SPEED = "Fan1TargetSpeed";
-	private static final String FAN2_TEMP = "Fan2TargetTemperature";
-	private static final String FAN2_SPEED = "Fan3TargetSpeed";
-	private static final String FAN3_TEMP = "Fan3TargetTemperature";
-	private static final String FAN3_SPEED = "Fan3TargetSpeed";
-	private static final String FAN4_TEMP = "Fan4TargetTemperature";
-	private static final String FAN4_SPEED = "Fan4TargetSpeed";
+	private static final String OHM_PARSE_MODE = "OpenHardwareMonitorParseMode";
+	private static final String OHM_CONNECT_TIMEOUT = "OpenHardwareMonitorConnectTimeout";
+	private static final String OHM_READ_TIMEOUT = "OpenHardwareMonitorReadTimeout";
+	private static final String FAN = "Fan";
+	private static final String FAN_TEMP = "TargetTemperature";
+	private static final String FAN_SPEED = "TargetSpeed";
+	private static final String FAN_COUNT = "FanCount";
+	private static final String FAN_HYSTERESIS = "Hysteresis";
+	private static final String FAN_CONTROL = "Control";
+	private static final String FAN_PID_TARGET = "PidTarget";
+	private static final String FAN_PID_GAINS = "PidGains";
+	private static final String FAN_SENSOR = "Sensor";
+	private static final String REGEX_PID_GAINS = "^\\d{1,4}(\\.\\d{1,6})?(,\\d{1,4}(\\.\\d{1,6})?){2}$";
+	private static final String CRITICAL_TEMPERATURE = "CriticalTemperature";
+	private static final String EMERGENCY_RISE_RATE = "EmergencyRiseRate";
+	private static final String SEND_BURST = "SendBurst";
+	private static final String SEND_TOKEN_INTERVAL = "SendTokenInterval";
+	private static final String CPU_FILTER = "CPUFilter";
+	private static final String SENSOR_SOURCE = "SensorSource";
+	private static final String HWMON_PATH = "HwmonPath";
+	private static final String HWMON_CPU_CHIPS = "HwmonCpuChips";
+	private static final String HWMON_GPU_CHIPS = "HwmonGpuChips";
+	private static final String GPU_FILTER = "GPUFilter";
+	private static final String SENSOR_FILTER = "SensorFilter";
+	private static final String DEVICE_COUNT = "DeviceCount";
+	private static final String DEVICE = "Device";
+	private static final String FAN_CURVE_MODE = "FanCurveMode";
+	private static final String METRICS_PORT = "MetricsPort";
+	private static final String ARDUINO_MAX_RATE = "ArduinoMaxRate";
+	private static final String HISTORY_DIRECTORY = "HistoryDirectory";
+	private static final String HISTORY_CAPACITY = "HistoryCapacity";
+	private static final String RECORD_DIRECTORY = "RecordDirectory";
+	private static final String LOG_LEVEL = "LogLevel";
 
 	Properties option;
 	Settings setting;
 	private final String FILE_PATH;
 
+	/** 値が不正だったキー */
+	private final ArrayList<String> errors = new ArrayList<String>();
+
 	public SettingReader(String filePath) throws FileNotFoundException, IOException{
 		this.FILE_PATH = filePath;
 		try( FileInputStream configFile = new FileInputStream( new File(this.FILE_PATH) ) ){
@@ -42,41 +76,77 @@ public class SettingReader {
 		}
 	}
 
+	/**
+	 * 読み込み済みの設定ファイルの内容から設定を読み込みます。
+	 * 記録した設定の再生など、ファイル以外から読み込む場合に使用します。
+	 * @param filePath 設定ファイルのパス(表示用)
+	 * @param content 設定ファイルの内容。閉じられます
+	 * @throws IOException 読み込み失敗時
+	 */
+	public SettingReader(String filePath, InputStream content) throws IOException{
+		this.FILE_PATH = filePath;
+		try( InputStream configFile = content ){
+			option = new Properties();
+			option.loadFromXML(configFile);
+		}
+	}
+
 	public Settings getSetting(boolean reOpen){
 		if( setting == null || reOpen){
 			setting = new Settings();
+			errors.clear();
+
+			//PC監視間隔取得(秒指定,ミリ秒指定があればそちらを優先)
+			if( isValid(MONITOR_INTERVAL, "\\d{1,6}") ){
+				setting.setMonitorInterval( Integer.parseInt(option.getProperty(MONITOR_INTERVAL)) * 1000 );
+			}
+
+			if( isValid(MONITOR_INTERVAL_MILLIS, "\\d{1,9}") ){
+				setting.setMonitorInterval( Integer.parseInt(option.getProperty(MONITOR_INTERVAL_MILLIS)) );
+			}
 
-			/** デフォルトのファン速度 */
-			int[] defaultFanSpeed = {60, 60, 60, 60};
+			//OpenHardwareMonitorポート取得
+			if( isValid(OHM_PORT, "\\d+") ){
+				setting.setPort( option.getProperty(OHM_PORT) );
+			}
 
-			/** ファン速度設定値 */
-			ArrayList<SortedMap<Integer, Integer>> fanSpeedSettings = new ArrayList<SortedMap<Integer, Integer>>();
+			//OpenHardwareMonitor解析モード取得(stream:ストリーム解析, tree:JSONICで全体をデコード)
+			if( option.containsKey(OHM_PARSE_MODE) ){
+				setting.setOhmStreamParse( !"tree".equalsIgnoreCase(option.getProperty(OHM_PARSE_MODE).trim()) );
+			}
 
-			//デフォルト設定
-			TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
-			map.put(0, 60);
+			//OpenHardwareMonitor接続タイムアウト取得(ms)
+			if( isValid(OHM_CONNECT_TIMEOUT, "\\d{1,9}") ){
+				setting.setOhmConnectTimeout( Integer.parseInt(option.getProperty(OHM_CONNECT_TIMEOUT)) );
+			}
 
-			for(int i = 0 ; i < 4 ; i++){
-				fanSpeedSettings.add(map);
+			//OpenHardwareMonitor読み込みタイムアウト取得(ms)
+			if( isValid(OHM_READ_TIMEOUT, "\\d{1,9}") ){
+				setting.setOhmReadTimeout( Integer.parseInt(option.getProperty(OHM_READ_TIMEOUT)) );
 			}
 
-			//COMポート名取得
-			if( option.containsKey(COM_PORT) ){
-				setting.setComPort(option.getProperty(COM_PORT));
+			//温度の取得元取得(ohm:OpenHardwareMonitor, hwmon:Linuxのhwmon)
+			if( isValid(SENSOR_SOURCE, "(?i)ohm|hwmon") ){
+				setting.setHwmonSource( "hwmon".equalsIgnoreCase(option.getProperty(SENSOR_SOURCE)) );
 			}
 
-			//PC監視間隔取得
-			if( option.containsKey(MONITOR_INTERVAL) && option.getProperty(MONITOR_INTERVAL).matches("\\d+")){
-				setting.setMonitorInterval( Integer.parseInt(option.getProperty(MONITOR_INTERVAL)) );
+			//hwmonのパス取得
+			if( option.containsKey(HWMON_PATH) ){
+				setting.setHwmonPath( option.getProperty(HWMON_PATH).trim() );
 			}
 
-			//OpenHardwareMonitorポート取得
-			if( option.containsKey(OHM_PORT) && option.getProperty(OHM_PORT).matches("\\d+") ){
-				setting.setPort( option.getProperty(OHM_PORT) );
+			//hwmonのCPUチップ名取得(カンマ区切り,優先順)
+			if( option.containsKey(HWMON_CPU_CHIPS) ){
+				setting.setHwmonCpuChips( option.getProperty(HWMON_CPU_CHIPS) );
+			}
+
+			//hwmonのGPUチップ名取得(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用)
+			if( option.containsKey(HWMON_GPU_CHIPS) ){
+				setting.setHwmonGpuChips( option.getProperty(HWMON_GPU_CHIPS) );
 			}
 
 			//CPU物理コア数取得
-			if( option.containsKey(CPU_CORE) && option.getProperty(CPU_CORE).matches("\\d+") ){
+			if( isValid(CPU_CORE, "\\d+") ){
 				setting.setCpuCore( Integer.parseInt(option.getProperty(CPU_CORE)) );
 			}
 
@@ -90,145 +160,292 @@ public class SettingReader {
 				setting.setGpuName( option.getProperty(GPU_NAME) );
 			}
 
+			//Arduinoとのv2通信の最大通信レート取得(0:v1で通信)
+			if( isValid(ARDUINO_MAX_RATE, "\\d{1,6}") ){
+				setting.setArduinoMaxRate( Integer.parseInt(option.getProperty(ARDUINO_MAX_RATE)) );
+			}
 
-			//デフォルトファン速度取得
-			if( option.containsKey(DEFAULT_FAN1) && option.getProperty(DEFAULT_FAN1).matches(REGEX_FAN_SPEED) ){
-				defaultFanSpeed[0] = Integer.parseInt(option.getProperty(DEFAULT_FAN1));
+			//計測値公開用HTTPポート取得(ループバックのみ,0:公開しない)
+			if( isValid(METRICS_PORT, "\\d{1,5}") && Integer.parseInt(option.getProperty(METRICS_PORT)) <= 65535 ){
+				setting.setMetricsPort( Integer.parseInt(option.getProperty(METRICS_PORT)) );
 			}
 
-			if( option.containsKey(DEFAULT_FAN2) && option.getProperty(DEFAULT_FAN2).matches(REGEX_FAN_SPEED) ){
-				defaultFanSpeed[1] = Integer.parseInt(option.getProperty(DEFAULT_FAN2));
+			//履歴ファイルの保存先取得
+			if( option.containsKey(HISTORY_DIRECTORY) ){
+				setting.setHistoryDirectory( option.getProperty(HISTORY_DIRECTORY) );
 			}
 
-			if( option.containsKey(DEFAULT_FAN3) && option.getProperty(DEFAULT_FAN3).matches(REGEX_FAN_SPEED) ){
-				defaultFanSpeed[2] = Integer.parseInt(option.getProperty(DEFAULT_FAN3));
+			//履歴の保持件数取得(0:記録しない)
+			if( isValid(HISTORY_CAPACITY, "\\d{1,8}") ){
+				setting.setHistoryCapacity( Integer.parseInt(option.getProperty(HISTORY_CAPACITY)) );
 			}
 
-			if( option.containsKey(DEFAULT_FAN4) && option.getProperty(DEFAULT_FAN4).matches(REGEX_FAN_SPEED) ){
-				defaultFanSpeed[3] = Integer.parseInt(option.getProperty(DEFAULT_FAN4));
+			//記録ファイルの出力先取得(空文字:記録しない)
+			if( option.containsKey(RECORD_DIRECTORY) ){
+				setting.setRecordDirectory( option.getProperty(RECORD_DIRECTORY).trim() );
 			}
 
-			setting.setDefaultFanSpeed(defaultFanSpeed);
+			//イベントログの重要度取得(debug:制御周期ごとの現在のファン速度も出力, info, warn, error)
+			if( isValid(LOG_LEVEL, "(?i)debug|info|warn|error") ){
+				setting.setLogLevel( option.getProperty(LOG_LEVEL).toUpperCase(Locale.ROOT) );
+			}
 
-			String[] speed;
-			String[] temp;
-			if( option.containsKey(FAN1_TEMP) && option.containsKey(FAN1_SPEED) ){
-				temp = option.getProperty(FAN1_TEMP).split(",");
-				speed = option.getProperty(FAN1_SPEED).split(",");
-				if( temp.length == speed.length ){
-					boolean isError = false;
-					for(String val: temp){
-						if(!val.matches("^\\d{1,3}$")){
-							isError = true;
-						}
-					}
+			//緊急送信する温度取得(℃)
+			if( isValid(CRITICAL_TEMPERATURE, "\\d{1,3}") ){
+				setting.setCriticalTemperature( Integer.parseInt(option.getProperty(CRITICAL_TEMPERATURE)) );
+			}
+
+			//緊急送信する温度上昇率取得(℃/秒,0:判定しない)
+			if( isValid(EMERGENCY_RISE_RATE, "\\d{1,3}") ){
+				setting.setEmergencyRiseRate( Integer.parseInt(option.getProperty(EMERGENCY_RISE_RATE)) );
+			}
 
-					for(String val: speed){
-						if(!val.matches(REGEX_FAN_SPEED)){
-							isError = true;
-						}
-					}
+			//連続して送信できる回数取得
+			if( isValid(SEND_BURST, "[1-9]\\d{0,2}") ){
+				setting.setSendBurst( Integer.parseInt(option.getProperty(SEND_BURST)) );
+			}
 
-					if(!isError){
-						TreeMap<Integer,Integer> targetFanSpeed = new TreeMap<Integer,Integer>();
-						for(int i = 0 ; i < temp.length ; i++){
-							targetFanSpeed.put(new Integer(temp[i]), new Integer(speed[i]));
-						}
+			//送信回数の回復間隔取得(秒,0:制限しない)
+			if( isValid(SEND_TOKEN_INTERVAL, "\\d{1,4}") ){
+				setting.setSendTokenInterval( Integer.parseInt(option.getProperty(SEND_TOKEN_INTERVAL)) );
+			}
 
-						fanSpeedSettings.set(0, targetFanSpeed);
-					}
-				}
+			//CPU温度のフィルタ取得(ex. median:5,ema:0.3)
+			if( isValid(CPU_FILTER, FilterChain.REGEX) ){
+				setting.setCpuFilter( option.getProperty(CPU_FILTER) );
+			}
+
+			//GPU温度のフィルタ取得
+			if( isValid(GPU_FILTER, FilterChain.REGEX) ){
+				setting.setGpuFilter( option.getProperty(GPU_FILTER) );
+			}
+
+			//センサー式で使用するセンサー(sensor(), sensors())のフィルタ取得
+			//CPUFilter, GPUFilterはcpu, gpuのみに適用されるため、設定しない場合センサー式のセンサーはフィルタ適用前の値となる
+			if( isValid(SENSOR_FILTER, FilterChain.REGEX) ){
+				setting.setSensorFilter( option.getProperty(SENSOR_FILTER) );
+			}
+
+			//ファン速度変換表の形式取得(step:段階, linear:線形補間)
+			if( option.containsKey(FAN_CURVE_MODE) ){
+				setting.setFanCurveInterpolation( "linear".equalsIgnoreCase(option.getProperty(FAN_CURVE_MODE).trim()) );
 			}
 
-			if( option.containsKey(FAN2_TEMP) && option.containsKey(FAN2_SPEED) ){
-				temp = option.getProperty(FAN2_TEMP).split(",");
-				speed = option.getProperty(FAN2_SPEED).split(",");
-				if( temp.length == speed.length ){
-					boolean isError = false;
-					for(String val: temp){
-						if(!val.matches("^\\d{1,3}$")){
-							isError = true;
-						}
-					}
-
-					for(String val: speed){
-						if(!val.matches(REGEX_FAN_SPEED)){
-							isError = true;
-						}
-					}
-
-					if(!isError){
-						TreeMap<Integer,Integer> targetFanSpeed = new TreeMap<Integer,Integer>();
-						for(int i = 0 ; i < temp.length ; i++){
-							targetFanSpeed.put(new Integer(temp[i]), new Integer(speed[i]));
-						}
-
-						fanSpeedSettings.set(1, targetFanSpeed);
-					}
+			//Arduinoごとの設定取得(DeviceCountがなければ従来形式の1台分)
+			ArrayList<DeviceSettings> devices = new ArrayList<DeviceSettings>();
+			if( isValid(DEVICE_COUNT, "[1-9]\\d{0,3}") ){
+				int deviceCount = Integer.parseInt(option.getProperty(DEVICE_COUNT));
+				for(int d = 1 ; d <= deviceCount ; d++){
+					devices.add( readDevice(DEVICE + d) );
 				}
+			} else {
+				devices.add( readDevice("") );
+			}
+			setting.setDevices(devices);
+
+		}
+
+		return setting;
+	}
+
+	/**
+	 * Arduino1台分の設定を読み込みます。
+	 * @param prefix キーの接頭辞(ex. Device1, 従来形式の場合は空文字)
+	 * @return Arduino1台分の設定
+	 */
+	private DeviceSettings readDevice(String prefix){
+		//ファン数取得
+		int fanCount = DeviceSettings.DEFAULT_FAN_COUNT;
+		if( isValid(prefix + FAN_COUNT, "[1-9]\\d{0,2}") ){
+			fanCount = Integer.parseInt(option.getProperty(prefix + FAN_COUNT));
+		}
+
+		DeviceSettings device = new DeviceSettings(fanCount);
+
+		//COMポート名取得
+		if( option.containsKey(prefix + COM_PORT) ){
+			device.setComPort(option.getProperty(prefix + COM_PORT));
+		}
+
+		/** デフォルトのファン速度 */
+		int[] defaultFanSpeed = new int[fanCount];
+
+		/** ヒステリシス幅 */
+		int[] hysteresis = device.getHysteresis();
+
+		/** 制御方式 */
+		int[] controlMode = device.getControlMode();
+
+		/** PID制御の目標温度 */
+		int[] pidTarget = device.getPidTarget();
+
+		/** PID制御のゲイン */
+		double[][] pidGains = device.getPidGains();
+
+		/** 制御に使用する温度の式 */
+		SensorProgram[] sensorPrograms = device.getSensorPrograms();
+
+		/** ファン速度設定値 */
+		ArrayList<SortedMap<Integer, Integer>> fanSpeedSettings = new ArrayList<SortedMap<Integer, Integer>>();
+
+		//デフォルト設定
+		TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+		map.put(0, 60);
+
+		for(int i = 0 ; i < fanCount ; i++){
+			defaultFanSpeed[i] = 60;
+			fanSpeedSettings.add(map);
+		}
+
+		for(int i = 0 ; i < fanCount ; i++){
+			//デフォルトファン速度取得
+			String key = prefix + DEFAULT_FAN + (i + 1);
+			if( isValid(key, REGEX_FAN_SPEED) ){
+				defaultFanSpeed[i] = Integer.parseInt(option.getProperty(key));
 			}
 
-			if( option.containsKey(FAN3_TEMP) && option.containsKey(FAN3_SPEED) ){
-				temp = option.getProperty(FAN3_TEMP).split(",");
-				speed = option.getProperty(FAN3_SPEED).split(",");
-				if( temp.length == speed.length ){
-					boolean isError = false;
-					for(String val: temp){
-						if(!val.matches("^\\d{1,3}$")){
-							isError = true;
-						}
-					}
-
-					for(String val: speed){
-						if(!val.matches(REGEX_FAN_SPEED)){
-							isError = true;
-						}
-					}
-
-					if(!isError){
-						TreeMap<Integer,Integer> targetFanSpeed = new TreeMap<Integer,Integer>();
-						for(int i = 0 ; i < temp.length ; i++){
-							targetFanSpeed.put(new Integer(temp[i]), new Integer(speed[i]));
-						}
-
-						fanSpeedSettings.set(2, targetFanSpeed);
-					}
+			//ヒステリシス幅取得(℃)
+			key = prefix + FAN + (i + 1) + FAN_HYSTERESIS;
+			if( isValid(key, "\\d{1,2}") ){
+				hysteresis[i] = Integer.parseInt(option.getProperty(key));
+			}
+
+			//制御方式取得(curve:ファン速度変換表, pid:PID制御)
+			key = prefix + FAN + (i + 1) + FAN_CONTROL;
+			if( isValid(key, "(?i)curve|pid") ){
+				controlMode[i] = "pid".equalsIgnoreCase(option.getProperty(key)) ? DeviceSettings.CONTROL_PID : DeviceSettings.CONTROL_CURVE;
+			}
+
+			//PID制御の目標温度取得(℃)
+			key = prefix + FAN + (i + 1) + FAN_PID_TARGET;
+			if( isValid(key, "\\d{1,3}") ){
+				pidTarget[i] = Integer.parseInt(option.getProperty(key));
+			}
+
+			//PID制御のゲイン取得(比例,積分,微分)
+			key = prefix + FAN + (i + 1) + FAN_PID_GAINS;
+			if( isValid(key, REGEX_PID_GAINS) ){
+				String[] gains = option.getProperty(key).split(",");
+				for(int g = 0 ; g < gains.length ; g++){
+					pidGains[i][g] = Double.parseDouble(gains[g]);
 				}
 			}
 
-			if( option.containsKey(FAN4_TEMP) && option.containsKey(FAN4_SPEED) ){
-				temp = option.getProperty(FAN4_TEMP).split(",");
-				speed = option.getProperty(FAN4_SPEED).split(",");
-				if( temp.length == speed.length ){
-					boolean isError = false;
-					for(String val: temp){
-						if(!val.matches("^\\d{1,3}$")){
-							isError = true;
-						}
-					}
-
-					for(String val: speed){
-						if(!val.matches(REGEX_FAN_SPEED)){
-							isError = true;
-						}
-					}
-
-					if(!isError){
-						TreeMap<Integer,Integer> targetFanSpeed = new TreeMap<Integer,Integer>();
-						for(int i = 0 ; i < temp.length ; i++){
-							targetFanSpeed.put(new Integer(temp[i]), new Integer(speed[i]));
-						}
-
-						fanSpeedSettings.set(3, targetFanSpeed);
-					}
+			//制御に使用する温度の式取得(ex. max(cpu, gpu), max(sensors("GPU Core")))
+			//cpu, gpuはCPUFilter, GPUFilter, sensor(), sensors()はSensorFilterを適用した値
+			key = prefix + FAN + (i + 1) + FAN_SENSOR;
+			if( option.containsKey(key) ){
+				try{
+					sensorPrograms[i] = SensorExpression.compile(option.getProperty(key), setting.getSensorPatterns());
+				}catch(IllegalArgumentException e){
+					errors.add(key);
 				}
 			}
 
-			setting.setFanSpeedSettings(fanSpeedSettings);
+			//ファン速度設定値取得
+			SortedMap<Integer, Integer> targetFanSpeed = readFanSpeed(prefix + FAN + (i + 1));
+			if( targetFanSpeed != null ){
+				fanSpeedSettings.set(i, targetFanSpeed);
+			}
+		}
 
+		device.setDefaultFanSpeed(defaultFanSpeed);
+		device.setFanSpeedSettings(fanSpeedSettings);
+		device.setHysteresis(hysteresis);
+		device.setControlMode(controlMode);
+		device.setPidTarget(pidTarget);
+		device.setPidGains(pidGains);
+		device.setSensorPrograms(sensorPrograms);
+
+		//ファン速度変換表作成
+		FanCurve[] fanCurves = new FanCurve[fanCount];
+		for(int i = 0 ; i < fanCount ; i++){
+			fanCurves[i] = FanCurve.compile(fanSpeedSettings.get(i), setting.isFanCurveInterpolation());
 		}
+		device.setFanCurves(fanCurves);
 
-		return setting;
+		return device;
+	}
+
+	/**
+	 * ファン1つ分の<温度,速度>の設定値を読み込みます。
+	 * @param prefix キーの接頭辞(ex. Fan1, Device1Fan1)
+	 * @return <温度,速度>の設定値, 設定がないか不正な場合null
+	 */
+	private SortedMap<Integer, Integer> readFanSpeed(String prefix){
+		if( !option.containsKey(prefix + FAN_TEMP) && !option.containsKey(prefix + FAN_SPEED) ){
+			return null;
+		}
+
+		if( !option.containsKey(prefix + FAN_TEMP) || !option.containsKey(prefix + FAN_SPEED) ){
+			errors.add(prefix);
+			return null;
+		}
+
+		String[] temp = option.getProperty(prefix + FAN_TEMP).split(",");
+		String[] speed = option.getProperty(prefix + FAN_SPEED).split(",");
+		if( temp.length != speed.length ){
+			errors.add(prefix);
+			return null;
+		}
+
+		for(String val: temp){
+			if(!val.matches("^\\d{1,3}$")){
+				errors.add(prefix + FAN_TEMP);
+				return null;
+			}
+		}
+
+		for(String val: speed){
+			if(!val.matches(REGEX_FAN_SPEED)){
+				errors.add(prefix + FAN_SPEED);
+				return null;
+			}
+		}
+
+		TreeMap<Integer,Integer> targetFanSpeed = new TreeMap<Integer,Integer>();
+		for(int i = 0 ; i < temp.length ; i++){
+			targetFanSpeed.put(new Integer(temp[i]), new Integer(speed[i]));
+		}
+
+		return targetFanSpeed;
+	}
+
+	/**
+	 * 設定値が形式に合っているか判定します。
+	 * 設定があるのに形式に合わない場合は不正なキーとして記録します。
+	 * @param key キー
+	 * @param regex 形式
+	 * @return 設定があり形式に合っている場合true
+	 */
+	private boolean isValid(String key, String regex){
+		if( !option.containsKey(key) ){
+			return false;
+		}
+
+		if( !option.getProperty(key).matches(regex) ){
+			errors.add(key);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * 直前のgetSetting()で値が不正だったキーを取得します。
+	 * 不正な値は無視され、デフォルト値が使用されています。
+	 * @return 値が不正だったキー(なければ空)
+	 */
+	public List<String> getErrors(){
+		return Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * 設定ファイルのパスを取得します。
+	 * @return 設定ファイルのパス
+	 */
+	public String getFilePath(){
+		return FILE_PATH;
 	}
 
 }
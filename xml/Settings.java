@@ -1,19 +1,17 @@
 package xml;
 
 import java.util.ArrayList;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 public class Settings {
 
-	/** デフォルトのファン速度 */
-	private int[] defaultFanSpeed = {80, 80, 80, 80};
+	/** Arduinoごとの設定 */
+	private ArrayList<DeviceSettings> devices = new ArrayList<DeviceSettings>();
 
-	/** ファン速度設定値 */
-	private ArrayList<SortedMap<Integer, Integer>> fanSpeedSettings = new ArrayList<SortedMap<Integer, Integer>>();
+	/** ファン速度変換表を線形補間するか */
+	private boolean fanCurveInterpolation = false;
 
-	/** PC監視間隔 */
-	private int monitorInterval = 1;
+	/** PC監視間隔(ms) */
+	private int monitorInterval = 1000;
 
 	/** CPU物理コア数 */
 	private int cpuCore = 4;
@@ -27,54 +25,109 @@ public class Settings {
 	/** OpenHardwareMonitorポート番号 */
 	private String port = "8085";
 
-	/** COMポート名 */
-	private String comPort = "COM3";
+	/** OpenHardwareMonitorのレスポンスをストリーム解析するか */
+	private boolean ohmStreamParse = true;
+
+	/** OpenHardwareMonitor接続タイムアウト(ms) */
+	private int ohmConnectTimeout = 1000;
+
+	/** OpenHardwareMonitor読み込みタイムアウト(ms) */
+	private int ohmReadTimeout = 2000;
+
+	/** 計測値公開用HTTPポート(0:公開しない) */
+	private int metricsPort = 0;
+
+	/** 履歴ファイルの保存先 */
+	private String historyDirectory = "history";
+
+	/** 履歴の保持件数(Arduino1台あたり,0:記録しない) */
+	private int historyCapacity = 86400;
+
+	/** Arduinoとのv2通信の最大通信レート(0:v1で通信) */
+	private int arduinoMaxRate = 115200;
+
+	/** 緊急送信する温度(℃) */
+	private int criticalTemperature = 90;
+
+	/** 緊急送信する温度上昇率(℃/秒,0:判定しない) */
+	private int emergencyRiseRate = 3;
+
+	/** 連続して送信できる回数 */
+	private int sendBurst = 3;
+
+	/** 送信回数の回復間隔(秒,0:制限しない) */
+	private int sendTokenInterval = 5;
+
+	/** CPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし) */
+	private String cpuFilter = "";
+
+	/** GPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし) */
+	private String gpuFilter = "";
+
+	/** センサー式で使用するセンサーのフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし) */
+	private String sensorFilter = "";
+
+	/** 温度をLinuxのhwmonから取得するか(false:OpenHardwareMonitor) */
+	private boolean hwmonSource = false;
+
+	/** hwmonのパス */
+	private String hwmonPath = "/sys/class/hwmon";
+
+	/** hwmonのCPUチップ名(カンマ区切り,優先順) */
+	private String hwmonCpuChips = "coretemp,k10temp,zenpower,cpu_thermal";
+
+	/** hwmonのGPUチップ名(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用) */
+	private String hwmonGpuChips = "amdgpu,nouveau,radeon";
+
+	/** 記録ファイルの出力先ディレクトリ(空文字:記録しない) */
+	private String recordDirectory = "";
+
+	/** イベントログの重要度(DEBUG, INFO, WARN, ERROR) */
+	private String logLevel = "INFO";
+
+	/** センサー式のパターン(番号順) */
+	private ArrayList<String> sensorPatterns = new ArrayList<String>();
 
 	protected Settings(){
 		//デフォルト設定
-		TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
-		map.put(0, 60);
-
-		for(int i = 0 ; i < 4 ; i++){
-			fanSpeedSettings.add(map);
-		}
+		devices.add(new DeviceSettings(DeviceSettings.DEFAULT_FAN_COUNT));
 	}
 
 	/**
-	 * デフォルトのファン速度を取得します。
-	 * @return デフォルトのファン速度
+	 * Arduinoごとの設定を取得します。
+	 * @return Arduinoごとの設定
 	 */
-	public int[] getDefaultFanSpeed() {
-	    return defaultFanSpeed;
+	public ArrayList<DeviceSettings> getDevices() {
+	    return devices;
 	}
 
 	/**
-	 * デフォルトのファン速度を設定します。
-	 * @param defaultFanSpeed デフォルトのファン速度
+	 * Arduinoごとの設定を設定します。
+	 * @param devices Arduinoごとの設定
 	 */
-	public void setDefaultFanSpeed(int[] defaultFanSpeed) {
-	    this.defaultFanSpeed = defaultFanSpeed;
+	public void setDevices(ArrayList<DeviceSettings> devices) {
+	    this.devices = devices;
 	}
 
 	/**
-	 * ファン速度設定値を取得します。
-	 * @return ファン速度設定値
+	 * ファン速度変換表を線形補間するかを取得します。
+	 * @return 線形補間する場合true
 	 */
-	public ArrayList<SortedMap<Integer,Integer>> getFanSpeedSettings() {
-	    return fanSpeedSettings;
+	public boolean isFanCurveInterpolation() {
+	    return fanCurveInterpolation;
 	}
 
 	/**
-	 * ファン速度設定値を設定します。
-	 * @param fanSpeedSettings ファン速度設定値
+	 * ファン速度変換表を線形補間するかを設定します。
+	 * @param fanCurveInterpolation 線形補間する場合true
 	 */
-	public void setFanSpeedSettings(ArrayList<SortedMap<Integer,Integer>> fanSpeedSettings) {
-	    this.fanSpeedSettings = fanSpeedSettings;
+	public void setFanCurveInterpolation(boolean fanCurveInterpolation) {
+	    this.fanCurveInterpolation = fanCurveInterpolation;
 	}
 
 	/**
 	 * PC監視間隔を取得します。
-	 * @return PC監視間隔
+	 * @return PC監視間隔(ms)
 	 */
 	public int getMonitorInterval() {
 	    return monitorInterval;
@@ -82,7 +135,7 @@ public class Settings {
 
 	/**
 	 * PC監視間隔を設定します。
-	 * @param monitorInterval PC監視間隔
+	 * @param monitorInterval PC監視間隔(ms)
 	 */
 	public void setMonitorInterval(int monitorInterval) {
 	    this.monitorInterval = monitorInterval;
@@ -153,18 +206,338 @@ public class Settings {
 	}
 
 	/**
-	 * COMポート名を取得します。
-	 * @return COMポート名
+	 * OpenHardwareMonitorのレスポンスをストリーム解析するかを取得します。
+	 * @return ストリーム解析する場合true、JSONICで全体をデコードする場合false
+	 */
+	public boolean isOhmStreamParse() {
+	    return ohmStreamParse;
+	}
+
+	/**
+	 * OpenHardwareMonitorのレスポンスをストリーム解析するかを設定します。
+	 * @param ohmStreamParse ストリーム解析する場合true、JSONICで全体をデコードする場合false
+	 */
+	public void setOhmStreamParse(boolean ohmStreamParse) {
+	    this.ohmStreamParse = ohmStreamParse;
+	}
+
+	/**
+	 * OpenHardwareMonitor接続タイムアウトを取得します。
+	 * @return OpenHardwareMonitor接続タイムアウト(ms)
+	 */
+	public int getOhmConnectTimeout() {
+	    return ohmConnectTimeout;
+	}
+
+	/**
+	 * OpenHardwareMonitor接続タイムアウトを設定します。
+	 * @param ohmConnectTimeout OpenHardwareMonitor接続タイムアウト(ms)
+	 */
+	public void setOhmConnectTimeout(int ohmConnectTimeout) {
+	    this.ohmConnectTimeout = ohmConnectTimeout;
+	}
+
+	/**
+	 * OpenHardwareMonitor読み込みタイムアウトを取得します。
+	 * @return OpenHardwareMonitor読み込みタイムアウト(ms)
+	 */
+	public int getOhmReadTimeout() {
+	    return ohmReadTimeout;
+	}
+
+	/**
+	 * OpenHardwareMonitor読み込みタイムアウトを設定します。
+	 * @param ohmReadTimeout OpenHardwareMonitor読み込みタイムアウト(ms)
+	 */
+	public void setOhmReadTimeout(int ohmReadTimeout) {
+	    this.ohmReadTimeout = ohmReadTimeout;
+	}
+
+	/**
+	 * 計測値公開用HTTPポートを取得します。
+	 * @return 計測値公開用HTTPポート(0:公開しない)
+	 */
+	public int getMetricsPort() {
+	    return metricsPort;
+	}
+
+	/**
+	 * 計測値公開用HTTPポートを設定します。
+	 * @param metricsPort 計測値公開用HTTPポート(0:公開しない)
+	 */
+	public void setMetricsPort(int metricsPort) {
+	    this.metricsPort = metricsPort;
+	}
+
+	/**
+	 * 履歴ファイルの保存先を取得します。
+	 * @return 履歴ファイルの保存先
+	 */
+	public String getHistoryDirectory() {
+	    return historyDirectory;
+	}
+
+	/**
+	 * 履歴ファイルの保存先を設定します。
+	 * @param historyDirectory 履歴ファイルの保存先
+	 */
+	public void setHistoryDirectory(String historyDirectory) {
+	    this.historyDirectory = historyDirectory;
+	}
+
+	/**
+	 * 履歴の保持件数を取得します。
+	 * @return 履歴の保持件数(Arduino1台あたり,0:記録しない)
+	 */
+	public int getHistoryCapacity() {
+	    return historyCapacity;
+	}
+
+	/**
+	 * 履歴の保持件数を設定します。
+	 * @param historyCapacity 履歴の保持件数(Arduino1台あたり,0:記録しない)
+	 */
+	public void setHistoryCapacity(int historyCapacity) {
+	    this.historyCapacity = historyCapacity;
+	}
+
+	/**
+	 * Arduinoとのv2通信の最大通信レートを取得します。
+	 * @return Arduinoとのv2通信の最大通信レート(0:v1で通信)
+	 */
+	public int getArduinoMaxRate() {
+	    return arduinoMaxRate;
+	}
+
+	/**
+	 * Arduinoとのv2通信の最大通信レートを設定します。
+	 * @param arduinoMaxRate Arduinoとのv2通信の最大通信レート(0:v1で通信)
+	 */
+	public void setArduinoMaxRate(int arduinoMaxRate) {
+	    this.arduinoMaxRate = arduinoMaxRate;
+	}
+
+	/**
+	 * 緊急送信する温度を取得します。
+	 * @return 緊急送信する温度(℃)
+	 */
+	public int getCriticalTemperature() {
+	    return criticalTemperature;
+	}
+
+	/**
+	 * 緊急送信する温度を設定します。
+	 * @param criticalTemperature 緊急送信する温度(℃)
+	 */
+	public void setCriticalTemperature(int criticalTemperature) {
+	    this.criticalTemperature = criticalTemperature;
+	}
+
+	/**
+	 * 緊急送信する温度上昇率を取得します。
+	 * @return 緊急送信する温度上昇率(℃/秒,0:判定しない)
+	 */
+	public int getEmergencyRiseRate() {
+	    return emergencyRiseRate;
+	}
+
+	/**
+	 * 緊急送信する温度上昇率を設定します。
+	 * @param emergencyRiseRate 緊急送信する温度上昇率(℃/秒,0:判定しない)
+	 */
+	public void setEmergencyRiseRate(int emergencyRiseRate) {
+	    this.emergencyRiseRate = emergencyRiseRate;
+	}
+
+	/**
+	 * 連続して送信できる回数を取得します。
+	 * @return 連続して送信できる回数
+	 */
+	public int getSendBurst() {
+	    return sendBurst;
+	}
+
+	/**
+	 * 連続して送信できる回数を設定します。
+	 * @param sendBurst 連続して送信できる回数
+	 */
+	public void setSendBurst(int sendBurst) {
+	    this.sendBurst = sendBurst;
+	}
+
+	/**
+	 * 送信回数の回復間隔を取得します。
+	 * @return 送信回数の回復間隔(秒,0:制限しない)
+	 */
+	public int getSendTokenInterval() {
+	    return sendTokenInterval;
+	}
+
+	/**
+	 * 送信回数の回復間隔を設定します。
+	 * @param sendTokenInterval 送信回数の回復間隔(秒,0:制限しない)
+	 */
+	public void setSendTokenInterval(int sendTokenInterval) {
+	    this.sendTokenInterval = sendTokenInterval;
+	}
+
+	/**
+	 * CPU温度のフィルタを取得します。
+	 * @return CPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public String getCpuFilter() {
+	    return cpuFilter;
+	}
+
+	/**
+	 * CPU温度のフィルタを設定します。
+	 * @param cpuFilter CPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public void setCpuFilter(String cpuFilter) {
+	    this.cpuFilter = cpuFilter;
+	}
+
+	/**
+	 * GPU温度のフィルタを取得します。
+	 * @return GPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public String getGpuFilter() {
+	    return gpuFilter;
+	}
+
+	/**
+	 * GPU温度のフィルタを設定します。
+	 * @param gpuFilter GPU温度のフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public void setGpuFilter(String gpuFilter) {
+	    this.gpuFilter = gpuFilter;
+	}
+
+	/**
+	 * センサー式で使用するセンサーのフィルタを取得します。
+	 * @return センサー式で使用するセンサーのフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public String getSensorFilter() {
+	    return sensorFilter;
+	}
+
+	/**
+	 * センサー式で使用するセンサーのフィルタを設定します。
+	 * @param sensorFilter センサー式で使用するセンサーのフィルタ(ex. median:5,ema:0.3, 空文字:フィルタなし)
+	 */
+	public void setSensorFilter(String sensorFilter) {
+	    this.sensorFilter = sensorFilter;
+	}
+
+	/**
+	 * 温度をLinuxのhwmonから取得するかを取得します。
+	 * @return 温度をLinuxのhwmonから取得するか(false:OpenHardwareMonitor)
+	 */
+	public boolean isHwmonSource() {
+	    return hwmonSource;
+	}
+
+	/**
+	 * 温度をLinuxのhwmonから取得するかを設定します。
+	 * @param hwmonSource 温度をLinuxのhwmonから取得するか(false:OpenHardwareMonitor)
+	 */
+	public void setHwmonSource(boolean hwmonSource) {
+	    this.hwmonSource = hwmonSource;
+	}
+
+	/**
+	 * hwmonのパスを取得します。
+	 * @return hwmonのパス
+	 */
+	public String getHwmonPath() {
+	    return hwmonPath;
+	}
+
+	/**
+	 * hwmonのパスを設定します。
+	 * @param hwmonPath hwmonのパス
+	 */
+	public void setHwmonPath(String hwmonPath) {
+	    this.hwmonPath = hwmonPath;
+	}
+
+	/**
+	 * hwmonのCPUチップ名を取得します。
+	 * @return hwmonのCPUチップ名(カンマ区切り,優先順)
+	 */
+	public String getHwmonCpuChips() {
+	    return hwmonCpuChips;
+	}
+
+	/**
+	 * hwmonのCPUチップ名を設定します。
+	 * @param hwmonCpuChips hwmonのCPUチップ名(カンマ区切り,優先順)
+	 */
+	public void setHwmonCpuChips(String hwmonCpuChips) {
+	    this.hwmonCpuChips = hwmonCpuChips;
+	}
+
+	/**
+	 * hwmonのGPUチップ名を取得します。
+	 * @return hwmonのGPUチップ名(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用)
+	 */
+	public String getHwmonGpuChips() {
+	    return hwmonGpuChips;
+	}
+
+	/**
+	 * hwmonのGPUチップ名を設定します。
+	 * @param hwmonGpuChips hwmonのGPUチップ名(カンマ区切り,優先順,空文字:CPUパッケージ温度で代用)
+	 */
+	public void setHwmonGpuChips(String hwmonGpuChips) {
+	    this.hwmonGpuChips = hwmonGpuChips;
+	}
+
+	/**
+	 * 記録ファイルの出力先ディレクトリを取得します。
+	 * @return 記録ファイルの出力先ディレクトリ(空文字:記録しない)
+	 */
+	public String getRecordDirectory() {
+	    return recordDirectory;
+	}
+
+	/**
+	 * 記録ファイルの出力先ディレクトリを設定します。
+	 * @param recordDirectory 記録ファイルの出力先ディレクトリ(空文字:記録しない)
+	 */
+	public void setRecordDirectory(String recordDirectory) {
+	    this.recordDirectory = recordDirectory;
+	}
+
+	/**
+	 * イベントログの重要度を取得します。
+	 * @return イベントログの重要度(DEBUG, INFO, WARN, ERROR)
+	 */
+	public String getLogLevel() {
+	    return logLevel;
+	}
+
+	/**
+	 * イベントログの重要度を設定します。
+	 * @param logLevel イベントログの重要度(DEBUG, INFO, WARN, ERROR)
+	 */
+	public void setLogLevel(String logLevel) {
+	    this.logLevel = logLevel;
+	}
+
+	/**
+	 * センサー式のパターンを取得します。
+	 * @return センサー式のパターン(番号順)
 	 */
-	public String getComPort() {
-	    return comPort;
+	public ArrayList<String> getSensorPatterns() {
+	    return sensorPatterns;
 	}
 
 	/**
-	 * COMポート名を設定します。
-	 * @param comPort COMポート名
+	 * センサー式のパターンを設定します。
+	 * @param sensorPatterns センサー式のパターン(番号順)
 	 */
-	public void setComPort(String comPort) {
-	    this.comPort = comPort;
+	public void setSensorPatterns(ArrayList<String> sensorPatterns) {
+	    this.sensorPatterns = sensorPatterns;
 	}
 }